@@ -0,0 +1,33 @@
+package com.skm_labs.train_booking_system.config;
+
+import com.skm_labs.train_booking_system.dto.auth.SessionUser;
+import com.skm_labs.train_booking_system.service.SessionTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Session token configuration for the controllers
+ */
+@Configuration
+@RequiredArgsConstructor
+public class AuthConfig implements WebMvcConfigurer {
+    
+    static {
+        // Resolved from the Authorization header, not a request parameter
+        SpringDocUtils.getConfig().addRequestWrapperToIgnore(SessionUser.class);
+    }
+    
+    private final ObjectProvider<SessionTokenService> sessionTokenService;
+    
+    @Override
+    public void addArgumentResolvers(@NonNull List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new SessionUserArgumentResolver(sessionTokenService));
+    }
+}
\ No newline at end of file
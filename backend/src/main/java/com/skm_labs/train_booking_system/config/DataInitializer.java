@@ -1,12 +1,14 @@
 package com.skm_labs.train_booking_system.config;
 
 import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
 import com.skm_labs.train_booking_system.entity.Train;
 import com.skm_labs.train_booking_system.entity.User;
 import com.skm_labs.train_booking_system.entity.enums.TrainType;
 import com.skm_labs.train_booking_system.repository.ScheduleRepository;
 import com.skm_labs.train_booking_system.repository.TrainRepository;
 import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.PasswordService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -14,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -28,6 +31,7 @@ public class DataInitializer implements CommandLineRunner {
     private final TrainRepository trainRepository;
     private final ScheduleRepository scheduleRepository;
     private final UserRepository userRepository;
+    private final PasswordService passwordService;
     
     @Override
     public void run(String... args) throws Exception {
@@ -41,6 +45,7 @@ public class DataInitializer implements CommandLineRunner {
             log.info("Sample data initialization completed successfully!");
         } else {
             log.info("Database already contains data. Skipping initialization.");
+            backfillStops();
         }
     }
     
@@ -109,7 +114,14 @@ public class DataInitializer implements CommandLineRunner {
                 createSchedule(trains.get(4), "Bangalore", "Chennai", tomorrow, 
                         LocalTime.of(6, 0), LocalTime.of(11, 30), 600.0),
                 createSchedule(trains.get(4), "Chennai", "Bangalore", tomorrow, 
-                        LocalTime.of(14, 0), LocalTime.of(19, 30), 600.0)
+                        LocalTime.of(14, 0), LocalTime.of(19, 30), 600.0),
+                
+                // Multi-stop Rajdhani Express schedule
+                createSchedule(trains.get(0), dayAfterTomorrow, 3000.0,
+                        new ScheduleStop("New Delhi", null, LocalTime.of(16, 0)),
+                        new ScheduleStop("Kota", LocalTime.of(20, 45), LocalTime.of(20, 55)),
+                        new ScheduleStop("Vadodara", LocalTime.of(3, 30), LocalTime.of(3, 40)),
+                        new ScheduleStop("Mumbai", LocalTime.of(8, 15), null))
         );
         
         scheduleRepository.saveAll(schedules);
@@ -129,7 +141,7 @@ public class DataInitializer implements CommandLineRunner {
     private User createUser(String email, String password, String firstName, String lastName, String phoneNumber) {
         User user = new User();
         user.setEmail(email);
-        user.setPassword(password); // In production, this should be hashed
+        user.setPassword(passwordService.hash(password).join());
         user.setFirstName(firstName);
         user.setLastName(lastName);
         user.setPhoneNumber(phoneNumber);
@@ -148,6 +160,36 @@ public class DataInitializer implements CommandLineRunner {
         schedule.setArrivalTime(arrivalTime);
         schedule.setFare(fare);
         schedule.setAvailableSeats(train.getTotalSeats());
+        schedule.setStops(new ArrayList<>(List.of(
+                new ScheduleStop(departureStation, null, departureTime),
+                new ScheduleStop(arrivalStation, arrivalTime, null))));
         return schedule;
     }
+    
+    private Schedule createSchedule(Train train, LocalDate departureDate, Double fare, ScheduleStop... stops) {
+        ScheduleStop first = stops[0];
+        ScheduleStop last = stops[stops.length - 1];
+        Schedule schedule = createSchedule(train, first.getStationName(), last.getStationName(), departureDate,
+                first.getDepartureTime(), last.getArrivalTime(), fare);
+        schedule.setStops(new ArrayList<>(Arrays.asList(stops)));
+        return schedule;
+    }
+    
+    /**
+     * Give schedules stored before stops were recorded their two endpoint stops
+     */
+    private void backfillStops() {
+        List<Schedule> schedules = scheduleRepository.findSchedulesWithoutStops();
+        if (schedules.isEmpty()) {
+            return;
+        }
+        
+        for (Schedule schedule : schedules) {
+            schedule.setStops(new ArrayList<>(List.of(
+                    new ScheduleStop(schedule.getDepartureStation(), null, schedule.getDepartureTime()),
+                    new ScheduleStop(schedule.getArrivalStation(), schedule.getArrivalTime(), null))));
+        }
+        scheduleRepository.saveAll(schedules);
+        log.info("Added endpoint stops to {} existing schedules", schedules.size());
+    }
 }
\ No newline at end of file
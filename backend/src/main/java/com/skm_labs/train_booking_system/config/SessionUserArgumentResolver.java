@@ -0,0 +1,42 @@
+package com.skm_labs.train_booking_system.config;
+
+import com.skm_labs.train_booking_system.dto.auth.SessionUser;
+import com.skm_labs.train_booking_system.exception.InvalidTokenException;
+import com.skm_labs.train_booking_system.service.SessionTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves SessionUser controller parameters from the bearer token in the
+ * Authorization header, so handlers get a verified user ID without a database lookup.
+ */
+@RequiredArgsConstructor
+public class SessionUserArgumentResolver implements HandlerMethodArgumentResolver {
+    
+    private static final String BEARER = "Bearer ";
+    
+    // Looked up on first use, so web slices without the token service still start
+    private final ObjectProvider<SessionTokenService> sessionTokenService;
+    
+    @Override
+    public boolean supportsParameter(@NonNull MethodParameter parameter) {
+        return SessionUser.class.equals(parameter.getParameterType());
+    }
+    
+    @Override
+    public SessionUser resolveArgument(@NonNull MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                       @NonNull NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        String authorization = webRequest.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            throw new InvalidTokenException("A bearer token from POST /users/login is required");
+        }
+        return sessionTokenService.getObject().verify(authorization.substring(BEARER.length()).trim());
+    }
+}
\ No newline at end of file
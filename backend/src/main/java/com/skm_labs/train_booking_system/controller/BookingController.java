@@ -1,12 +1,33 @@
 package com.skm_labs.train_booking_system.controller;
 
+import com.skm_labs.train_booking_system.dto.auth.SessionUser;
+import com.skm_labs.train_booking_system.dto.projection.BookingVersion;
+import com.skm_labs.train_booking_system.dto.request.AdmissionRequestDTO;
+import com.skm_labs.train_booking_system.dto.request.BatchBookingRequestDTO;
 import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
 import com.skm_labs.train_booking_system.dto.request.BookingUpdateDTO;
+import com.skm_labs.train_booking_system.dto.request.JourneySearchRequestDTO;
 import com.skm_labs.train_booking_system.dto.request.SearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.AdmissionTicketDTO;
 import com.skm_labs.train_booking_system.dto.response.ApiResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.BatchBookingResultDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingHistoryPageDTO;
 import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.CacheStatsDTO;
+import com.skm_labs.train_booking_system.dto.response.DailySearchResultDTO;
+import com.skm_labs.train_booking_system.dto.response.JourneyDTO;
 import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+import com.skm_labs.train_booking_system.dto.response.WaitlistEntryDTO;
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import com.skm_labs.train_booking_system.exception.UserAccessDeniedException;
+import com.skm_labs.train_booking_system.service.AdmissionService;
+import com.skm_labs.train_booking_system.service.BookingCacheService;
+import com.skm_labs.train_booking_system.service.BookingExecutorService;
 import com.skm_labs.train_booking_system.service.BookingService;
+import com.skm_labs.train_booking_system.service.JourneyPlannerService;
+import com.skm_labs.train_booking_system.service.ScheduleSearchService;
+import com.skm_labs.train_booking_system.service.SeatHoldService;
+import com.skm_labs.train_booking_system.service.WaitlistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -14,10 +35,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -31,6 +55,13 @@ import java.util.List;
 public class BookingController {
     
     private final BookingService bookingService;
+    private final SeatHoldService seatHoldService;
+    private final BookingExecutorService bookingExecutorService;
+    private final AdmissionService admissionService;
+    private final WaitlistService waitlistService;
+    private final BookingCacheService bookingCacheService;
+    private final ScheduleSearchService scheduleSearchService;
+    private final JourneyPlannerService journeyPlannerService;
     
     @Operation(summary = "Search available trains", description = "Search for available trains based on departure, arrival stations and date")
     @ApiResponses(value = {
@@ -47,7 +78,7 @@ public class BookingController {
                 searchRequest.getArrivalStation(), 
                 searchRequest.getDepartureDate());
         
-        List<TrainScheduleDTO> availableTrains = bookingService.searchTrains(searchRequest);
+        List<TrainScheduleDTO> availableTrains = scheduleSearchService.searchTrains(searchRequest);
         
         String message = availableTrains.isEmpty() ? 
                 "No trains found for the given criteria" : 
@@ -58,22 +89,134 @@ public class BookingController {
         return ResponseEntity.ok(response);
     }
     
-    @Operation(summary = "Create a new booking", description = "Create a new train booking")
+    @Operation(summary = "Search available trains by query", description = "Search for available trains like POST /search with the criteria as query parameters. Answers 304 Not Modified while no schedule or seat count of the route changed since the ETag in If-None-Match")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Train search completed successfully"),
+            @ApiResponse(responseCode = "304", description = "Search result not modified"),
+            @ApiResponse(responseCode = "400", description = "Invalid search parameters"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponseDTO<List<TrainScheduleDTO>>> searchTrainsByQuery(
+            @Valid @ModelAttribute SearchRequestDTO searchRequest,
+            WebRequest webRequest) {
+        
+        // Read before searching, so the ETag is never newer than the result
+        String version = scheduleSearchService.getVersion(searchRequest);
+        if (version != null && webRequest.checkNotModified("search-" + version)) {
+            return null;
+        }
+        
+        return searchTrains(searchRequest);
+    }
+    
+    @Operation(summary = "Search available trains on flexible dates", description = "Search trains on every day within flexibleDays of the departure date, with the cheapest fare and seats per day")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Train search completed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid search parameters"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/search/flexible")
+    public ResponseEntity<ApiResponseDTO<List<DailySearchResultDTO>>> searchTrainsFlexible(
+            @Valid @RequestBody SearchRequestDTO searchRequest) {
+        
+        log.info("Flexible train search request: {} to {} on {} +/- {} days",
+                searchRequest.getDepartureStation(),
+                searchRequest.getArrivalStation(),
+                searchRequest.getDepartureDate(),
+                searchRequest.getFlexibleDays());
+        
+        List<DailySearchResultDTO> days = scheduleSearchService.searchTrainsFlexible(searchRequest);
+        
+        int trainCount = days.stream().mapToInt(DailySearchResultDTO::getTrainCount).sum();
+        String message = trainCount == 0 ?
+                "No trains found for the given criteria" :
+                String.format("Found %d available trains over %d days", trainCount, days.size());
+        
+        ApiResponseDTO<List<DailySearchResultDTO>> response = ApiResponseDTO.success(message, days);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(summary = "Search available trains on flexible dates by query", description = "Search trains on flexible dates like POST /search/flexible with the criteria as query parameters. Answers 304 Not Modified while no schedule or seat count of the routes changed since the ETag in If-None-Match")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Train search completed successfully"),
+            @ApiResponse(responseCode = "304", description = "Search result not modified"),
+            @ApiResponse(responseCode = "400", description = "Invalid search parameters"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/search/flexible")
+    public ResponseEntity<ApiResponseDTO<List<DailySearchResultDTO>>> searchTrainsFlexibleByQuery(
+            @Valid @ModelAttribute SearchRequestDTO searchRequest,
+            WebRequest webRequest) {
+        
+        String version = scheduleSearchService.getVersion(searchRequest);
+        if (version != null && webRequest.checkNotModified("search-" + version)) {
+            return null;
+        }
+        
+        return searchTrainsFlexible(searchRequest);
+    }
+    
+    @Operation(summary = "Plan journeys", description = "Plan journeys between two stations that may change trains, with seats on every leg")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Journey planning completed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid journey parameters"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/journeys")
+    public ResponseEntity<ApiResponseDTO<List<JourneyDTO>>> planJourneys(
+            @Valid @RequestBody JourneySearchRequestDTO searchRequest) {
+        
+        log.info("Journey planning request: {} to {} on {}",
+                searchRequest.getDepartureStation(),
+                searchRequest.getArrivalStation(),
+                searchRequest.getDepartureDate());
+        
+        List<JourneyDTO> journeys = journeyPlannerService.planJourneys(searchRequest);
+        
+        String message = journeys.isEmpty() ?
+                "No journeys found for the given criteria" :
+                String.format("Found %d journeys", journeys.size());
+        
+        ApiResponseDTO<List<JourneyDTO>> response = ApiResponseDTO.success(message, journeys);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(summary = "Create a new booking", description = "Create a new train booking for the user of the bearer session token. In journal mode the booking is accepted once durable and only found by its PNR until it is stored, updates and cancellations by booking ID follow once it has one")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Booking created successfully"),
+            @ApiResponse(responseCode = "202", description = "Booking journaled, look it up by PNR until it has a booking ID"),
             @ApiResponse(responseCode = "400", description = "Invalid booking parameters"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Queue ticket belongs to another user"),
             @ApiResponse(responseCode = "404", description = "User or schedule not found"),
             @ApiResponse(responseCode = "409", description = "Seats not available"),
+            @ApiResponse(responseCode = "429", description = "Queue ticket missing or not yet admitted"),
+            @ApiResponse(responseCode = "503", description = "Too many pending bookings for the schedule"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/book")
     public ResponseEntity<ApiResponseDTO<BookingResponseDTO>> createBooking(
-            @Valid @RequestBody BookingRequestDTO bookingRequest) {
+            @Valid @RequestBody BookingRequestDTO bookingRequest,
+            @RequestHeader(value = "X-Queue-Ticket", required = false) String queueTicket,
+            SessionUser sessionUser) {
         
+        bookingRequest.setUserId(sessionUser.userId());
         log.info("Booking creation request for user: {} on schedule: {}", 
                 bookingRequest.getUserId(), bookingRequest.getScheduleId());
         
-        BookingResponseDTO booking = bookingService.createBooking(bookingRequest);
+        BookingResponseDTO booking = admissionService.admit(queueTicket, bookingRequest,
+                () -> bookingExecutorService.execute(bookingRequest.getScheduleId(),
+                        () -> bookingService.createBooking(bookingRequest)));
+        
+        // A journaled booking is durable but not stored yet, only its PNR finds it for now
+        if (booking.getBookingId() == null) {
+            ApiResponseDTO<BookingResponseDTO> response = ApiResponseDTO.success(
+                    "Booking accepted with PNR " + booking.getPnrNumber(), booking);
+            return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+        }
         
         ApiResponseDTO<BookingResponseDTO> response = ApiResponseDTO.success(
                 "Booking created successfully", booking);
@@ -81,45 +224,256 @@ public class BookingController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
-    @Operation(summary = "Get user bookings", description = "Get all bookings for a specific user")
+    @Operation(summary = "Join booking queue", description = "Take a queue ticket for a schedule for the user of the bearer session token, bookings need an admitted ticket while admission control is enabled")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Queue ticket issued, possibly already rejected"),
+            @ApiResponse(responseCode = "400", description = "Invalid queue parameters"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "404", description = "Schedule not found"),
+            @ApiResponse(responseCode = "503", description = "Booking queue is full"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/queue")
+    public ResponseEntity<ApiResponseDTO<AdmissionTicketDTO>> joinQueue(
+            @Valid @RequestBody AdmissionRequestDTO admissionRequest,
+            SessionUser sessionUser) {
+        
+        admissionRequest.setUserId(sessionUser.userId());
+        log.info("Queue ticket request for user: {} on schedule: {}",
+                admissionRequest.getUserId(), admissionRequest.getScheduleId());
+        
+        AdmissionTicketDTO ticket = admissionService.issueTicket(admissionRequest);
+        
+        ApiResponseDTO<AdmissionTicketDTO> response = ApiResponseDTO.success(
+                "Queue ticket " + ticket.getStatus().name().toLowerCase(), ticket);
+        
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+    
+    @Operation(summary = "Get queue ticket", description = "Poll the status and queue position of a ticket of the user of the bearer session token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Queue ticket retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Queue ticket belongs to another user"),
+            @ApiResponse(responseCode = "404", description = "Queue ticket not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/queue/{ticketId}")
+    public ResponseEntity<ApiResponseDTO<AdmissionTicketDTO>> getQueueTicket(
+            @PathVariable String ticketId,
+            SessionUser sessionUser) {
+        
+        AdmissionTicketDTO ticket = admissionService.getTicket(ticketId, sessionUser.userId());
+        
+        ApiResponseDTO<AdmissionTicketDTO> response = ApiResponseDTO.success(
+                "Queue ticket " + ticket.getStatus().name().toLowerCase(), ticket);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(summary = "Create bookings in batch", description = "Create many bookings at once for the user of the bearer session token, reporting the outcome of each one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the per-booking results"),
+            @ApiResponse(responseCode = "400", description = "Invalid booking parameters"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponseDTO<List<BatchBookingResultDTO>>> createBookings(
+            @Valid @RequestBody BatchBookingRequestDTO batchRequest,
+            SessionUser sessionUser) {
+        
+        batchRequest.getBookings().forEach(bookingRequest -> bookingRequest.setUserId(sessionUser.userId()));
+        log.info("Batch booking request with {} bookings for user: {}",
+                batchRequest.getBookings().size(), sessionUser.userId());
+        
+        List<BatchBookingResultDTO> results = bookingService.createBookings(batchRequest.getBookings());
+        
+        long created = results.stream().filter(result -> "SUCCESS".equals(result.getStatus())).count();
+        ApiResponseDTO<List<BatchBookingResultDTO>> response = ApiResponseDTO.success(
+                String.format("Created %d of %d bookings", created, results.size()), results);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(summary = "Hold seats", description = "Reserve seats as a pending booking that expires unless confirmed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Seats held successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid booking parameters"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "404", description = "User or schedule not found"),
+            @ApiResponse(responseCode = "409", description = "Seats not available"),
+            @ApiResponse(responseCode = "503", description = "Too many pending bookings for the schedule"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/hold")
+    public ResponseEntity<ApiResponseDTO<BookingResponseDTO>> holdSeats(
+            @Valid @RequestBody BookingRequestDTO bookingRequest,
+            SessionUser sessionUser) {
+        
+        bookingRequest.setUserId(sessionUser.userId());
+        log.info("Seat hold request for user: {} on schedule: {}", 
+                bookingRequest.getUserId(), bookingRequest.getScheduleId());
+        
+        BookingResponseDTO booking = bookingExecutorService.execute(bookingRequest.getScheduleId(),
+                () -> seatHoldService.hold(bookingRequest));
+        
+        ApiResponseDTO<BookingResponseDTO> response = ApiResponseDTO.success(
+                "Seats held until " + booking.getHoldExpiresAt(), booking);
+        
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+    
+    @Operation(summary = "Confirm seat hold", description = "Confirm a pending seat hold before it expires")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Seat hold confirmed successfully"),
+            @ApiResponse(responseCode = "400", description = "Hold has expired or is not pending"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Booking belongs to another user"),
+            @ApiResponse(responseCode = "404", description = "Booking not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/{bookingId}/confirm")
+    public ResponseEntity<ApiResponseDTO<BookingResponseDTO>> confirmHold(
+            @PathVariable Long bookingId,
+            SessionUser sessionUser) {
+        
+        log.info("Seat hold confirmation request for booking ID: {}", bookingId);
+        
+        BookingResponseDTO booking = bookingExecutorService.executeForBooking(bookingId, sessionUser.userId(),
+                () -> seatHoldService.confirm(bookingId));
+        
+        ApiResponseDTO<BookingResponseDTO> response = ApiResponseDTO.success(
+                "Booking confirmed successfully", booking);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(summary = "Join waitlist", description = "Queue a booking for a full schedule, it is booked automatically in order when seats are released")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Added to the waitlist"),
+            @ApiResponse(responseCode = "400", description = "Invalid booking parameters"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "404", description = "User or schedule not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/waitlist")
+    public ResponseEntity<ApiResponseDTO<WaitlistEntryDTO>> joinWaitlist(
+            @Valid @RequestBody BookingRequestDTO bookingRequest,
+            SessionUser sessionUser) {
+        
+        bookingRequest.setUserId(sessionUser.userId());
+        log.info("Waitlist request for user: {} on schedule: {}", 
+                bookingRequest.getUserId(), bookingRequest.getScheduleId());
+        
+        WaitlistEntryDTO entry = waitlistService.join(bookingRequest);
+        
+        ApiResponseDTO<WaitlistEntryDTO> response = ApiResponseDTO.success(
+                "Added to the waitlist at position " + entry.getPosition(), entry);
+        
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+    
+    @Operation(summary = "Get waitlist entry", description = "Get the position of a waitlist entry, or its PNR once promoted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Waitlist entry retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Waitlist entry belongs to another user"),
+            @ApiResponse(responseCode = "404", description = "Waitlist entry not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/waitlist/{waitlistId}")
+    public ResponseEntity<ApiResponseDTO<WaitlistEntryDTO>> getWaitlistEntry(
+            @PathVariable Long waitlistId,
+            SessionUser sessionUser) {
+        
+        WaitlistEntryDTO entry = waitlistService.getEntry(waitlistId, sessionUser.userId());
+        
+        ApiResponseDTO<WaitlistEntryDTO> response = ApiResponseDTO.success(
+                "Waitlist entry retrieved successfully", entry);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(summary = "Leave waitlist", description = "Remove a waiting entry from the waitlist")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Removed from the waitlist"),
+            @ApiResponse(responseCode = "400", description = "Entry is no longer waiting"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Waitlist entry belongs to another user"),
+            @ApiResponse(responseCode = "404", description = "Waitlist entry not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @DeleteMapping("/waitlist/{waitlistId}")
+    public ResponseEntity<ApiResponseDTO<WaitlistEntryDTO>> leaveWaitlist(
+            @PathVariable Long waitlistId,
+            SessionUser sessionUser) {
+        
+        log.info("Waitlist removal request for entry ID: {}", waitlistId);
+        
+        WaitlistEntryDTO entry = waitlistService.leave(waitlistId, sessionUser.userId());
+        
+        ApiResponseDTO<WaitlistEntryDTO> response = ApiResponseDTO.success(
+                "Removed from the waitlist", entry);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(summary = "Get user bookings", description = "Get a page of a user's bookings, newest first, optionally filtered by status and booking date range. Pass the returned cursor to get the next page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User bookings retrieved successfully"),
-            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Session token belongs to another user"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponseDTO<List<BookingResponseDTO>>> getUserBookings(
-            @PathVariable Long userId) {
+    public ResponseEntity<ApiResponseDTO<BookingHistoryPageDTO>> getUserBookings(
+            @PathVariable Long userId,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            SessionUser sessionUser) {
         
+        if (!userId.equals(sessionUser.userId())) {
+            throw new UserAccessDeniedException(userId);
+        }
         log.info("Fetching bookings for user ID: {}", userId);
         
-        List<BookingResponseDTO> userBookings = bookingService.getUserBookings(userId);
+        BookingHistoryPageDTO userBookings = bookingService.getUserBookings(userId, status, fromDate, toDate, cursor, size);
         
-        String message = userBookings.isEmpty() ? 
+        String message = userBookings.getBookings().isEmpty() ? 
                 "No bookings found for this user" : 
-                String.format("Found %d bookings", userBookings.size());
+                String.format("Found %d bookings", userBookings.getBookings().size());
         
-        ApiResponseDTO<List<BookingResponseDTO>> response = ApiResponseDTO.success(message, userBookings);
+        ApiResponseDTO<BookingHistoryPageDTO> response = ApiResponseDTO.success(message, userBookings);
         
         return ResponseEntity.ok(response);
     }
     
-    @Operation(summary = "Update booking", description = "Update an existing booking")
+    @Operation(summary = "Update booking", description = "Update the passenger details or seat count of an existing booking, its status only changes by confirming or cancelling it")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Booking updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid update parameters"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Booking belongs to another user"),
             @ApiResponse(responseCode = "404", description = "Booking not found"),
             @ApiResponse(responseCode = "409", description = "Seats not available or booking cannot be updated"),
+            @ApiResponse(responseCode = "503", description = "Too many pending bookings for the schedule"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{bookingId}")
     public ResponseEntity<ApiResponseDTO<BookingResponseDTO>> updateBooking(
             @PathVariable Long bookingId,
-            @Valid @RequestBody BookingUpdateDTO updateRequest) {
+            @Valid @RequestBody BookingUpdateDTO updateRequest,
+            SessionUser sessionUser) {
         
         log.info("Booking update request for booking ID: {}", bookingId);
         
-        BookingResponseDTO updatedBooking = bookingService.updateBooking(bookingId, updateRequest);
+        BookingResponseDTO updatedBooking = bookingExecutorService.executeForBooking(bookingId, sessionUser.userId(),
+                () -> bookingService.updateBooking(bookingId, updateRequest));
         
         ApiResponseDTO<BookingResponseDTO> response = ApiResponseDTO.success(
                 "Booking updated successfully", updatedBooking);
@@ -131,16 +485,20 @@ public class BookingController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Booking cancelled successfully"),
             @ApiResponse(responseCode = "400", description = "Booking cannot be cancelled"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Booking belongs to another user"),
             @ApiResponse(responseCode = "404", description = "Booking not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @DeleteMapping("/{bookingId}")
     public ResponseEntity<ApiResponseDTO<BookingResponseDTO>> cancelBooking(
-            @PathVariable Long bookingId) {
+            @PathVariable Long bookingId,
+            SessionUser sessionUser) {
         
         log.info("Booking cancellation request for booking ID: {}", bookingId);
         
-        BookingResponseDTO cancelledBooking = bookingService.cancelBooking(bookingId);
+        BookingResponseDTO cancelledBooking = bookingExecutorService.executeForBooking(bookingId, sessionUser.userId(),
+                () -> bookingService.cancelBooking(bookingId));
         
         ApiResponseDTO<BookingResponseDTO> response = ApiResponseDTO.success(
                 "Booking cancelled successfully", cancelledBooking);
@@ -148,23 +506,61 @@ public class BookingController {
         return ResponseEntity.ok(response);
     }
     
-    @Operation(summary = "Get booking by PNR", description = "Get booking details by PNR number")
+    @Operation(summary = "Get booking by PNR", description = "Get booking details by PNR number. Answers 304 Not Modified while the booking and its schedule are unchanged since the ETag in If-None-Match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Booking retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Booking not modified"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "403", description = "Booking belongs to another user"),
             @ApiResponse(responseCode = "404", description = "Booking not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/pnr/{pnrNumber}")
     public ResponseEntity<ApiResponseDTO<BookingResponseDTO>> getBookingByPnr(
-            @PathVariable String pnrNumber) {
+            @PathVariable String pnrNumber,
+            WebRequest webRequest,
+            SessionUser sessionUser) {
         
         log.info("Fetching booking for PNR: {}", pnrNumber);
         
-        BookingResponseDTO booking = bookingService.getBookingByPnr(pnrNumber);
+        // An unchanged booking is answered from its versions, without building the response
+        BookingVersion version = bookingCacheService.getVersion(pnrNumber);
+        if (version != null) {
+            checkOwner(pnrNumber, version.getUserId(), sessionUser);
+            if (webRequest.checkNotModified(
+                    pnrNumber + "-" + version.getBookingVersion() + "-" + version.getScheduleVersion())) {
+                return null;
+            }
+        }
+        
+        BookingResponseDTO booking = bookingCacheService.getBookingByPnr(pnrNumber);
+        checkOwner(pnrNumber, booking.getUserId(), sessionUser);
         
         ApiResponseDTO<BookingResponseDTO> response = ApiResponseDTO.success(
                 "Booking retrieved successfully", booking);
         
         return ResponseEntity.ok(response);
     }
+    
+    @Operation(summary = "Get PNR cache statistics", description = "Get hit, miss and eviction statistics of the PNR lookup cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/pnr/cache/stats")
+    public ResponseEntity<ApiResponseDTO<CacheStatsDTO>> getPnrCacheStats() {
+        
+        CacheStatsDTO stats = bookingCacheService.getStats();
+        
+        ApiResponseDTO<CacheStatsDTO> response = ApiResponseDTO.success(
+                "Cache statistics retrieved successfully", stats);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    private static void checkOwner(String pnrNumber, Long userId, SessionUser sessionUser) {
+        if (!sessionUser.userId().equals(userId)) {
+            throw new UserAccessDeniedException("Booking " + pnrNumber + " belongs to another user");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.skm_labs.train_booking_system.controller;
+
+import com.skm_labs.train_booking_system.service.BookingExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * REST Controller for booking exports (Admin endpoints)
+ */
+@RestController
+@RequestMapping("/admin/bookings")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Booking Export (Admin)", description = "Admin APIs for exporting bookings")
+public class BookingExportController {
+    
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
+    private final BookingExportService bookingExportService;
+    
+    @Operation(summary = "Export bookings", description = "Stream all bookings made in a date range as NDJSON or CSV (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bookings streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(defaultValue = "NDJSON") BookingExportService.Format format) {
+        
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("toDate must not be before fromDate");
+        }
+        log.info("Booking export request from {} to {} as {}", fromDate, toDate, format);
+        
+        boolean csv = format == BookingExportService.Format.CSV;
+        String fileName = String.format("bookings-%s-%s.%s", fromDate, toDate, csv ? "csv" : "ndjson");
+        StreamingResponseBody body = output -> bookingExportService.export(fromDate, toDate, format, output);
+        
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.skm_labs.train_booking_system.controller;
+
+import com.skm_labs.train_booking_system.dto.response.ApiResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.RouteCalendarDTO;
+import com.skm_labs.train_booking_system.service.RouteCalendarService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+
+/**
+ * REST Controller for route level views
+ */
+@RestController
+@RequestMapping("/routes")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Routes", description = "APIs for availability across the schedules of a route")
+public class RouteController {
+    
+    private final RouteCalendarService routeCalendarService;
+    
+    @Operation(summary = "Get route calendar", description = "Get departures, lowest fare and available seats for every day of a month (yyyy-MM)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Calendar retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{from}/{to}/calendar")
+    public ResponseEntity<ApiResponseDTO<RouteCalendarDTO>> getCalendar(
+            @PathVariable String from,
+            @PathVariable String to,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        
+        RouteCalendarDTO calendar = routeCalendarService.getCalendar(from, to, month);
+        
+        ApiResponseDTO<RouteCalendarDTO> response = ApiResponseDTO.success(
+                "Calendar retrieved successfully", calendar);
+        
+        return ResponseEntity.ok(response);
+    }
+}
\ No newline at end of file
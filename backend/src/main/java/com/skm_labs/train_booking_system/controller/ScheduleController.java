@@ -1,6 +1,9 @@
 package com.skm_labs.train_booking_system.controller;
 
 import com.skm_labs.train_booking_system.dto.response.ApiResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.PageResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.ScheduleResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.ScheduleSummaryDTO;
 import com.skm_labs.train_booking_system.entity.Schedule;
 import com.skm_labs.train_booking_system.service.ScheduleService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,11 +13,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.time.LocalDate;
 
 /**
  * REST Controller for Schedule operations (Admin endpoints)
@@ -32,23 +38,24 @@ public class ScheduleController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Schedule created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid schedule parameters"),
+            @ApiResponse(responseCode = "404", description = "Train not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping
-    public ResponseEntity<ApiResponseDTO<Schedule>> createSchedule(
+    public ResponseEntity<ApiResponseDTO<ScheduleResponseDTO>> createSchedule(
             @Valid @RequestBody Schedule schedule) {
         
-        log.info("Schedule creation request for train: {}", schedule.getTrain().getTrainNumber());
+        log.info("Schedule creation request");
         
-        Schedule createdSchedule = scheduleService.createSchedule(schedule);
+        ScheduleResponseDTO createdSchedule = scheduleService.createSchedule(schedule);
         
-        ApiResponseDTO<Schedule> response = ApiResponseDTO.success(
+        ApiResponseDTO<ScheduleResponseDTO> response = ApiResponseDTO.success(
                 "Schedule created successfully", createdSchedule);
         
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
-    @Operation(summary = "Update a schedule", description = "Update an existing train schedule (Admin only)")
+    @Operation(summary = "Update a schedule", description = "Update the timetable and fare of an existing train schedule. While seats are booked only the times and fare can change, not the stations or their order (Admin only)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Schedule updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid schedule parameters"),
@@ -56,61 +63,74 @@ public class ScheduleController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{scheduleId}")
-    public ResponseEntity<ApiResponseDTO<Schedule>> updateSchedule(
+    public ResponseEntity<ApiResponseDTO<ScheduleResponseDTO>> updateSchedule(
             @PathVariable Long scheduleId,
             @Valid @RequestBody Schedule schedule) {
         
         log.info("Schedule update request for schedule ID: {}", scheduleId);
         
-        // Set the ID for the update
-        schedule.setId(scheduleId);
+        ScheduleResponseDTO updatedSchedule = scheduleService.updateSchedule(scheduleId, schedule);
         
-        // For simplicity, we'll use create method which will update if ID exists
-        // In a real application, you'd have a separate update method
-        Schedule updatedSchedule = scheduleService.createSchedule(schedule);
-        
-        ApiResponseDTO<Schedule> response = ApiResponseDTO.success(
+        ApiResponseDTO<ScheduleResponseDTO> response = ApiResponseDTO.success(
                 "Schedule updated successfully", updatedSchedule);
         
         return ResponseEntity.ok(response);
     }
     
-    @Operation(summary = "Get all schedules", description = "Get all train schedules (Admin only)")
+    @Operation(summary = "Get schedules", description = "Get a page of train schedules, optionally filtered by departure date range, end stations and train number (Admin only)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Schedules retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid sort field"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping
-    public ResponseEntity<ApiResponseDTO<List<Schedule>>> getAllSchedules() {
-        
-        log.info("Fetching all schedules");
-        
-        List<Schedule> schedules = scheduleService.getAllSchedules();
-        
-        String message = schedules.isEmpty() ? 
+    public ResponseEntity<ApiResponseDTO<PageResponseDTO<ScheduleSummaryDTO>>> getSchedules(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String departureStation,
+            @RequestParam(required = false) String arrivalStation,
+            @RequestParam(required = false) String trainNumber,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        
+        log.info("Fetching page {} of schedules", page);
+        
+        PageResponseDTO<ScheduleSummaryDTO> schedules = scheduleService.getSchedules(fromDate, toDate,
+                departureStation, arrivalStation, trainNumber, page, size, sortBy, direction);
+        
+        String message = schedules.getContent().isEmpty() ? 
                 "No schedules found" : 
-                String.format("Found %d schedules", schedules.size());
+                String.format("Found %d schedules", schedules.getTotalElements());
         
-        ApiResponseDTO<List<Schedule>> response = ApiResponseDTO.success(message, schedules);
+        ApiResponseDTO<PageResponseDTO<ScheduleSummaryDTO>> response = ApiResponseDTO.success(message, schedules);
         
         return ResponseEntity.ok(response);
     }
     
-    @Operation(summary = "Get schedule by ID", description = "Get a specific schedule by ID (Admin only)")
+    @Operation(summary = "Get schedule by ID", description = "Get a specific schedule with its stops by ID. Answers 304 Not Modified while the schedule and its seats are unchanged since the ETag in If-None-Match (Admin only)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Schedule retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Schedule not modified"),
             @ApiResponse(responseCode = "404", description = "Schedule not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/{scheduleId}")
-    public ResponseEntity<ApiResponseDTO<Schedule>> getScheduleById(
-            @PathVariable Long scheduleId) {
+    public ResponseEntity<ApiResponseDTO<ScheduleResponseDTO>> getScheduleById(
+            @PathVariable Long scheduleId,
+            WebRequest webRequest) {
         
         log.info("Fetching schedule for ID: {}", scheduleId);
         
-        Schedule schedule = scheduleService.findById(scheduleId);
+        String version = scheduleService.getScheduleVersion(scheduleId);
+        if (version != null && webRequest.checkNotModified("schedule-" + scheduleId + "-" + version)) {
+            return null;
+        }
+        
+        ScheduleResponseDTO schedule = scheduleService.getSchedule(scheduleId);
         
-        ApiResponseDTO<Schedule> response = ApiResponseDTO.success(
+        ApiResponseDTO<ScheduleResponseDTO> response = ApiResponseDTO.success(
                 "Schedule retrieved successfully", schedule);
         
         return ResponseEntity.ok(response);
@@ -0,0 +1,49 @@
+package com.skm_labs.train_booking_system.controller;
+
+import com.skm_labs.train_booking_system.dto.response.ApiResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.StationSuggestionDTO;
+import com.skm_labs.train_booking_system.service.StationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST Controller for the station catalogue
+ */
+@RestController
+@RequestMapping("/stations")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Stations", description = "APIs for looking up stations")
+public class StationController {
+    
+    private final StationService stationService;
+    
+    @Operation(summary = "Suggest stations", description = "Suggest stations whose name or any word of it starts with the query, most served first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponseDTO<List<StationSuggestionDTO>>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        List<StationSuggestionDTO> suggestions = stationService.suggest(query, limit);
+        
+        ApiResponseDTO<List<StationSuggestionDTO>> response = ApiResponseDTO.success(
+                "Suggestions retrieved successfully", suggestions);
+        
+        return ResponseEntity.ok(response);
+    }
+}
\ No newline at end of file
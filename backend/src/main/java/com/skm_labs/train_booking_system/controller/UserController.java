@@ -1,10 +1,12 @@
 package com.skm_labs.train_booking_system.controller;
 
+import com.skm_labs.train_booking_system.dto.auth.SessionUser;
 import com.skm_labs.train_booking_system.dto.request.LoginRequestDTO;
 import com.skm_labs.train_booking_system.dto.request.UserRegistrationDTO;
 import com.skm_labs.train_booking_system.dto.response.ApiResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.SessionTokenDTO;
 import com.skm_labs.train_booking_system.dto.response.UserProfileDTO;
-import com.skm_labs.train_booking_system.entity.User;
+import com.skm_labs.train_booking_system.service.SessionTokenService;
 import com.skm_labs.train_booking_system.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -18,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for User operations
@@ -30,6 +33,7 @@ import java.util.Map;
 public class UserController {
     
     private final UserService userService;
+    private final SessionTokenService sessionTokenService;
     
     @Operation(summary = "Register a new user", description = "Register a new user in the system")
     @ApiResponses(value = {
@@ -38,53 +42,78 @@ public class UserController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/register")
-    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> registerUser(
+    public CompletableFuture<ResponseEntity<ApiResponseDTO<Map<String, Object>>>> registerUser(
             @Valid @RequestBody UserRegistrationDTO registrationDTO) {
         
         log.info("User registration request received for email: {}", registrationDTO.getEmail());
         
-        User user = userService.registerUser(registrationDTO);
-        
-        Map<String, Object> responseData = Map.of(
-                "userId", user.getId(),
-                "email", user.getEmail(),
-                "firstName", user.getFirstName(),
-                "lastName", user.getLastName()
-        );
-        
-        ApiResponseDTO<Map<String, Object>> response = ApiResponseDTO.success(
-                "User registered successfully", responseData);
-        
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        // The request thread is released while the password is hashed
+        return userService.registerUser(registrationDTO).thenApply(user -> {
+            Map<String, Object> responseData = Map.of(
+                    "userId", user.getId(),
+                    "email", user.getEmail(),
+                    "firstName", user.getFirstName(),
+                    "lastName", user.getLastName()
+            );
+            
+            ApiResponseDTO<Map<String, Object>> response = ApiResponseDTO.success(
+                    "User registered successfully", responseData);
+            
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        });
     }
     
-    @Operation(summary = "User login", description = "Authenticate user with email and password")
+    @Operation(summary = "User login",
+            description = "Authenticate user with email and password. The response carries a session token " +
+                    "to send as 'Authorization: Bearer <token>' on booking requests.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User authenticated successfully"),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials"),
-            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid credentials"),
+            @ApiResponse(responseCode = "503", description = "Too many logins in progress, retry shortly"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/login")
-    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> loginUser(
+    public CompletableFuture<ResponseEntity<ApiResponseDTO<Map<String, Object>>>> loginUser(
             @Valid @RequestBody LoginRequestDTO loginRequest) {
         
         log.info("User login request received for email: {}", loginRequest.getEmail());
         
-        User user = userService.authenticateUser(loginRequest.getEmail(), loginRequest.getPassword());
+        // The request thread is released while the password is checked
+        return userService.authenticateUser(loginRequest.getEmail(), loginRequest.getPassword()).thenApply(user -> {
+            SessionTokenDTO sessionToken = sessionTokenService.issue(user.getId());
+            
+            Map<String, Object> responseData = Map.of(
+                    "userId", user.getId(),
+                    "email", user.getEmail(),
+                    "firstName", user.getFirstName(),
+                    "lastName", user.getLastName(),
+                    "token", sessionToken.getToken(),
+                    "tokenType", sessionToken.getTokenType(),
+                    "expiresAt", sessionToken.getExpiresAt(),
+                    "message", "Login successful"
+            );
+            
+            ApiResponseDTO<Map<String, Object>> response = ApiResponseDTO.success(
+                    "User authenticated successfully", responseData);
+            
+            return ResponseEntity.ok(response);
+        });
+    }
+    
+    @Operation(summary = "User logout", description = "Revoke the session token sent in the Authorization header")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Session token revoked"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or expired session token"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponseDTO<Void>> logoutUser(SessionUser sessionUser) {
         
-        Map<String, Object> responseData = Map.of(
-                "userId", user.getId(),
-                "email", user.getEmail(),
-                "firstName", user.getFirstName(),
-                "lastName", user.getLastName(),
-                "message", "Login successful"
-        );
+        log.info("User logout request received for user ID: {}", sessionUser.userId());
         
-        ApiResponseDTO<Map<String, Object>> response = ApiResponseDTO.success(
-                "User authenticated successfully", responseData);
+        sessionTokenService.revoke(sessionUser);
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(ApiResponseDTO.success("Logged out successfully", null));
     }
     
     @Operation(summary = "Get user profile", description = "Get user profile information by user ID")
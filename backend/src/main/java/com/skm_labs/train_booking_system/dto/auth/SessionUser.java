@@ -0,0 +1,10 @@
+package com.skm_labs.train_booking_system.dto.auth;
+
+/**
+ * User identified by a verified session token
+ * @param userId user ID
+ * @param tokenId random ID of the token, used to revoke it
+ * @param expiresAt expiry of the token in epoch seconds
+ */
+public record SessionUser(Long userId, long tokenId, long expiresAt) {
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.skm_labs.train_booking_system.dto.journal;
+
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Booking as recorded in the booking journal before it is written to the bookings table
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingJournalEntry {
+    
+    private String pnrNumber;
+    private Long userId;
+    private Long scheduleId;
+    private String passengerName;
+    private String passengerEmail;
+    private String passengerPhone;
+    private Integer seatCount;
+    private Integer fromStopIndex;
+    private Integer toStopIndex;
+    private List<Integer> seatNumbers;
+    private Double totalAmount;
+    private BookingStatus bookingStatus;
+    private LocalDateTime holdExpiresAt;
+    private LocalDateTime bookingDate;
+}
\ No newline at end of file
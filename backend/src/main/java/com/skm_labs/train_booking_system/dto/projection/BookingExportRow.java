@@ -0,0 +1,34 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a booking as written to a bulk export
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingExportRow {
+    
+    private Long bookingId;
+    private String pnrNumber;
+    private Long userId;
+    private Long scheduleId;
+    private String trainNumber;
+    private LocalDate departureDate;
+    private String departureStation;
+    private String arrivalStation;
+    private String passengerName;
+    private String passengerEmail;
+    private String passengerPhone;
+    private Integer seatCount;
+    private String seatNumbers;
+    private Double totalAmount;
+    private String bookingStatus;
+    private LocalDateTime bookingDate;
+}
\ No newline at end of file
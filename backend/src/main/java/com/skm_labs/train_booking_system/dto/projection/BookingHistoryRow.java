@@ -0,0 +1,41 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Projection of a booking together with the schedule, train and stop columns of its history entry
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingHistoryRow {
+    
+    private Long bookingId;
+    private Long userId;
+    private Long scheduleId;
+    private String passengerName;
+    private String passengerEmail;
+    private String passengerPhone;
+    private Integer seatCount;
+    private List<Integer> seatNumbers;
+    private Double totalAmount;
+    private BookingStatus bookingStatus;
+    private LocalDateTime bookingDate;
+    private LocalDateTime holdExpiresAt;
+    private String pnrNumber;
+    private String trainNumber;
+    private String trainName;
+    private String departureStation;
+    private String arrivalStation;
+    private LocalDate departureDate;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+}
\ No newline at end of file
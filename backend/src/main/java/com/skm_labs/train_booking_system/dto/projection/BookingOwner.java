@@ -0,0 +1,18 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of the schedule and user of a booking, enough to route a mutation to the
+ * shard of the schedule and to check that the caller owns the booking
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingOwner {
+    
+    private Long scheduleId;
+    private Long userId;
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of the version stamps a booking response is built from.
+ * The schedule version is included because the response carries the stations and
+ * times of the schedule, the user so that a conditional request is checked against the
+ * owner without loading the booking.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingVersion {
+    
+    private Long bookingVersion;
+    private Long scheduleVersion;
+    private Long userId;
+}
\ No newline at end of file
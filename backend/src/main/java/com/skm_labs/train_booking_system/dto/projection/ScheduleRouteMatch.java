@@ -0,0 +1,36 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Projection of a schedule serving a journey between two of its stops.
+ * Holds the schedule, train and stop columns a search result needs, so no entity
+ * or lazy association is loaded for it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleRouteMatch {
+    
+    private Long scheduleId;
+    private Long trainId;
+    private String trainNumber;
+    private String trainName;
+    private TrainType trainType;
+    private Integer totalSeats;
+    private LocalDate departureDate;
+    private Double fare;
+    private Integer fromStopIndex;
+    private Integer toStopIndex;
+    private Integer stopCount;
+    private String departureStation;
+    private String arrivalStation;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of the seat state of a schedule, used to build the in-memory seat inventory
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleSeatSnapshot {
+    
+    private Long scheduleId;
+    private Integer totalSeats;
+    private Integer availableSeats;
+    private Long bookedSeats;
+    private Integer stopCount;
+}
\ No newline at end of file
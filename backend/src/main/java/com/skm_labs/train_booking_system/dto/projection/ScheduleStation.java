@@ -0,0 +1,17 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of a station called at by a schedule
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleStation {
+    
+    private Long scheduleId;
+    private String stationName;
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Projection of the seats held by a booking, used to restore seat maps
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAssignment {
+    
+    private List<Integer> seatNumbers;
+    private Integer seatCount;
+    private Integer fromStopIndex;
+    private Integer toStopIndex;
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of the seats booked between two stops of a schedule
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SegmentLoad {
+    
+    private Long scheduleId;
+    private Integer fromStopIndex;
+    private Integer toStopIndex;
+    private Long bookedSeats;
+}
\ No newline at end of file
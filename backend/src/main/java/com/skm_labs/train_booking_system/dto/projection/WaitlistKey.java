@@ -0,0 +1,17 @@
+package com.skm_labs.train_booking_system.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of a waiting waitlist entry and its schedule
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistKey {
+    
+    private Long entryId;
+    private Long scheduleId;
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.skm_labs.train_booking_system.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for joining the booking queue of a schedule
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionRequestDTO {
+    
+    // Always taken from the session token, a value sent by the client is overwritten
+    private Long userId;
+    
+    @NotNull(message = "Schedule ID is required")
+    private Long scheduleId;
+    
+    @NotNull(message = "Seat count is required")
+    @Min(value = 1, message = "Seat count must be at least 1")
+    @Max(value = 10, message = "Seat count cannot exceed 10")
+    private Integer seatCount;
+    
+    // Optional boarding and alighting stations for part of a multi-stop route,
+    // the whole route is queued for when omitted
+    private String fromStation;
+    
+    private String toStation;
+}
\ No newline at end of file
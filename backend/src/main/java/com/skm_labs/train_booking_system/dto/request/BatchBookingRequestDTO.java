@@ -0,0 +1,23 @@
+package com.skm_labs.train_booking_system.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for creating many bookings in one request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingRequestDTO {
+    
+    @NotEmpty(message = "At least one booking is required")
+    @Size(max = 1000, message = "A batch cannot contain more than 1000 bookings")
+    private List<@Valid BookingRequestDTO> bookings;
+}
\ No newline at end of file
@@ -13,7 +13,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class BookingRequestDTO {
     
-    @NotNull(message = "User ID is required")
+    // Always taken from the session token, a value sent by the client is overwritten
     private Long userId;
     
     @NotNull(message = "Schedule ID is required")
@@ -30,6 +30,12 @@ public class BookingRequestDTO {
     @Pattern(regexp = "^[+]?[0-9]{10,15}$", message = "Invalid phone number format")
     private String passengerPhone;
     
+    // Optional boarding and alighting stations for part of a multi-stop route,
+    // the whole route is booked when omitted
+    private String fromStation;
+    
+    private String toStation;
+    
     @NotNull(message = "Seat count is required")
     @Min(value = 1, message = "Seat count must be at least 1")
     @Max(value = 10, message = "Seat count cannot exceed 10")
@@ -27,5 +27,6 @@ public class BookingUpdateDTO {
     @Max(value = 10, message = "Seat count cannot exceed 10")
     private Integer seatCount;
     
+    // Only the current status is accepted, bookings are confirmed and cancelled through their own endpoints
     private BookingStatus bookingStatus;
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.skm_labs.train_booking_system.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * DTO for planning journeys that may change trains
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JourneySearchRequestDTO {
+    
+    @NotNull(message = "Departure station is required")
+    private String departureStation;
+    
+    @NotNull(message = "Arrival station is required")
+    private String arrivalStation;
+    
+    @NotNull(message = "Departure date is required")
+    private LocalDate departureDate;
+    
+    // Earliest departure on the departure date, start of the day if not given
+    private LocalTime departureTime;
+    
+    @Positive(message = "Seat count must be positive")
+    private Integer seatCount = 1;
+    
+    // Configured maximum if not given
+    @Min(value = 0, message = "Maximum transfers cannot be negative")
+    @Max(value = 5, message = "Maximum transfers cannot exceed 5")
+    private Integer maxTransfers;
+}
\ No newline at end of file
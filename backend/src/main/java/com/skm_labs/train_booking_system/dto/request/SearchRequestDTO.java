@@ -1,10 +1,13 @@
 package com.skm_labs.train_booking_system.dto.request;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 
@@ -23,8 +26,14 @@ public class SearchRequestDTO {
     private String arrivalStation;
     
     @NotNull(message = "Departure date is required")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate departureDate;
     
     @Positive(message = "Seat count must be positive")
     private Integer seatCount = 1;
+    
+    // Days searched on either side of the departure date by the flexible-date search
+    @Min(value = 0, message = "Flexible days cannot be negative")
+    @Max(value = 7, message = "Flexible days cannot exceed 7")
+    private Integer flexibleDays = 0;
 }
\ No newline at end of file
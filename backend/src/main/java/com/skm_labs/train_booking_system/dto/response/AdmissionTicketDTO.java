@@ -0,0 +1,29 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import com.skm_labs.train_booking_system.entity.enums.AdmissionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for booking queue tickets
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdmissionTicketDTO {
+    
+    private String ticketId;
+    private Long scheduleId;
+    private Integer seatCount;
+    private AdmissionStatus status;
+    // Number of tickets ahead in the queue while waiting
+    private Long position;
+    private Long estimatedWaitSeconds;
+    // Deadline for booking once admitted
+    private LocalDateTime admittedUntil;
+}
\ No newline at end of file
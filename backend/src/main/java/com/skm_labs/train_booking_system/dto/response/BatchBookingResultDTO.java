@@ -0,0 +1,38 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of one booking in a batch
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchBookingResultDTO {
+    
+    // Position of the booking in the request
+    private Integer index;
+    private String status;
+    private BookingResponseDTO booking;
+    private String error;
+    
+    public static BatchBookingResultDTO success(int index, BookingResponseDTO booking) {
+        return BatchBookingResultDTO.builder()
+                .index(index)
+                .status("SUCCESS")
+                .booking(booking)
+                .build();
+    }
+    
+    public static BatchBookingResultDTO failure(int index, String error) {
+        return BatchBookingResultDTO.builder()
+                .index(index)
+                .status("FAILED")
+                .error(error)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one page of a user's booking history, newest first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingHistoryPageDTO {
+    
+    private List<BookingResponseDTO> bookings;
+    // Pass as cursor to get the next page, null on the last page
+    private String nextCursor;
+}
\ No newline at end of file
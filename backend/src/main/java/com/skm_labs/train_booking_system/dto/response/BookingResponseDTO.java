@@ -1,5 +1,6 @@
 package com.skm_labs.train_booking_system.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO for booking response
@@ -24,9 +26,11 @@ public class BookingResponseDTO {
     private String passengerEmail;
     private String passengerPhone;
     private Integer seatCount;
+    private List<Integer> seatNumbers;
     private Double totalAmount;
     private BookingStatus bookingStatus;
     private LocalDateTime bookingDate;
+    private LocalDateTime holdExpiresAt;
     private String pnrNumber;
     
     // Schedule details
@@ -37,4 +41,10 @@ public class BookingResponseDTO {
     private String departureDate;
     private String departureTime;
     private String arrivalTime;
+    
+    // Version stamps of the booking and its schedule, used for the ETag of PNR lookups
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private Long scheduleVersion;
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the statistics of an in-memory cache
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDTO {
+    
+    private Long size;
+    private Long maximumSize;
+    private Long ttlSeconds;
+    private Long hitCount;
+    private Long missCount;
+    private Double hitRate;
+    private Long evictionCount;
+    private Long invalidationCount;
+    // Average time spent building an entry on a miss
+    private Double averageLoadMillis;
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for the trains found on one day of a flexible-date search
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySearchResultDTO {
+    
+    private LocalDate date;
+    private Integer trainCount;
+    // Lowest fare of the day, null when no train has seats
+    private Double cheapestFare;
+    // Seats available over all trains of the day
+    private Integer availableSeats;
+    private List<TrainScheduleDTO> trains;
+    
+    public static DailySearchResultDTO of(LocalDate date, List<TrainScheduleDTO> trains) {
+        return DailySearchResultDTO.builder()
+                .date(date)
+                .trainCount(trains.size())
+                .cheapestFare(trains.stream().map(TrainScheduleDTO::getFare).min(Double::compare).orElse(null))
+                .availableSeats(trains.stream().mapToInt(TrainScheduleDTO::getAvailableSeats).sum())
+                .trains(trains)
+                .build();
+    }
+}
\ No newline at end of file
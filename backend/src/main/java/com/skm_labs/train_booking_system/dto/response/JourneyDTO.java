@@ -0,0 +1,30 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for a planned journey of one or more train rides
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JourneyDTO {
+    
+    private Integer transfers;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private Long durationMinutes;
+    private Double totalFare;
+    // Seats available on every leg
+    private Integer availableSeats;
+    private Boolean earliestArrival;
+    private Boolean fewestTransfers;
+    private List<JourneyLegDTO> legs;
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one train ride of a journey
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JourneyLegDTO {
+    
+    private Long scheduleId;
+    private String trainNumber;
+    private String trainName;
+    private TrainType trainType;
+    private String departureStation;
+    private String arrivalStation;
+    // Positions of the boarding and alighting stops on the schedule
+    private Integer fromStopIndex;
+    private Integer toStopIndex;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private Double fare;
+    private Integer availableSeats;
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the availability calendar of a route over one month
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteCalendarDTO {
+    
+    private String departureStation;
+    private String arrivalStation;
+    private String month;
+    // One entry for every day of the month
+    private List<RouteCalendarDayDTO> days;
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for one day of a route availability calendar
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteCalendarDayDTO {
+    
+    private LocalDate date;
+    private Integer departures;
+    // Lowest fare between the two stations, null on days without departures
+    private Double lowestFare;
+    // Seats free over the whole run of every departure of the day
+    private Integer availableSeats;
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a single schedule with its stops
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleResponseDTO {
+    
+    private Long scheduleId;
+    private Long trainId;
+    private String trainNumber;
+    private String trainName;
+    private TrainType trainType;
+    private String departureStation;
+    private String arrivalStation;
+    private LocalDate departureDate;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+    private Double fare;
+    private Integer availableSeats;
+    private Integer totalSeats;
+    private List<ScheduleStop> stops;
+    
+    /**
+     * Copy a schedule whose train and stops are loaded. Must be called inside the
+     * transaction that loaded it.
+     * @param schedule schedule
+     * @param availableSeats current available seats
+     * @return schedule DTO
+     */
+    public static ScheduleResponseDTO of(Schedule schedule, Integer availableSeats) {
+        Train train = schedule.getTrain();
+        return ScheduleResponseDTO.builder()
+                .scheduleId(schedule.getId())
+                .trainId(train.getId())
+                .trainNumber(train.getTrainNumber())
+                .trainName(train.getTrainName())
+                .trainType(train.getTrainType())
+                .departureStation(schedule.getDepartureStation())
+                .arrivalStation(schedule.getArrivalStation())
+                .departureDate(schedule.getDepartureDate())
+                .departureTime(schedule.getDepartureTime())
+                .arrivalTime(schedule.getArrivalTime())
+                .fare(schedule.getFare())
+                .availableSeats(availableSeats)
+                .totalSeats(train.getTotalSeats())
+                .stops(new ArrayList<>(schedule.getStops()))
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * DTO for one row of the admin schedule listing.
+ * Selected directly by a constructor query, so neither the schedule entity nor its
+ * associations are loaded for it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleSummaryDTO {
+    
+    private Long scheduleId;
+    private Long trainId;
+    private String trainNumber;
+    private String trainName;
+    private TrainType trainType;
+    private String departureStation;
+    private String arrivalStation;
+    private LocalDate departureDate;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+    private Double fare;
+    private Integer availableSeats;
+    private Integer totalSeats;
+    private Integer stopCount;
+}
\ No newline at end of file
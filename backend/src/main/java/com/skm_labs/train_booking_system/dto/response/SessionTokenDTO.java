@@ -0,0 +1,23 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a session token issued at login
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SessionTokenDTO {
+    
+    // Sent back as "Authorization: Bearer <token>"
+    private String token;
+    private String tokenType;
+    private LocalDateTime expiresAt;
+}
\ No newline at end of file
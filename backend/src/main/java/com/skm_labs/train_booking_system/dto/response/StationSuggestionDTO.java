@@ -0,0 +1,20 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a station suggested while typing
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StationSuggestionDTO {
+    
+    private String stationName;
+    // Number of schedules calling at the station, used for ranking
+    private Integer scheduleCount;
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.skm_labs.train_booking_system.util.JsonFragment;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Search result kept as the static part of every train and its live seat count.
+ * Written as JSON, each train is spliced from the cached fragment of its static part
+ * instead of building and serializing a TrainScheduleDTO. Other encodings, and callers
+ * reading the list, get ordinary DTOs built on access. The list is read-only once
+ * handed out.
+ */
+@JsonSerialize(using = TrainScheduleList.Serializer.class)
+public final class TrainScheduleList extends AbstractList<TrainScheduleDTO> implements RandomAccess {
+    
+    private Source[] sources;
+    private int[] seats;
+    private int size;
+    
+    public TrainScheduleList(int capacity) {
+        sources = new Source[capacity];
+        seats = new int[capacity];
+    }
+    
+    /**
+     * Add a train
+     * @param source static part of the train
+     * @param availableSeats live seat count
+     */
+    public void append(Source source, int availableSeats) {
+        if (size == sources.length) {
+            int capacity = Math.max(8, size * 2);
+            sources = Arrays.copyOf(sources, capacity);
+            seats = Arrays.copyOf(seats, capacity);
+        }
+        sources[size] = source;
+        seats[size] = availableSeats;
+        size++;
+    }
+    
+    @Override
+    public TrainScheduleDTO get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return sources[index].toDto(seats[index]);
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Static part of a train in a search result
+     */
+    public interface Source {
+        
+        TrainScheduleDTO toDto(Integer availableSeats);
+        
+        /**
+         * JSON of the static part with the seats left open, cached by the source
+         * @param mapper mapper the response is written with
+         * @return the fragment, or null to serialize the DTO instead
+         */
+        JsonFragment toJson(ObjectMapper mapper) throws JsonProcessingException;
+    }
+    
+    public static final class Serializer extends StdSerializer<TrainScheduleList> {
+        
+        public Serializer() {
+            super(TrainScheduleList.class);
+        }
+        
+        @Override
+        public void serialize(TrainScheduleList list, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            ObjectMapper mapper = JsonFragment.canWrite(generator) && generator.getCodec() instanceof ObjectMapper codec
+                    ? codec : null;
+            generator.writeStartArray(list, list.size);
+            for (int i = 0; i < list.size; i++) {
+                JsonFragment fragment = mapper != null ? list.sources[i].toJson(mapper) : null;
+                if (fragment != null) {
+                    fragment.write(generator, list.seats[i]);
+                } else {
+                    provider.defaultSerializeValue(list.get(i), generator);
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+}
\ No newline at end of file
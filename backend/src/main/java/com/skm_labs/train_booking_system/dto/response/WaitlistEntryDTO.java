@@ -0,0 +1,32 @@
+package com.skm_labs.train_booking_system.dto.response;
+
+import com.skm_labs.train_booking_system.entity.enums.WaitlistStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for waitlist entry response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistEntryDTO {
+    
+    private Long waitlistId;
+    private Long userId;
+    private Long scheduleId;
+    private String passengerName;
+    private String fromStation;
+    private String toStation;
+    private Integer seatCount;
+    private WaitlistStatus status;
+    // 1-based position in the schedule's waitlist while waiting
+    private Integer position;
+    private String pnrNumber;
+    private LocalDateTime createdAt;
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.skm_labs.train_booking_system.entity;
 
+import com.skm_labs.train_booking_system.entity.converter.SeatNumbersConverter;
 import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -8,12 +9,16 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Booking entity representing train bookings
  */
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_user_date", columnList = "user_id, booking_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,6 +48,16 @@ public class Booking {
     @Column(name = "seat_count", nullable = false)
     private Integer seatCount;
     
+    @Column(name = "from_stop_index")
+    private Integer fromStopIndex;
+    
+    @Column(name = "to_stop_index")
+    private Integer toStopIndex;
+    
+    @Convert(converter = SeatNumbersConverter.class)
+    @Column(name = "seat_numbers", length = 1000)
+    private List<Integer> seatNumbers = new ArrayList<>();
+    
     @Column(name = "total_amount", nullable = false)
     private Double totalAmount;
     
@@ -50,10 +65,19 @@ public class Booking {
     @Column(name = "booking_status", nullable = false)
     private BookingStatus bookingStatus;
     
+    // Set while the booking is an unconfirmed seat hold
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+    
     @CreationTimestamp
     @Column(name = "booking_date", nullable = false, updatable = false)
     private LocalDateTime bookingDate;
     
     @Column(name = "pnr_number", unique = true, nullable = false)
     private String pnrNumber;
+    
+    // Incremented on every change, including the guarded status updates
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -14,11 +15,20 @@ import java.util.List;
  */
 @Entity
 @Table(name = "schedules")
+@NamedEntityGraph(name = Schedule.TRAIN_AND_STOPS, attributeNodes = {
+        @NamedAttributeNode("train"),
+        @NamedAttributeNode("stops")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Schedule {
     
+    /**
+     * Entity graph loading the train and the stops, the associations a schedule is read with
+     */
+    public static final String TRAIN_AND_STOPS = "Schedule.trainAndStops";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -45,9 +55,20 @@ public class Schedule {
     @Column(nullable = false)
     private Double fare;
     
-    @Column(name = "available_seats", nullable = false)
+    // Written by the guarded seat updates only, so saving a schedule cannot overwrite a newer count
+    @Column(name = "available_seats", nullable = false, updatable = false)
     private Integer availableSeats;
     
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "schedule_stops", joinColumns = @JoinColumn(name = "schedule_id"))
+    @OrderColumn(name = "stop_sequence")
+    private List<ScheduleStop> stops = new ArrayList<>();
+    
     @OneToMany(mappedBy = "schedule", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Booking> bookings;
+    
+    // Incremented whenever the timetable, fare or stops change, seat counts are not versioned
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.skm_labs.train_booking_system.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+/**
+ * A stop on the route of a schedule.
+ * The first stop has no arrival time and the last stop has no departure time.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleStop {
+    
+    @Column(name = "station_name", nullable = false)
+    private String stationName;
+    
+    @Column(name = "arrival_time")
+    private LocalTime arrivalTime;
+    
+    @Column(name = "departure_time")
+    private LocalTime departureTime;
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.skm_labs.train_booking_system.entity;
+
+import com.skm_labs.train_booking_system.entity.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Waitlist entry entity representing a booking request queued for a full schedule
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_schedule_status", columnList = "schedule_id, waitlist_status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "schedule_id", nullable = false)
+    private Schedule schedule;
+    
+    @Column(name = "passenger_name", nullable = false)
+    private String passengerName;
+    
+    @Column(name = "passenger_email", nullable = false)
+    private String passengerEmail;
+    
+    @Column(name = "passenger_phone")
+    private String passengerPhone;
+    
+    @Column(name = "from_station")
+    private String fromStation;
+    
+    @Column(name = "to_station")
+    private String toStation;
+    
+    @Column(name = "seat_count", nullable = false)
+    private Integer seatCount;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "waitlist_status", nullable = false)
+    private WaitlistStatus status;
+    
+    // PNR of the booking made when the entry was promoted
+    @Column(name = "pnr_number")
+    private String pnrNumber;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.skm_labs.train_booking_system.entity.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a list of seat numbers as a comma separated column, e.g. "12,13,14"
+ */
+@Converter
+public class SeatNumbersConverter implements AttributeConverter<List<Integer>, String> {
+    
+    @Override
+    public String convertToDatabaseColumn(List<Integer> seatNumbers) {
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            return null;
+        }
+        
+        StringBuilder column = new StringBuilder();
+        for (Integer seatNumber : seatNumbers) {
+            if (column.length() > 0) {
+                column.append(',');
+            }
+            column.append(seatNumber);
+        }
+        return column.toString();
+    }
+    
+    @Override
+    public List<Integer> convertToEntityAttribute(String column) {
+        List<Integer> seatNumbers = new ArrayList<>();
+        if (column == null || column.isBlank()) {
+            return seatNumbers;
+        }
+        
+        for (String seatNumber : column.split(",")) {
+            seatNumbers.add(Integer.parseInt(seatNumber.trim()));
+        }
+        return seatNumbers;
+    }
+}
\ No newline at end of file
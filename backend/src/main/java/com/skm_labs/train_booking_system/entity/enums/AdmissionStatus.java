@@ -0,0 +1,12 @@
+package com.skm_labs.train_booking_system.entity.enums;
+
+/**
+ * Enum representing the status of a booking queue ticket
+ */
+public enum AdmissionStatus {
+    WAITING,
+    ADMITTED,
+    REJECTED,
+    USED,
+    EXPIRED
+}
\ No newline at end of file
@@ -6,5 +6,6 @@ package com.skm_labs.train_booking_system.entity.enums;
 public enum BookingStatus {
     CONFIRMED,
     CANCELLED,
-    PENDING
+    PENDING,
+    EXPIRED
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.skm_labs.train_booking_system.entity.enums;
+
+/**
+ * Enum representing waitlist entry status
+ */
+public enum WaitlistStatus {
+    WAITING,
+    PROMOTED,
+    CANCELLED,
+    FAILED
+}
\ No newline at end of file
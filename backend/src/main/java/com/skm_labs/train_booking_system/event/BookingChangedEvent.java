@@ -0,0 +1,11 @@
+package com.skm_labs.train_booking_system.event;
+
+/**
+ * Published whenever an existing booking is updated, cancelled, confirmed or expired.
+ * Listeners that act on committed state should use a transactional event listener,
+ * the change is rolled back together with the transaction that made it.
+ * @param bookingId booking ID
+ * @param pnrNumber PNR number of the booking
+ */
+public record BookingChangedEvent(Long bookingId, String pnrNumber) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.skm_labs.train_booking_system.event;
+
+/**
+ * Published whenever a schedule is created or updated by an administrator.
+ * Listeners that act on committed state should use a transactional event listener,
+ * the change is rolled back together with the transaction that made it.
+ * @param scheduleId schedule ID
+ */
+public record ScheduleChangedEvent(Long scheduleId) {
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.skm_labs.train_booking_system.event;
+
+/**
+ * Published whenever seats of a schedule are reserved or released.
+ * Listeners that act on committed state should use a transactional event listener,
+ * the change is rolled back together with the transaction that made it.
+ * @param scheduleId schedule ID
+ * @param fromStop index of the first stop of the change, null for the whole route
+ * @param toStop index of the last stop of the change, null for the whole route
+ * @param seatChange seats released (positive) or reserved (negative)
+ * @param availableSeats available seats on the changed range afterwards
+ */
+public record SeatAvailabilityChangedEvent(Long scheduleId, Integer fromStop, Integer toStop,
+                                           int seatChange, int availableSeats) {
+    
+    public boolean isRelease() {
+        return seatChange > 0;
+    }
+}
\ No newline at end of file
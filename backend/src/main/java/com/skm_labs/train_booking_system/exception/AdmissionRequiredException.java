@@ -0,0 +1,15 @@
+package com.skm_labs.train_booking_system.exception;
+
+/**
+ * Exception thrown when a booking is attempted without an admitted queue ticket
+ */
+public class AdmissionRequiredException extends RuntimeException {
+    
+    public AdmissionRequiredException(String message) {
+        super(message);
+    }
+    
+    public AdmissionRequiredException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.skm_labs.train_booking_system.exception;
+
+/**
+ * Exception thrown when a password cannot be hashed because the hashing queue is full
+ */
+public class AuthenticationBusyException extends RuntimeException {
+    
+    public AuthenticationBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.skm_labs.train_booking_system.exception;
+
+/**
+ * Exception thrown when a booking cannot be queued because the system is saturated
+ */
+public class BookingQueueFullException extends RuntimeException {
+    
+    public BookingQueueFullException(String message) {
+        super(message);
+    }
+    
+    public BookingQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
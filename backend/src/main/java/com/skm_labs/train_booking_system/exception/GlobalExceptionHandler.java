@@ -3,8 +3,10 @@ package com.skm_labs.train_booking_system.exception;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -47,6 +49,112 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
     
+    /**
+     * Handle an update of a booking or schedule that was changed concurrently
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            ObjectOptimisticLockingFailureException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.CONFLICT, "Conflict", "The resource was changed concurrently, please retry", request);
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+    
+    /**
+     * Handle booking queue full exception
+     */
+    @ExceptionHandler(BookingQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleBookingQueueFullException(
+            BookingQueueFullException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), request);
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    
+    /**
+     * Handle a password that cannot be hashed because the hashing queue is full
+     */
+    @ExceptionHandler(AuthenticationBusyException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationBusyException(
+            AuthenticationBusyException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), request);
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    
+    /**
+     * Handle a missing or invalid session token
+     */
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidTokenException(
+            InvalidTokenException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.UNAUTHORIZED, "Unauthorized", ex.getMessage(), request);
+        
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                .body(errorResponse);
+    }
+    
+    /**
+     * Handle a session token used for the data of another user
+     */
+    @ExceptionHandler(UserAccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleUserAccessDeniedException(
+            UserAccessDeniedException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.FORBIDDEN, "Forbidden", ex.getMessage(), request);
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+    }
+    
+    /**
+     * Handle admission required exception
+     */
+    @ExceptionHandler(AdmissionRequiredException.class)
+    public ResponseEntity<ErrorResponse> handleAdmissionRequiredException(
+            AdmissionRequiredException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", ex.getMessage(), request);
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.TOO_MANY_REQUESTS);
+    }
+    
+    /**
+     * Handle ticket not found exception
+     */
+    @ExceptionHandler(TicketNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleTicketNotFoundException(
+            TicketNotFoundException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), request);
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+    
+    /**
+     * Handle waitlist entry not found exception
+     */
+    @ExceptionHandler(WaitlistEntryNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleWaitlistEntryNotFoundException(
+            WaitlistEntryNotFoundException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), request);
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+    
     /**
      * Handle user not found exception
      */
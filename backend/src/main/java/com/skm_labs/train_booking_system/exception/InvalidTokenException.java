@@ -0,0 +1,11 @@
+package com.skm_labs.train_booking_system.exception;
+
+/**
+ * Exception thrown when a request has no session token or one that is malformed, forged, expired or revoked
+ */
+public class InvalidTokenException extends RuntimeException {
+    
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
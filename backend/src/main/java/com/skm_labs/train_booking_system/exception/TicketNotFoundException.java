@@ -0,0 +1,15 @@
+package com.skm_labs.train_booking_system.exception;
+
+/**
+ * Exception thrown when a booking queue ticket is not found
+ */
+public class TicketNotFoundException extends RuntimeException {
+    
+    public TicketNotFoundException(String ticketId) {
+        super("Queue ticket not found: " + ticketId);
+    }
+    
+    public TicketNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
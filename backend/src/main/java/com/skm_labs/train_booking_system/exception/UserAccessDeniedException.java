@@ -0,0 +1,15 @@
+package com.skm_labs.train_booking_system.exception;
+
+/**
+ * Exception thrown when a session token is used for the data of another user
+ */
+public class UserAccessDeniedException extends RuntimeException {
+    
+    public UserAccessDeniedException(String message) {
+        super(message);
+    }
+    
+    public UserAccessDeniedException(Long userId) {
+        super("Access denied to the data of user " + userId);
+    }
+}
\ No newline at end of file
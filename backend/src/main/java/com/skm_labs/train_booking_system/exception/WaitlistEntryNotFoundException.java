@@ -0,0 +1,15 @@
+package com.skm_labs.train_booking_system.exception;
+
+/**
+ * Exception thrown when a waitlist entry is not found
+ */
+public class WaitlistEntryNotFoundException extends RuntimeException {
+    
+    public WaitlistEntryNotFoundException(String message) {
+        super(message);
+    }
+    
+    public WaitlistEntryNotFoundException(Long waitlistId) {
+        super("Waitlist entry not found with id: " + waitlistId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.skm_labs.train_booking_system.repository;
+
+import com.skm_labs.train_booking_system.entity.Booking;
+import com.skm_labs.train_booking_system.entity.converter.SeatNumbersConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Repository for inserting many bookings with JDBC batching.
+ * Bookings use identity keys, which stops Hibernate from batching inserts,
+ * so batches are written with a single prepared statement instead.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingBatchRepository {
+    
+    private static final String INSERT_BOOKING = "INSERT INTO bookings (user_id, schedule_id, passenger_name, " +
+            "passenger_email, passenger_phone, seat_count, from_stop_index, to_stop_index, seat_numbers, " +
+            "total_amount, booking_status, hold_expires_at, booking_date, pnr_number, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final SeatNumbersConverter seatNumbersConverter = new SeatNumbersConverter();
+    
+    /**
+     * Insert bookings in one JDBC batch and set their generated IDs and initial version.
+     * Joins the current transaction.
+     * @param bookings bookings to insert, each with booking date and PNR set
+     */
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        
+        jdbcTemplate.execute(connection -> connection.prepareStatement(INSERT_BOOKING, Statement.RETURN_GENERATED_KEYS),
+                (PreparedStatement statement) -> {
+                    for (Booking booking : bookings) {
+                        bind(statement, booking);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        int i = 0;
+                        while (keys.next() && i < bookings.size()) {
+                            Booking booking = bookings.get(i++);
+                            booking.setId(keys.getLong(1));
+                            booking.setVersion(0L);
+                        }
+                    }
+                    return null;
+                });
+    }
+    
+    private void bind(PreparedStatement statement, Booking booking) throws SQLException {
+        statement.setLong(1, booking.getUser().getId());
+        statement.setLong(2, booking.getSchedule().getId());
+        statement.setString(3, booking.getPassengerName());
+        statement.setString(4, booking.getPassengerEmail());
+        statement.setString(5, booking.getPassengerPhone());
+        statement.setInt(6, booking.getSeatCount());
+        statement.setObject(7, booking.getFromStopIndex(), Types.INTEGER);
+        statement.setObject(8, booking.getToStopIndex(), Types.INTEGER);
+        statement.setString(9, seatNumbersConverter.convertToDatabaseColumn(booking.getSeatNumbers()));
+        statement.setDouble(10, booking.getTotalAmount());
+        statement.setString(11, booking.getBookingStatus().name());
+        statement.setTimestamp(12, booking.getHoldExpiresAt() == null ? null : Timestamp.valueOf(booking.getHoldExpiresAt()));
+        statement.setTimestamp(13, Timestamp.valueOf(booking.getBookingDate()));
+        statement.setString(14, booking.getPnrNumber());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.skm_labs.train_booking_system.repository;
+
+import com.skm_labs.train_booking_system.dto.projection.BookingExportRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Repository for reading bookings in bulk with a JDBC cursor.
+ * Rows are fetched from the server in chunks of the configured fetch size and handed
+ * over one at a time without entering a persistence context, so memory use does not
+ * depend on the number of rows. With MySQL the fetch size only takes effect when the
+ * connection URL enables useCursorFetch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingExportRepository {
+    
+    private static final String SELECT_BOOKINGS = "SELECT b.id, b.pnr_number, b.user_id, b.schedule_id, " +
+            "t.train_number, s.departure_date, COALESCE(a.station_name, s.departure_station), " +
+            "COALESCE(z.station_name, s.arrival_station), b.passenger_name, b.passenger_email, b.passenger_phone, " +
+            "b.seat_count, b.seat_numbers, b.total_amount, b.booking_status, b.booking_date " +
+            "FROM bookings b JOIN schedules s ON s.id = b.schedule_id JOIN trains t ON t.id = s.train_id " +
+            "LEFT JOIN schedule_stops a ON a.schedule_id = s.id AND a.stop_sequence = b.from_stop_index " +
+            "LEFT JOIN schedule_stops z ON z.schedule_id = s.id AND z.stop_sequence = b.to_stop_index " +
+            "WHERE b.booking_date >= ? AND b.booking_date < ? " +
+            "ORDER BY b.booking_date, b.id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    /**
+     * Stream the bookings made in a time range in booking order
+     * @param bookedFrom earliest booking time
+     * @param bookedBefore booking time the bookings must precede
+     * @param consumer receives every row, the row is not used after it returns
+     */
+    public void streamBookings(LocalDateTime bookedFrom, LocalDateTime bookedBefore, Consumer<BookingExportRow> consumer) {
+        jdbcTemplate.query((Connection connection) -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BOOKINGS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(bookedFrom));
+            statement.setTimestamp(2, Timestamp.valueOf(bookedBefore));
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(toRow(resultSet)));
+    }
+    
+    private static BookingExportRow toRow(ResultSet resultSet) throws SQLException {
+        return new BookingExportRow(
+                resultSet.getLong(1),
+                resultSet.getString(2),
+                resultSet.getLong(3),
+                resultSet.getLong(4),
+                resultSet.getString(5),
+                resultSet.getObject(6, LocalDate.class),
+                resultSet.getString(7),
+                resultSet.getString(8),
+                resultSet.getString(9),
+                resultSet.getString(10),
+                resultSet.getString(11),
+                resultSet.getInt(12),
+                resultSet.getString(13),
+                resultSet.getDouble(14),
+                resultSet.getString(15),
+                resultSet.getTimestamp(16).toLocalDateTime());
+    }
+}
\ No newline at end of file
@@ -1,13 +1,21 @@
 package com.skm_labs.train_booking_system.repository;
 
+import com.skm_labs.train_booking_system.dto.projection.BookingHistoryRow;
+import com.skm_labs.train_booking_system.dto.projection.BookingOwner;
+import com.skm_labs.train_booking_system.dto.projection.BookingVersion;
+import com.skm_labs.train_booking_system.dto.projection.SeatAssignment;
+import com.skm_labs.train_booking_system.dto.projection.SegmentLoad;
 import com.skm_labs.train_booking_system.entity.Booking;
 import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +40,43 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     List<Booking> findByUserIdAndBookingStatus(Long userId, BookingStatus bookingStatus);
     
+    /**
+     * Find a page of a user's bookings with their schedule details, newest first.
+     * Pages continue after the booking date and ID of the last row of the previous page,
+     * so every page is an index range scan however deep it is.
+     * @param userId user ID
+     * @param bookingStatus only bookings with this status, null for all
+     * @param bookedFrom earliest booking time, null for no lower bound
+     * @param bookedBefore booking time the bookings must precede, null for no upper bound
+     * @param afterDate booking date of the last row of the previous page, null for the first page
+     * @param afterId booking ID of the last row of the previous page
+     * @param pageable page size, the page number is not used
+     * @return List of booking history rows
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.BookingHistoryRow(" +
+           "b.id, b.user.id, s.id, b.passengerName, b.passengerEmail, b.passengerPhone, b.seatCount, " +
+           "b.seatNumbers, b.totalAmount, b.bookingStatus, b.bookingDate, b.holdExpiresAt, b.pnrNumber, " +
+           "t.trainNumber, t.trainName, COALESCE(a.stationName, s.departureStation), " +
+           "COALESCE(z.stationName, s.arrivalStation), s.departureDate, " +
+           "COALESCE(a.departureTime, s.departureTime), COALESCE(z.arrivalTime, s.arrivalTime)) " +
+           "FROM Booking b JOIN b.schedule s JOIN s.train t " +
+           "LEFT JOIN s.stops a ON INDEX(a) = b.fromStopIndex " +
+           "LEFT JOIN s.stops z ON INDEX(z) = b.toStopIndex " +
+           "WHERE b.user.id = :userId " +
+           "AND (:bookingStatus IS NULL OR b.bookingStatus = :bookingStatus) " +
+           "AND (:bookedFrom IS NULL OR b.bookingDate >= :bookedFrom) " +
+           "AND (:bookedBefore IS NULL OR b.bookingDate < :bookedBefore) " +
+           "AND (:afterDate IS NULL OR b.bookingDate < :afterDate " +
+           "OR (b.bookingDate = :afterDate AND b.id < :afterId)) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<BookingHistoryRow> findHistoryPage(@Param("userId") Long userId,
+                                            @Param("bookingStatus") BookingStatus bookingStatus,
+                                            @Param("bookedFrom") LocalDateTime bookedFrom,
+                                            @Param("bookedBefore") LocalDateTime bookedBefore,
+                                            @Param("afterDate") LocalDateTime afterDate,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+    
     /**
      * Find booking by PNR number
      * @param pnrNumber PNR number
@@ -39,6 +84,34 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     Optional<Booking> findByPnrNumber(String pnrNumber);
     
+    /**
+     * Find the versions of a booking and of its schedule, which together identify
+     * every state of the booking response
+     * @param pnrNumber PNR number
+     * @return Optional versions
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.BookingVersion(" +
+           "b.version, s.version, b.user.id) " +
+           "FROM Booking b JOIN b.schedule s WHERE b.pnrNumber = :pnrNumber")
+    Optional<BookingVersion> findVersionByPnrNumber(@Param("pnrNumber") String pnrNumber);
+    
+    /**
+     * Find which of the given PNR numbers are already taken
+     * @param pnrNumbers candidate PNR numbers
+     * @return List of PNR numbers that exist
+     */
+    @Query("SELECT b.pnrNumber FROM Booking b WHERE b.pnrNumber IN :pnrNumbers")
+    List<String> findExistingPnrNumbers(@Param("pnrNumbers") Collection<String> pnrNumbers);
+    
+    /**
+     * Find the schedule and user of a booking without loading the booking
+     * @param bookingId booking ID
+     * @return Optional schedule and user IDs
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.BookingOwner(b.schedule.id, b.user.id) " +
+           "FROM Booking b WHERE b.id = :bookingId")
+    Optional<BookingOwner> findOwnerById(@Param("bookingId") Long bookingId);
+    
     /**
      * Find bookings by status and booking date before given date
      * @param bookingStatus booking status
@@ -54,4 +127,77 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.user.id = :userId")
     Long countByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Find the seats held by live bookings of a schedule
+     * @param scheduleId schedule ID
+     * @return List of seat assignments
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.SeatAssignment(" +
+           "b.seatNumbers, b.seatCount, b.fromStopIndex, b.toStopIndex) " +
+           "FROM Booking b WHERE b.schedule.id = :scheduleId AND b.bookingStatus IN (" +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.CONFIRMED, " +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.PENDING)")
+    List<SeatAssignment> findSeatAssignments(@Param("scheduleId") Long scheduleId);
+    
+    /**
+     * Sum the seats held by live bookings of a schedule per pair of stops.
+     * Bookings without stop indexes cover the whole route and are not included.
+     * @param scheduleId schedule ID
+     * @return List of segment loads
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.SegmentLoad(" +
+           "b.schedule.id, b.fromStopIndex, b.toStopIndex, SUM(b.seatCount)) " +
+           "FROM Booking b WHERE b.schedule.id = :scheduleId " +
+           "AND b.fromStopIndex IS NOT NULL AND b.bookingStatus IN (" +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.CONFIRMED, " +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.PENDING) " +
+           "GROUP BY b.schedule.id, b.fromStopIndex, b.toStopIndex")
+    List<SegmentLoad> findSegmentLoads(@Param("scheduleId") Long scheduleId);
+    
+    /**
+     * Sum the seats held by live bookings of several schedules per schedule and pair of stops
+     * @param scheduleIds schedule IDs
+     * @return List of segment loads
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.SegmentLoad(" +
+           "b.schedule.id, b.fromStopIndex, b.toStopIndex, SUM(b.seatCount)) " +
+           "FROM Booking b WHERE b.schedule.id IN :scheduleIds " +
+           "AND b.fromStopIndex IS NOT NULL AND b.bookingStatus IN (" +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.CONFIRMED, " +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.PENDING) " +
+           "GROUP BY b.schedule.id, b.fromStopIndex, b.toStopIndex")
+    List<SegmentLoad> findSegmentLoads(@Param("scheduleIds") Collection<Long> scheduleIds);
+    
+    /**
+     * Confirm a seat hold in a single guarded statement.
+     * The row is only changed if the hold is still pending and has not expired.
+     * @param bookingId booking ID
+     * @param now current time
+     * @return number of rows updated, 0 if the booking is not an active hold
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.bookingStatus = " +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.CONFIRMED, b.holdExpiresAt = NULL, " +
+           "b.version = b.version + 1 " +
+           "WHERE b.id = :bookingId " +
+           "AND b.bookingStatus = com.skm_labs.train_booking_system.entity.enums.BookingStatus.PENDING " +
+           "AND b.holdExpiresAt > :now")
+    int confirmHold(@Param("bookingId") Long bookingId, @Param("now") LocalDateTime now);
+    
+    /**
+     * Expire a seat hold in a single guarded statement.
+     * The row is only changed if the hold is still pending and its deadline has passed,
+     * so a hold confirmed or cancelled concurrently is left alone.
+     * @param bookingId booking ID
+     * @param now current time
+     * @return number of rows updated, 0 if the hold is no longer pending or not yet due
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.bookingStatus = " +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.EXPIRED, b.version = b.version + 1 " +
+           "WHERE b.id = :bookingId " +
+           "AND b.bookingStatus = com.skm_labs.train_booking_system.entity.enums.BookingStatus.PENDING " +
+           "AND b.holdExpiresAt <= :now")
+    int expireHold(@Param("bookingId") Long bookingId, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -1,14 +1,25 @@
 package com.skm_labs.train_booking_system.repository;
 
+import com.skm_labs.train_booking_system.dto.projection.ScheduleRouteMatch;
+import com.skm_labs.train_booking_system.dto.projection.ScheduleSeatSnapshot;
+import com.skm_labs.train_booking_system.dto.projection.ScheduleStation;
+import com.skm_labs.train_booking_system.dto.response.ScheduleSummaryDTO;
 import com.skm_labs.train_booking_system.entity.Schedule;
 import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Schedule entity
@@ -58,4 +69,191 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
                                         @Param("arrivalStation") String arrivalStation,
                                         @Param("departureDate") LocalDate departureDate,
                                         @Param("requiredSeats") Integer requiredSeats);
+    
+    /**
+     * Load the seat state of every schedule together with the seats held by live bookings
+     * @return list of seat snapshots
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.ScheduleSeatSnapshot(" +
+           "s.id, t.totalSeats, s.availableSeats, COALESCE(SUM(b.seatCount), 0L), SIZE(s.stops)) " +
+           "FROM Schedule s JOIN s.train t " +
+           "LEFT JOIN s.bookings b ON b.bookingStatus IN (" +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.CONFIRMED, " +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.PENDING) " +
+           "GROUP BY s.id, t.totalSeats, s.availableSeats")
+    List<ScheduleSeatSnapshot> findSeatSnapshots();
+    
+    /**
+     * Load the seat state of several schedules together with the seats held by live bookings
+     * @param scheduleIds schedule IDs
+     * @return list of seat snapshots, without the IDs that do not exist
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.ScheduleSeatSnapshot(" +
+           "s.id, t.totalSeats, s.availableSeats, COALESCE(SUM(b.seatCount), 0L), SIZE(s.stops)) " +
+           "FROM Schedule s JOIN s.train t " +
+           "LEFT JOIN s.bookings b ON b.bookingStatus IN (" +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.CONFIRMED, " +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.PENDING) " +
+           "WHERE s.id IN :scheduleIds " +
+           "GROUP BY s.id, t.totalSeats, s.availableSeats")
+    List<ScheduleSeatSnapshot> findSeatSnapshots(@Param("scheduleIds") Collection<Long> scheduleIds);
+    
+    /**
+     * Load the seat state of a single schedule together with the seats held by live bookings
+     * @param scheduleId schedule ID
+     * @return Optional seat snapshot
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.ScheduleSeatSnapshot(" +
+           "s.id, t.totalSeats, s.availableSeats, COALESCE(SUM(b.seatCount), 0L), SIZE(s.stops)) " +
+           "FROM Schedule s JOIN s.train t " +
+           "LEFT JOIN s.bookings b ON b.bookingStatus IN (" +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.CONFIRMED, " +
+           "com.skm_labs.train_booking_system.entity.enums.BookingStatus.PENDING) " +
+           "WHERE s.id = :scheduleId " +
+           "GROUP BY s.id, t.totalSeats, s.availableSeats")
+    Optional<ScheduleSeatSnapshot> findSeatSnapshot(@Param("scheduleId") Long scheduleId);
+    
+    /**
+     * Take seats from a schedule in a single guarded statement.
+     * The row is only changed if enough seats are left.
+     * @param scheduleId schedule ID
+     * @param seats number of seats to take
+     * @return number of rows updated, 0 if not enough seats were left
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Schedule s SET s.availableSeats = s.availableSeats - :seats " +
+           "WHERE s.id = :scheduleId AND s.availableSeats >= :seats")
+    int decrementAvailableSeats(@Param("scheduleId") Long scheduleId, @Param("seats") Integer seats);
+    
+    /**
+     * Return seats to a schedule in a single guarded statement.
+     * The row is only changed if the train's total seats are not exceeded.
+     * @param scheduleId schedule ID
+     * @param seats number of seats to return
+     * @return number of rows updated, 0 if the total seats would be exceeded
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Schedule s SET s.availableSeats = s.availableSeats + :seats " +
+           "WHERE s.id = :scheduleId AND s.availableSeats + :seats <= " +
+           "(SELECT t.totalSeats FROM Train t WHERE t.id = s.train.id)")
+    int incrementAvailableSeats(@Param("scheduleId") Long scheduleId, @Param("seats") Integer seats);
+    
+    /**
+     * Find schedules that stop at the departure station and later at the arrival station.
+     * The train is joined into the projection, so a search is a single statement.
+     * @param departureStation departure station
+     * @param arrivalStation arrival station
+     * @param departureDate departure date
+     * @return List of route matches with the stop indexes of both stations
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.ScheduleRouteMatch(" +
+           "s.id, t.id, t.trainNumber, t.trainName, t.trainType, t.totalSeats, s.departureDate, s.fare, " +
+           "INDEX(a), INDEX(b), SIZE(s.stops), a.stationName, b.stationName, a.departureTime, b.arrivalTime) " +
+           "FROM Schedule s JOIN s.train t JOIN s.stops a JOIN s.stops b " +
+           "WHERE s.departureDate = :departureDate " +
+           "AND a.stationName = :departureStation " +
+           "AND b.stationName = :arrivalStation " +
+           "AND INDEX(a) < INDEX(b) " +
+           "ORDER BY a.departureTime")
+    List<ScheduleRouteMatch> findRouteMatches(@Param("departureStation") String departureStation,
+                                              @Param("arrivalStation") String arrivalStation,
+                                              @Param("departureDate") LocalDate departureDate);
+    
+    /**
+     * Load schedules departing on or after a date together with their train and stops
+     * @param fromDate first departure date
+     * @return List of schedules
+     */
+    @EntityGraph(Schedule.TRAIN_AND_STOPS)
+    @Query("SELECT s FROM Schedule s WHERE s.departureDate >= :fromDate")
+    List<Schedule> findWithTrainAndStopsFrom(@Param("fromDate") LocalDate fromDate);
+    
+    /**
+     * Load a schedule together with its train and stops
+     * @param scheduleId schedule ID
+     * @return Optional schedule
+     */
+    @EntityGraph(Schedule.TRAIN_AND_STOPS)
+    @Query("SELECT s FROM Schedule s WHERE s.id = :scheduleId")
+    Optional<Schedule> findWithTrainAndStopsById(@Param("scheduleId") Long scheduleId);
+    
+    /**
+     * Find the version of a schedule without loading it
+     * @param scheduleId schedule ID
+     * @return Optional version
+     */
+    @Query("SELECT s.version FROM Schedule s WHERE s.id = :scheduleId")
+    Optional<Long> findVersionById(@Param("scheduleId") Long scheduleId);
+    
+    /**
+     * Find a page of schedule summaries, each filter is skipped when null
+     * @param fromDate first departure date
+     * @param toDate last departure date
+     * @param departureStation first station of the schedule
+     * @param arrivalStation last station of the schedule
+     * @param trainNumber train number
+     * @param pageable page and sort order
+     * @return page of schedule summaries
+     */
+    @Query(value = "SELECT new com.skm_labs.train_booking_system.dto.response.ScheduleSummaryDTO(" +
+           "s.id, t.id, t.trainNumber, t.trainName, t.trainType, s.departureStation, s.arrivalStation, " +
+           "s.departureDate, s.departureTime, s.arrivalTime, s.fare, s.availableSeats, t.totalSeats, SIZE(s.stops)) " +
+           "FROM Schedule s JOIN s.train t " +
+           "WHERE (:fromDate IS NULL OR s.departureDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR s.departureDate <= :toDate) " +
+           "AND (:departureStation IS NULL OR s.departureStation = :departureStation) " +
+           "AND (:arrivalStation IS NULL OR s.arrivalStation = :arrivalStation) " +
+           "AND (:trainNumber IS NULL OR t.trainNumber = :trainNumber)",
+           countQuery = "SELECT COUNT(s) FROM Schedule s JOIN s.train t " +
+           "WHERE (:fromDate IS NULL OR s.departureDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR s.departureDate <= :toDate) " +
+           "AND (:departureStation IS NULL OR s.departureStation = :departureStation) " +
+           "AND (:arrivalStation IS NULL OR s.arrivalStation = :arrivalStation) " +
+           "AND (:trainNumber IS NULL OR t.trainNumber = :trainNumber)")
+    Page<ScheduleSummaryDTO> findSummaries(@Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate,
+                                           @Param("departureStation") String departureStation,
+                                           @Param("arrivalStation") String arrivalStation,
+                                           @Param("trainNumber") String trainNumber,
+                                           Pageable pageable);
+    
+    /**
+     * Find schedules that stop at the departure station and later at the arrival station
+     * on any day of a date range
+     * @param departureStation departure station
+     * @param arrivalStation arrival station
+     * @param firstDate first departure date
+     * @param lastDate last departure date
+     * @return List of route matches ordered by date and departure time
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.ScheduleRouteMatch(" +
+           "s.id, t.id, t.trainNumber, t.trainName, t.trainType, t.totalSeats, s.departureDate, s.fare, " +
+           "INDEX(a), INDEX(b), SIZE(s.stops), a.stationName, b.stationName, a.departureTime, b.arrivalTime) " +
+           "FROM Schedule s JOIN s.train t JOIN s.stops a JOIN s.stops b " +
+           "WHERE s.departureDate BETWEEN :firstDate AND :lastDate " +
+           "AND a.stationName = :departureStation " +
+           "AND b.stationName = :arrivalStation " +
+           "AND INDEX(a) < INDEX(b) " +
+           "ORDER BY s.departureDate, a.departureTime")
+    List<ScheduleRouteMatch> findRouteMatchesBetween(@Param("departureStation") String departureStation,
+                                                     @Param("arrivalStation") String arrivalStation,
+                                                     @Param("firstDate") LocalDate firstDate,
+                                                     @Param("lastDate") LocalDate lastDate);
+    
+    /**
+     * Find the stations every schedule calls at
+     * @return List of schedule and station pairs
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.ScheduleStation(s.id, st.stationName) " +
+           "FROM Schedule s JOIN s.stops st")
+    List<ScheduleStation> findScheduleStations();
+    
+    /**
+     * Find schedules created before stops were recorded
+     * @return List of schedules without stops
+     */
+    @Query("SELECT s FROM Schedule s WHERE s.stops IS EMPTY")
+    List<Schedule> findSchedulesWithoutStops();
 }
\ No newline at end of file
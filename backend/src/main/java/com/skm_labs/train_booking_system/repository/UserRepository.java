@@ -2,7 +2,11 @@ package com.skm_labs.train_booking_system.repository;
 
 import com.skm_labs.train_booking_system.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -25,4 +29,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if exists, false otherwise
      */
     boolean existsByEmail(String email);
+    
+    /**
+     * Replace a stored password in a single guarded statement.
+     * The row is only changed if the password is still the one that was read, so a
+     * password changed concurrently is not overwritten.
+     * @param userId user ID
+     * @param current stored password that was read
+     * @param replacement new stored password
+     * @return number of rows updated, 0 if the password has changed since
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :replacement WHERE u.id = :userId AND u.password = :current")
+    int replacePassword(@Param("userId") Long userId, @Param("current") String current,
+                        @Param("replacement") String replacement);
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.skm_labs.train_booking_system.repository;
+
+import com.skm_labs.train_booking_system.dto.projection.WaitlistKey;
+import com.skm_labs.train_booking_system.entity.WaitlistEntry;
+import com.skm_labs.train_booking_system.entity.enums.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for WaitlistEntry entity
+ */
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    /**
+     * Find all waiting entries in the order they joined
+     * @return entry and schedule IDs
+     */
+    @Query("SELECT new com.skm_labs.train_booking_system.dto.projection.WaitlistKey(w.id, w.schedule.id) " +
+           "FROM WaitlistEntry w " +
+           "WHERE w.status = com.skm_labs.train_booking_system.entity.enums.WaitlistStatus.WAITING " +
+           "ORDER BY w.id")
+    List<WaitlistKey> findWaitingKeys();
+    
+    /**
+     * Mark an entry as promoted if it is still waiting
+     * @param entryId entry ID
+     * @param pnrNumber PNR of the booking made for the entry
+     * @return number of rows updated, 0 if the entry left the waitlist in the meantime
+     */
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = " +
+           "com.skm_labs.train_booking_system.entity.enums.WaitlistStatus.PROMOTED, w.pnrNumber = :pnrNumber " +
+           "WHERE w.id = :entryId " +
+           "AND w.status = com.skm_labs.train_booking_system.entity.enums.WaitlistStatus.WAITING")
+    int markPromoted(@Param("entryId") Long entryId, @Param("pnrNumber") String pnrNumber);
+    
+    /**
+     * Move an entry out of the waitlist if it is still waiting
+     * @param entryId entry ID
+     * @param status new status
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = :status " +
+           "WHERE w.id = :entryId " +
+           "AND w.status = com.skm_labs.train_booking_system.entity.enums.WaitlistStatus.WAITING")
+    int markClosed(@Param("entryId") Long entryId,
+                   @Param("status") WaitlistStatus status);
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.request.AdmissionRequestDTO;
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.AdmissionTicketDTO;
+
+import java.util.function.Supplier;
+
+/**
+ * Service interface for the booking admission queue.
+ * Clients take a ticket for a schedule and are admitted to book in FIFO order
+ * at a limited rate, tickets that can no longer be served from the remaining
+ * seats are rejected before they reach the booking path.
+ */
+public interface AdmissionService {
+    
+    /**
+     * Join the queue of a schedule
+     * @param admissionRequest user, schedule, stops and number of seats wanted
+     * @return issued ticket, already rejected if the stops cannot serve it
+     */
+    AdmissionTicketDTO issueTicket(AdmissionRequestDTO admissionRequest);
+    
+    /**
+     * Get the current status and queue position of a ticket
+     * @param ticketId ticket ID
+     * @param userId user of the session token, who must own the ticket
+     * @return ticket status
+     * @throws com.skm_labs.train_booking_system.exception.UserAccessDeniedException if the ticket belongs to another user
+     */
+    AdmissionTicketDTO getTicket(String ticketId, Long userId);
+    
+    /**
+     * Run a booking if its ticket has been admitted, consuming the ticket. The ticket must
+     * belong to the user of the booking and cover its schedule, stops and seats.
+     * Bookings pass straight through when admission control is disabled.
+     * @param ticketId ticket ID, may be null when admission control is disabled
+     * @param bookingRequest booking the ticket is used for
+     * @param booking booking to run
+     * @return result of the booking
+     * @throws com.skm_labs.train_booking_system.exception.UserAccessDeniedException if the ticket belongs to another user
+     */
+    <T> T admit(String ticketId, BookingRequestDTO bookingRequest, Supplier<T> booking);
+    
+    /**
+     * Admit waiting tickets according to the configured rate and expire unused admissions
+     * @return number of tickets admitted
+     */
+    int advance();
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.projection.BookingVersion;
+import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.CacheStatsDTO;
+
+/**
+ * Service interface for the cache of booking responses looked up by PNR
+ */
+public interface BookingCacheService {
+    
+    /**
+     * Get booking details by PNR, loading them from the database on a miss
+     * @param pnrNumber PNR number
+     * @return booking response
+     */
+    BookingResponseDTO getBookingByPnr(String pnrNumber);
+    
+    /**
+     * Get the versions a PNR lookup would be answered with, from the cached response if
+     * there is one and otherwise from the database, without building the response
+     * @param pnrNumber PNR number
+     * @return versions, null if unknown, for example while the booking is in the journal
+     */
+    BookingVersion getVersion(String pnrNumber);
+    
+    /**
+     * Drop the cached booking of a PNR
+     * @param pnrNumber PNR number
+     */
+    void invalidate(String pnrNumber);
+    
+    /**
+     * Get hit, miss and eviction statistics of the cache
+     * @return cache statistics
+     */
+    CacheStatsDTO getStats();
+}
\ No newline at end of file
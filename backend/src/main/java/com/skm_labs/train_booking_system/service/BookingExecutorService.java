@@ -0,0 +1,35 @@
+package com.skm_labs.train_booking_system.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Service interface for running booking mutations.
+ * In sharded mode every booking request for a schedule runs on the single thread that
+ * owns the schedule, so writes to one schedule never contend while different schedules
+ * proceed in parallel. Otherwise mutations run directly on the calling thread.
+ * Batch bookings, which span schedules, hold expiry and journal apply change seat counts
+ * on their own threads. They stay correct because every seat update is a guarded
+ * compare-and-set in the seat inventory, the shards only remove contention.
+ */
+public interface BookingExecutorService {
+    
+    /**
+     * Run a mutation of a schedule and wait for its result
+     * @param scheduleId schedule ID
+     * @param action mutation to run
+     * @return result of the mutation
+     * @throws com.skm_labs.train_booking_system.exception.BookingQueueFullException if the shard is full,
+     *         or the mutation did not start in time and was withdrawn, in both cases nothing was changed
+     */
+    <T> T execute(Long scheduleId, Supplier<T> action);
+    
+    /**
+     * Run a mutation of an existing booking on the shard of its schedule and wait for its result
+     * @param bookingId booking ID
+     * @param userId user of the session token, who must own the booking
+     * @param action mutation to run
+     * @return result of the mutation
+     * @throws com.skm_labs.train_booking_system.exception.UserAccessDeniedException if the booking belongs to another user
+     */
+    <T> T executeForBooking(Long bookingId, Long userId, Supplier<T> action);
+}
\ No newline at end of file
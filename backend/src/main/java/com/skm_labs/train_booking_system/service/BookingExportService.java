@@ -0,0 +1,32 @@
+package com.skm_labs.train_booking_system.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Service interface for bulk booking exports
+ */
+public interface BookingExportService {
+    
+    /**
+     * Write the bookings made in a date range to a stream, oldest first
+     * @param fromDate first booking date
+     * @param toDate last booking date
+     * @param format output format
+     * @param output stream to write to, left open
+     * @return number of bookings written
+     * @throws IOException if the stream cannot be written
+     */
+    long export(LocalDate fromDate, LocalDate toDate, Format format, OutputStream output) throws IOException;
+    
+    /**
+     * Export formats
+     */
+    enum Format {
+        // One JSON object per line
+        NDJSON,
+        // Comma separated values with a header row
+        CSV
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.entity.Booking;
+
+import java.util.Optional;
+
+/**
+ * Service interface for the durable booking journal.
+ * When enabled, new bookings are acknowledged once they are on disk in the journal
+ * and are written to the bookings table in the background.
+ */
+public interface BookingJournalService {
+    
+    /**
+     * Check whether bookings go through the journal
+     * @return true if journal mode is enabled
+     */
+    boolean isEnabled();
+    
+    /**
+     * Durably record a new booking, blocking until the journal entry is on disk
+     * @param booking booking to record, not yet saved
+     * @return the same booking, without an ID until it has been written to the database
+     */
+    Booking append(Booking booking);
+    
+    /**
+     * Find a journaled booking that has not been written to the database yet
+     * @param pnrNumber PNR number
+     * @return Optional booking
+     */
+    Optional<Booking> findPending(String pnrNumber);
+    
+    /**
+     * Write journaled bookings to the database in batches
+     * @return number of bookings written
+     */
+    int apply();
+}
\ No newline at end of file
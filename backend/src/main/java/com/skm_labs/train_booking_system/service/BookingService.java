@@ -1,11 +1,18 @@
 package com.skm_labs.train_booking_system.service;
 
+import com.skm_labs.train_booking_system.dto.projection.BookingVersion;
 import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
 import com.skm_labs.train_booking_system.dto.request.BookingUpdateDTO;
 import com.skm_labs.train_booking_system.dto.request.SearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.BatchBookingResultDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingHistoryPageDTO;
 import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.DailySearchResultDTO;
 import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -20,19 +27,63 @@ public interface BookingService {
      */
     List<TrainScheduleDTO> searchTrains(SearchRequestDTO searchRequest);
     
+    /**
+     * Search available trains on every day within the flexible days around the departure date
+     * @param searchRequest search criteria with the number of flexible days
+     * @return one result per day in date order, including days without trains
+     */
+    List<DailySearchResultDTO> searchTrainsFlexible(SearchRequestDTO searchRequest);
+    
     /**
      * Create a new booking
      * @param bookingRequest booking details
-     * @return created booking response
+     * @return created booking response, without booking ID and version in journal mode
+     * until the journaled booking has been written to the database
      */
     BookingResponseDTO createBooking(BookingRequestDTO bookingRequest);
     
     /**
-     * Get user's booking history
+     * Create many bookings at once, grouped by schedule.
+     * Bookings that cannot be made are reported without failing the rest of the batch.
+     * @param bookingRequests booking details
+     * @return one result per request, in request order
+     */
+    List<BatchBookingResultDTO> createBookings(List<BookingRequestDTO> bookingRequests);
+    
+    /**
+     * Hold seats as a pending booking until it is confirmed or the hold expires
+     * @param bookingRequest booking details
+     * @param expiresAt time at which the hold is released
+     * @return pending booking response
+     */
+    BookingResponseDTO createHold(BookingRequestDTO bookingRequest, LocalDateTime expiresAt);
+    
+    /**
+     * Confirm a seat hold
+     * @param bookingId booking ID of the hold
+     * @return confirmed booking response
+     */
+    BookingResponseDTO confirmHold(Long bookingId);
+    
+    /**
+     * Expire seat holds whose deadline has passed and release their seats
+     * @param bookingIds booking IDs of the holds
+     * @return number of holds expired
+     */
+    int expireHolds(List<Long> bookingIds);
+    
+    /**
+     * Get a page of a user's booking history, newest first
      * @param userId user ID
-     * @return list of user bookings
+     * @param bookingStatus only bookings with this status, null for all
+     * @param fromDate first booking date, null for no lower bound
+     * @param toDate last booking date, null for no upper bound
+     * @param cursor cursor of the previous page, null for the first page
+     * @param size maximum number of bookings on the page
+     * @return page of user bookings
      */
-    List<BookingResponseDTO> getUserBookings(Long userId);
+    BookingHistoryPageDTO getUserBookings(Long userId, BookingStatus bookingStatus, LocalDate fromDate,
+                                          LocalDate toDate, String cursor, int size);
     
     /**
      * Update existing booking
@@ -56,6 +107,13 @@ public interface BookingService {
      */
     BookingResponseDTO getBookingByPnr(String pnrNumber);
     
+    /**
+     * Get the versions of a stored booking and its schedule without loading either
+     * @param pnrNumber PNR number
+     * @return versions, null if no stored booking has the PNR
+     */
+    BookingVersion getBookingVersion(String pnrNumber);
+    
     /**
      * Generate unique PNR number
      * @return generated PNR number
@@ -0,0 +1,24 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.request.JourneySearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.JourneyDTO;
+
+import java.util.List;
+
+/**
+ * Service interface for planning journeys with transfers
+ */
+public interface JourneyPlannerService {
+    
+    /**
+     * Plan the journeys between two stations that have seats on every leg
+     * @param searchRequest journey criteria
+     * @return journeys from fewest transfers to earliest arrival
+     */
+    List<JourneyDTO> planJourneys(JourneySearchRequestDTO searchRequest);
+    
+    /**
+     * Rebuild the timetable from the database
+     */
+    void rebuild();
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.skm_labs.train_booking_system.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service interface for password hashing. Hashing is deliberately slow, so it runs on
+ * a small bounded executor of its own instead of the request threads.
+ */
+public interface PasswordService {
+    
+    /**
+     * Hash a password
+     * @param password plain text password
+     * @return the hash to store
+     * @throws com.skm_labs.train_booking_system.exception.AuthenticationBusyException if the executor is saturated
+     */
+    CompletableFuture<String> hash(String password);
+    
+    /**
+     * Check a password against a stored hash
+     * @param password plain text password
+     * @param stored stored hash, or a plain text password stored before hashing
+     * @return whether the password matches
+     * @throws com.skm_labs.train_booking_system.exception.AuthenticationBusyException if the executor is saturated
+     */
+    CompletableFuture<Boolean> matches(String password, String stored);
+    
+    /**
+     * Check if a stored password should be hashed again with the current settings
+     * @param stored stored hash
+     * @return true for plain text and weaker hashes
+     */
+    boolean needsRehash(String stored);
+    
+    /**
+     * Get a hash with the current settings that no password is expected to match, so that
+     * a login for an unknown user can spend the same time as a real check
+     * @return dummy hash
+     */
+    String getDummyHash();
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.skm_labs.train_booking_system.service;
+
+/**
+ * Service interface for PNR number generation
+ */
+public interface PnrService {
+    
+    /**
+     * Generate a new PNR number, unique without checking the database
+     * @return PNR number
+     */
+    String next();
+}
\ No newline at end of file
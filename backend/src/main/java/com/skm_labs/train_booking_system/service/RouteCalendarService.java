@@ -0,0 +1,20 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.response.RouteCalendarDTO;
+
+import java.time.YearMonth;
+
+/**
+ * Service interface for route availability calendars
+ */
+public interface RouteCalendarService {
+    
+    /**
+     * Get the departures, lowest fare and available seats of every day of a month
+     * @param departureStation departure station
+     * @param arrivalStation arrival station
+     * @param month month of the calendar
+     * @return route calendar
+     */
+    RouteCalendarDTO getCalendar(String departureStation, String arrivalStation, YearMonth month);
+}
\ No newline at end of file
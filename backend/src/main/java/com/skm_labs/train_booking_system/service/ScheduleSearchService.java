@@ -0,0 +1,56 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.request.SearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.DailySearchResultDTO;
+import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+
+import java.util.List;
+
+/**
+ * Service interface for the in-memory train search index.
+ * Schedules are indexed by boarding station, alighting station and departure date,
+ * seat availability is read from the seat inventory at query time.
+ */
+public interface ScheduleSearchService {
+    
+    /**
+     * Search available trains based on criteria without querying the database
+     * @param searchRequest search criteria
+     * @return list of available train schedules ordered by departure time
+     */
+    List<TrainScheduleDTO> searchTrains(SearchRequestDTO searchRequest);
+    
+    /**
+     * Search available trains on every day within the flexible days around the departure date
+     * without querying the database
+     * @param searchRequest search criteria with the number of flexible days
+     * @return one result per day in date order, including days without trains
+     */
+    List<DailySearchResultDTO> searchTrainsFlexible(SearchRequestDTO searchRequest);
+    
+    /**
+     * Get a version stamp of the routes a search reads, covering the flexible days around
+     * the departure date. It changes whenever a schedule or the seats of a schedule on one
+     * of the routes change. Read it before searching, so the stamp is never newer than the result.
+     * @param searchRequest search criteria
+     * @return version stamp, null if the search is answered by the database
+     */
+    String getVersion(SearchRequestDTO searchRequest);
+    
+    /**
+     * Add a schedule to the index or replace its previous entries
+     * @param scheduleId schedule ID
+     */
+    void index(Long scheduleId);
+    
+    /**
+     * Remove a schedule from the index
+     * @param scheduleId schedule ID
+     */
+    void remove(Long scheduleId);
+    
+    /**
+     * Rebuild the whole index from the database
+     */
+    void rebuild();
+}
\ No newline at end of file
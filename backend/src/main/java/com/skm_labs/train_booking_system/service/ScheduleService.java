@@ -1,8 +1,12 @@
 package com.skm_labs.train_booking_system.service;
 
+import com.skm_labs.train_booking_system.dto.response.PageResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.ScheduleResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.ScheduleSummaryDTO;
 import com.skm_labs.train_booking_system.entity.Schedule;
+import org.springframework.data.domain.Sort;
 
-import java.util.List;
+import java.time.LocalDate;
 
 /**
  * Service interface for Schedule operations
@@ -14,21 +18,66 @@ public interface ScheduleService {
      * @param schedule schedule to create
      * @return created schedule
      */
-    Schedule createSchedule(Schedule schedule);
+    ScheduleResponseDTO createSchedule(Schedule schedule);
+    
+    /**
+     * Update the timetable and fare of a schedule. The train cannot be changed, and while
+     * seats are taken the stations and their order must stay the same.
+     * @param scheduleId schedule ID
+     * @param schedule new schedule fields
+     * @return updated schedule
+     */
+    ScheduleResponseDTO updateSchedule(Long scheduleId, Schedule schedule);
     
     /**
      * Update available seats for a schedule
      * @param scheduleId schedule ID
      * @param seatChange change in seat count (negative for booking, positive for cancellation)
-     * @return updated schedule
+     * @return available seats after the change
      */
-    Schedule updateAvailableSeats(Long scheduleId, Integer seatChange);
+    Integer updateAvailableSeats(Long scheduleId, Integer seatChange);
     
     /**
-     * Get all schedules
-     * @return list of all schedules
+     * Update available seats between two stops of a schedule
+     * @param scheduleId schedule ID
+     * @param fromStop index of the boarding stop
+     * @param toStop index of the alighting stop
+     * @param seatChange change in seat count (negative for booking, positive for cancellation)
+     * @return available seats between the two stops after the change
+     */
+    Integer updateAvailableSeats(Long scheduleId, int fromStop, int toStop, Integer seatChange);
+    
+    /**
+     * Get a page of schedules, each filter is skipped when null
+     * @param fromDate first departure date
+     * @param toDate last departure date
+     * @param departureStation first station of the schedule
+     * @param arrivalStation last station of the schedule
+     * @param trainNumber train number
+     * @param page zero-based page number
+     * @param size page size
+     * @param sortBy field to sort by
+     * @param direction sort direction
+     * @return page of schedule summaries
+     */
+    PageResponseDTO<ScheduleSummaryDTO> getSchedules(LocalDate fromDate, LocalDate toDate, String departureStation,
+                                                     String arrivalStation, String trainNumber, int page, int size,
+                                                     String sortBy, Sort.Direction direction);
+    
+    /**
+     * Get a schedule with its stops
+     * @param scheduleId schedule ID
+     * @return schedule
+     */
+    ScheduleResponseDTO getSchedule(Long scheduleId);
+    
+    /**
+     * Get a version stamp of a schedule response without loading the schedule. It changes
+     * with the timetable, fare, stops and available seats.
+     * @param scheduleId schedule ID
+     * @return version stamp, null if the schedule does not exist
      */
-    List<Schedule> getAllSchedules();
+    String getScheduleVersion(Long scheduleId);
     
     /**
      * Find schedule by ID
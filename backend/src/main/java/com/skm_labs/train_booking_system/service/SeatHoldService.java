@@ -0,0 +1,39 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+
+/**
+ * Service interface for two-phase seat holds.
+ * A hold reserves seats as a pending booking, which is either confirmed or
+ * released automatically once its time to live has passed.
+ */
+public interface SeatHoldService {
+    
+    /**
+     * Hold seats for the configured time to live
+     * @param bookingRequest booking details
+     * @return pending booking response with the hold deadline
+     */
+    BookingResponseDTO hold(BookingRequestDTO bookingRequest);
+    
+    /**
+     * Confirm a seat hold before it expires
+     * @param bookingId booking ID of the hold
+     * @return confirmed booking response
+     */
+    BookingResponseDTO confirm(Long bookingId);
+    
+    /**
+     * Release the seats of all holds whose deadline has passed
+     * @return number of holds expired
+     */
+    int expireDue();
+    
+    /**
+     * Reload outstanding holds from the database after a restart,
+     * expiring those whose deadline passed while the application was down
+     * @return number of holds found
+     */
+    int recover();
+}
\ No newline at end of file
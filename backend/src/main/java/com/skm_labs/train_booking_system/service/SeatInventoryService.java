@@ -0,0 +1,99 @@
+package com.skm_labs.train_booking_system.service;
+
+import java.util.Collection;
+
+/**
+ * Service interface for the in-memory seat inventory.
+ * Seat counters are the source of truth while the application runs and are
+ * written back to the schedules table in the background.
+ * Multi-stop schedules are tracked per route segment, stop ranges are half-open:
+ * a journey from stop i to stop j uses segments i to j - 1.
+ */
+public interface SeatInventoryService {
+    
+    /**
+     * Get the current number of available seats for a schedule
+     * @param scheduleId schedule ID
+     * @return available seats
+     */
+    int getAvailableSeats(Long scheduleId);
+    
+    /**
+     * Get the number of seats available between two stops of a schedule
+     * @param scheduleId schedule ID
+     * @param fromStop index of the boarding stop
+     * @param toStop index of the alighting stop
+     * @return available seats
+     */
+    int getAvailableSeats(Long scheduleId, int fromStop, int toStop);
+    
+    /**
+     * Load the counters of the schedules that are not tracked yet in one pass, so that
+     * reading the seats of many schedules does not query each of them on its own
+     * @param scheduleIds schedule IDs, unknown ones are ignored
+     */
+    void preload(Collection<Long> scheduleIds);
+    
+    /**
+     * Reserve seats on a schedule, failing if not enough seats are left
+     * @param scheduleId schedule ID
+     * @param seats number of seats to reserve
+     * @return available seats after the reservation
+     */
+    int reserve(Long scheduleId, int seats);
+    
+    /**
+     * Reserve seats between two stops of a schedule, failing if not enough seats are left on any segment
+     * @param scheduleId schedule ID
+     * @param fromStop index of the boarding stop
+     * @param toStop index of the alighting stop
+     * @param seats number of seats to reserve
+     * @return available seats between the two stops after the reservation
+     */
+    int reserve(Long scheduleId, int fromStop, int toStop, int seats);
+    
+    /**
+     * Return seats to a schedule, failing if the total seat count would be exceeded
+     * @param scheduleId schedule ID
+     * @param seats number of seats to release
+     * @return available seats after the release
+     */
+    int release(Long scheduleId, int seats);
+    
+    /**
+     * Return seats between two stops of a schedule
+     * @param scheduleId schedule ID
+     * @param fromStop index of the boarding stop
+     * @param toStop index of the alighting stop
+     * @param seats number of seats to release
+     * @return available seats between the two stops after the release
+     */
+    int release(Long scheduleId, int fromStop, int toStop, int seats);
+    
+    /**
+     * Get the number of route segments tracked for a schedule
+     * @param scheduleId schedule ID
+     * @return number of segments, 1 for schedules without intermediate stops
+     */
+    int getSegmentCount(Long scheduleId);
+    
+    /**
+     * Register or reset the counter of a schedule
+     * @param scheduleId schedule ID
+     * @param availableSeats available seats
+     * @param totalSeats total seats of the train
+     * @param segments number of route segments
+     */
+    void register(Long scheduleId, int availableSeats, int totalSeats, int segments);
+    
+    /**
+     * Write all changed counters back to the database
+     * @return number of schedules written
+     */
+    int flush();
+    
+    /**
+     * Rebuild all counters from the database
+     */
+    void rebuild();
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.skm_labs.train_booking_system.service;
+
+import java.util.List;
+
+/**
+ * Service interface for per-seat allocation
+ */
+public interface SeatMapService {
+    
+    /**
+     * Allocate seat numbers on a schedule, keeping the group together where possible
+     * @param scheduleId schedule ID
+     * @param seats number of seats to allocate
+     * @return allocated seat numbers
+     */
+    List<Integer> allocate(Long scheduleId, int seats);
+    
+    /**
+     * Allocate seat numbers between two stops of a schedule
+     * @param scheduleId schedule ID
+     * @param fromStop index of the boarding stop
+     * @param toStop index of the alighting stop
+     * @param seats number of seats to allocate
+     * @return allocated seat numbers
+     */
+    List<Integer> allocate(Long scheduleId, int fromStop, int toStop, int seats);
+    
+    /**
+     * Free previously allocated seat numbers
+     * @param scheduleId schedule ID
+     * @param seatNumbers seat numbers to free
+     */
+    void release(Long scheduleId, List<Integer> seatNumbers);
+    
+    /**
+     * Free previously allocated seat numbers between two stops of a schedule
+     * @param scheduleId schedule ID
+     * @param fromStop index of the boarding stop
+     * @param toStop index of the alighting stop
+     * @param seatNumbers seat numbers to free
+     */
+    void release(Long scheduleId, int fromStop, int toStop, List<Integer> seatNumbers);
+    
+    /**
+     * Drop the cached seat map of a schedule so that it is reloaded on next use
+     * @param scheduleId schedule ID
+     */
+    void evict(Long scheduleId);
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.auth.SessionUser;
+import com.skm_labs.train_booking_system.dto.response.SessionTokenDTO;
+
+/**
+ * Service interface for stateless session tokens
+ */
+public interface SessionTokenService {
+    
+    /**
+     * Issue a signed token for a user that has just authenticated
+     * @param userId user ID
+     * @return token and its expiry
+     */
+    SessionTokenDTO issue(Long userId);
+    
+    /**
+     * Verify a token in memory, without a database lookup
+     * @param token token from the Authorization header
+     * @return the user of the token
+     * @throws com.skm_labs.train_booking_system.exception.InvalidTokenException if the token is malformed, forged, expired or revoked
+     */
+    SessionUser verify(String token);
+    
+    /**
+     * Revoke a token before it expires
+     * @param sessionUser user of a verified token
+     */
+    void revoke(SessionUser sessionUser);
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.response.StationSuggestionDTO;
+
+import java.util.List;
+
+/**
+ * Service interface for the station catalogue
+ */
+public interface StationService {
+    
+    /**
+     * Suggest stations whose name, or any word of it, starts with the query
+     * @param query typed text, case-insensitive
+     * @param limit maximum number of suggestions
+     * @return suggestions, most served stations first
+     */
+    List<StationSuggestionDTO> suggest(String query, int limit);
+    
+    /**
+     * Rebuild the catalogue from the database
+     */
+    void rebuild();
+}
\ No newline at end of file
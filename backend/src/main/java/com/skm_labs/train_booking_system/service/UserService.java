@@ -4,25 +4,29 @@ import com.skm_labs.train_booking_system.dto.request.UserRegistrationDTO;
 import com.skm_labs.train_booking_system.dto.response.UserProfileDTO;
 import com.skm_labs.train_booking_system.entity.User;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service interface for User operations
  */
 public interface UserService {
     
     /**
-     * Register a new user
+     * Register a new user. The password is hashed on the password executor.
      * @param registrationDTO user registration data
-     * @return created user
+     * @return created user, completed once the password is hashed and the user saved
      */
-    User registerUser(UserRegistrationDTO registrationDTO);
+    CompletableFuture<User> registerUser(UserRegistrationDTO registrationDTO);
     
     /**
-     * Authenticate user by email and password
+     * Authenticate user by email and password. The password is checked on the password
+     * executor, and a password stored before hashing or with weaker settings is hashed
+     * again afterwards.
      * @param email user email
      * @param password user password
-     * @return authenticated user
+     * @return authenticated user, completed once the password is checked
      */
-    User authenticateUser(String email, String password);
+    CompletableFuture<User> authenticateUser(String email, String password);
     
     /**
      * Get user profile by ID
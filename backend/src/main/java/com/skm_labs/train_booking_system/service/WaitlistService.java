@@ -0,0 +1,47 @@
+package com.skm_labs.train_booking_system.service;
+
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.WaitlistEntryDTO;
+
+/**
+ * Service interface for schedule waitlists.
+ * Booking requests that cannot be served join a first-in first-out waitlist per
+ * schedule and are turned into bookings automatically when seats are released.
+ */
+public interface WaitlistService {
+    
+    /**
+     * Add a booking request to the waitlist of its schedule
+     * @param bookingRequest booking details
+     * @return waitlist entry with its position
+     */
+    WaitlistEntryDTO join(BookingRequestDTO bookingRequest);
+    
+    /**
+     * Get a waitlist entry
+     * @param waitlistId waitlist entry ID
+     * @param userId user of the session token, who must own the entry
+     * @return waitlist entry with its position, or the PNR once promoted
+     */
+    WaitlistEntryDTO getEntry(Long waitlistId, Long userId);
+    
+    /**
+     * Remove a waiting entry from the waitlist
+     * @param waitlistId waitlist entry ID
+     * @param userId user of the session token, who must own the entry
+     * @return cancelled waitlist entry
+     */
+    WaitlistEntryDTO leave(Long waitlistId, Long userId);
+    
+    /**
+     * Promote waiting entries of the schedules that released seats, in waitlist order
+     * @return number of entries promoted to bookings
+     */
+    int promote();
+    
+    /**
+     * Reload the waiting entries from the database after a restart
+     * @return number of entries loaded
+     */
+    int recover();
+}
\ No newline at end of file
@@ -0,0 +1,413 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.request.AdmissionRequestDTO;
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.AdmissionTicketDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.enums.AdmissionStatus;
+import com.skm_labs.train_booking_system.exception.AdmissionRequiredException;
+import com.skm_labs.train_booking_system.exception.BookingQueueFullException;
+import com.skm_labs.train_booking_system.exception.ScheduleNotFoundException;
+import com.skm_labs.train_booking_system.exception.SeatNotAvailableException;
+import com.skm_labs.train_booking_system.exception.TicketNotFoundException;
+import com.skm_labs.train_booking_system.exception.UserAccessDeniedException;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.AdmissionService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.util.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+
+/**
+ * Service implementation for the booking admission queue.
+ * Every schedule has an in-memory FIFO of tickets. A scheduled tick admits waiting
+ * tickets at the configured rate per schedule. Admitted tickets claim their seats on
+ * each route segment between their stops, and once those claims cover the seats left
+ * on a segment in the inventory, the remaining tickets for it are rejected without
+ * ever reaching the database. Admitted tickets that are not used in time expire through
+ * a hashed timing wheel and give their seats back to the queue. A ticket belongs to the
+ * user of the session token that took it. Polling a ticket only reads in-memory counters,
+ * the stations of a schedule are loaded once when its queue is created.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionServiceImpl implements AdmissionService {
+    
+    private final SeatInventoryService seatInventoryService;
+    private final ScheduleRepository scheduleRepository;
+    
+    @Value("${app.admission.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.admission.rate-per-second:50}")
+    private double ratePerSecond;
+    
+    @Value("${app.admission.tick-ms:100}")
+    private long tickMillis;
+    
+    @Value("${app.admission.admitted-ttl-seconds:120}")
+    private long admittedTtlSeconds;
+    
+    @Value("${app.admission.max-waiting:100000}")
+    private int maxWaiting;
+    
+    private final Map<Long, ScheduleQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private HashedTimingWheel<Ticket> wheel;
+    private long lastAdvance;
+    
+    @PostConstruct
+    public void init() {
+        lastAdvance = System.currentTimeMillis();
+        wheel = new HashedTimingWheel<>(tickMillis, 512, lastAdvance);
+    }
+    
+    @Override
+    public AdmissionTicketDTO issueTicket(AdmissionRequestDTO admissionRequest) {
+        Long scheduleId = admissionRequest.getScheduleId();
+        int seats = admissionRequest.getSeatCount();
+        
+        while (true) {
+            ScheduleQueue queue = queues.computeIfAbsent(scheduleId, this::newQueue);
+            int[] stops = resolveStops(queue, admissionRequest.getFromStation(), admissionRequest.getToStation());
+            Ticket ticket;
+            synchronized (queue) {
+                // The tick may have dropped an idle queue since it was looked up
+                if (queue.closed) {
+                    continue;
+                }
+                if (queue.issued - queue.served >= maxWaiting) {
+                    throw new BookingQueueFullException("The booking queue for this schedule is full, please retry later");
+                }
+                
+                if (canServe(queue, stops[0], stops[1], seats)) {
+                    ticket = new Ticket(UUID.randomUUID().toString(), queue, admissionRequest.getUserId(),
+                            ++queue.issued, stops[0], stops[1], seats);
+                    queue.waiting.add(ticket);
+                } else {
+                    ticket = new Ticket(UUID.randomUUID().toString(), queue, admissionRequest.getUserId(),
+                            0, stops[0], stops[1], seats);
+                    ticket.status = AdmissionStatus.REJECTED;
+                }
+            }
+            
+            tickets.put(ticket.id, ticket);
+            if (ticket.status == AdmissionStatus.REJECTED) {
+                retain(ticket, System.currentTimeMillis());
+                log.debug("Rejected queue ticket for schedule ID: {}, remaining seats are taken", scheduleId);
+            }
+            return toDto(ticket);
+        }
+    }
+    
+    @Override
+    public AdmissionTicketDTO getTicket(String ticketId, Long userId) {
+        return toDto(findOwnedTicket(ticketId, userId));
+    }
+    
+    @Override
+    public <T> T admit(String ticketId, BookingRequestDTO bookingRequest, Supplier<T> booking) {
+        if (!enabled) {
+            return booking.get();
+        }
+        if (ticketId == null || ticketId.isBlank()) {
+            throw new AdmissionRequiredException("A queue ticket is required to book, join the queue at /bookings/queue");
+        }
+        
+        Ticket ticket = findOwnedTicket(ticketId, bookingRequest.getUserId());
+        if (!ticket.queue.scheduleId.equals(bookingRequest.getScheduleId())) {
+            throw new IllegalArgumentException("Queue ticket was issued for schedule ID: " + ticket.queue.scheduleId);
+        }
+        if (bookingRequest.getSeatCount() > ticket.seats) {
+            throw new IllegalArgumentException("Queue ticket covers at most " + ticket.seats + " seats");
+        }
+        int[] stops = resolveStops(ticket.queue, bookingRequest.getFromStation(), bookingRequest.getToStation());
+        if (stops[0] < ticket.fromStop || stops[1] > ticket.toStop) {
+            throw new IllegalArgumentException("Queue ticket does not cover the journey from "
+                    + bookingRequest.getFromStation() + " to " + bookingRequest.getToStation());
+        }
+        
+        if (!ticket.transition(AdmissionStatus.ADMITTED, AdmissionStatus.USED)) {
+            AdmissionStatus status = ticket.status;
+            if (status == AdmissionStatus.WAITING) {
+                throw new AdmissionRequiredException("Queue ticket is waiting at position " + position(ticket));
+            }
+            if (status == AdmissionStatus.REJECTED) {
+                throw new SeatNotAvailableException("Not enough seats left for this queue ticket");
+            }
+            throw new AdmissionRequiredException("Queue ticket is " + status.name().toLowerCase() + ", join the queue again");
+        }
+        
+        ticket.timeout.cancel();
+        try {
+            return booking.get();
+        } finally {
+            ticket.queue.unclaim(ticket);
+            tickets.remove(ticketId);
+        }
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.admission.tick-ms:100}")
+    public int advance() {
+        long now = System.currentTimeMillis();
+        double allowance = ratePerSecond * (now - lastAdvance) / 1000.0;
+        lastAdvance = now;
+        
+        int admitted = 0;
+        for (ScheduleQueue queue : queues.values()) {
+            try {
+                admitted += advance(queue, allowance, now);
+            } catch (RuntimeException e) {
+                log.error("Failed to advance the booking queue of schedule ID: {}", queue.scheduleId, e);
+            }
+            dropIfIdle(queue);
+        }
+        
+        for (Ticket ticket : wheel.advance(now)) {
+            expire(ticket, now);
+        }
+        
+        if (admitted > 0) {
+            log.debug("Admitted {} queue tickets, {} tickets outstanding", admitted, tickets.size());
+        }
+        return admitted;
+    }
+    
+    private int advance(ScheduleQueue queue, double allowance, long now) {
+        // Unused allowance carries over for at most one second, so an idle queue cannot build up a burst
+        queue.allowance = Math.min(queue.allowance + allowance, Math.max(1.0, ratePerSecond));
+        
+        int admitted = 0;
+        Ticket ticket;
+        while ((ticket = queue.waiting.peek()) != null) {
+            if (canServe(queue, ticket.fromStop, ticket.toStop, ticket.seats)) {
+                if (queue.allowance < 1.0) {
+                    break;
+                }
+                queue.allowance -= 1.0;
+                long deadline = now + admittedTtlSeconds * 1000;
+                queue.claim(ticket);
+                ticket.admit(wheel.schedule(ticket, deadline), deadline);
+                admitted++;
+            } else {
+                // Rejecting costs nothing downstream, so it does not use up the admission rate
+                ticket.transition(AdmissionStatus.WAITING, AdmissionStatus.REJECTED);
+                retain(ticket, now);
+            }
+            queue.waiting.poll();
+            queue.served = ticket.position;
+        }
+        return admitted;
+    }
+    
+    /**
+     * Whether every segment between the stops has the seats left after the claims of admitted tickets
+     */
+    private boolean canServe(ScheduleQueue queue, int fromStop, int toStop, int seats) {
+        for (int segment = fromStop; segment < toStop; segment++) {
+            if (queue.claimedSeats.get(segment) + seats
+                    > seatInventoryService.getAvailableSeats(queue.scheduleId, segment, segment + 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private ScheduleQueue newQueue(Long scheduleId) {
+        Schedule schedule = scheduleRepository.findWithTrainAndStopsById(scheduleId)
+                .orElseThrow(() -> new ScheduleNotFoundException(scheduleId));
+        List<String> stations = schedule.getStops().stream().map(ScheduleStop::getStationName).toList();
+        return new ScheduleQueue(scheduleId, stations, seatInventoryService.getSegmentCount(scheduleId));
+    }
+    
+    /**
+     * Resolve boarding and alighting stations to stop indexes the way bookings do,
+     * defaulting to the first and last stop of the route
+     * @return boarding and alighting stop index
+     */
+    private int[] resolveStops(ScheduleQueue queue, String fromStation, String toStation) {
+        List<String> stations = queue.stations;
+        if (stations.isEmpty()) {
+            // Schedules without stops are queued for as a whole
+            if (fromStation != null || toStation != null) {
+                throw new IllegalArgumentException("Schedule " + queue.scheduleId + " has no stops");
+            }
+            return new int[] {0, 1};
+        }
+        
+        int fromStop = fromStation == null ? 0 : indexOfStation(stations, fromStation, 0);
+        int toStop = toStation == null ? stations.size() - 1 : indexOfStation(stations, toStation, fromStop + 1);
+        if (fromStop < 0 || toStop < 0 || fromStop >= toStop) {
+            throw new IllegalArgumentException("Schedule " + queue.scheduleId
+                    + " does not run from " + fromStation + " to " + toStation);
+        }
+        return new int[] {fromStop, toStop};
+    }
+    
+    private static int indexOfStation(List<String> stations, String stationName, int fromIndex) {
+        for (int i = fromIndex; i < stations.size(); i++) {
+            if (stations.get(i).equalsIgnoreCase(stationName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private Ticket findOwnedTicket(String ticketId, Long userId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new TicketNotFoundException(ticketId);
+        }
+        if (!ticket.userId.equals(userId)) {
+            throw new UserAccessDeniedException("Queue ticket " + ticketId + " belongs to another user");
+        }
+        return ticket;
+    }
+    
+    private void expire(Ticket ticket, long now) {
+        if (ticket.transition(AdmissionStatus.ADMITTED, AdmissionStatus.EXPIRED)) {
+            ticket.queue.unclaim(ticket);
+            retain(ticket, now);
+        } else {
+            tickets.remove(ticket.id);
+        }
+    }
+    
+    /**
+     * Keep a finished ticket around for a while so that clients polling it see the outcome
+     */
+    private void retain(Ticket ticket, long now) {
+        wheel.schedule(ticket, now + admittedTtlSeconds * 1000);
+    }
+    
+    private void dropIfIdle(ScheduleQueue queue) {
+        if (!queue.waiting.isEmpty() || queue.admittedSeats.get() != 0) {
+            return;
+        }
+        synchronized (queue) {
+            if (queue.waiting.isEmpty() && queue.admittedSeats.get() == 0) {
+                queue.closed = true;
+                queues.remove(queue.scheduleId, queue);
+            }
+        }
+    }
+    
+    private long position(Ticket ticket) {
+        return Math.max(1, ticket.position - ticket.queue.served);
+    }
+    
+    private AdmissionTicketDTO toDto(Ticket ticket) {
+        AdmissionStatus status = ticket.status;
+        AdmissionTicketDTO.AdmissionTicketDTOBuilder builder = AdmissionTicketDTO.builder()
+                .ticketId(ticket.id)
+                .scheduleId(ticket.queue.scheduleId)
+                .seatCount(ticket.seats)
+                .status(status);
+        
+        if (status == AdmissionStatus.WAITING) {
+            long position = position(ticket);
+            builder.position(position)
+                    .estimatedWaitSeconds((long) Math.ceil(position / Math.max(ratePerSecond, 0.001)));
+        } else if (status == AdmissionStatus.ADMITTED) {
+            builder.admittedUntil(LocalDateTime.ofInstant(Instant.ofEpochMilli(ticket.admittedUntil), ZoneId.systemDefault()));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Queue of one schedule. Tickets are added under the queue lock and only the
+     * ticking thread takes them off, so served and allowance have a single writer.
+     */
+    private static final class ScheduleQueue {
+        
+        private final Long scheduleId;
+        private final List<String> stations;
+        private final Queue<Ticket> waiting = new ConcurrentLinkedQueue<>();
+        // Seats claimed on each segment by admitted tickets that have not booked yet, and their total
+        private final AtomicIntegerArray claimedSeats;
+        private final AtomicInteger admittedSeats = new AtomicInteger();
+        private long issued;
+        private volatile long served;
+        private double allowance;
+        private boolean closed;
+        
+        private ScheduleQueue(Long scheduleId, List<String> stations, int segments) {
+            this.scheduleId = scheduleId;
+            this.stations = stations;
+            this.claimedSeats = new AtomicIntegerArray(segments);
+        }
+        
+        private void claim(Ticket ticket) {
+            for (int segment = ticket.fromStop; segment < ticket.toStop; segment++) {
+                claimedSeats.addAndGet(segment, ticket.seats);
+            }
+            admittedSeats.addAndGet(ticket.seats);
+        }
+        
+        private void unclaim(Ticket ticket) {
+            admittedSeats.addAndGet(-ticket.seats);
+            for (int segment = ticket.fromStop; segment < ticket.toStop; segment++) {
+                claimedSeats.addAndGet(segment, -ticket.seats);
+            }
+        }
+    }
+    
+    private static final class Ticket {
+        
+        private final String id;
+        private final ScheduleQueue queue;
+        private final Long userId;
+        private final long position;
+        private final int fromStop;
+        private final int toStop;
+        private final int seats;
+        private volatile AdmissionStatus status = AdmissionStatus.WAITING;
+        private volatile HashedTimingWheel.Timeout<Ticket> timeout;
+        private volatile long admittedUntil;
+        
+        private Ticket(String id, ScheduleQueue queue, Long userId, long position, int fromStop, int toStop, int seats) {
+            this.id = id;
+            this.queue = queue;
+            this.userId = userId;
+            this.position = position;
+            this.fromStop = fromStop;
+            this.toStop = toStop;
+            this.seats = seats;
+        }
+        
+        private synchronized void admit(HashedTimingWheel.Timeout<Ticket> timeout, long admittedUntil) {
+            // The timeout is in place before the ticket can be used
+            this.timeout = timeout;
+            this.admittedUntil = admittedUntil;
+            this.status = AdmissionStatus.ADMITTED;
+        }
+        
+        private synchronized boolean transition(AdmissionStatus from, AdmissionStatus to) {
+            if (status != from) {
+                return false;
+            }
+            status = to;
+            return true;
+        }
+    }
+}
\ No newline at end of file
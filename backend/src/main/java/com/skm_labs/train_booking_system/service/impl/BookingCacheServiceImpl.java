@@ -0,0 +1,145 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.skm_labs.train_booking_system.dto.projection.BookingVersion;
+import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.CacheStatsDTO;
+import com.skm_labs.train_booking_system.event.BookingChangedEvent;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.service.BookingCacheService;
+import com.skm_labs.train_booking_system.service.BookingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service implementation for the cache of booking responses looked up by PNR.
+ * Fully built responses are kept in a Caffeine cache bounded by size and time to live,
+ * so repeated status lookups of a PNR neither query the database nor walk the lazy
+ * schedule and train associations. Entries are dropped once a transaction that changed
+ * the booking commits, and all entries of a schedule once a change of the schedule
+ * commits, since responses embed its times, stations and version. Loading a PNR and
+ * dropping it are atomic per key, so a lookup
+ * that read the old state cannot put it back after the change was committed.
+ * Bookings still waiting in the journal are not cached, they have no ID yet.
+ * Statistics are published as the cache.* meters tagged cache=booking.pnr.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingCacheServiceImpl implements BookingCacheService {
+    
+    private static final String CACHE_NAME = "booking.pnr";
+    
+    private final BookingService bookingService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.cache.pnr.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.cache.pnr.maximum-size:100000}")
+    private long maximumSize;
+    
+    @Value("${app.cache.pnr.ttl-seconds:60}")
+    private long ttlSeconds;
+    
+    private final AtomicLong invalidations = new AtomicLong();
+    private Cache<String, BookingResponseDTO> cache;
+    
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+    
+    @Override
+    public BookingResponseDTO getBookingByPnr(String pnrNumber) {
+        if (!enabled) {
+            return bookingService.getBookingByPnr(pnrNumber);
+        }
+        
+        BookingResponseDTO[] uncached = new BookingResponseDTO[1];
+        BookingResponseDTO booking = cache.get(pnrNumber, pnr -> {
+            BookingResponseDTO loaded = bookingService.getBookingByPnr(pnr);
+            if (loaded.getBookingId() == null) {
+                uncached[0] = loaded;
+                return null;
+            }
+            return loaded;
+        });
+        return booking != null ? booking : uncached[0];
+    }
+    
+    @Override
+    public BookingVersion getVersion(String pnrNumber) {
+        // Read through the map view, which leaves the hit and miss statistics alone
+        BookingResponseDTO cached = enabled ? cache.asMap().get(pnrNumber) : null;
+        if (cached != null && cached.getVersion() != null) {
+            return new BookingVersion(cached.getVersion(), cached.getScheduleVersion(), cached.getUserId());
+        }
+        return bookingService.getBookingVersion(pnrNumber);
+    }
+    
+    @Override
+    public void invalidate(String pnrNumber) {
+        cache.invalidate(pnrNumber);
+        invalidations.incrementAndGet();
+        log.debug("Invalidated cached booking for PNR: {}", pnrNumber);
+    }
+    
+    /**
+     * Drop the cached booking once the transaction that changed it has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        invalidate(event.pnrNumber());
+    }
+    
+    /**
+     * Drop the cached bookings of a schedule once the change of the schedule has committed.
+     * Schedules change rarely, so the entries are scanned instead of indexed by schedule.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        int dropped = 0;
+        for (Map.Entry<String, BookingResponseDTO> entry : cache.asMap().entrySet()) {
+            if (event.scheduleId().equals(entry.getValue().getScheduleId())
+                    && cache.asMap().remove(entry.getKey(), entry.getValue())) {
+                dropped++;
+            }
+        }
+        invalidations.addAndGet(dropped);
+        log.debug("Invalidated {} cached bookings of schedule ID: {}", dropped, event.scheduleId());
+    }
+    
+    @Override
+    public CacheStatsDTO getStats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsDTO.builder()
+                .size(cache.estimatedSize())
+                .maximumSize(maximumSize)
+                .ttlSeconds(ttlSeconds)
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .invalidationCount(invalidations.get())
+                .averageLoadMillis(stats.averageLoadPenalty() / 1_000_000.0)
+                .build();
+    }
+}
\ No newline at end of file
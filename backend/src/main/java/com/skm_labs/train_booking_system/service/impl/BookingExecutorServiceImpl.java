@@ -0,0 +1,146 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.projection.BookingOwner;
+import com.skm_labs.train_booking_system.exception.BookingNotFoundException;
+import com.skm_labs.train_booking_system.exception.BookingQueueFullException;
+import com.skm_labs.train_booking_system.exception.UserAccessDeniedException;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.service.BookingExecutorService;
+import com.skm_labs.train_booking_system.util.ShardedExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Service implementation for running booking mutations.
+ * With app.booking.sharded.enabled, schedule IDs are hashed onto a fixed set of
+ * single-threaded shards. Each mutation opens its transaction on the shard thread,
+ * so bookings for the same schedule are applied one after another without waiting
+ * on each other's row locks. Shard mailboxes are bounded, a full mailbox rejects the
+ * request instead of queueing it, and the depth of every mailbox is published as
+ * the booking.shard.queue.depth gauge. A booking still queued after the reply timeout
+ * is withdrawn before answering 503, one that has started is always awaited, so a
+ * retried request never books twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExecutorServiceImpl implements BookingExecutorService {
+    
+    private final BookingRepository bookingRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.booking.sharded.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.booking.sharded.shards:0}")
+    private int shardCount;
+    
+    @Value("${app.booking.sharded.mailbox-capacity:1024}")
+    private int mailboxCapacity;
+    
+    @Value("${app.booking.sharded.reply-timeout-ms:10000}")
+    private long replyTimeoutMillis;
+    
+    private ShardedExecutor executor;
+    private Counter rejections;
+    private Counter timeouts;
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        int shards = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        executor = new ShardedExecutor("booking-shard", shards, mailboxCapacity);
+        
+        for (int shard = 0; shard < shards; shard++) {
+            int index = shard;
+            Gauge.builder("booking.shard.queue.depth", executor, e -> e.getQueueDepth(index))
+                    .tag("shard", String.valueOf(shard))
+                    .register(meterRegistry);
+        }
+        rejections = meterRegistry.counter("booking.shard.rejections");
+        timeouts = meterRegistry.counter("booking.shard.timeouts");
+        log.info("Sharded booking execution enabled with {} shards of {} queued bookings", shards, mailboxCapacity);
+    }
+    
+    @Override
+    public <T> T execute(Long scheduleId, Supplier<T> action) {
+        if (executor == null) {
+            return action.get();
+        }
+        
+        CompletableFuture<T> reply;
+        try {
+            reply = executor.submit(scheduleId, action);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new BookingQueueFullException("Too many pending bookings for this schedule, please retry shortly", e);
+        }
+        return await(reply);
+    }
+    
+    @Override
+    public <T> T executeForBooking(Long bookingId, Long userId, Supplier<T> action) {
+        BookingOwner owner = bookingRepository.findOwnerById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(bookingId));
+        if (!owner.getUserId().equals(userId)) {
+            throw new UserAccessDeniedException("Booking " + bookingId + " belongs to another user");
+        }
+        return execute(owner.getScheduleId(), action);
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        log.info("Draining booking shards before shutdown");
+        if (!executor.shutdown(replyTimeoutMillis)) {
+            log.warn("Booking shards did not drain within {} ms", replyTimeoutMillis);
+        }
+    }
+    
+    private <T> T await(CompletableFuture<T> reply) {
+        try {
+            try {
+                return reply.get(replyTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // A booking that has not started is withdrawn, so retrying cannot book twice
+                if (reply.cancel(false)) {
+                    timeouts.increment();
+                    throw new BookingQueueFullException("Booking could not be started in time and was withdrawn, please retry", e);
+                }
+                // A started booking commits or rolls back, its outcome is the answer
+                return reply.get();
+            }
+        } catch (ExecutionException e) {
+            // Rethrow the original exception so that it maps to the same response as in direct mode
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Booking failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the booking to complete", e);
+        }
+    }
+}
\ No newline at end of file
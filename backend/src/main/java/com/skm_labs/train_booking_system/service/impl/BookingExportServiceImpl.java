@@ -0,0 +1,158 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.skm_labs.train_booking_system.dto.projection.BookingExportRow;
+import com.skm_labs.train_booking_system.repository.BookingExportRepository;
+import com.skm_labs.train_booking_system.service.BookingExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Service implementation for bulk booking exports.
+ * Rows come from a JDBC cursor and are written to the output as soon as they are read,
+ * so an export holds one row and the output buffers in memory whatever its size.
+ * The number of rows and the throughput are logged when the export ends.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExportServiceImpl implements BookingExportService {
+    
+    private static final String CSV_HEADER = "booking_id,pnr_number,user_id,schedule_id,train_number,departure_date," +
+            "departure_station,arrival_station,passenger_name,passenger_email,passenger_phone,seat_count," +
+            "seat_numbers,total_amount,booking_status,booking_date";
+    
+    private final BookingExportRepository bookingExportRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Override
+    public long export(LocalDate fromDate, LocalDate toDate, Format format, OutputStream output) throws IOException {
+        log.info("Exporting bookings made from {} to {} as {}", fromDate, toDate, format);
+        
+        long started = System.nanoTime();
+        long[] rows = new long[1];
+        try (RowWriter writer = format == Format.CSV ? new CsvRowWriter(output) : new NdjsonRowWriter(output)) {
+            bookingExportRepository.streamBookings(fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay(), row -> {
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Exported {} bookings as {} in {} ms ({} rows/s)", rows[0], format, elapsedMillis,
+                rows[0] * 1000 / elapsedMillis);
+        return rows[0];
+    }
+    
+    /**
+     * Writes rows in one format, closing flushes without closing the output
+     */
+    private interface RowWriter extends AutoCloseable {
+        
+        void write(BookingExportRow row) throws IOException;
+        
+        @Override
+        void close() throws IOException;
+    }
+    
+    private final class NdjsonRowWriter implements RowWriter {
+        
+        private final OutputStream output;
+        private final SequenceWriter writer;
+        private boolean empty = true;
+        
+        private NdjsonRowWriter(OutputStream output) throws IOException {
+            this.output = output;
+            this.writer = objectMapper.writerFor(BookingExportRow.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(output);
+        }
+        
+        @Override
+        public void write(BookingExportRow row) throws IOException {
+            writer.write(row);
+            empty = false;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            // The separator only goes between values, end the last line too
+            if (!empty) {
+                output.write('\n');
+            }
+            output.flush();
+        }
+    }
+    
+    private static final class CsvRowWriter implements RowWriter {
+        
+        private final Writer writer;
+        
+        private CsvRowWriter(OutputStream output) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        @Override
+        public void write(BookingExportRow row) throws IOException {
+            writer.write(String.valueOf(row.getBookingId()));
+            writeField(row.getPnrNumber());
+            writeField(row.getUserId());
+            writeField(row.getScheduleId());
+            writeField(row.getTrainNumber());
+            writeField(row.getDepartureDate());
+            writeField(row.getDepartureStation());
+            writeField(row.getArrivalStation());
+            writeField(row.getPassengerName());
+            writeField(row.getPassengerEmail());
+            writeField(row.getPassengerPhone());
+            writeField(row.getSeatCount());
+            writeField(row.getSeatNumbers());
+            writeField(row.getTotalAmount());
+            writeField(row.getBookingStatus());
+            writeField(row.getBookingDate());
+            writer.write('\n');
+        }
+        
+        private void writeField(Object value) throws IOException {
+            writer.write(',');
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,384 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skm_labs.train_booking_system.dto.journal.BookingJournalEntry;
+import com.skm_labs.train_booking_system.entity.Booking;
+import com.skm_labs.train_booking_system.repository.BookingBatchRepository;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.BookingJournalService;
+import com.skm_labs.train_booking_system.service.EmailService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.service.SeatMapService;
+import com.skm_labs.train_booking_system.util.MappedJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for the durable booking journal.
+ * Bookings are appended to a memory-mapped {@link MappedJournal} and acknowledged after a
+ * group-committed fsync. A background writer inserts them into the bookings table in large
+ * JDBC batches and advances the journal checkpoint, and anything not yet applied when the
+ * application stopped is replayed on startup before the seat inventory is rebuilt. Startup
+ * fails while replayed bookings cannot be written, since the inventory and seat maps are
+ * rebuilt from the bookings table and would sell their seats again.
+ * A booking that cannot be written is moved to a dead letter file next to the journal,
+ * so it does not hold back the bookings journaled after it. Its seats go back to the
+ * inventory, the passenger is told the booking was cancelled and the
+ * booking.journal.dead_letters counter is raised for alerting.
+ * Seat counts of the schedules table keep flowing through the seat inventory write-behind.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingJournalServiceImpl implements BookingJournalService {
+    
+    private static final String DEAD_LETTER_FILE = "dead-letter.ndjson";
+    
+    private final BookingBatchRepository bookingBatchRepository;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatMapService seatMapService;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.journal.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.journal.directory:data/journal}")
+    private String directory;
+    
+    @Value("${app.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+    
+    @Value("${app.journal.apply-batch-size:1000}")
+    private int applyBatchSize;
+    
+    @Value("${app.journal.max-attempts:5}")
+    private int maxAttempts;
+    
+    // Journaled bookings not yet in the database, in journal order
+    private final ConcurrentSkipListMap<Long, BookingJournalEntry> pending = new ConcurrentSkipListMap<>();
+    private final Map<String, BookingJournalEntry> pendingByPnr = new ConcurrentHashMap<>();
+    // Failed single-entry attempts of pending entries, by sequence
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private volatile MappedJournal journal;
+    // Set once replayed bookings are applied, the seats of earlier dead letters are not in the inventory yet
+    private volatile boolean started;
+    
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @Override
+    public Booking append(Booking booking) {
+        if (journal == null) {
+            throw new IllegalStateException("Booking journal is not open");
+        }
+        booking.setBookingDate(LocalDateTime.now());
+        BookingJournalEntry entry = toEntry(booking);
+        
+        long sequence;
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(entry);
+            // Entries enter the pending map in journal order, so the writer always applies a contiguous prefix
+            synchronized (pending) {
+                sequence = journal.append(payload);
+                pending.put(sequence, entry);
+                pendingByPnr.put(entry.getPnrNumber(), entry);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write booking journal", e);
+        }
+        
+        try {
+            journal.sync(sequence);
+        } catch (IOException e) {
+            pending.remove(sequence);
+            pendingByPnr.remove(entry.getPnrNumber());
+            throw new IllegalStateException("Failed to sync booking journal", e);
+        }
+        
+        log.debug("Journaled booking with PNR: {} at sequence {}", entry.getPnrNumber(), sequence);
+        return booking;
+    }
+    
+    @Override
+    public Optional<Booking> findPending(String pnrNumber) {
+        BookingJournalEntry entry = pendingByPnr.get(pnrNumber);
+        return entry == null ? Optional.empty() : Optional.of(toBooking(entry));
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.journal.apply-interval-ms:100}")
+    public int apply() {
+        if (!enabled || journal == null) {
+            return 0;
+        }
+        
+        int applied = 0;
+        List<Map.Entry<Long, BookingJournalEntry>> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            List<Map.Entry<Long, BookingJournalEntry>> entries = batch;
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(entries));
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply {} journaled bookings as a batch, applying them one by one: {}",
+                        entries.size(), e.getMessage());
+                int done = applyOneByOne(entries);
+                applied += done;
+                if (done < entries.size()) {
+                    // The rest stays pending and is retried on the next run
+                    break;
+                }
+                continue;
+            }
+            
+            try {
+                journal.markApplied(entries.get(entries.size() - 1).getKey());
+            } catch (IOException e) {
+                // Entries stay pending, applying them again skips the bookings already written
+                log.error("Failed to checkpoint {} journaled bookings", entries.size(), e);
+                break;
+            }
+            entries.forEach(entry -> forget(entry.getKey()));
+            applied += entries.size();
+        }
+        
+        if (applied > 0) {
+            log.debug("Applied {} journaled bookings, {} pending", applied, pending.size());
+        }
+        return applied;
+    }
+    
+    /**
+     * Open the journal and apply whatever it holds beyond the checkpoint.
+     * Runs before the application is ready, so the seat inventory is rebuilt from complete bookings.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void replay() throws IOException {
+        if (!enabled || journal != null) {
+            return;
+        }
+        
+        journal = MappedJournal.open(Path.of(directory), segmentSizeMb * 1024 * 1024);
+        journal.replay(journal.getAppliedSequence(), (sequence, payload) -> {
+            try {
+                BookingJournalEntry entry = objectMapper.readValue(payload, BookingJournalEntry.class);
+                pending.put(sequence, entry);
+                pendingByPnr.put(entry.getPnrNumber(), entry);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unreadable booking journal entry at sequence " + sequence, e);
+            }
+        });
+        
+        log.info("Booking journal opened at {}, replaying {} unapplied bookings", directory, pending.size());
+        // Retry while entries get written or dead-lettered, failed attempts only count while others succeed
+        while (!pending.isEmpty() && apply() > 0) {
+            log.info("{} replayed bookings still pending, retrying", pending.size());
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException(pending.size() + " journaled bookings could not be written on startup,"
+                    + " refusing to rebuild the seat inventory without them");
+        }
+        started = true;
+    }
+    
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        log.info("Applying journaled bookings before shutdown");
+        apply();
+        journal.close();
+    }
+    
+    /**
+     * Apply the entries of a failed batch in transactions of their own, so that one bad
+     * entry does not hold back the others. An entry is moved to the dead letter file once
+     * it violates a constraint, or has failed max-attempts times while other entries could
+     * be written. If none could be written the database is most likely unavailable, and
+     * nothing is given up on.
+     * @return number of entries written or dead-lettered
+     */
+    private int applyOneByOne(List<Map.Entry<Long, BookingJournalEntry>> entries) {
+        Map<Map.Entry<Long, BookingJournalEntry>, RuntimeException> failures = new LinkedHashMap<>();
+        List<Long> done = new ArrayList<>();
+        for (Map.Entry<Long, BookingJournalEntry> entry : entries) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(List.of(entry)));
+                done.add(entry.getKey());
+            } catch (RuntimeException e) {
+                failures.put(entry, e);
+            }
+        }
+        
+        boolean reachable = !done.isEmpty();
+        failures.forEach((entry, e) -> {
+            int attempts = failedAttempts.merge(entry.getKey(), reachable ? 1 : 0, Integer::sum);
+            if (e instanceof DataIntegrityViolationException || attempts >= maxAttempts) {
+                try {
+                    deadLetter(entry, e);
+                    done.add(entry.getKey());
+                } catch (IOException deadLetterFailure) {
+                    log.error("Failed to dead-letter journaled booking at sequence {}", entry.getKey(), deadLetterFailure);
+                }
+            }
+        });
+        
+        done.forEach(this::forget);
+        try {
+            // Everything before the first entry still pending is in the database or dead-lettered
+            long last = entries.get(entries.size() - 1).getKey();
+            journal.markApplied(pending.isEmpty() ? last : Math.min(last, pending.firstKey() - 1));
+        } catch (IOException e) {
+            log.error("Failed to checkpoint journaled bookings", e);
+        }
+        return done.size();
+    }
+    
+    private void deadLetter(Map.Entry<Long, BookingJournalEntry> entry, RuntimeException cause) throws IOException {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("sequence", entry.getKey());
+        record.put("error", String.valueOf(cause.getMessage()));
+        record.put("entry", entry.getValue());
+        byte[] line = (objectMapper.writeValueAsString(record) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        Files.write(Path.of(directory, DEAD_LETTER_FILE), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.error("Moved journaled booking with PNR: {} at sequence {} to {} after it could not be applied",
+                entry.getValue().getPnrNumber(), entry.getKey(), DEAD_LETTER_FILE, cause);
+        meterRegistry.counter("booking.journal.dead_letters").increment();
+        
+        BookingJournalEntry booking = entry.getValue();
+        if (started) {
+            releaseSeats(booking);
+        }
+        emailService.sendCancellationEmail(booking.getPassengerEmail(), booking.getPassengerName(),
+                booking.getPnrNumber());
+    }
+    
+    /**
+     * Give the seats of a dead-lettered booking back, the booking never reaches the table they are rebuilt from
+     */
+    private void releaseSeats(BookingJournalEntry booking) {
+        Long scheduleId = booking.getScheduleId();
+        try {
+            if (booking.getFromStopIndex() == null) {
+                seatInventoryService.release(scheduleId, booking.getSeatCount());
+                seatMapService.release(scheduleId, booking.getSeatNumbers());
+            } else {
+                seatInventoryService.release(scheduleId, booking.getFromStopIndex(), booking.getToStopIndex(),
+                        booking.getSeatCount());
+                seatMapService.release(scheduleId, booking.getFromStopIndex(), booking.getToStopIndex(),
+                        booking.getSeatNumbers());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to release the seats of dead-lettered booking with PNR: {}", booking.getPnrNumber(), e);
+        }
+    }
+    
+    private void forget(Long sequence) {
+        BookingJournalEntry entry = pending.remove(sequence);
+        if (entry != null) {
+            pendingByPnr.remove(entry.getPnrNumber());
+        }
+        failedAttempts.remove(sequence);
+    }
+    
+    private List<Map.Entry<Long, BookingJournalEntry>> nextBatch() {
+        long synced = journal.getSyncedSequence();
+        List<Map.Entry<Long, BookingJournalEntry>> batch = new ArrayList<>();
+        // Only entries that are durable in the journal reach the database
+        for (Map.Entry<Long, BookingJournalEntry> entry : pending.entrySet()) {
+            if (entry.getKey() > synced || batch.size() == applyBatchSize) {
+                break;
+            }
+            batch.add(entry);
+        }
+        return batch;
+    }
+    
+    private void write(List<Map.Entry<Long, BookingJournalEntry>> entries) {
+        // Skip bookings that reached the database before the checkpoint was written
+        Set<String> existing = new HashSet<>(bookingRepository.findExistingPnrNumbers(entries.stream()
+                .map(entry -> entry.getValue().getPnrNumber())
+                .collect(Collectors.toList())));
+        
+        List<Booking> bookings = entries.stream()
+                .map(Map.Entry::getValue)
+                .filter(entry -> !existing.contains(entry.getPnrNumber()))
+                .map(this::toBooking)
+                .collect(Collectors.toList());
+        bookingBatchRepository.insertAll(bookings);
+    }
+    
+    private BookingJournalEntry toEntry(Booking booking) {
+        return BookingJournalEntry.builder()
+                .pnrNumber(booking.getPnrNumber())
+                .userId(booking.getUser().getId())
+                .scheduleId(booking.getSchedule().getId())
+                .passengerName(booking.getPassengerName())
+                .passengerEmail(booking.getPassengerEmail())
+                .passengerPhone(booking.getPassengerPhone())
+                .seatCount(booking.getSeatCount())
+                .fromStopIndex(booking.getFromStopIndex())
+                .toStopIndex(booking.getToStopIndex())
+                .seatNumbers(booking.getSeatNumbers())
+                .totalAmount(booking.getTotalAmount())
+                .bookingStatus(booking.getBookingStatus())
+                .holdExpiresAt(booking.getHoldExpiresAt())
+                .bookingDate(booking.getBookingDate())
+                .build();
+    }
+    
+    private Booking toBooking(BookingJournalEntry entry) {
+        Booking booking = new Booking();
+        booking.setUser(userRepository.getReferenceById(entry.getUserId()));
+        booking.setSchedule(scheduleRepository.getReferenceById(entry.getScheduleId()));
+        booking.setPassengerName(entry.getPassengerName());
+        booking.setPassengerEmail(entry.getPassengerEmail());
+        booking.setPassengerPhone(entry.getPassengerPhone());
+        booking.setSeatCount(entry.getSeatCount());
+        booking.setFromStopIndex(entry.getFromStopIndex());
+        booking.setToStopIndex(entry.getToStopIndex());
+        booking.setSeatNumbers(entry.getSeatNumbers());
+        booking.setTotalAmount(entry.getTotalAmount());
+        booking.setBookingStatus(entry.getBookingStatus());
+        booking.setHoldExpiresAt(entry.getHoldExpiresAt());
+        booking.setBookingDate(entry.getBookingDate());
+        booking.setPnrNumber(entry.getPnrNumber());
+        return booking;
+    }
+}
\ No newline at end of file
@@ -1,30 +1,58 @@
 package com.skm_labs.train_booking_system.service.impl;
 
+import com.skm_labs.train_booking_system.dto.projection.BookingHistoryRow;
+import com.skm_labs.train_booking_system.dto.projection.BookingVersion;
+import com.skm_labs.train_booking_system.dto.projection.ScheduleRouteMatch;
 import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
 import com.skm_labs.train_booking_system.dto.request.BookingUpdateDTO;
 import com.skm_labs.train_booking_system.dto.request.SearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.BatchBookingResultDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingHistoryPageDTO;
 import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.DailySearchResultDTO;
 import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
 import com.skm_labs.train_booking_system.entity.Booking;
 import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
 import com.skm_labs.train_booking_system.entity.User;
 import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import com.skm_labs.train_booking_system.event.BookingChangedEvent;
 import com.skm_labs.train_booking_system.exception.BookingNotFoundException;
+import com.skm_labs.train_booking_system.exception.ScheduleNotFoundException;
 import com.skm_labs.train_booking_system.exception.SeatNotAvailableException;
+import com.skm_labs.train_booking_system.exception.UserNotFoundException;
+import com.skm_labs.train_booking_system.repository.BookingBatchRepository;
 import com.skm_labs.train_booking_system.repository.BookingRepository;
 import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.BookingJournalService;
 import com.skm_labs.train_booking_system.service.BookingService;
 import com.skm_labs.train_booking_system.service.EmailService;
+import com.skm_labs.train_booking_system.service.PnrService;
 import com.skm_labs.train_booking_system.service.ScheduleService;
-import com.skm_labs.train_booking_system.service.UserService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.service.SeatMapService;
+import com.skm_labs.train_booking_system.util.BookingUtils;
+import com.skm_labs.train_booking_system.util.TransactionHooks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,12 +66,19 @@ public class BookingServiceImpl implements BookingService {
     
     private final BookingRepository bookingRepository;
     private final ScheduleRepository scheduleRepository;
-    private final UserService userService;
+    private final UserRepository userRepository;
+    private final BookingBatchRepository bookingBatchRepository;
     private final ScheduleService scheduleService;
+    private final SeatInventoryService seatInventoryService;
+    private final BookingJournalService bookingJournalService;
+    private final SeatMapService seatMapService;
     private final EmailService emailService;
+    private final PnrService pnrService;
+    private final ApplicationEventPublisher eventPublisher;
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
     
     @Override
     @Transactional(readOnly = true)
@@ -53,87 +88,226 @@ public class BookingServiceImpl implements BookingService {
                 searchRequest.getArrivalStation(), 
                 searchRequest.getDepartureDate());
         
-        List<Schedule> schedules = scheduleRepository.findAvailableSchedules(
+        // Match every schedule that calls at both stations in order, then check the seats
+        // left on the segments between them
+        List<ScheduleRouteMatch> matches = scheduleRepository.findRouteMatches(
                 searchRequest.getDepartureStation(),
                 searchRequest.getArrivalStation(),
-                searchRequest.getDepartureDate(),
-                searchRequest.getSeatCount()
+                searchRequest.getDepartureDate()
         );
         
-        List<TrainScheduleDTO> trainSchedules = schedules.stream()
-                .map(this::convertToTrainScheduleDTO)
-                .collect(Collectors.toList());
+        // Load the counters of all matches at once, not one schedule after another
+        seatInventoryService.preload(matches.stream().map(ScheduleRouteMatch::getScheduleId).toList());
+        
+        List<TrainScheduleDTO> trainSchedules = new ArrayList<>();
+        for (ScheduleRouteMatch match : matches) {
+            int availableSeats = seatInventoryService.getAvailableSeats(match.getScheduleId(),
+                    match.getFromStopIndex(), match.getToStopIndex());
+            if (availableSeats >= searchRequest.getSeatCount()) {
+                trainSchedules.add(convertToTrainScheduleDTO(match, availableSeats));
+            }
+        }
         
         log.info("Found {} available train schedules", trainSchedules.size());
         return trainSchedules;
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailySearchResultDTO> searchTrainsFlexible(SearchRequestDTO searchRequest) {
+        int flexibleDays = searchRequest.getFlexibleDays() != null ? searchRequest.getFlexibleDays() : 0;
+        LocalDate firstDate = searchRequest.getDepartureDate().minusDays(flexibleDays);
+        LocalDate lastDate = searchRequest.getDepartureDate().plusDays(flexibleDays);
+        log.info("Searching trains from {} to {} between {} and {}",
+                searchRequest.getDepartureStation(),
+                searchRequest.getArrivalStation(),
+                firstDate, lastDate);
+        
+        // One range query for the whole window instead of one search per day
+        List<ScheduleRouteMatch> matches = scheduleRepository.findRouteMatchesBetween(
+                searchRequest.getDepartureStation(),
+                searchRequest.getArrivalStation(),
+                firstDate, lastDate
+        );
+        
+        seatInventoryService.preload(matches.stream().map(ScheduleRouteMatch::getScheduleId).toList());
+        
+        Map<LocalDate, List<TrainScheduleDTO>> trainsByDate = new LinkedHashMap<>();
+        for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+            trainsByDate.put(date, new ArrayList<>());
+        }
+        for (ScheduleRouteMatch match : matches) {
+            int availableSeats = seatInventoryService.getAvailableSeats(match.getScheduleId(),
+                    match.getFromStopIndex(), match.getToStopIndex());
+            if (availableSeats >= searchRequest.getSeatCount()) {
+                trainsByDate.get(match.getDepartureDate()).add(convertToTrainScheduleDTO(match, availableSeats));
+            }
+        }
+        
+        return trainsByDate.entrySet().stream()
+                .map(day -> DailySearchResultDTO.of(day.getKey(), day.getValue()))
+                .collect(Collectors.toList());
+    }
+    
     @Override
     public BookingResponseDTO createBooking(BookingRequestDTO bookingRequest) {
         log.info("Creating booking for user ID: {} on schedule ID: {}", 
                 bookingRequest.getUserId(), bookingRequest.getScheduleId());
         
-        // Validate user and schedule
-        User user = userService.findById(bookingRequest.getUserId());
-        Schedule schedule = scheduleService.findById(bookingRequest.getScheduleId());
+        Booking booking = reserveBooking(bookingRequest, BookingStatus.CONFIRMED, null);
         
-        // Check seat availability
-        if (schedule.getAvailableSeats() < bookingRequest.getSeatCount()) {
-            throw new SeatNotAvailableException(
-                    bookingRequest.getSeatCount(), schedule.getAvailableSeats());
+        // In journal mode the booking is acknowledged once it is durable in the journal
+        // and reaches the bookings table shortly after
+        Booking savedBooking = bookingJournalService.isEnabled()
+                ? bookingJournalService.append(booking)
+                : bookingRepository.save(booking);
+        sendConfirmation(savedBooking);
+        
+        log.info("Booking created successfully with PNR: {}", savedBooking.getPnrNumber());
+        return convertToBookingResponseDTO(savedBooking);
+    }
+    
+    @Override
+    public List<BatchBookingResultDTO> createBookings(List<BookingRequestDTO> bookingRequests) {
+        log.info("Creating batch of {} bookings", bookingRequests.size());
+        BatchBookingResultDTO[] results = new BatchBookingResultDTO[bookingRequests.size()];
+        
+        // Load all users and schedules of the batch with one query each
+        Map<Long, User> users = userRepository.findAllById(bookingRequests.stream()
+                        .map(BookingRequestDTO::getUserId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Schedule> schedules = scheduleRepository.findAllById(bookingRequests.stream()
+                        .map(BookingRequestDTO::getScheduleId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Schedule::getId, Function.identity()));
+        
+        // Group the requests by schedule and stop range, each group takes its seats in one adjustment
+        Booking[] bookings = new Booking[bookingRequests.size()];
+        Map<SeatGroup, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < bookingRequests.size(); i++) {
+            BookingRequestDTO bookingRequest = bookingRequests.get(i);
+            try {
+                bookings[i] = newBooking(bookingRequest, users.get(bookingRequest.getUserId()),
+                        schedules.get(bookingRequest.getScheduleId()));
+                groups.computeIfAbsent(new SeatGroup(bookingRequest.getScheduleId(),
+                                bookings[i].getFromStopIndex(), bookings[i].getToStopIndex()),
+                        key -> new ArrayList<>()).add(i);
+            } catch (RuntimeException e) {
+                results[i] = BatchBookingResultDTO.failure(i, e.getMessage());
+            }
         }
         
-        // Create booking
-        Booking booking = new Booking();
-        booking.setUser(user);
-        booking.setSchedule(schedule);
-        booking.setPassengerName(bookingRequest.getPassengerName());
-        booking.setPassengerEmail(bookingRequest.getPassengerEmail());
-        booking.setPassengerPhone(bookingRequest.getPassengerPhone());
-        booking.setSeatCount(bookingRequest.getSeatCount());
-        booking.setTotalAmount(schedule.getFare() * bookingRequest.getSeatCount());
-        booking.setBookingStatus(BookingStatus.CONFIRMED);
-        booking.setPnrNumber(generatePNR());
+        List<Booking> accepted = new ArrayList<>();
+        for (List<Integer> group : groups.values()) {
+            for (int i : reserveGroup(group, bookings, results)) {
+                Booking booking = bookings[i];
+                try {
+                    booking.setSeatNumbers(allocateSeats(booking, booking.getSeatCount()));
+                    accepted.add(booking);
+                } catch (SeatNotAvailableException e) {
+                    updateSeats(booking, booking.getSeatCount());
+                    results[i] = BatchBookingResultDTO.failure(i, e.getMessage());
+                }
+            }
+        }
         
-        // Save booking
-        Booking savedBooking = bookingRepository.save(booking);
+        assignPnrNumbers(accepted);
+        bookingBatchRepository.insertAll(accepted);
         
-        // Update available seats
-        scheduleService.updateAvailableSeats(schedule.getId(), -bookingRequest.getSeatCount());
+        for (int i = 0; i < bookings.length; i++) {
+            if (results[i] == null) {
+                results[i] = BatchBookingResultDTO.success(i, convertToBookingResponseDTO(bookings[i]));
+            }
+        }
         
-        // Send confirmation email
-        String trainDetails = String.format("%s (%s) from %s to %s on %s at %s",
-                schedule.getTrain().getTrainName(),
-                schedule.getTrain().getTrainNumber(),
-                schedule.getDepartureStation(),
-                schedule.getArrivalStation(),
-                schedule.getDepartureDate().format(DATE_FORMATTER),
-                schedule.getDepartureTime().format(TIME_FORMATTER));
+        // Only confirm bookings that were actually stored
+        TransactionHooks.afterCommit(() -> accepted.forEach(this::sendConfirmation));
         
-        emailService.sendBookingConfirmation(
-                booking.getPassengerEmail(),
-                booking.getPassengerName(),
-                booking.getPnrNumber(),
-                trainDetails
-        );
+        log.info("Created {} of {} bookings in batch", accepted.size(), bookingRequests.size());
+        return Arrays.asList(results);
+    }
+    
+    @Override
+    public BookingResponseDTO createHold(BookingRequestDTO bookingRequest, LocalDateTime expiresAt) {
+        log.info("Holding {} seats for user ID: {} on schedule ID: {} until {}", bookingRequest.getSeatCount(),
+                bookingRequest.getUserId(), bookingRequest.getScheduleId(), expiresAt);
         
-        log.info("Booking created successfully with PNR: {}", savedBooking.getPnrNumber());
+        Booking savedBooking = bookingRepository.save(reserveBooking(bookingRequest, BookingStatus.PENDING, expiresAt));
+        
+        log.info("Seat hold created with PNR: {}", savedBooking.getPnrNumber());
         return convertToBookingResponseDTO(savedBooking);
     }
     
+    @Override
+    public BookingResponseDTO confirmHold(Long bookingId) {
+        log.info("Confirming seat hold for booking ID: {}", bookingId);
+        
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(bookingId));
+        
+        // The guarded update loses against a concurrent expiry or cancellation
+        if (bookingRepository.confirmHold(bookingId, LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException(booking.getBookingStatus() == BookingStatus.PENDING
+                    && booking.getHoldExpiresAt() != null
+                    ? "Seat hold has expired"
+                    : "Booking is not an active seat hold");
+        }
+        
+        Booking confirmedBooking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(bookingId));
+        eventPublisher.publishEvent(new BookingChangedEvent(bookingId, confirmedBooking.getPnrNumber()));
+        sendConfirmation(confirmedBooking);
+        
+        log.info("Seat hold confirmed with PNR: {}", confirmedBooking.getPnrNumber());
+        return convertToBookingResponseDTO(confirmedBooking);
+    }
+    
+    @Override
+    public int expireHolds(List<Long> bookingIds) {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        
+        for (Booking booking : bookingRepository.findAllById(bookingIds)) {
+            if (bookingRepository.expireHold(booking.getId(), now) == 0) {
+                continue;
+            }
+            updateSeats(booking, booking.getSeatCount());
+            releaseSeats(booking, booking.getSeatNumbers());
+            eventPublisher.publishEvent(new BookingChangedEvent(booking.getId(), booking.getPnrNumber()));
+            expired++;
+        }
+        
+        log.info("Expired {} of {} seat holds", expired, bookingIds.size());
+        return expired;
+    }
+    
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponseDTO> getUserBookings(Long userId) {
+    public BookingHistoryPageDTO getUserBookings(Long userId, BookingStatus bookingStatus, LocalDate fromDate,
+                                                 LocalDate toDate, String cursor, int size) {
         log.info("Fetching bookings for user ID: {}", userId);
         
-        // Validate user exists
-        userService.findById(userId);
+        int pageSize = Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+        HistoryCursor after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
         
-        List<Booking> bookings = bookingRepository.findByUserId(userId);
+        // One extra row tells whether another page follows
+        List<BookingHistoryRow> rows = bookingRepository.findHistoryPage(userId, bookingStatus,
+                fromDate != null ? fromDate.atStartOfDay() : null,
+                toDate != null ? toDate.plusDays(1).atStartOfDay() : null,
+                after != null ? after.bookingDate() : null, after != null ? after.bookingId() : null,
+                PageRequest.of(0, pageSize + 1));
         
-        return bookings.stream()
-                .map(this::convertToBookingResponseDTO)
-                .collect(Collectors.toList());
+        // Only an empty first page needs to tell a user without bookings from an unknown one
+        if (rows.isEmpty() && after == null && !userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<BookingHistoryRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+        BookingHistoryRow last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return BookingHistoryPageDTO.builder()
+                .bookings(page.stream().map(this::convertToBookingResponseDTO).collect(Collectors.toList()))
+                .nextCursor(hasMore ? encodeCursor(last.getBookingDate(), last.getBookingId()) : null)
+                .build();
     }
     
     @Override
@@ -147,6 +321,9 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getBookingStatus() == BookingStatus.CANCELLED) {
             throw new IllegalArgumentException("Cannot update cancelled booking");
         }
+        if (booking.getBookingStatus() == BookingStatus.EXPIRED) {
+            throw new IllegalArgumentException("Cannot update expired seat hold");
+        }
         
         // Update fields if provided
         if (updateRequest.getPassengerName() != null) {
@@ -158,8 +335,10 @@ public class BookingServiceImpl implements BookingService {
         if (updateRequest.getPassengerPhone() != null) {
             booking.setPassengerPhone(updateRequest.getPassengerPhone());
         }
-        if (updateRequest.getBookingStatus() != null) {
-            booking.setBookingStatus(updateRequest.getBookingStatus());
+        // Status changes go through confirming and cancelling, which check hold expiry and free the seats
+        if (updateRequest.getBookingStatus() != null && updateRequest.getBookingStatus() != booking.getBookingStatus()) {
+            throw new IllegalArgumentException("Booking status cannot be changed by an update, "
+                    + "confirm or cancel the booking instead");
         }
         
         // Handle seat count change
@@ -168,23 +347,27 @@ public class BookingServiceImpl implements BookingService {
             
             int seatDifference = updateRequest.getSeatCount() - booking.getSeatCount();
             
-            // Check availability for additional seats
+            // Update seats in schedule, fails if additional seats are not available
+            updateSeats(booking, -seatDifference);
+            
+            // Allocate the extra seat numbers or free the last ones
+            List<Integer> seatNumbers = new ArrayList<>(booking.getSeatNumbers());
             if (seatDifference > 0) {
-                Schedule schedule = booking.getSchedule();
-                if (schedule.getAvailableSeats() < seatDifference) {
-                    throw new SeatNotAvailableException(seatDifference, schedule.getAvailableSeats());
-                }
+                seatNumbers.addAll(allocateSeats(booking, seatDifference));
+            } else {
+                int keep = Math.max(0, seatNumbers.size() + seatDifference);
+                releaseSeats(booking, seatNumbers.subList(keep, seatNumbers.size()));
+                seatNumbers = new ArrayList<>(seatNumbers.subList(0, keep));
             }
-            
-            // Update seats in schedule
-            scheduleService.updateAvailableSeats(booking.getSchedule().getId(), -seatDifference);
+            booking.setSeatNumbers(seatNumbers);
             
             // Update booking
             booking.setSeatCount(updateRequest.getSeatCount());
-            booking.setTotalAmount(booking.getSchedule().getFare() * updateRequest.getSeatCount());
+            booking.setTotalAmount(segmentFare(booking) * updateRequest.getSeatCount());
         }
         
         Booking updatedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(bookingId, updatedBooking.getPnrNumber()));
         log.info("Booking updated successfully: {}", bookingId);
         
         return convertToBookingResponseDTO(updatedBooking);
@@ -200,13 +383,18 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getBookingStatus() == BookingStatus.CANCELLED) {
             throw new IllegalArgumentException("Booking is already cancelled");
         }
+        if (booking.getBookingStatus() == BookingStatus.EXPIRED) {
+            throw new IllegalArgumentException("Seat hold has already expired");
+        }
         
         // Update booking status
         booking.setBookingStatus(BookingStatus.CANCELLED);
         Booking cancelledBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(bookingId, cancelledBooking.getPnrNumber()));
         
         // Release seats
-        scheduleService.updateAvailableSeats(booking.getSchedule().getId(), booking.getSeatCount());
+        updateSeats(booking, booking.getSeatCount());
+        releaseSeats(booking, booking.getSeatNumbers());
         
         // Send cancellation email
         emailService.sendCancellationEmail(
@@ -224,53 +412,303 @@ public class BookingServiceImpl implements BookingService {
     public BookingResponseDTO getBookingByPnr(String pnrNumber) {
         log.info("Fetching booking by PNR: {}", pnrNumber);
         
+        // Journaled bookings are served from memory until they are written
         Booking booking = bookingRepository.findByPnrNumber(pnrNumber)
+                .or(() -> bookingJournalService.findPending(pnrNumber))
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with PNR: " + pnrNumber));
         
         return convertToBookingResponseDTO(booking);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public BookingVersion getBookingVersion(String pnrNumber) {
+        return bookingRepository.findVersionByPnrNumber(pnrNumber).orElse(null);
+    }
+    
     @Override
     public String generatePNR() {
-        Random random = new Random();
-        StringBuilder pnr = new StringBuilder("PNR");
+        return pnrService.next();
+    }
+    
+    /**
+     * Reserve seats and build an unsaved booking in the given status
+     */
+    private Booking reserveBooking(BookingRequestDTO bookingRequest, BookingStatus status, LocalDateTime holdExpiresAt) {
+        // The user ID comes from a verified session token, so the user is referenced
+        // without loading it. The token outlives a deleted user, which an index-only
+        // existence check rejects before anything reaches the table or the journal.
+        if (!userRepository.existsById(bookingRequest.getUserId())) {
+            throw new UserNotFoundException(bookingRequest.getUserId());
+        }
+        User user = userRepository.getReferenceById(bookingRequest.getUserId());
+        Schedule schedule = scheduleService.findById(bookingRequest.getScheduleId());
+        
+        // Create booking
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setSchedule(schedule);
+        resolveStops(booking, bookingRequest.getFromStation(), bookingRequest.getToStation());
+        
+        // Reserve seats up front so that concurrent bookings cannot oversell,
+        // the reservation is returned automatically if this transaction rolls back
+        updateSeats(booking, -bookingRequest.getSeatCount());
+        
+        booking.setPassengerName(bookingRequest.getPassengerName());
+        booking.setPassengerEmail(bookingRequest.getPassengerEmail());
+        booking.setPassengerPhone(bookingRequest.getPassengerPhone());
+        booking.setSeatCount(bookingRequest.getSeatCount());
+        booking.setSeatNumbers(allocateSeats(booking, bookingRequest.getSeatCount()));
+        booking.setTotalAmount(segmentFare(booking) * bookingRequest.getSeatCount());
+        booking.setBookingStatus(status);
+        booking.setHoldExpiresAt(holdExpiresAt);
+        booking.setPnrNumber(generatePNR());
+        return booking;
+    }
+    
+    private void sendConfirmation(Booking booking) {
+        Schedule schedule = booking.getSchedule();
+        String trainDetails = String.format("%s (%s) from %s to %s on %s at %s, seats %s",
+                schedule.getTrain().getTrainName(),
+                schedule.getTrain().getTrainNumber(),
+                boardingStop(booking).getStationName(),
+                alightingStop(booking).getStationName(),
+                schedule.getDepartureDate().format(DATE_FORMATTER),
+                boardingStop(booking).getDepartureTime().format(TIME_FORMATTER),
+                booking.getSeatNumbers());
+        
+        emailService.sendBookingConfirmation(
+                booking.getPassengerEmail(),
+                booking.getPassengerName(),
+                booking.getPnrNumber(),
+                trainDetails
+        );
+    }
+    
+    /**
+     * Build an unsaved batch booking, failing if its user, schedule or stations are unknown
+     */
+    private Booking newBooking(BookingRequestDTO bookingRequest, User user, Schedule schedule) {
+        if (user == null) {
+            throw new UserNotFoundException(bookingRequest.getUserId());
+        }
+        if (schedule == null) {
+            throw new ScheduleNotFoundException(bookingRequest.getScheduleId());
+        }
         
-        // Generate 6 digit random number
-        for (int i = 0; i < 6; i++) {
-            pnr.append(random.nextInt(10));
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setSchedule(schedule);
+        resolveStops(booking, bookingRequest.getFromStation(), bookingRequest.getToStation());
+        booking.setPassengerName(bookingRequest.getPassengerName());
+        booking.setPassengerEmail(bookingRequest.getPassengerEmail());
+        booking.setPassengerPhone(bookingRequest.getPassengerPhone());
+        booking.setSeatCount(bookingRequest.getSeatCount());
+        booking.setTotalAmount(segmentFare(booking) * bookingRequest.getSeatCount());
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+        booking.setBookingDate(LocalDateTime.now());
+        return booking;
+    }
+    
+    /**
+     * Reserve the seats of a group of bookings on the same schedule and stop range.
+     * Tries the whole group in one adjustment and falls back to one booking at a time,
+     * in request order, if not all of them fit.
+     * @return indexes of the bookings that got their seats
+     */
+    private List<Integer> reserveGroup(List<Integer> group, Booking[] bookings, BatchBookingResultDTO[] results) {
+        int totalSeats = group.stream().mapToInt(i -> bookings[i].getSeatCount()).sum();
+        try {
+            updateSeats(bookings[group.get(0)], -totalSeats);
+            return group;
+        } catch (SeatNotAvailableException e) {
+            log.info("Not enough seats for all {} bookings on schedule ID: {}, reserving one by one",
+                    group.size(), bookings[group.get(0)].getSchedule().getId());
         }
         
-        // Check if PNR already exists (very unlikely but good to check)
-        String pnrNumber = pnr.toString();
-        while (bookingRepository.findByPnrNumber(pnrNumber).isPresent()) {
-            pnr = new StringBuilder("PNR");
-            for (int i = 0; i < 6; i++) {
-                pnr.append(random.nextInt(10));
+        List<Integer> reserved = new ArrayList<>();
+        for (int i : group) {
+            try {
+                updateSeats(bookings[i], -bookings[i].getSeatCount());
+                reserved.add(i);
+            } catch (SeatNotAvailableException e) {
+                results[i] = BatchBookingResultDTO.failure(i, e.getMessage());
             }
-            pnrNumber = pnr.toString();
+        }
+        return reserved;
+    }
+    
+    /**
+     * Give every booking a PNR from the PNR service, which keeps them unique without querying the database
+     */
+    private void assignPnrNumbers(List<Booking> bookings) {
+        bookings.forEach(booking -> booking.setPnrNumber(pnrService.next()));
+    }
+    
+    /**
+     * Resolve the boarding and alighting stations of a booking to stop indexes,
+     * defaulting to the first and last stop of the route
+     */
+    private void resolveStops(Booking booking, String fromStation, String toStation) {
+        List<ScheduleStop> stops = booking.getSchedule().getStops();
+        if (stops.isEmpty()) {
+            // Schedules without stops are booked as a whole
+            if (fromStation != null || toStation != null) {
+                throw new IllegalArgumentException("Schedule " + booking.getSchedule().getId() + " has no stops");
+            }
+            return;
         }
         
-        return pnrNumber;
+        int fromStop = fromStation == null ? 0 : indexOfStop(stops, fromStation, 0);
+        int toStop = toStation == null ? stops.size() - 1 : indexOfStop(stops, toStation, fromStop + 1);
+        if (fromStop < 0 || toStop < 0 || fromStop >= toStop) {
+            throw new IllegalArgumentException("Schedule " + booking.getSchedule().getId()
+                    + " does not run from " + fromStation + " to " + toStation);
+        }
+        booking.setFromStopIndex(fromStop);
+        booking.setToStopIndex(toStop);
+    }
+    
+    private int indexOfStop(List<ScheduleStop> stops, String stationName, int fromIndex) {
+        for (int i = fromIndex; i < stops.size(); i++) {
+            if (stops.get(i).getStationName().equalsIgnoreCase(stationName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private boolean hasStops(Booking booking) {
+        return booking.getFromStopIndex() != null && booking.getToStopIndex() != null;
+    }
+    
+    private Integer updateSeats(Booking booking, int seatChange) {
+        Long scheduleId = booking.getSchedule().getId();
+        return hasStops(booking)
+                ? scheduleService.updateAvailableSeats(scheduleId,
+                        booking.getFromStopIndex(), booking.getToStopIndex(), seatChange)
+                : scheduleService.updateAvailableSeats(scheduleId, seatChange);
+    }
+    
+    private List<Integer> allocateSeats(Booking booking, int seats) {
+        Long scheduleId = booking.getSchedule().getId();
+        return hasStops(booking)
+                ? seatMapService.allocate(scheduleId, booking.getFromStopIndex(), booking.getToStopIndex(), seats)
+                : seatMapService.allocate(scheduleId, seats);
+    }
+    
+    private void releaseSeats(Booking booking, List<Integer> seatNumbers) {
+        Long scheduleId = booking.getSchedule().getId();
+        if (hasStops(booking)) {
+            seatMapService.release(scheduleId, booking.getFromStopIndex(), booking.getToStopIndex(), seatNumbers);
+        } else {
+            seatMapService.release(scheduleId, seatNumbers);
+        }
+    }
+    
+    /**
+     * Fare per seat of the booked part of the route, pro-rated by the number of segments
+     */
+    private double segmentFare(Booking booking) {
+        if (!hasStops(booking)) {
+            return booking.getSchedule().getFare();
+        }
+        return BookingUtils.segmentFare(booking.getSchedule().getFare(), booking.getFromStopIndex(),
+                booking.getToStopIndex(), booking.getSchedule().getStops().size());
+    }
+    
+    private ScheduleStop boardingStop(Booking booking) {
+        Schedule schedule = booking.getSchedule();
+        if (!hasStops(booking) || booking.getFromStopIndex() >= schedule.getStops().size()) {
+            return new ScheduleStop(schedule.getDepartureStation(), null, schedule.getDepartureTime());
+        }
+        return schedule.getStops().get(booking.getFromStopIndex());
+    }
+    
+    private ScheduleStop alightingStop(Booking booking) {
+        Schedule schedule = booking.getSchedule();
+        if (!hasStops(booking) || booking.getToStopIndex() >= schedule.getStops().size()) {
+            return new ScheduleStop(schedule.getArrivalStation(), schedule.getArrivalTime(), null);
+        }
+        return schedule.getStops().get(booking.getToStopIndex());
+    }
+    
+    /**
+     * Bookings of a batch that share a schedule and stop range
+     */
+    private record SeatGroup(Long scheduleId, Integer fromStop, Integer toStop) {
+    }
+    
+    /**
+     * Booking date and ID of the last booking of a history page
+     */
+    private record HistoryCursor(LocalDateTime bookingDate, Long bookingId) {
     }
     
-    private TrainScheduleDTO convertToTrainScheduleDTO(Schedule schedule) {
+    private TrainScheduleDTO convertToTrainScheduleDTO(ScheduleRouteMatch match, int availableSeats) {
         return TrainScheduleDTO.builder()
-                .scheduleId(schedule.getId())
-                .trainId(schedule.getTrain().getId())
-                .trainNumber(schedule.getTrain().getTrainNumber())
-                .trainName(schedule.getTrain().getTrainName())
-                .trainType(schedule.getTrain().getTrainType())
-                .departureStation(schedule.getDepartureStation())
-                .arrivalStation(schedule.getArrivalStation())
-                .departureDate(schedule.getDepartureDate().format(DATE_FORMATTER))
-                .departureTime(schedule.getDepartureTime().format(TIME_FORMATTER))
-                .arrivalTime(schedule.getArrivalTime().format(TIME_FORMATTER))
-                .fare(schedule.getFare())
-                .availableSeats(schedule.getAvailableSeats())
-                .totalSeats(schedule.getTrain().getTotalSeats())
+                .scheduleId(match.getScheduleId())
+                .trainId(match.getTrainId())
+                .trainNumber(match.getTrainNumber())
+                .trainName(match.getTrainName())
+                .trainType(match.getTrainType())
+                .departureStation(match.getDepartureStation())
+                .arrivalStation(match.getArrivalStation())
+                .departureDate(match.getDepartureDate().format(DATE_FORMATTER))
+                .departureTime(match.getDepartureTime().format(TIME_FORMATTER))
+                .arrivalTime(match.getArrivalTime().format(TIME_FORMATTER))
+                .fare(BookingUtils.segmentFare(match.getFare(), match.getFromStopIndex(),
+                        match.getToStopIndex(), match.getStopCount()))
+                .availableSeats(availableSeats)
+                .totalSeats(match.getTotalSeats())
+                .build();
+    }
+    
+    private BookingResponseDTO convertToBookingResponseDTO(BookingHistoryRow row) {
+        return BookingResponseDTO.builder()
+                .bookingId(row.getBookingId())
+                .userId(row.getUserId())
+                .scheduleId(row.getScheduleId())
+                .passengerName(row.getPassengerName())
+                .passengerEmail(row.getPassengerEmail())
+                .passengerPhone(row.getPassengerPhone())
+                .seatCount(row.getSeatCount())
+                .seatNumbers(row.getSeatNumbers())
+                .totalAmount(row.getTotalAmount())
+                .bookingStatus(row.getBookingStatus())
+                .bookingDate(row.getBookingDate())
+                .holdExpiresAt(row.getHoldExpiresAt())
+                .pnrNumber(row.getPnrNumber())
+                .trainNumber(row.getTrainNumber())
+                .trainName(row.getTrainName())
+                .departureStation(row.getDepartureStation())
+                .arrivalStation(row.getArrivalStation())
+                .departureDate(row.getDepartureDate().format(DATE_FORMATTER))
+                .departureTime(row.getDepartureTime().format(TIME_FORMATTER))
+                .arrivalTime(row.getArrivalTime().format(TIME_FORMATTER))
                 .build();
     }
     
+    /**
+     * Opaque position of a booking in the history order
+     */
+    private static String encodeCursor(LocalDateTime bookingDate, Long bookingId) {
+        String position = bookingDate + "," + bookingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static HistoryCursor decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new HistoryCursor(LocalDateTime.parse(position[0]), Long.parseLong(position[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
     private BookingResponseDTO convertToBookingResponseDTO(Booking booking) {
         return BookingResponseDTO.builder()
                 .bookingId(booking.getId())
@@ -280,17 +718,21 @@ public class BookingServiceImpl implements BookingService {
                 .passengerEmail(booking.getPassengerEmail())
                 .passengerPhone(booking.getPassengerPhone())
                 .seatCount(booking.getSeatCount())
+                .seatNumbers(booking.getSeatNumbers())
                 .totalAmount(booking.getTotalAmount())
                 .bookingStatus(booking.getBookingStatus())
                 .bookingDate(booking.getBookingDate())
+                .holdExpiresAt(booking.getHoldExpiresAt())
                 .pnrNumber(booking.getPnrNumber())
                 .trainNumber(booking.getSchedule().getTrain().getTrainNumber())
                 .trainName(booking.getSchedule().getTrain().getTrainName())
-                .departureStation(booking.getSchedule().getDepartureStation())
-                .arrivalStation(booking.getSchedule().getArrivalStation())
+                .departureStation(boardingStop(booking).getStationName())
+                .arrivalStation(alightingStop(booking).getStationName())
                 .departureDate(booking.getSchedule().getDepartureDate().format(DATE_FORMATTER))
-                .departureTime(booking.getSchedule().getDepartureTime().format(TIME_FORMATTER))
-                .arrivalTime(booking.getSchedule().getArrivalTime().format(TIME_FORMATTER))
+                .departureTime(boardingStop(booking).getDepartureTime().format(TIME_FORMATTER))
+                .arrivalTime(alightingStop(booking).getArrivalTime().format(TIME_FORMATTER))
+                .version(booking.getVersion())
+                .scheduleVersion(booking.getSchedule().getVersion())
                 .build();
     }
 }
\ No newline at end of file
@@ -5,10 +5,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 /**
- * Service implementation for Email operations
+ * Service implementation for Email operations.
+ * Emails are sent on the application task executor so that bookings do not wait for the mail server.
  */
 @Service
 @RequiredArgsConstructor
@@ -18,6 +20,7 @@ public class EmailServiceImpl implements EmailService {
     private final JavaMailSender mailSender;
     
     @Override
+    @Async
     public void sendBookingConfirmation(String to, String passengerName, String pnrNumber, String trainDetails) {
         try {
             log.info("Sending booking confirmation email to: {}", to);
@@ -37,6 +40,7 @@ public class EmailServiceImpl implements EmailService {
     }
     
     @Override
+    @Async
     public void sendCancellationEmail(String to, String passengerName, String pnrNumber) {
         try {
             log.info("Sending cancellation email to: {}", to);
@@ -0,0 +1,242 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.request.JourneySearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.JourneyDTO;
+import com.skm_labs.train_booking_system.dto.response.JourneyLegDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.JourneyPlannerService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.util.BookingUtils;
+import com.skm_labs.train_booking_system.util.ConnectionTimetable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service implementation for planning journeys with transfers.
+ * All schedules from yesterday onwards are compiled into a connection timetable,
+ * which is scanned with the Connection Scan Algorithm once per allowed transfer.
+ * A segment is only travelled if the seat inventory has the requested seats on it,
+ * so every leg of a returned journey can be booked. The timetable is immutable and
+ * replaced as a whole, by a periodic refresh after schedules change and once a day.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JourneyPlannerServiceImpl implements JourneyPlannerService {
+    
+    private final ScheduleRepository scheduleRepository;
+    private final SeatInventoryService seatInventoryService;
+    
+    @Value("${app.journey.max-transfers:2}")
+    private int maxTransfers;
+    
+    @Value("${app.journey.min-transfer-minutes:15}")
+    private int minTransferMinutes;
+    
+    @Value("${app.journey.max-journey-hours:48}")
+    private int maxJourneyHours;
+    
+    private volatile Timetable timetable;
+    private volatile boolean dirty;
+    
+    @Override
+    public List<JourneyDTO> planJourneys(JourneySearchRequestDTO searchRequest) {
+        Timetable current = timetable;
+        List<JourneyDTO> journeys = new ArrayList<>();
+        if (current == null) {
+            return journeys;
+        }
+        Integer origin = current.stations.get(normalize(searchRequest.getDepartureStation()));
+        Integer target = current.stations.get(normalize(searchRequest.getArrivalStation()));
+        if (origin == null || target == null) {
+            return journeys;
+        }
+        
+        LocalTime time = searchRequest.getDepartureTime() != null ? searchRequest.getDepartureTime() : LocalTime.MIDNIGHT;
+        int departAfter = Math.max(0, current.minutes(searchRequest.getDepartureDate().atTime(time)));
+        int transfers = searchRequest.getMaxTransfers() != null ? searchRequest.getMaxTransfers() : maxTransfers;
+        int seats = searchRequest.getSeatCount();
+        
+        long started = System.nanoTime();
+        List<ConnectionTimetable.Journey> found = current.connections.scan(origin, target, departAfter,
+                departAfter + maxJourneyHours * 60, transfers, minTransferMinutes,
+                (trip, stop) -> seatInventoryService.getAvailableSeats(current.trips[trip].scheduleId(), stop, stop + 1) >= seats);
+        
+        for (int i = 0; i < found.size(); i++) {
+            journeys.add(toDto(current, found.get(i), i == 0, i == found.size() - 1));
+        }
+        log.debug("Planned {} journeys from {} to {} in {} us", journeys.size(), searchRequest.getDepartureStation(),
+                searchRequest.getArrivalStation(), (System.nanoTime() - started) / 1000);
+        return journeys;
+    }
+    
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        dirty = false;
+        LocalDate from = LocalDate.now().minusDays(1);
+        List<Schedule> schedules = scheduleRepository.findWithTrainAndStopsFrom(from);
+        timetable = compile(from, schedules);
+        log.info("Journey timetable built with {} connections of {} schedules",
+                timetable.connections.getConnectionCount(), timetable.connections.getTripCount());
+    }
+    
+    /**
+     * Rebuild the timetable once the transaction that changed a schedule has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        dirty = true;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.journey.refresh-interval-ms:10000}")
+    public void refresh() {
+        Timetable current = timetable;
+        if (current != null && (dirty || !current.base.toLocalDate().equals(LocalDate.now().minusDays(1)))) {
+            rebuild();
+        }
+    }
+    
+    private Timetable compile(LocalDate from, List<Schedule> schedules) {
+        Map<String, Integer> stations = new HashMap<>();
+        for (Schedule schedule : schedules) {
+            for (ScheduleStop stop : stops(schedule)) {
+                stations.putIfAbsent(normalize(stop.getStationName()), stations.size());
+            }
+        }
+        
+        LocalDateTime base = from.atStartOfDay();
+        ConnectionTimetable.Builder builder = ConnectionTimetable.builder(stations.size());
+        List<Trip> trips = new ArrayList<>();
+        for (Schedule schedule : schedules) {
+            List<ScheduleStop> stops = stops(schedule);
+            int[] stationIds = new int[stops.size()];
+            int[] arrivals = new int[stops.size()];
+            int[] departures = new int[stops.size()];
+            String[] names = new String[stops.size()];
+            
+            // Times that go backwards belong to the next day
+            LocalDateTime clock = schedule.getDepartureDate().atTime(stops.get(0).getDepartureTime());
+            departures[0] = (int) Duration.between(base, clock).toMinutes();
+            for (int i = 0; i < stops.size(); i++) {
+                ScheduleStop stop = stops.get(i);
+                stationIds[i] = stations.get(normalize(stop.getStationName()));
+                names[i] = stop.getStationName();
+                if (i > 0) {
+                    clock = advance(clock, stop.getArrivalTime());
+                    arrivals[i] = (int) Duration.between(base, clock).toMinutes();
+                    if (i < stops.size() - 1) {
+                        clock = advance(clock, stop.getDepartureTime());
+                        departures[i] = (int) Duration.between(base, clock).toMinutes();
+                    }
+                }
+            }
+            
+            builder.addTrip(stationIds, arrivals, departures);
+            trips.add(new Trip(schedule.getId(), schedule.getTrain().getTrainNumber(), schedule.getTrain().getTrainName(),
+                    schedule.getTrain().getTrainType(), names, schedule.getFare()));
+        }
+        return new Timetable(base, stations, trips.toArray(Trip[]::new), builder.build());
+    }
+    
+    private JourneyDTO toDto(Timetable timetable, ConnectionTimetable.Journey journey,
+                             boolean fewestTransfers, boolean earliestArrival) {
+        List<JourneyLegDTO> legs = new ArrayList<>();
+        double totalFare = 0;
+        int availableSeats = Integer.MAX_VALUE;
+        for (ConnectionTimetable.Leg leg : journey.legs()) {
+            Trip trip = timetable.trips[leg.trip()];
+            int seats = seatInventoryService.getAvailableSeats(trip.scheduleId(), leg.fromStop(), leg.toStop());
+            double fare = BookingUtils.segmentFare(trip.fare(), leg.fromStop(), leg.toStop(), trip.stations().length);
+            legs.add(JourneyLegDTO.builder()
+                    .scheduleId(trip.scheduleId())
+                    .trainNumber(trip.trainNumber())
+                    .trainName(trip.trainName())
+                    .trainType(trip.trainType())
+                    .departureStation(trip.stations()[leg.fromStop()])
+                    .arrivalStation(trip.stations()[leg.toStop()])
+                    .fromStopIndex(leg.fromStop())
+                    .toStopIndex(leg.toStop())
+                    .departureTime(timetable.time(leg.departureTime()))
+                    .arrivalTime(timetable.time(leg.arrivalTime()))
+                    .fare(fare)
+                    .availableSeats(seats)
+                    .build());
+            totalFare += fare;
+            availableSeats = Math.min(availableSeats, seats);
+        }
+        
+        return JourneyDTO.builder()
+                .transfers(journey.transfers())
+                .departureTime(timetable.time(journey.departureTime()))
+                .arrivalTime(timetable.time(journey.arrivalTime()))
+                .durationMinutes((long) journey.arrivalTime() - journey.departureTime())
+                .totalFare(Math.round(totalFare * 100.0) / 100.0)
+                .availableSeats(availableSeats)
+                .fewestTransfers(fewestTransfers)
+                .earliestArrival(earliestArrival)
+                .legs(legs)
+                .build();
+    }
+    
+    private static List<ScheduleStop> stops(Schedule schedule) {
+        List<ScheduleStop> stops = schedule.getStops();
+        if (stops == null || stops.size() < 2) {
+            // Schedules stored before stops were recorded run between their endpoints only
+            return List.of(new ScheduleStop(schedule.getDepartureStation(), null, schedule.getDepartureTime()),
+                    new ScheduleStop(schedule.getArrivalStation(), schedule.getArrivalTime(), null));
+        }
+        return stops;
+    }
+    
+    private static LocalDateTime advance(LocalDateTime clock, LocalTime time) {
+        LocalDateTime next = clock.toLocalDate().atTime(time);
+        return next.isBefore(clock) ? next.plusDays(1) : next;
+    }
+    
+    private static String normalize(String station) {
+        return station == null ? "" : station.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Schedule fields needed to describe the legs run by one trip of the timetable
+     */
+    private record Trip(Long scheduleId, String trainNumber, String trainName, TrainType trainType,
+                        String[] stations, double fare) {
+    }
+    
+    /**
+     * Compiled timetable with times in minutes since the start of its first day
+     */
+    private record Timetable(LocalDateTime base, Map<String, Integer> stations, Trip[] trips,
+                             ConnectionTimetable connections) {
+        
+        private int minutes(LocalDateTime time) {
+            return (int) Duration.between(base, time).toMinutes();
+        }
+        
+        private LocalDateTime time(int minutes) {
+            return base.plusMinutes(minutes);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.exception.AuthenticationBusyException;
+import com.skm_labs.train_booking_system.service.PasswordService;
+import com.skm_labs.train_booking_system.util.PasswordHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service implementation for password hashing.
+ * Hashes run on a fixed pool of app.auth.password.threads low-priority threads with a
+ * bounded queue. A login storm therefore uses at most those cores, and once the queue
+ * is full further logins are rejected with 503 instead of queueing without bound, so
+ * booking requests keep their CPU. Rejections are counted as auth.password.rejections.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordServiceImpl implements PasswordService {
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.auth.password.iterations:600000}")
+    private int iterations;
+    
+    @Value("${app.auth.password.threads:0}")
+    private int threadCount;
+    
+    @Value("${app.auth.password.queue-capacity:200}")
+    private int queueCapacity;
+    
+    private PasswordHasher hasher;
+    private String dummyHash;
+    private ThreadPoolExecutor executor;
+    private Counter rejections;
+    
+    @PostConstruct
+    public void start() {
+        hasher = new PasswordHasher(iterations);
+        dummyHash = hasher.hash(UUID.randomUUID().toString());
+        int threads = threadCount > 0 ? threadCount : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        rejections = meterRegistry.counter("auth.password.rejections");
+        log.info("Password hashing with {} iterations on {} threads and {} queued requests",
+                iterations, threads, queueCapacity);
+    }
+    
+    @Override
+    public CompletableFuture<String> hash(String password) {
+        return submit(() -> hasher.hash(password));
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> matches(String password, String stored) {
+        return submit(() -> hasher.matches(password, stored));
+    }
+    
+    @Override
+    public boolean needsRehash(String stored) {
+        return hasher.needsRehash(stored);
+    }
+    
+    @Override
+    public String getDummyHash() {
+        return dummyHash;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new AuthenticationBusyException("Too many logins in progress, please retry shortly", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.service.PnrService;
+import com.skm_labs.train_booking_system.util.PnrGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Service implementation for PNR number generation.
+ * PNRs come from a {@link PnrGenerator} keyed with app.pnr.secret, so uniqueness
+ * needs no database round trip as long as every instance runs with its own app.pnr.node-id.
+ * The secret is required and has no generated fallback: PNRs are only unique under one
+ * key, so every instance and every restart must use the same one.
+ */
+@Service
+@Slf4j
+public class PnrServiceImpl implements PnrService {
+    
+    private static final int MIN_SECRET_BYTES = 32;
+    
+    @Value("${app.pnr.prefix:PNR}")
+    private String prefix;
+    
+    @Value("${app.pnr.length:10}")
+    private int length;
+    
+    @Value("${app.pnr.group-size:0}")
+    private int groupSize;
+    
+    @Value("${app.pnr.node-id:0}")
+    private int nodeId;
+    
+    @Value("${app.pnr.node-bits:6}")
+    private int nodeBits;
+    
+    @Value("${app.pnr.secret:}")
+    private String secret;
+    
+    @Value("${app.pnr.borrow-seconds:2}")
+    private int borrowSeconds;
+    
+    private PnrGenerator generator;
+    
+    @PostConstruct
+    public void init() {
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.pnr.secret must be set to at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        generator = new PnrGenerator(prefix, length, groupSize, nodeId, nodeBits, secret, borrowSeconds);
+        log.info("PNR generator ready on node {} with {} PNRs per second", nodeId, generator.getCapacityPerSecond());
+    }
+    
+    @Override
+    public String next() {
+        return generator.next();
+    }
+}
\ No newline at end of file
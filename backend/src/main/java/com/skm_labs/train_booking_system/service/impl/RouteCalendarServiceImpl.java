@@ -0,0 +1,260 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skm_labs.train_booking_system.dto.projection.ScheduleRouteMatch;
+import com.skm_labs.train_booking_system.dto.response.RouteCalendarDTO;
+import com.skm_labs.train_booking_system.dto.response.RouteCalendarDayDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.event.SeatAvailabilityChangedEvent;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.RouteCalendarService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.util.BookingUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for route availability calendars.
+ * A calendar is built from one query for the schedules serving the route in the month,
+ * the same one the flexible search runs, and cached per route and month. Departures and
+ * lowest fares come from that query, available seats from the seat inventory for the
+ * stop range of each schedule, so they match what a search shows. When seats of a schedule
+ * change, only its day is updated in the cached calendars of the routes it serves: a change
+ * over the whole run is added to the day's seats directly, a change on part of the run
+ * re-counts that single day on the routes that overlap it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteCalendarServiceImpl implements RouteCalendarService {
+    
+    private static final String CACHE_NAME = "route.calendar";
+    
+    private final ScheduleRepository scheduleRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.cache.calendar.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${app.cache.calendar.ttl-seconds:600}")
+    private long ttlSeconds;
+    
+    private Cache<CalendarKey, Calendar> calendars;
+    // Departure date and stations of schedules whose seats changed, to find their calendars
+    private Cache<Long, ScheduleRoute> scheduleRoutes;
+    
+    @PostConstruct
+    public void init() {
+        calendars = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        scheduleRoutes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, CACHE_NAME);
+    }
+    
+    @Override
+    public RouteCalendarDTO getCalendar(String departureStation, String arrivalStation, YearMonth month) {
+        CalendarKey key = new CalendarKey(normalize(departureStation), normalize(arrivalStation), month);
+        return calendars.get(key, k -> load(departureStation.trim(), arrivalStation.trim(), month)).toDto();
+    }
+    
+    /**
+     * Update the day of a schedule in the cached calendars once the seat change has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatAvailabilityChanged(SeatAvailabilityChangedEvent event) {
+        if (calendars.estimatedSize() == 0) {
+            return;
+        }
+        ScheduleRoute route = scheduleRoutes.get(event.scheduleId(), this::loadRoute);
+        if (route == null) {
+            return;
+        }
+        
+        List<String> stations = route.stations();
+        boolean wholeRoute = event.fromStop() == null
+                || (event.fromStop() == 0 && event.toStop() == stations.size() - 1);
+        YearMonth month = YearMonth.from(route.departureDate());
+        for (int from = 0; from < stations.size() - 1; from++) {
+            for (int to = from + 1; to < stations.size(); to++) {
+                if (!wholeRoute && (to <= event.fromStop() || from >= event.toStop())) {
+                    // Routes on other segments keep their seats
+                    continue;
+                }
+                Calendar calendar = calendars.getIfPresent(new CalendarKey(stations.get(from), stations.get(to), month));
+                if (calendar == null) {
+                    continue;
+                }
+                if (wholeRoute) {
+                    calendar.addSeats(route.departureDate(), event.seatChange());
+                } else {
+                    // The seats of an overlapping route depend on the other segments it covers
+                    LocalDate date = route.departureDate();
+                    setDay(calendar, date, scheduleRepository.findRouteMatchesBetween(
+                            calendar.departureStation, calendar.arrivalStation, date, date));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Drop the calendars a schedule appeared in before and after it was created or updated
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        List<ScheduleRoute> routes = new ArrayList<>();
+        ScheduleRoute previous = scheduleRoutes.getIfPresent(event.scheduleId());
+        if (previous != null) {
+            routes.add(previous);
+        }
+        scheduleRoutes.invalidate(event.scheduleId());
+        ScheduleRoute current = loadRoute(event.scheduleId());
+        if (current != null) {
+            routes.add(current);
+        }
+        
+        for (ScheduleRoute route : routes) {
+            YearMonth month = YearMonth.from(route.departureDate());
+            List<String> stations = route.stations();
+            for (int from = 0; from < stations.size() - 1; from++) {
+                for (int to = from + 1; to < stations.size(); to++) {
+                    calendars.invalidate(new CalendarKey(stations.get(from), stations.get(to), month));
+                }
+            }
+        }
+    }
+    
+    private Calendar load(String departureStation, String arrivalStation, YearMonth month) {
+        List<ScheduleRouteMatch> matches = scheduleRepository.findRouteMatchesBetween(departureStation,
+                arrivalStation, month.atDay(1), month.atEndOfMonth());
+        seatInventoryService.preload(matches.stream().map(ScheduleRouteMatch::getScheduleId).toList());
+        Map<LocalDate, List<ScheduleRouteMatch>> matchesByDate = matches.stream()
+                .collect(Collectors.groupingBy(ScheduleRouteMatch::getDepartureDate));
+        Calendar calendar = new Calendar(departureStation, arrivalStation, month);
+        matchesByDate.forEach((date, dayMatches) -> setDay(calendar, date, dayMatches));
+        log.debug("Loaded calendar from {} to {} for {} with {} days of departures",
+                departureStation, arrivalStation, month, matchesByDate.size());
+        return calendar;
+    }
+    
+    /**
+     * Count the departures, lowest segment fare and seats left on the route of one day
+     */
+    private void setDay(Calendar calendar, LocalDate date, List<ScheduleRouteMatch> matches) {
+        Double lowestFare = null;
+        long seats = 0;
+        for (ScheduleRouteMatch match : matches) {
+            double fare = BookingUtils.segmentFare(match.getFare(), match.getFromStopIndex(),
+                    match.getToStopIndex(), match.getStopCount());
+            lowestFare = lowestFare == null ? fare : Math.min(lowestFare, fare);
+            seats += seatInventoryService.getAvailableSeats(match.getScheduleId(),
+                    match.getFromStopIndex(), match.getToStopIndex());
+        }
+        calendar.set(date, matches.size(), lowestFare, seats);
+    }
+    
+    private ScheduleRoute loadRoute(Long scheduleId) {
+        return scheduleRepository.findWithTrainAndStopsById(scheduleId)
+                .map(RouteCalendarServiceImpl::toRoute)
+                .orElse(null);
+    }
+    
+    private static ScheduleRoute toRoute(Schedule schedule) {
+        List<String> stations = new ArrayList<>();
+        List<ScheduleStop> stops = schedule.getStops();
+        if (stops == null || stops.size() < 2) {
+            // Schedules stored before stops were recorded run between their endpoints only
+            stations.add(normalize(schedule.getDepartureStation()));
+            stations.add(normalize(schedule.getArrivalStation()));
+        } else {
+            stops.forEach(stop -> stations.add(normalize(stop.getStationName())));
+        }
+        return new ScheduleRoute(schedule.getDepartureDate(), stations);
+    }
+    
+    private static String normalize(String station) {
+        return station == null ? "" : station.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private record CalendarKey(String departureStation, String arrivalStation, YearMonth month) {
+    }
+    
+    private record ScheduleRoute(LocalDate departureDate, List<String> stations) {
+    }
+    
+    /**
+     * Mutable per-day figures of one route and month, guarded by its monitor
+     */
+    private static final class Calendar {
+        
+        private final String departureStation;
+        private final String arrivalStation;
+        private final YearMonth month;
+        private final int[] departures;
+        private final Double[] lowestFares;
+        private final long[] availableSeats;
+        
+        private Calendar(String departureStation, String arrivalStation, YearMonth month) {
+            this.departureStation = departureStation;
+            this.arrivalStation = arrivalStation;
+            this.month = month;
+            this.departures = new int[month.lengthOfMonth()];
+            this.lowestFares = new Double[month.lengthOfMonth()];
+            this.availableSeats = new long[month.lengthOfMonth()];
+        }
+        
+        private synchronized void set(LocalDate date, int departureCount, Double lowestFare, long seats) {
+            int index = date.getDayOfMonth() - 1;
+            departures[index] = departureCount;
+            lowestFares[index] = lowestFare;
+            availableSeats[index] = seats;
+        }
+        
+        private synchronized void addSeats(LocalDate date, int seatChange) {
+            int index = date.getDayOfMonth() - 1;
+            availableSeats[index] = Math.max(0, availableSeats[index] + seatChange);
+        }
+        
+        private synchronized RouteCalendarDTO toDto() {
+            List<RouteCalendarDayDTO> days = new ArrayList<>(departures.length);
+            for (int i = 0; i < departures.length; i++) {
+                days.add(RouteCalendarDayDTO.builder()
+                        .date(month.atDay(i + 1))
+                        .departures(departures[i])
+                        .lowestFare(lowestFares[i])
+                        .availableSeats((int) availableSeats[i])
+                        .build());
+            }
+            return RouteCalendarDTO.builder()
+                    .departureStation(departureStation)
+                    .arrivalStation(arrivalStation)
+                    .month(month.toString())
+                    .days(days)
+                    .build();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,345 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skm_labs.train_booking_system.dto.request.SearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.DailySearchResultDTO;
+import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+import com.skm_labs.train_booking_system.dto.response.TrainScheduleList;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.event.SeatAvailabilityChangedEvent;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.BookingService;
+import com.skm_labs.train_booking_system.service.ScheduleSearchService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.util.BookingUtils;
+import com.skm_labs.train_booking_system.util.JsonFragment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service implementation for the in-memory train search index.
+ * Every ordered pair of stops of a schedule is a route key of boarding station,
+ * alighting station and departure date. Each key holds an immutable array of entries
+ * sorted by departure time with everything the search response needs except the seats,
+ * which are overlaid from the seat inventory at query time. Searches therefore neither
+ * run SQL nor load trains. Writers replace whole arrays under a lock, so readers never
+ * see a partially updated key. Station names are matched case-insensitively like the
+ * database collation. Searches before the indexed date range fall back to the database.
+ * Every route key is stamped from a global sequence when its entries or the seats of one
+ * of its schedules change, which gives searches a cheap version for conditional requests.
+ * Each entry serializes its JSON on the first search that returns it, later JSON
+ * responses splice those bytes with the live seats. Entries are replaced when their
+ * schedule changes, so the cached JSON goes with them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleSearchServiceImpl implements ScheduleSearchService {
+    
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final RouteEntry[] NO_ENTRIES = new RouteEntry[0];
+    private static final Comparator<RouteEntry> BY_DEPARTURE = Comparator
+            .comparing(RouteEntry::departure)
+            .thenComparing(RouteEntry::scheduleId);
+    
+    private final ScheduleRepository scheduleRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final BookingService bookingService;
+    
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.search.index.retain-days:1}")
+    private int retainDays;
+    
+    private final Map<RouteKey, RouteEntry[]> routes = new ConcurrentHashMap<>();
+    // Route keys of every indexed schedule, guarded by this
+    private final Map<Long, List<RouteKey>> keysBySchedule = new HashMap<>();
+    // Searches before this date are answered by the database, null until the first rebuild
+    private volatile LocalDate indexedFrom;
+    // Last change of every route, from a sequence that restarts with the application
+    private final Map<RouteKey, Long> routeVersions = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final long epoch = System.currentTimeMillis();
+    
+    @Override
+    public List<TrainScheduleDTO> searchTrains(SearchRequestDTO searchRequest) {
+        LocalDate from = indexedFrom;
+        if (!enabled || from == null || searchRequest.getDepartureDate().isBefore(from)) {
+            return bookingService.searchTrains(searchRequest);
+        }
+        
+        List<TrainScheduleDTO> trainSchedules = search(searchRequest, searchRequest.getDepartureDate());
+        log.debug("Found {} indexed train schedules from {} to {} on {}", trainSchedules.size(),
+                searchRequest.getDepartureStation(), searchRequest.getArrivalStation(), searchRequest.getDepartureDate());
+        return trainSchedules;
+    }
+    
+    @Override
+    public List<DailySearchResultDTO> searchTrainsFlexible(SearchRequestDTO searchRequest) {
+        int flexibleDays = searchRequest.getFlexibleDays() != null ? searchRequest.getFlexibleDays() : 0;
+        LocalDate firstDate = searchRequest.getDepartureDate().minusDays(flexibleDays);
+        LocalDate lastDate = searchRequest.getDepartureDate().plusDays(flexibleDays);
+        LocalDate from = indexedFrom;
+        if (!enabled || from == null || firstDate.isBefore(from)) {
+            return bookingService.searchTrainsFlexible(searchRequest);
+        }
+        
+        // One hash lookup per day of the window
+        List<DailySearchResultDTO> days = new ArrayList<>();
+        for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+            days.add(DailySearchResultDTO.of(date, search(searchRequest, date)));
+        }
+        return days;
+    }
+    
+    @Override
+    public String getVersion(SearchRequestDTO searchRequest) {
+        int flexibleDays = searchRequest.getFlexibleDays() != null ? searchRequest.getFlexibleDays() : 0;
+        LocalDate firstDate = searchRequest.getDepartureDate().minusDays(flexibleDays);
+        LocalDate lastDate = searchRequest.getDepartureDate().plusDays(flexibleDays);
+        LocalDate from = indexedFrom;
+        if (!enabled || from == null || firstDate.isBefore(from)) {
+            return null;
+        }
+        
+        // Stamps come from one increasing sequence, so the newest one changes with any route of the window
+        String departureStation = normalize(searchRequest.getDepartureStation());
+        String arrivalStation = normalize(searchRequest.getArrivalStation());
+        long version = 0;
+        for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+            version = Math.max(version, routeVersions.getOrDefault(new RouteKey(departureStation, arrivalStation, date), 0L));
+        }
+        return epoch + "-" + version;
+    }
+    
+    private List<TrainScheduleDTO> search(SearchRequestDTO searchRequest, LocalDate date) {
+        RouteEntry[] entries = routes.getOrDefault(new RouteKey(normalize(searchRequest.getDepartureStation()),
+                normalize(searchRequest.getArrivalStation()), date), NO_ENTRIES);
+        
+        TrainScheduleList trainSchedules = new TrainScheduleList(entries.length);
+        for (RouteEntry entry : entries) {
+            int availableSeats = seatInventoryService.getAvailableSeats(entry.scheduleId(),
+                    entry.fromStopIndex(), entry.toStopIndex());
+            if (availableSeats >= searchRequest.getSeatCount()) {
+                trainSchedules.append(entry, availableSeats);
+            }
+        }
+        return trainSchedules;
+    }
+    
+    @Override
+    public synchronized void index(Long scheduleId) {
+        scheduleRepository.findWithTrainAndStopsById(scheduleId)
+                .ifPresentOrElse(this::put, () -> remove(scheduleId));
+    }
+    
+    @Override
+    public synchronized void remove(Long scheduleId) {
+        List<RouteKey> keys = keysBySchedule.remove(scheduleId);
+        if (keys == null) {
+            return;
+        }
+        for (RouteKey key : keys) {
+            routeVersions.put(key, changes.incrementAndGet());
+            routes.computeIfPresent(key, (k, entries) -> {
+                RouteEntry[] remaining = Arrays.stream(entries)
+                        .filter(entry -> !entry.scheduleId().equals(scheduleId))
+                        .toArray(RouteEntry[]::new);
+                return remaining.length == 0 ? null : remaining;
+            });
+        }
+    }
+    
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Rebuilding train search index from the database");
+        
+        // Searches go to the database while the index is incomplete
+        indexedFrom = null;
+        LocalDate from = LocalDate.now().minusDays(retainDays);
+        List<Schedule> schedules = scheduleRepository.findWithTrainAndStopsFrom(from);
+        routes.clear();
+        keysBySchedule.clear();
+        // Routes that are indexed again get new stamps, the others are empty now
+        routeVersions.clear();
+        for (Schedule schedule : schedules) {
+            put(schedule);
+        }
+        indexedFrom = from;
+        
+        log.info("Train search index rebuilt for {} schedules with {} routes", schedules.size(), routes.size());
+    }
+    
+    /**
+     * Re-index a schedule once the transaction that created or updated it has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (enabled) {
+            index(event.scheduleId());
+        }
+    }
+    
+    /**
+     * Stamp the routes of a schedule whose seats changed. Runs after rollbacks as well,
+     * since the seats taken by the rolled back transaction were visible until then.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public synchronized void onSeatAvailabilityChanged(SeatAvailabilityChangedEvent event) {
+        List<RouteKey> keys = keysBySchedule.get(event.scheduleId());
+        if (keys != null) {
+            keys.forEach(key -> routeVersions.put(key, changes.incrementAndGet()));
+        }
+    }
+    
+    /**
+     * Drop the days that can no longer be booked
+     */
+    @Scheduled(cron = "${app.search.index.prune-cron:0 5 0 * * *}")
+    public synchronized void prune() {
+        if (indexedFrom == null) {
+            return;
+        }
+        LocalDate from = LocalDate.now().minusDays(retainDays);
+        indexedFrom = from;
+        
+        List<Long> pastSchedules = new ArrayList<>();
+        keysBySchedule.forEach((scheduleId, keys) -> {
+            if (keys.get(0).departureDate().isBefore(from)) {
+                pastSchedules.add(scheduleId);
+            }
+        });
+        pastSchedules.forEach(this::remove);
+        routeVersions.keySet().removeIf(key -> key.departureDate().isBefore(from));
+        log.info("Pruned {} schedules departing before {} from the train search index", pastSchedules.size(), from);
+    }
+    
+    private void put(Schedule schedule) {
+        remove(schedule.getId());
+        if (schedule.getDepartureDate().isBefore(LocalDate.now().minusDays(retainDays))) {
+            return;
+        }
+        
+        List<ScheduleStop> stops = schedule.getStops();
+        if (stops == null || stops.size() < 2) {
+            // Schedules stored before stops were recorded run between their endpoints only
+            stops = List.of(new ScheduleStop(schedule.getDepartureStation(), null, schedule.getDepartureTime()),
+                    new ScheduleStop(schedule.getArrivalStation(), schedule.getArrivalTime(), null));
+        }
+        
+        Train train = schedule.getTrain();
+        String departureDate = schedule.getDepartureDate().format(DATE_FORMATTER);
+        List<RouteKey> keys = new ArrayList<>();
+        for (int from = 0; from < stops.size() - 1; from++) {
+            for (int to = from + 1; to < stops.size(); to++) {
+                ScheduleStop boarding = stops.get(from);
+                ScheduleStop alighting = stops.get(to);
+                RouteKey key = new RouteKey(normalize(boarding.getStationName()),
+                        normalize(alighting.getStationName()), schedule.getDepartureDate());
+                RouteEntry entry = new RouteEntry(schedule.getId(), train.getId(), train.getTrainNumber(),
+                        train.getTrainName(), train.getTrainType(), boarding.getStationName(),
+                        alighting.getStationName(), departureDate, boarding.getDepartureTime(),
+                        boarding.getDepartureTime().format(TIME_FORMATTER),
+                        alighting.getArrivalTime().format(TIME_FORMATTER), from, to,
+                        BookingUtils.segmentFare(schedule.getFare(), from, to, stops.size()), train.getTotalSeats(),
+                        new JsonSlot());
+                
+                routes.merge(key, new RouteEntry[] {entry}, (entries, added) -> {
+                    RouteEntry[] merged = Arrays.copyOf(entries, entries.length + 1);
+                    merged[entries.length] = entry;
+                    Arrays.sort(merged, BY_DEPARTURE);
+                    return merged;
+                });
+                routeVersions.put(key, changes.incrementAndGet());
+                keys.add(key);
+            }
+        }
+        keysBySchedule.put(schedule.getId(), keys);
+    }
+    
+    private static String normalize(String station) {
+        return station == null ? "" : station.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private record RouteKey(String departureStation, String arrivalStation, LocalDate departureDate) {
+    }
+    
+    /**
+     * Static part of a search result for one schedule between two of its stops
+     */
+    private record RouteEntry(Long scheduleId, Long trainId, String trainNumber, String trainName,
+                              TrainType trainType, String departureStation, String arrivalStation,
+                              String departureDate, LocalTime departure, String departureTime, String arrivalTime,
+                              int fromStopIndex, int toStopIndex, double fare, Integer totalSeats,
+                              JsonSlot json) implements TrainScheduleList.Source {
+        
+        @Override
+        public JsonFragment toJson(ObjectMapper mapper) throws JsonProcessingException {
+            // Racing searches serialize the same bytes, the last one is kept
+            JsonFragment fragment = json.fragment;
+            if (fragment == null) {
+                fragment = JsonFragment.of(mapper, toDto(null), "availableSeats");
+                json.fragment = fragment;
+            }
+            return fragment;
+        }
+        
+        @Override
+        public TrainScheduleDTO toDto(Integer availableSeats) {
+            return TrainScheduleDTO.builder()
+                    .scheduleId(scheduleId)
+                    .trainId(trainId)
+                    .trainNumber(trainNumber)
+                    .trainName(trainName)
+                    .trainType(trainType)
+                    .departureStation(departureStation)
+                    .arrivalStation(arrivalStation)
+                    .departureDate(departureDate)
+                    .departureTime(departureTime)
+                    .arrivalTime(arrivalTime)
+                    .fare(fare)
+                    .availableSeats(availableSeats)
+                    .totalSeats(totalSeats)
+                    .build();
+        }
+    }
+    
+    /**
+     * JSON of a route entry, filled on first use
+     */
+    private static final class JsonSlot {
+        
+        private volatile JsonFragment fragment;
+    }
+}
\ No newline at end of file
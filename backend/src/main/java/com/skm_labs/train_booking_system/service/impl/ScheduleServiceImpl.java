@@ -1,16 +1,35 @@
 package com.skm_labs.train_booking_system.service.impl;
 
+import com.skm_labs.train_booking_system.dto.response.PageResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.ScheduleResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.ScheduleSummaryDTO;
 import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.event.SeatAvailabilityChangedEvent;
 import com.skm_labs.train_booking_system.exception.ScheduleNotFoundException;
-import com.skm_labs.train_booking_system.exception.SeatNotAvailableException;
+import com.skm_labs.train_booking_system.exception.TrainNotFoundException;
 import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.repository.TrainRepository;
 import com.skm_labs.train_booking_system.service.ScheduleService;
+import com.skm_labs.train_booking_system.service.SeatMapService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.util.TransactionHooks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service implementation for Schedule operations
@@ -21,51 +40,173 @@ import java.util.List;
 @Transactional
 public class ScheduleServiceImpl implements ScheduleService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    // Sort fields of the listing and the schedule properties they map to
+    private static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "departureDate", "departureDate",
+            "departureTime", "departureTime",
+            "departureStation", "departureStation",
+            "arrivalStation", "arrivalStation",
+            "fare", "fare",
+            "availableSeats", "availableSeats",
+            "trainNumber", "train.trainNumber",
+            "scheduleId", "id");
+    
     private final ScheduleRepository scheduleRepository;
+    private final TrainRepository trainRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatMapService seatMapService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
-    public Schedule createSchedule(Schedule schedule) {
-        log.info("Creating new schedule for train: {}", schedule.getTrain().getTrainNumber());
+    public ScheduleResponseDTO createSchedule(Schedule schedule) {
+        if (schedule.getTrain() == null || schedule.getTrain().getId() == null) {
+            throw new IllegalArgumentException("A schedule needs a train");
+        }
+        // The train of the request only identifies it, its seats are taken from the database
+        Train train = trainRepository.findById(schedule.getTrain().getId())
+                .orElseThrow(() -> new TrainNotFoundException(schedule.getTrain().getId()));
+        log.info("Creating new schedule for train: {}", train.getTrainNumber());
+        
+        normalizeStops(schedule);
+        schedule.setId(null);
+        schedule.setVersion(null);
+        schedule.setTrain(train);
         
         // Set available seats equal to train's total seats initially
-        schedule.setAvailableSeats(schedule.getTrain().getTotalSeats());
+        schedule.setAvailableSeats(train.getTotalSeats());
         
         Schedule savedSchedule = scheduleRepository.save(schedule);
         log.info("Schedule created successfully with ID: {}", savedSchedule.getId());
         
-        return savedSchedule;
+        // Make the new seat count visible to the inventory once the schedule is stored
+        Long scheduleId = savedSchedule.getId();
+        int availableSeats = savedSchedule.getAvailableSeats();
+        int segments = savedSchedule.getStops().size() - 1;
+        TransactionHooks.afterCommit(() -> {
+            seatInventoryService.register(scheduleId, availableSeats, train.getTotalSeats(), segments);
+            seatMapService.evict(scheduleId);
+        });
+        eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleId));
+        
+        return ScheduleResponseDTO.of(savedSchedule, availableSeats);
     }
     
     @Override
-    public Schedule updateAvailableSeats(Long scheduleId, Integer seatChange) {
-        log.info("Updating available seats for schedule ID: {} by: {}", scheduleId, seatChange);
+    public ScheduleResponseDTO updateSchedule(Long scheduleId, Schedule schedule) {
+        log.info("Updating schedule ID: {}", scheduleId);
         
-        Schedule schedule = findById(scheduleId);
-        int newAvailableSeats = schedule.getAvailableSeats() + seatChange;
+        Schedule existing = scheduleRepository.findWithTrainAndStopsById(scheduleId)
+                .orElseThrow(() -> new ScheduleNotFoundException(scheduleId));
+        Train train = existing.getTrain();
+        if (schedule.getTrain() != null && schedule.getTrain().getId() != null
+                && !schedule.getTrain().getId().equals(train.getId())) {
+            throw new IllegalArgumentException("The train of a schedule cannot be changed");
+        }
         
-        // Check if the operation would result in negative seats
-        if (newAvailableSeats < 0) {
-            throw new SeatNotAvailableException(
-                    Math.abs(seatChange), schedule.getAvailableSeats());
+        normalizeStops(schedule);
+        int segments = schedule.getStops().size() - 1;
+        int previousSegments = Math.max(existing.getStops().size() - 1, 1);
+        int availableSeats = seatInventoryService.getAvailableSeats(scheduleId);
+        // Bookings hold stop indexes, which must keep pointing at the same stations, only times may change
+        if (!stationNames(schedule).equals(stationNames(existing)) && availableSeats < train.getTotalSeats()) {
+            throw new IllegalArgumentException("Stations cannot be added, removed, renamed or reordered "
+                    + "while seats of schedule " + scheduleId + " are booked");
         }
         
-        // Check if available seats exceed total seats
-        if (newAvailableSeats > schedule.getTrain().getTotalSeats()) {
-            throw new IllegalArgumentException("Available seats cannot exceed total seats");
+        existing.setDepartureStation(schedule.getDepartureStation());
+        existing.setArrivalStation(schedule.getArrivalStation());
+        existing.setDepartureTime(schedule.getDepartureTime());
+        existing.setArrivalTime(schedule.getArrivalTime());
+        if (schedule.getDepartureDate() != null) {
+            existing.setDepartureDate(schedule.getDepartureDate());
+        }
+        if (schedule.getFare() != null) {
+            existing.setFare(schedule.getFare());
         }
+        existing.getStops().clear();
+        existing.getStops().addAll(schedule.getStops());
+        log.info("Schedule ID: {} updated with {} stops", scheduleId, segments + 1);
         
-        schedule.setAvailableSeats(newAvailableSeats);
-        Schedule updatedSchedule = scheduleRepository.save(schedule);
+        TransactionHooks.afterCommit(() -> {
+            if (segments != previousSegments) {
+                seatInventoryService.register(scheduleId, availableSeats, train.getTotalSeats(), segments);
+            }
+            seatMapService.evict(scheduleId);
+        });
+        eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleId));
+        
+        return ScheduleResponseDTO.of(existing, availableSeats);
+    }
+    
+    @Override
+    public Integer updateAvailableSeats(Long scheduleId, Integer seatChange) {
+        log.info("Updating available seats for schedule ID: {} by: {}", scheduleId, seatChange);
+        
+        // Seats are taken from the in-memory inventory, which rejects overselling
+        // and writes the new count back to the database in the background
+        int newAvailableSeats = seatChange < 0
+                ? seatInventoryService.reserve(scheduleId, -seatChange)
+                : seatInventoryService.release(scheduleId, seatChange);
+        eventPublisher.publishEvent(new SeatAvailabilityChangedEvent(scheduleId, null, null, seatChange, newAvailableSeats));
         
         log.info("Available seats updated successfully. New count: {}", newAvailableSeats);
-        return updatedSchedule;
+        return newAvailableSeats;
+    }
+    
+    @Override
+    public Integer updateAvailableSeats(Long scheduleId, int fromStop, int toStop, Integer seatChange) {
+        log.info("Updating available seats for schedule ID: {} between stops {} and {} by: {}",
+                scheduleId, fromStop, toStop, seatChange);
+        
+        int newAvailableSeats = seatChange < 0
+                ? seatInventoryService.reserve(scheduleId, fromStop, toStop, -seatChange)
+                : seatInventoryService.release(scheduleId, fromStop, toStop, seatChange);
+        eventPublisher.publishEvent(new SeatAvailabilityChangedEvent(scheduleId, fromStop, toStop, seatChange, newAvailableSeats));
+        
+        log.info("Available seats updated successfully. New count between stops: {}", newAvailableSeats);
+        return newAvailableSeats;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponseDTO<ScheduleSummaryDTO> getSchedules(LocalDate fromDate, LocalDate toDate,
+                                                            String departureStation, String arrivalStation,
+                                                            String trainNumber, int page, int size,
+                                                            String sortBy, Sort.Direction direction) {
+        String property = sortBy == null ? null : SORT_PROPERTIES.get(sortBy);
+        if (sortBy != null && property == null) {
+            throw new IllegalArgumentException("Schedules cannot be sorted by " + sortBy
+                    + ", use one of " + SORT_PROPERTIES.keySet());
+        }
+        // The ID breaks ties, so that rows do not move between pages
+        Sort sort = (property == null ? Sort.by(direction, "departureDate", "departureTime") : Sort.by(direction, property))
+                .and(Sort.by(Sort.Direction.ASC, "id"));
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), sort);
+        
+        Page<ScheduleSummaryDTO> schedules = scheduleRepository.findSummaries(fromDate, toDate,
+                blankToNull(departureStation), blankToNull(arrivalStation), blankToNull(trainNumber), pageable);
+        // The stored seat count trails the inventory by up to one flush interval
+        schedules.forEach(schedule -> schedule.setAvailableSeats(
+                seatInventoryService.getAvailableSeats(schedule.getScheduleId())));
+        return PageResponseDTO.of(schedules);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<Schedule> getAllSchedules() {
-        log.info("Fetching all schedules");
-        return scheduleRepository.findAll();
+    public ScheduleResponseDTO getSchedule(Long scheduleId) {
+        Schedule schedule = scheduleRepository.findWithTrainAndStopsById(scheduleId)
+                .orElseThrow(() -> new ScheduleNotFoundException(scheduleId));
+        return ScheduleResponseDTO.of(schedule, seatInventoryService.getAvailableSeats(scheduleId));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public String getScheduleVersion(Long scheduleId) {
+        // Seats are not versioned in the database, the response shows the inventory's count
+        return scheduleRepository.findVersionById(scheduleId)
+                .map(version -> version + "-" + seatInventoryService.getAvailableSeats(scheduleId))
+                .orElse(null);
     }
     
     @Override
@@ -74,4 +215,54 @@ public class ScheduleServiceImpl implements ScheduleService {
         return scheduleRepository.findById(scheduleId)
                 .orElseThrow(() -> new ScheduleNotFoundException(scheduleId));
     }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+    
+    /**
+     * Station names in route order, the endpoints for schedules stored without stops
+     */
+    private static List<String> stationNames(Schedule schedule) {
+        List<ScheduleStop> stops = schedule.getStops();
+        if (stops == null || stops.size() < 2) {
+            return List.of(String.valueOf(schedule.getDepartureStation()), String.valueOf(schedule.getArrivalStation()));
+        }
+        return stops.stream().map(ScheduleStop::getStationName).toList();
+    }
+    
+    /**
+     * Make the stops and the endpoint fields of a schedule agree. Schedules without stops get
+     * their departure and arrival stations as the only two stops, otherwise the endpoints are
+     * taken from the first and last stop.
+     */
+    private void normalizeStops(Schedule schedule) {
+        List<ScheduleStop> stops = schedule.getStops();
+        if (stops == null || stops.isEmpty()) {
+            schedule.setStops(new ArrayList<>(List.of(
+                    new ScheduleStop(schedule.getDepartureStation(), null, schedule.getDepartureTime()),
+                    new ScheduleStop(schedule.getArrivalStation(), schedule.getArrivalTime(), null))));
+            return;
+        }
+        
+        if (stops.size() < 2) {
+            throw new IllegalArgumentException("A schedule needs at least two stops");
+        }
+        for (int i = 0; i < stops.size(); i++) {
+            ScheduleStop stop = stops.get(i);
+            if (stop.getStationName() == null || stop.getStationName().isBlank()) {
+                throw new IllegalArgumentException("Stop " + i + " has no station name");
+            }
+            if ((i > 0 && stop.getArrivalTime() == null) || (i < stops.size() - 1 && stop.getDepartureTime() == null)) {
+                throw new IllegalArgumentException("Stop " + stop.getStationName() + " is missing its times");
+            }
+        }
+        
+        ScheduleStop first = stops.get(0);
+        ScheduleStop last = stops.get(stops.size() - 1);
+        schedule.setDepartureStation(first.getStationName());
+        schedule.setDepartureTime(first.getDepartureTime());
+        schedule.setArrivalStation(last.getStationName());
+        schedule.setArrivalTime(last.getArrivalTime());
+    }
 }
\ No newline at end of file
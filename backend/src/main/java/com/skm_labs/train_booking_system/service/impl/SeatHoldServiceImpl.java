@@ -0,0 +1,141 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.entity.Booking;
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.service.BookingService;
+import com.skm_labs.train_booking_system.service.SeatHoldService;
+import com.skm_labs.train_booking_system.util.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service implementation for two-phase seat holds.
+ * Hold deadlines live in a hashed timing wheel, so scheduling and cancelling a
+ * hold is O(1) no matter how many are outstanding. Each tick collects the due
+ * holds and expires them in batches, every batch in its own transaction with a
+ * guarded status update per hold.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldServiceImpl implements SeatHoldService {
+    
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    
+    @Value("${app.holds.ttl-seconds:600}")
+    private long ttlSeconds;
+    
+    @Value("${app.holds.tick-ms:100}")
+    private long tickMillis;
+    
+    @Value("${app.holds.wheel-size:512}")
+    private int wheelSize;
+    
+    @Value("${app.holds.batch-size:500}")
+    private int batchSize;
+    
+    private final Map<Long, HashedTimingWheel.Timeout<Long>> timeouts = new ConcurrentHashMap<>();
+    private HashedTimingWheel<Long> wheel;
+    
+    @PostConstruct
+    public void init() {
+        wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+    
+    @Override
+    public BookingResponseDTO hold(BookingRequestDTO bookingRequest) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(ttlSeconds);
+        BookingResponseDTO booking = bookingService.createHold(bookingRequest, expiresAt);
+        track(booking.getBookingId(), expiresAt);
+        return booking;
+    }
+    
+    @Override
+    public BookingResponseDTO confirm(Long bookingId) {
+        BookingResponseDTO booking = bookingService.confirmHold(bookingId);
+        HashedTimingWheel.Timeout<Long> timeout = timeouts.remove(bookingId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return booking;
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.holds.tick-ms:100}")
+    public int expireDue() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return 0;
+        }
+        
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            batch.forEach(timeouts::remove);
+            try {
+                expired += bookingService.expireHolds(batch);
+            } catch (RuntimeException e) {
+                // Try the batch again on a later tick, the guarded updates make retries safe
+                log.error("Failed to expire {} seat holds, retrying", batch.size(), e);
+                long retryAt = System.currentTimeMillis() + 10 * tickMillis;
+                batch.forEach(bookingId -> timeouts.put(bookingId, wheel.schedule(bookingId, retryAt)));
+            }
+        }
+        return expired;
+    }
+    
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int recover() {
+        log.info("Recovering outstanding seat holds");
+        
+        // Every hold was created before now, so this returns all pending bookings
+        List<Booking> pending = bookingRepository.findByBookingStatusAndBookingDateBefore(
+                BookingStatus.PENDING, LocalDateTime.now());
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> overdue = new ArrayList<>();
+        int recovered = 0;
+        for (Booking booking : pending) {
+            // Pending bookings without a deadline were not created as holds
+            if (booking.getHoldExpiresAt() == null) {
+                continue;
+            }
+            recovered++;
+            if (booking.getHoldExpiresAt().isAfter(now)) {
+                track(booking.getId(), booking.getHoldExpiresAt());
+            } else {
+                overdue.add(booking.getId());
+            }
+        }
+        
+        for (int from = 0; from < overdue.size(); from += batchSize) {
+            bookingService.expireHolds(overdue.subList(from, Math.min(overdue.size(), from + batchSize)));
+        }
+        
+        log.info("Recovered {} seat holds, {} expired while the application was down", recovered, overdue.size());
+        return recovered;
+    }
+    
+    private void track(Long bookingId, LocalDateTime expiresAt) {
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        timeouts.put(bookingId, wheel.schedule(bookingId, deadline));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,581 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.projection.ScheduleSeatSnapshot;
+import com.skm_labs.train_booking_system.dto.projection.SegmentLoad;
+import com.skm_labs.train_booking_system.exception.ScheduleNotFoundException;
+import com.skm_labs.train_booking_system.exception.SeatNotAvailableException;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.util.SegmentTree;
+import com.skm_labs.train_booking_system.util.TransactionHooks;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for the in-memory seat inventory.
+ * Each schedule has a CAS-based counter, so reservations on the same schedule
+ * never block each other and never take a database row lock. Changes reach the
+ * schedules table through guarded single-statement updates, either by a
+ * background flush (default) or inside the booking transaction when
+ * app.inventory.write-through is enabled. Multi-stop schedules track each
+ * route segment in a segment tree, so a partial journey only consumes seats
+ * on the segments it covers. When a guarded update is rejected the counter is
+ * resynced in place from the bookings plus the changes of transactions still
+ * in flight, so their commit and rollback hooks keep acting on the live counter.
+ * Changes hold a counter's lock shared and a resync holds it exclusively, so no
+ * change lands between a resync reading the counter and overwriting it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventoryServiceImpl implements SeatInventoryService {
+    
+    private static final int RESYNC_ATTEMPTS = 3;
+    private static final String OTHER_SCHEDULES = "other";
+    
+    private final ScheduleRepository scheduleRepository;
+    private final BookingRepository bookingRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.inventory.write-through:false}")
+    private boolean writeThrough;
+    
+    @Value("${app.inventory.metrics.contended-schedules:50}")
+    private int contendedSchedules;
+    
+    private final Map<Long, SeatCounter> counters = new ConcurrentHashMap<>();
+    private final Set<Long> dirtySchedules = ConcurrentHashMap.newKeySet();
+    // Schedules with a contention series of their own, the first ones to see a rejected update
+    private final Set<Long> taggedSchedules = ConcurrentHashMap.newKeySet();
+    
+    @Override
+    public int getAvailableSeats(Long scheduleId) {
+        return counter(scheduleId).available.get();
+    }
+    
+    @Override
+    public int getAvailableSeats(Long scheduleId, int fromStop, int toStop) {
+        return counter(scheduleId).freeSeats(fromStop, toStop);
+    }
+    
+    @Override
+    public void preload(Collection<Long> scheduleIds) {
+        List<Long> missing = scheduleIds.stream()
+                .filter(id -> !counters.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            load(scheduleRepository.findSeatSnapshots(missing));
+        }
+    }
+    
+    @Override
+    public int reserve(Long scheduleId, int seats) {
+        SeatCounter counter = counter(scheduleId);
+        return reserve(scheduleId, counter, 0, counter.segmentCount(), seats);
+    }
+    
+    @Override
+    public int reserve(Long scheduleId, int fromStop, int toStop, int seats) {
+        return reserve(scheduleId, counter(scheduleId), fromStop, toStop, seats);
+    }
+    
+    @Override
+    public int release(Long scheduleId, int seats) {
+        SeatCounter counter = counter(scheduleId);
+        return release(scheduleId, counter, 0, counter.segmentCount(), seats);
+    }
+    
+    @Override
+    public int release(Long scheduleId, int fromStop, int toStop, int seats) {
+        return release(scheduleId, counter(scheduleId), fromStop, toStop, seats);
+    }
+    
+    @Override
+    public int getSegmentCount(Long scheduleId) {
+        return counter(scheduleId).segmentCount();
+    }
+    
+    @Override
+    public void register(Long scheduleId, int availableSeats, int totalSeats, int segments) {
+        counters.put(scheduleId, new SeatCounter(availableSeats, availableSeats, totalSeats,
+                segments > 1 ? new SegmentTree(segments, availableSeats) : null));
+        log.debug("Registered seat counter for schedule ID: {} with {} seats on {} segments",
+                scheduleId, availableSeats, segments);
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:500}")
+    public int flush() {
+        int flushed = 0;
+        Iterator<Long> iterator = dirtySchedules.iterator();
+        while (iterator.hasNext()) {
+            Long scheduleId = iterator.next();
+            // Remove before reading so that a concurrent change marks the schedule dirty again
+            iterator.remove();
+            
+            SeatCounter counter = counters.get(scheduleId);
+            if (counter == null) {
+                continue;
+            }
+            
+            int delta = counter.available.get() - counter.persisted.get();
+            if (delta == 0) {
+                continue;
+            }
+            
+            try {
+                if (persist(scheduleId, counter, delta)) {
+                    flushed++;
+                } else {
+                    // The row was changed outside this inventory, resync the counter from the bookings
+                    log.warn("Guarded seat update rejected for schedule ID: {}, resyncing counter", scheduleId);
+                    resync(scheduleId, counter);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to persist available seats for schedule ID: {}", scheduleId, e);
+                dirtySchedules.add(scheduleId);
+            }
+        }
+        
+        if (flushed > 0) {
+            log.debug("Persisted available seats for {} schedules", flushed);
+        }
+        return flushed;
+    }
+    
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Rebuilding seat inventory from the database");
+        
+        List<ScheduleSeatSnapshot> snapshots = scheduleRepository.findSeatSnapshots();
+        load(snapshots);
+        
+        log.info("Seat inventory rebuilt for {} schedules", snapshots.size());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        log.info("Flushing seat inventory before shutdown");
+        flush();
+    }
+    
+    private boolean persist(Long scheduleId, SeatCounter counter, int delta) {
+        String operation = delta < 0 ? "reserve" : "release";
+        meterRegistry.counter("seat.update.attempts", "operation", operation).increment();
+        
+        int rows = delta < 0
+                ? scheduleRepository.decrementAvailableSeats(scheduleId, -delta)
+                : scheduleRepository.incrementAvailableSeats(scheduleId, delta);
+        
+        meterRegistry.counter("seat.update.rows", "operation", operation).increment(rows);
+        if (rows == 0) {
+            meterRegistry.counter("seat.update.rejections", "operation", operation).increment();
+            meterRegistry.counter("seat.update.contention", "schedule", scheduleTag(scheduleId)).increment();
+            return false;
+        }
+        
+        counter.persisted.addAndGet(delta);
+        // In write-through mode the row change belongs to the caller's transaction
+        TransactionHooks.afterRollback(() -> counter.persisted.addAndGet(-delta));
+        return true;
+    }
+    
+    private int reserve(Long scheduleId, SeatCounter counter, int fromStop, int toStop, int seats) {
+        PendingChange pending = new PendingChange(fromStop, toStop, -seats);
+        SeatChange change = counter.apply(pending, () -> counter.reserve(fromStop, toStop, seats));
+        
+        // The schedules column tracks whole-route availability, which a partial journey may leave unchanged
+        if (writeThrough && change.routeDelta() != 0 && !persist(scheduleId, counter, change.routeDelta())) {
+            // The row disagrees with the counter, another writer took the seats
+            counter.revert(pending);
+            resync(scheduleId, counter);
+            throw new SeatNotAvailableException(
+                    "Seats on schedule " + scheduleId + " were taken by a concurrent booking");
+        }
+        
+        // Give the seats back if the surrounding booking transaction fails, and stop
+        // tracking the reservation only once its booking is visible
+        TransactionHooks.afterRollback(() -> undo(scheduleId, counter, pending));
+        TransactionHooks.afterCommit(() -> counter.settle(pending));
+        markDirty(scheduleId);
+        return change.remaining();
+    }
+    
+    private int release(Long scheduleId, SeatCounter counter, int fromStop, int toStop, int seats) {
+        PendingChange pending = new PendingChange(fromStop, toStop, seats);
+        SeatChange change = counter.apply(pending, () -> counter.release(fromStop, toStop, seats));
+        
+        if (writeThrough && change.routeDelta() != 0 && !persist(scheduleId, counter, change.routeDelta())) {
+            counter.revert(pending);
+            resync(scheduleId, counter);
+            throw new IllegalArgumentException("Available seats cannot exceed total seats");
+        }
+        
+        // Stop tracking the release before its cancellation is visible, so that a resync never counts it twice
+        TransactionHooks.afterRollback(() -> undo(scheduleId, counter, pending));
+        TransactionHooks.beforeCommit(() -> counter.settle(pending));
+        markDirty(scheduleId);
+        return change.remaining();
+    }
+    
+    private void undo(Long scheduleId, SeatCounter counter, PendingChange pending) {
+        counter.revert(pending);
+        markDirty(scheduleId);
+    }
+    
+    /**
+     * Bring a live counter back in line with the bookings without replacing it,
+     * so that hooks of transactions still in flight keep acting on it
+     */
+    private void resync(Long scheduleId, SeatCounter counter) {
+        for (int attempt = 0; attempt < RESYNC_ATTEMPTS; attempt++) {
+            long changes = counter.changes.sum();
+            Optional<ScheduleSeatSnapshot> snapshot = scheduleRepository.findSeatSnapshot(scheduleId);
+            if (snapshot.isEmpty()) {
+                counters.remove(scheduleId, counter);
+                return;
+            }
+            
+            SeatCounter fresh = toCounter(snapshot.get());
+            if (fresh.segmentCount() != counter.segmentCount()) {
+                // The stops changed, no in-flight change can be mapped onto the new route
+                counters.replace(scheduleId, counter, fresh);
+                return;
+            }
+            if (counter.resync(fresh, changes)) {
+                return;
+            }
+        }
+        // Bookings kept changing underneath, the next rejected update tries again
+        log.warn("Seat counter of schedule ID: {} could not be resynced, keeping it", scheduleId);
+        markDirty(scheduleId);
+    }
+    
+    /**
+     * Tag of a schedule on the contention counter. Only the first contended schedules get
+     * a tag of their own, all later ones share one, so the number of series stays bounded.
+     */
+    private String scheduleTag(Long scheduleId) {
+        if (taggedSchedules.contains(scheduleId)
+                || (taggedSchedules.size() < contendedSchedules && taggedSchedules.add(scheduleId))) {
+            return scheduleId.toString();
+        }
+        return OTHER_SCHEDULES;
+    }
+    
+    private void markDirty(Long scheduleId) {
+        if (!writeThrough) {
+            dirtySchedules.add(scheduleId);
+        }
+    }
+    
+    /**
+     * Create the missing counters of the snapshots with one query for all their segment loads
+     */
+    private void load(List<ScheduleSeatSnapshot> snapshots) {
+        List<Long> multiStop = snapshots.stream()
+                .filter(snapshot -> segmentCount(snapshot) > 1)
+                .map(ScheduleSeatSnapshot::getScheduleId)
+                .toList();
+        Map<Long, List<SegmentLoad>> loads = multiStop.isEmpty()
+                ? Map.of()
+                : bookingRepository.findSegmentLoads(multiStop).stream()
+                        .collect(Collectors.groupingBy(SegmentLoad::getScheduleId));
+        for (ScheduleSeatSnapshot snapshot : snapshots) {
+            // Counters loaded on demand meanwhile are already live, keep them
+            counters.computeIfAbsent(snapshot.getScheduleId(),
+                    id -> toCounter(snapshot, loads.getOrDefault(id, List.of())));
+        }
+    }
+    
+    private SeatCounter counter(Long scheduleId) {
+        return counters.computeIfAbsent(scheduleId, id -> toCounter(
+                scheduleRepository.findSeatSnapshot(id)
+                        .orElseThrow(() -> new ScheduleNotFoundException(id))));
+    }
+    
+    private SeatCounter toCounter(ScheduleSeatSnapshot snapshot) {
+        return toCounter(snapshot, segmentCount(snapshot) > 1
+                ? bookingRepository.findSegmentLoads(snapshot.getScheduleId())
+                : List.of());
+    }
+    
+    private SeatCounter toCounter(ScheduleSeatSnapshot snapshot, List<SegmentLoad> loads) {
+        // Derive availability from live bookings, the stored column may lag behind
+        // if the application stopped before the last flush
+        int totalSeats = snapshot.getTotalSeats();
+        int segments = segmentCount(snapshot);
+        SegmentTree segmentTree = segments > 1 ? loadSegments(snapshot, segments, loads) : null;
+        int availableSeats = segmentTree != null
+                ? Math.max(0, segmentTree.min(0, segments))
+                : (int) Math.max(0, totalSeats - snapshot.getBookedSeats());
+        if (availableSeats != snapshot.getAvailableSeats()) {
+            log.warn("Schedule ID: {} stores {} available seats but bookings leave {}, repairing",
+                    snapshot.getScheduleId(), snapshot.getAvailableSeats(), availableSeats);
+            dirtySchedules.add(snapshot.getScheduleId());
+        }
+        return new SeatCounter(availableSeats, snapshot.getAvailableSeats(), totalSeats, segmentTree);
+    }
+    
+    private SegmentTree loadSegments(ScheduleSeatSnapshot snapshot, int segments, List<SegmentLoad> loads) {
+        SegmentTree segmentTree = new SegmentTree(segments, snapshot.getTotalSeats());
+        long partialSeats = 0;
+        for (SegmentLoad load : loads) {
+            if (load.getFromStopIndex() < 0 || load.getToStopIndex() > segments
+                    || load.getFromStopIndex() >= load.getToStopIndex()) {
+                log.warn("Ignoring bookings on invalid stop range {}-{} of schedule ID: {}",
+                        load.getFromStopIndex(), load.getToStopIndex(), snapshot.getScheduleId());
+                continue;
+            }
+            segmentTree.add(load.getFromStopIndex(), load.getToStopIndex(), (int) -load.getBookedSeats());
+            partialSeats += load.getBookedSeats();
+        }
+        
+        // Bookings made before stops were recorded occupy the whole route
+        long fullRouteSeats = snapshot.getBookedSeats() - partialSeats;
+        if (fullRouteSeats > 0) {
+            segmentTree.add(0, segments, (int) -fullRouteSeats);
+        }
+        return segmentTree;
+    }
+    
+    private static int segmentCount(ScheduleSeatSnapshot snapshot) {
+        int stopCount = snapshot.getStopCount() == null ? 0 : snapshot.getStopCount();
+        return Math.max(1, stopCount - 1);
+    }
+    
+    /**
+     * Result of a counter change: seats left on the requested stop range and the change
+     * of whole-route availability, which is what the schedules table stores
+     */
+    private record SeatChange(int remaining, int routeDelta) {
+    }
+    
+    /**
+     * Change of a counter whose transaction has not completed yet, compared by identity
+     */
+    private static final class PendingChange {
+        
+        private final int fromStop;
+        private final int toStop;
+        private final int seats;
+        
+        private PendingChange(int fromStop, int toStop, int seats) {
+            this.fromStop = fromStop;
+            this.toStop = toStop;
+            this.seats = seats;
+        }
+    }
+    
+    /**
+     * Seat counter of a single schedule.
+     * Schedules without intermediate stops use a lock-free CAS counter. Multi-stop schedules keep
+     * the free seats of each segment in a segment tree guarded by its monitor, and mirror the
+     * whole-route minimum into the atomic counter.
+     * Tracks the value last written to the database so that only the difference is flushed,
+     * and the changes of transactions in flight, which the bookings do not show yet. A change
+     * and its tracking happen under the shared side of a read-write lock, so changes still
+     * never block each other, while a resync takes the exclusive side to overwrite the seats.
+     */
+    private static final class SeatCounter {
+        
+        private final AtomicInteger available;
+        private final AtomicInteger persisted;
+        private final int totalSeats;
+        private final SegmentTree segments;
+        private final Set<PendingChange> pending = ConcurrentHashMap.newKeySet();
+        // Bumped whenever a change starts, settles or is reverted, a resync that saw it move starts over
+        private final LongAdder changes = new LongAdder();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        
+        private SeatCounter(int availableSeats, int persistedSeats, int totalSeats, SegmentTree segments) {
+            this.available = new AtomicInteger(availableSeats);
+            this.persisted = new AtomicInteger(persistedSeats);
+            this.totalSeats = totalSeats;
+            this.segments = segments;
+        }
+        
+        private int segmentCount() {
+            return segments == null ? 1 : segments.size();
+        }
+        
+        private int freeSeats(int fromStop, int toStop) {
+            checkRange(fromStop, toStop);
+            if (segments == null) {
+                return available.get();
+            }
+            synchronized (segments) {
+                return Math.max(0, segments.min(fromStop, toStop));
+            }
+        }
+        
+        private SeatChange reserve(int fromStop, int toStop, int seats) {
+            checkRange(fromStop, toStop);
+            if (segments == null) {
+                while (true) {
+                    int current = available.get();
+                    if (current < seats) {
+                        throw new SeatNotAvailableException(seats, current);
+                    }
+                    if (available.compareAndSet(current, current - seats)) {
+                        return new SeatChange(current - seats, -seats);
+                    }
+                }
+            }
+            
+            synchronized (segments) {
+                int current = Math.max(0, segments.min(fromStop, toStop));
+                if (current < seats) {
+                    throw new SeatNotAvailableException(seats, current);
+                }
+                segments.add(fromStop, toStop, -seats);
+                return new SeatChange(current - seats, refresh());
+            }
+        }
+        
+        private SeatChange release(int fromStop, int toStop, int seats) {
+            checkRange(fromStop, toStop);
+            if (segments == null) {
+                while (true) {
+                    int current = available.get();
+                    if (current + seats > totalSeats) {
+                        throw new IllegalArgumentException("Available seats cannot exceed total seats");
+                    }
+                    if (available.compareAndSet(current, current + seats)) {
+                        return new SeatChange(current + seats, seats);
+                    }
+                }
+            }
+            
+            synchronized (segments) {
+                if (segments.max(fromStop, toStop) + seats > totalSeats) {
+                    throw new IllegalArgumentException("Available seats cannot exceed total seats");
+                }
+                segments.add(fromStop, toStop, seats);
+                return new SeatChange(Math.max(0, segments.min(fromStop, toStop)), refresh());
+            }
+        }
+        
+        /**
+         * Make a change and track it as one step, as seen by a resync
+         */
+        private SeatChange apply(PendingChange change, Supplier<SeatChange> operation) {
+            lock.readLock().lock();
+            try {
+                SeatChange result = operation.get();
+                pending.add(change);
+                changes.increment();
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        /**
+         * Undo a tracked change and stop tracking it as one step, as seen by a resync
+         */
+        private void revert(PendingChange change) {
+            lock.readLock().lock();
+            try {
+                adjust(change.fromStop, change.toStop, -change.seats);
+                pending.remove(change);
+                changes.increment();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        private void settle(PendingChange change) {
+            if (pending.remove(change)) {
+                changes.increment();
+            }
+        }
+        
+        /**
+         * Take over the seats of a counter loaded from the bookings, plus the changes in flight
+         * @param fresh counter loaded from the bookings after the change count was read
+         * @param seenChanges change count read before loading
+         * @return false if changes started or settled meanwhile, the counter is then left as is
+         */
+        private boolean resync(SeatCounter fresh, long seenChanges) {
+            lock.writeLock().lock();
+            try {
+                if (changes.sum() != seenChanges) {
+                    return false;
+                }
+                for (PendingChange change : pending) {
+                    fresh.adjust(change.fromStop, change.toStop, change.seats);
+                }
+                
+                persisted.set(fresh.persisted.get());
+                if (segments == null) {
+                    available.set(fresh.available.get());
+                    return true;
+                }
+                synchronized (segments) {
+                    for (int segment = 0; segment < segments.size(); segment++) {
+                        segments.add(segment, segment + 1,
+                                fresh.segments.min(segment, segment + 1) - segments.min(segment, segment + 1));
+                    }
+                    refresh();
+                }
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        /**
+         * Unchecked change used to undo a reservation or release
+         */
+        private void adjust(int fromStop, int toStop, int seats) {
+            if (segments == null) {
+                available.addAndGet(seats);
+                return;
+            }
+            synchronized (segments) {
+                segments.add(fromStop, toStop, seats);
+                refresh();
+            }
+        }
+        
+        /**
+         * Mirror the whole-route minimum into the atomic counter
+         * @return change of the whole-route availability
+         */
+        private int refresh() {
+            int routeAvailable = Math.max(0, segments.min(0, segments.size()));
+            return routeAvailable - available.getAndSet(routeAvailable);
+        }
+        
+        private void checkRange(int fromStop, int toStop) {
+            if (fromStop < 0 || toStop > segmentCount() || fromStop >= toStop) {
+                throw new IllegalArgumentException("Invalid stop range " + fromStop + " to " + toStop);
+            }
+        }
+    }
+}
\ No newline at end of file
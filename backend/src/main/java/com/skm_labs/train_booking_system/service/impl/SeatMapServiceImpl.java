@@ -0,0 +1,128 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.projection.ScheduleSeatSnapshot;
+import com.skm_labs.train_booking_system.dto.projection.SeatAssignment;
+import com.skm_labs.train_booking_system.exception.ScheduleNotFoundException;
+import com.skm_labs.train_booking_system.exception.SeatNotAvailableException;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.SeatMapService;
+import com.skm_labs.train_booking_system.util.SeatBitmap;
+import com.skm_labs.train_booking_system.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service implementation for per-seat allocation.
+ * Keeps one {@link SeatBitmap} per schedule with a layer per route segment, loaded from the
+ * stored bookings on first use.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatMapServiceImpl implements SeatMapService {
+    
+    private final ScheduleRepository scheduleRepository;
+    private final BookingRepository bookingRepository;
+    
+    private final Map<Long, SeatBitmap> seatMaps = new ConcurrentHashMap<>();
+    
+    @Override
+    public List<Integer> allocate(Long scheduleId, int seats) {
+        SeatBitmap seatMap = seatMap(scheduleId);
+        return allocate(scheduleId, seatMap, 0, seatMap.getSegments(), seats);
+    }
+    
+    @Override
+    public List<Integer> allocate(Long scheduleId, int fromStop, int toStop, int seats) {
+        return allocate(scheduleId, seatMap(scheduleId), fromStop, toStop, seats);
+    }
+    
+    @Override
+    public void release(Long scheduleId, List<Integer> seatNumbers) {
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            return;
+        }
+        SeatBitmap seatMap = seatMap(scheduleId);
+        release(scheduleId, seatMap, 0, seatMap.getSegments(), seatNumbers);
+    }
+    
+    @Override
+    public void release(Long scheduleId, int fromStop, int toStop, List<Integer> seatNumbers) {
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            return;
+        }
+        release(scheduleId, seatMap(scheduleId), fromStop, toStop, seatNumbers);
+    }
+    
+    @Override
+    public void evict(Long scheduleId) {
+        seatMaps.remove(scheduleId);
+    }
+    
+    private List<Integer> allocate(Long scheduleId, SeatBitmap seatMap, int fromStop, int toStop, int seats) {
+        int[] allocated = seatMap.allocate(fromStop, toStop, seats);
+        if (allocated == null) {
+            throw new SeatNotAvailableException(seats, seatMap.getFreeSeats(fromStop, toStop));
+        }
+        
+        TransactionHooks.afterRollback(() -> seatMap.release(fromStop, toStop, allocated));
+        log.debug("Allocated seats {} on schedule ID: {}", allocated, scheduleId);
+        return toList(allocated);
+    }
+    
+    private void release(Long scheduleId, SeatBitmap seatMap, int fromStop, int toStop, List<Integer> seatNumbers) {
+        int[] released = seatNumbers.stream().mapToInt(Integer::intValue).toArray();
+        seatMap.release(fromStop, toStop, released);
+        
+        TransactionHooks.afterRollback(() -> seatMap.occupy(fromStop, toStop, released));
+        log.debug("Released seats {} on schedule ID: {}", seatNumbers, scheduleId);
+    }
+    
+    private SeatBitmap seatMap(Long scheduleId) {
+        return seatMaps.computeIfAbsent(scheduleId, this::load);
+    }
+    
+    private SeatBitmap load(Long scheduleId) {
+        ScheduleSeatSnapshot snapshot = scheduleRepository.findSeatSnapshot(scheduleId)
+                .orElseThrow(() -> new ScheduleNotFoundException(scheduleId));
+        int stopCount = snapshot.getStopCount() == null ? 0 : snapshot.getStopCount();
+        SeatBitmap seatMap = new SeatBitmap(snapshot.getTotalSeats(), Math.max(1, stopCount - 1));
+        
+        int unnumberedSeats = 0;
+        for (SeatAssignment assignment : bookingRepository.findSeatAssignments(scheduleId)) {
+            List<Integer> seatNumbers = assignment.getSeatNumbers();
+            // Bookings without stop indices cover the whole route
+            int fromStop = assignment.getFromStopIndex() == null ? 0 : assignment.getFromStopIndex();
+            int toStop = assignment.getToStopIndex() == null ? seatMap.getSegments() : assignment.getToStopIndex();
+            if (seatNumbers == null || seatNumbers.isEmpty() || fromStop < 0 || toStop > seatMap.getSegments()
+                    || fromStop >= toStop
+                    || !seatMap.occupy(fromStop, toStop, seatNumbers.stream().mapToInt(Integer::intValue).toArray())) {
+                unnumberedSeats += assignment.getSeatCount();
+            }
+        }
+        
+        // Bookings made before seat numbers existed still hold seats, block the lowest free ones for them
+        if (unnumberedSeats > 0) {
+            log.warn("Schedule ID: {} has {} booked seats without seat numbers", scheduleId, unnumberedSeats);
+            seatMap.allocate(Math.min(unnumberedSeats, seatMap.getFreeSeats()));
+        }
+        
+        log.debug("Loaded seat map for schedule ID: {} with {} free seats", scheduleId, seatMap.getFreeSeats());
+        return seatMap;
+    }
+    
+    private List<Integer> toList(int[] seatNumbers) {
+        List<Integer> list = new ArrayList<>(seatNumbers.length);
+        for (int seatNumber : seatNumbers) {
+            list.add(seatNumber);
+        }
+        return list;
+    }
+}
\ No newline at end of file
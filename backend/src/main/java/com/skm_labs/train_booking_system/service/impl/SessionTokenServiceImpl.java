@@ -0,0 +1,154 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.auth.SessionUser;
+import com.skm_labs.train_booking_system.dto.response.SessionTokenDTO;
+import com.skm_labs.train_booking_system.exception.InvalidTokenException;
+import com.skm_labs.train_booking_system.service.SessionTokenService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Service implementation for stateless session tokens.
+ * A token is a 25 byte payload of format version, user ID, random token ID and expiry,
+ * followed by its HMAC-SHA256 under app.auth.token.secret, both in URL-safe base 64.
+ * Verifying one is a MAC over the payload and a lookup in the revocation set, no user
+ * is loaded. Revoked token IDs are kept only until the token would have expired anyway,
+ * so the set stays small. Revocations are local to the instance.
+ * A configured secret must be at least 32 bytes. Without one every start signs with a
+ * random key, so tokens do not survive a restart and are not shared between instances.
+ */
+@Service
+@Slf4j
+public class SessionTokenServiceImpl implements SessionTokenService {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_BYTES = 1 + Long.BYTES * 3;
+    private static final String TOKEN_TYPE = "Bearer";
+    private static final int MIN_SECRET_BYTES = 32;
+    
+    @Value("${app.auth.token.secret:}")
+    private String secret;
+    
+    @Value("${app.auth.token.ttl-minutes:720}")
+    private long ttlMinutes;
+    
+    private final SecureRandom random = new SecureRandom();
+    // Revoked token IDs and when their tokens expire
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+    private SecretKeySpec key;
+    private ThreadLocal<Mac> macs;
+    
+    @PostConstruct
+    public void start() {
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            secretBytes = new byte[MIN_SECRET_BYTES];
+            random.nextBytes(secretBytes);
+            log.warn("No app.auth.token.secret set, signing session tokens with a random key of this instance,"
+                    + " they are lost on restart");
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (secretBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("app.auth.token.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+        }
+        key = new SecretKeySpec(secretBytes, ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+    
+    @Override
+    public SessionTokenDTO issue(Long userId) {
+        long expiresAt = Instant.now().plusSeconds(ttlMinutes * 60).getEpochSecond();
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+                .put(VERSION)
+                .putLong(userId)
+                .putLong(random.nextLong())
+                .putLong(expiresAt)
+                .array();
+        
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString(payload) + '.' + encoder.encodeToString(macs.get().doFinal(payload));
+        return SessionTokenDTO.builder()
+                .token(token)
+                .tokenType(TOKEN_TYPE)
+                .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(expiresAt), ZoneId.systemDefault()))
+                .build();
+    }
+    
+    @Override
+    public SessionUser verify(String token) {
+        int separator = token == null ? -1 : token.indexOf('.');
+        if (separator < 0) {
+            throw new InvalidTokenException("Malformed session token");
+        }
+        
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payload = decoder.decode(token.substring(0, separator));
+            signature = decoder.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Malformed session token");
+        }
+        if (payload.length != PAYLOAD_BYTES || payload[0] != VERSION
+                || !MessageDigest.isEqual(signature, macs.get().doFinal(payload))) {
+            throw new InvalidTokenException("Invalid session token");
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 1, PAYLOAD_BYTES - 1);
+        SessionUser sessionUser = new SessionUser(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        if (sessionUser.expiresAt() <= Instant.now().getEpochSecond()) {
+            throw new InvalidTokenException("Session token has expired, please log in again");
+        }
+        if (revoked.containsKey(sessionUser.tokenId())) {
+            throw new InvalidTokenException("Session token has been revoked, please log in again");
+        }
+        return sessionUser;
+    }
+    
+    @Override
+    public void revoke(SessionUser sessionUser) {
+        revoked.put(sessionUser.tokenId(), sessionUser.expiresAt());
+        log.info("Revoked session token of user ID: {}", sessionUser.userId());
+    }
+    
+    /**
+     * Forget revocations of tokens that have expired since
+     */
+    @Scheduled(fixedDelayString = "${app.auth.token.revocation-prune-interval-ms:60000}")
+    public void pruneRevocations() {
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+    
+    int getRevocationCount() {
+        return revoked.size();
+    }
+}
\ No newline at end of file
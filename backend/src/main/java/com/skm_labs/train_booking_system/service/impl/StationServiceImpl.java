@@ -0,0 +1,171 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.projection.ScheduleStation;
+import com.skm_labs.train_booking_system.dto.response.StationSuggestionDTO;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.StationService;
+import com.skm_labs.train_booking_system.util.RadixTrie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for the station catalogue.
+ * Stations are collected from the stops of all schedules and ranked by the number of
+ * schedules calling at them. Each station is stored in a radix trie under its full
+ * name and under every later word of it, so "del" finds "New Delhi". When a schedule
+ * is created or updated only the stations it gained or lost are re-weighted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StationServiceImpl implements StationService {
+    
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final char SEPARATOR = '\u0000';
+    
+    private final ScheduleRepository scheduleRepository;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RadixTrie<Station> trie = new RadixTrie<>();
+    private final Map<String, Station> stations = new HashMap<>();
+    private final Map<Long, Set<String>> stationsBySchedule = new HashMap<>();
+    
+    @Override
+    public List<StationSuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Station> matches;
+        lock.readLock().lock();
+        try {
+            matches = trie.complete(prefix, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches.stream()
+                .map(station -> new StationSuggestionDTO(station.name, station.scheduleCount))
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Set<String>> loaded = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        for (ScheduleStation stop : scheduleRepository.findScheduleStations()) {
+            String key = normalize(stop.getStationName());
+            names.putIfAbsent(key, stop.getStationName().trim());
+            loaded.computeIfAbsent(stop.getScheduleId(), id -> new HashSet<>()).add(key);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            new ArrayList<>(stationsBySchedule.keySet()).forEach(scheduleId -> update(scheduleId, Set.of(), names));
+            loaded.forEach((scheduleId, keys) -> update(scheduleId, keys, names));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Station catalogue built with {} stations of {} schedules", stations.size(), loaded.size());
+    }
+    
+    /**
+     * Re-weight the stations of a schedule once the transaction that changed it has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        Map<String, String> names = new HashMap<>();
+        Set<String> keys = new HashSet<>();
+        scheduleRepository.findWithTrainAndStopsById(event.scheduleId()).ifPresent(schedule -> {
+            for (ScheduleStop stop : schedule.getStops()) {
+                String key = normalize(stop.getStationName());
+                names.putIfAbsent(key, stop.getStationName().trim());
+                keys.add(key);
+            }
+        });
+        
+        lock.writeLock().lock();
+        try {
+            update(event.scheduleId(), keys, names);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replace the stations of a schedule, adjusting the counts of the ones that changed
+     */
+    private void update(Long scheduleId, Set<String> keys, Map<String, String> names) {
+        Set<String> previous = keys.isEmpty() ? stationsBySchedule.remove(scheduleId) : stationsBySchedule.put(scheduleId, keys);
+        if (previous == null) {
+            previous = Set.of();
+        }
+        for (String key : previous) {
+            if (!keys.contains(key)) {
+                reweight(key, null, -1);
+            }
+        }
+        for (String key : keys) {
+            if (!previous.contains(key)) {
+                reweight(key, names.get(key), 1);
+            }
+        }
+    }
+    
+    private void reweight(String key, String name, int change) {
+        Station station = stations.computeIfAbsent(key, k -> new Station(name));
+        station.scheduleCount += change;
+        if (station.scheduleCount <= 0) {
+            stations.remove(key);
+            searchKeys(key).forEach(trie::remove);
+        } else {
+            searchKeys(key).forEach(searchKey -> trie.put(searchKey, station, station.scheduleCount));
+        }
+    }
+    
+    /**
+     * The name itself and every suffix of it that starts a word. The name is appended
+     * after a separator that cannot be typed, so that "Delhi" and the "delhi" suffix of
+     * "New Delhi" are different keys.
+     */
+    private static List<String> searchKeys(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key + SEPARATOR + key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1) + SEPARATOR + key);
+        }
+        return keys;
+    }
+    
+    private static String normalize(String station) {
+        return station == null ? "" : station.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class Station {
+        
+        private final String name;
+        private int scheduleCount;
+        
+        private Station(String name) {
+            this.name = name;
+        }
+    }
+}
\ No newline at end of file
@@ -3,15 +3,21 @@ package com.skm_labs.train_booking_system.service.impl;
 import com.skm_labs.train_booking_system.dto.request.UserRegistrationDTO;
 import com.skm_labs.train_booking_system.dto.response.UserProfileDTO;
 import com.skm_labs.train_booking_system.entity.User;
+import com.skm_labs.train_booking_system.exception.AuthenticationBusyException;
 import com.skm_labs.train_booking_system.exception.UserNotFoundException;
 import com.skm_labs.train_booking_system.repository.BookingRepository;
 import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.PasswordService;
 import com.skm_labs.train_booking_system.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service implementation for User operations
  */
@@ -23,9 +29,12 @@ public class UserServiceImpl implements UserService {
     
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final PasswordService passwordService;
     
+    // No transaction is held while the password is hashed, the repository calls run their own
     @Override
-    public User registerUser(UserRegistrationDTO registrationDTO) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<User> registerUser(UserRegistrationDTO registrationDTO) {
         log.info("Registering new user with email: {}", registrationDTO.getEmail());
         
         // Check if email already exists
@@ -33,35 +42,49 @@ public class UserServiceImpl implements UserService {
             throw new IllegalArgumentException("Email already exists: " + registrationDTO.getEmail());
         }
         
-        // Create new user
-        User user = new User();
-        user.setEmail(registrationDTO.getEmail());
-        user.setPassword(registrationDTO.getPassword()); // In production, hash the password
-        user.setFirstName(registrationDTO.getFirstName());
-        user.setLastName(registrationDTO.getLastName());
-        user.setPhoneNumber(registrationDTO.getPhoneNumber());
-        
-        User savedUser = userRepository.save(user);
-        log.info("User registered successfully with ID: {}", savedUser.getId());
-        
-        return savedUser;
+        return passwordService.hash(registrationDTO.getPassword()).thenApply(hash -> {
+            // Create new user
+            User user = new User();
+            user.setEmail(registrationDTO.getEmail());
+            user.setPassword(hash);
+            user.setFirstName(registrationDTO.getFirstName());
+            user.setLastName(registrationDTO.getLastName());
+            user.setPhoneNumber(registrationDTO.getPhoneNumber());
+            
+            User savedUser = userRepository.save(user);
+            log.info("User registered successfully with ID: {}", savedUser.getId());
+            
+            return savedUser;
+        });
     }
     
     @Override
-    @Transactional(readOnly = true)
-    public User authenticateUser(String email, String password) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<User> authenticateUser(String email, String password) {
         log.info("Authenticating user with email: {}", email);
         
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("Invalid email or password"));
-        
-        // In production, use proper password hashing comparison
-        if (!user.getPassword().equals(password)) {
-            throw new IllegalArgumentException("Invalid email or password");
+        Optional<User> found = userRepository.findByEmail(email);
+        if (found.isEmpty()) {
+            // Spend the time of a real check and fail the same way, so that neither the
+            // response time nor the status reveals which emails are registered
+            return passwordService.matches(password, passwordService.getDummyHash()).thenApply(matches -> {
+                throw new IllegalArgumentException("Invalid email or password");
+            });
         }
+        User user = found.get();
+        String stored = user.getPassword();
         
-        log.info("User authenticated successfully: {}", email);
-        return user;
+        return passwordService.matches(password, stored).thenApply(matches -> {
+            if (!matches) {
+                throw new IllegalArgumentException("Invalid email or password");
+            }
+            
+            if (passwordService.needsRehash(stored)) {
+                rehash(user.getId(), password, stored);
+            }
+            log.info("User authenticated successfully: {}", email);
+            return user;
+        });
     }
     
     @Override
@@ -95,4 +118,25 @@ public class UserServiceImpl implements UserService {
     public boolean isEmailExists(String email) {
         return userRepository.existsByEmail(email);
     }
+    
+    /**
+     * Replace a password stored in plain text or with weaker settings once it is known
+     * to be right. Runs in the background, a failure leaves the old value for the next login.
+     */
+    private void rehash(Long userId, String password, String stored) {
+        try {
+            passwordService.hash(password)
+                    .thenAccept(hash -> {
+                        if (userRepository.replacePassword(userId, stored, hash) > 0) {
+                            log.info("Rehashed password of user {}", userId);
+                        }
+                    })
+                    .exceptionally(e -> {
+                        log.warn("Could not rehash password of user {}", userId, e);
+                        return null;
+                    });
+        } catch (AuthenticationBusyException e) {
+            log.debug("Password executor busy, leaving password of user {} for the next login", userId);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,359 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.projection.WaitlistKey;
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.WaitlistEntryDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.User;
+import com.skm_labs.train_booking_system.entity.WaitlistEntry;
+import com.skm_labs.train_booking_system.entity.enums.WaitlistStatus;
+import com.skm_labs.train_booking_system.event.SeatAvailabilityChangedEvent;
+import com.skm_labs.train_booking_system.exception.ScheduleNotFoundException;
+import com.skm_labs.train_booking_system.exception.SeatNotAvailableException;
+import com.skm_labs.train_booking_system.exception.UserAccessDeniedException;
+import com.skm_labs.train_booking_system.exception.UserNotFoundException;
+import com.skm_labs.train_booking_system.exception.WaitlistEntryNotFoundException;
+import com.skm_labs.train_booking_system.repository.WaitlistRepository;
+import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.BookingExecutorService;
+import com.skm_labs.train_booking_system.service.BookingService;
+import com.skm_labs.train_booking_system.service.ScheduleService;
+import com.skm_labs.train_booking_system.service.WaitlistService;
+import com.skm_labs.train_booking_system.util.LongQueue;
+import com.skm_labs.train_booking_system.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for schedule waitlists.
+ * Each schedule keeps the IDs of its waiting entries in a compact in-memory queue,
+ * the entries themselves live in the waitlist_entries table. Released seats only mark
+ * the schedule, a background task then walks the head of its queue in batches and
+ * books each entry in its own transaction together with the status change, stopping
+ * at the first entry that still does not fit so that nobody is overtaken.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistServiceImpl implements WaitlistService {
+    
+    private final WaitlistRepository waitlistRepository;
+    private final UserRepository userRepository;
+    private final ScheduleService scheduleService;
+    private final BookingService bookingService;
+    private final BookingExecutorService bookingExecutorService;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${app.waitlist.batch-size:100}")
+    private int batchSize;
+    
+    private final Map<Long, LongQueue> queues = new ConcurrentHashMap<>();
+    // Schedules that released seats since their waitlist was last checked
+    private final Set<Long> releasedSchedules = ConcurrentHashMap.newKeySet();
+    
+    @Override
+    @Transactional
+    public WaitlistEntryDTO join(BookingRequestDTO bookingRequest) {
+        log.info("Adding user ID: {} to the waitlist of schedule ID: {}",
+                bookingRequest.getUserId(), bookingRequest.getScheduleId());
+        
+        // The user ID comes from a verified session token, the user is only checked to
+        // still exist instead of being loaded
+        if (!userRepository.existsById(bookingRequest.getUserId())) {
+            throw new UserNotFoundException(bookingRequest.getUserId());
+        }
+        User user = userRepository.getReferenceById(bookingRequest.getUserId());
+        Schedule schedule = scheduleService.findById(bookingRequest.getScheduleId());
+        checkStations(schedule, bookingRequest.getFromStation(), bookingRequest.getToStation());
+        
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUser(user);
+        entry.setSchedule(schedule);
+        entry.setPassengerName(bookingRequest.getPassengerName());
+        entry.setPassengerEmail(bookingRequest.getPassengerEmail());
+        entry.setPassengerPhone(bookingRequest.getPassengerPhone());
+        entry.setFromStation(bookingRequest.getFromStation());
+        entry.setToStation(bookingRequest.getToStation());
+        entry.setSeatCount(bookingRequest.getSeatCount());
+        entry.setStatus(WaitlistStatus.WAITING);
+        WaitlistEntry savedEntry = waitlistRepository.save(entry);
+        
+        // Seats may have been released since the booking failed, so check the schedule right away
+        Long scheduleId = schedule.getId();
+        TransactionHooks.afterCommit(() -> {
+            enqueue(scheduleId, savedEntry.getId());
+            releasedSchedules.add(scheduleId);
+        });
+        
+        log.info("Waitlist entry {} created for schedule ID: {}", savedEntry.getId(), scheduleId);
+        return toDto(savedEntry, queueSize(scheduleId) + 1);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public WaitlistEntryDTO getEntry(Long waitlistId, Long userId) {
+        WaitlistEntry entry = findOwnedEntry(waitlistId, userId);
+        return toDto(entry, position(entry));
+    }
+    
+    @Override
+    @Transactional
+    public WaitlistEntryDTO leave(Long waitlistId, Long userId) {
+        log.info("Removing waitlist entry ID: {}", waitlistId);
+        
+        WaitlistEntry entry = findOwnedEntry(waitlistId, userId);
+        if (entry.getStatus() != WaitlistStatus.WAITING) {
+            throw new IllegalArgumentException("Waitlist entry is already " + entry.getStatus().name().toLowerCase());
+        }
+        
+        // Guarded, a promotion may have taken the entry in the meantime
+        if (waitlistRepository.markClosed(waitlistId, WaitlistStatus.CANCELLED) == 0) {
+            throw new IllegalArgumentException("Waitlist entry has just been promoted");
+        }
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        Long scheduleId = entry.getSchedule().getId();
+        TransactionHooks.afterCommit(() -> dequeue(scheduleId, waitlistId));
+        return toDto(entry, null);
+    }
+    
+    /**
+     * Remember schedules whose seats were released once the releasing transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatAvailabilityChanged(SeatAvailabilityChangedEvent event) {
+        if (event.isRelease() && queues.containsKey(event.scheduleId())) {
+            releasedSchedules.add(event.scheduleId());
+        }
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.waitlist.promote-interval-ms:500}")
+    public int promote() {
+        int promoted = 0;
+        List<Long> failed = new ArrayList<>();
+        Iterator<Long> iterator = releasedSchedules.iterator();
+        while (iterator.hasNext()) {
+            Long scheduleId = iterator.next();
+            iterator.remove();
+            try {
+                int count = promote(scheduleId);
+                if (count > 0) {
+                    log.info("Promoted {} waitlist entries of schedule ID: {}", count, scheduleId);
+                }
+                promoted += count;
+            } catch (RuntimeException e) {
+                log.error("Failed to promote the waitlist of schedule ID: {}, retrying", scheduleId, e);
+                failed.add(scheduleId);
+            }
+        }
+        releasedSchedules.addAll(failed);
+        return promoted;
+    }
+    
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int recover() {
+        List<WaitlistKey> waiting = waitlistRepository.findWaitingKeys();
+        for (WaitlistKey key : waiting) {
+            enqueue(key.getScheduleId(), key.getEntryId());
+        }
+        // Seats may have been released while the application was down
+        releasedSchedules.addAll(queues.keySet());
+        log.info("Recovered {} waitlist entries on {} schedules", waiting.size(), queues.size());
+        return waiting.size();
+    }
+    
+    private int promote(Long scheduleId) {
+        int promoted = 0;
+        while (true) {
+            long[] head = head(scheduleId);
+            if (head.length == 0) {
+                return promoted;
+            }
+            
+            // Load the whole batch with one query, then book it strictly in order
+            List<Long> ids = new ArrayList<>(head.length);
+            for (long id : head) {
+                ids.add(id);
+            }
+            Map<Long, WaitlistEntry> entries = waitlistRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(WaitlistEntry::getId, Function.identity()));
+            
+            for (Long id : ids) {
+                WaitlistEntry entry = entries.get(id);
+                if (entry != null && entry.getStatus() == WaitlistStatus.WAITING) {
+                    Outcome outcome = promote(scheduleId, entry);
+                    if (outcome == Outcome.NO_SEATS) {
+                        return promoted;
+                    }
+                    if (outcome == Outcome.PROMOTED) {
+                        promoted++;
+                    }
+                }
+                dequeue(scheduleId, id);
+            }
+        }
+    }
+    
+    private Outcome promote(Long scheduleId, WaitlistEntry entry) {
+        BookingRequestDTO bookingRequest = toBookingRequest(entry);
+        try {
+            // The booking and the status change commit together, on the schedule's shard in sharded mode
+            bookingExecutorService.execute(scheduleId, () -> transactionTemplate.execute(status -> {
+                BookingResponseDTO booking = bookingService.createBooking(bookingRequest);
+                if (waitlistRepository.markPromoted(entry.getId(), booking.getPnrNumber()) == 0) {
+                    throw new IllegalArgumentException("Waitlist entry " + entry.getId() + " is no longer waiting");
+                }
+                return booking;
+            }));
+            return Outcome.PROMOTED;
+        } catch (SeatNotAvailableException e) {
+            return Outcome.NO_SEATS;
+        } catch (IllegalArgumentException | UserNotFoundException | ScheduleNotFoundException e) {
+            // The request can never be booked, take it out of the way of the entries behind it
+            log.warn("Dropping waitlist entry {} of schedule ID: {}: {}", entry.getId(), scheduleId, e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                    waitlistRepository.markClosed(entry.getId(), WaitlistStatus.FAILED));
+            return Outcome.FAILED;
+        }
+    }
+    
+    private void enqueue(Long scheduleId, Long entryId) {
+        // Atomic with the removal of an emptied queue in dequeue
+        queues.compute(scheduleId, (id, queue) -> {
+            LongQueue target = queue == null ? new LongQueue() : queue;
+            synchronized (target) {
+                target.add(entryId);
+            }
+            return target;
+        });
+    }
+    
+    private void dequeue(Long scheduleId, Long entryId) {
+        queues.computeIfPresent(scheduleId, (id, queue) -> {
+            synchronized (queue) {
+                queue.remove(entryId);
+                return queue.isEmpty() ? null : queue;
+            }
+        });
+    }
+    
+    private long[] head(Long scheduleId) {
+        LongQueue queue = queues.get(scheduleId);
+        if (queue == null) {
+            return new long[0];
+        }
+        synchronized (queue) {
+            return queue.peek(batchSize);
+        }
+    }
+    
+    private int queueSize(Long scheduleId) {
+        LongQueue queue = queues.get(scheduleId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+    
+    private WaitlistEntry findOwnedEntry(Long waitlistId, Long userId) {
+        WaitlistEntry entry = waitlistRepository.findById(waitlistId)
+                .orElseThrow(() -> new WaitlistEntryNotFoundException(waitlistId));
+        if (!entry.getUser().getId().equals(userId)) {
+            throw new UserAccessDeniedException("Waitlist entry " + waitlistId + " belongs to another user");
+        }
+        return entry;
+    }
+    
+    private Integer position(WaitlistEntry entry) {
+        if (entry.getStatus() != WaitlistStatus.WAITING) {
+            return null;
+        }
+        LongQueue queue = queues.get(entry.getSchedule().getId());
+        if (queue == null) {
+            return null;
+        }
+        synchronized (queue) {
+            int index = queue.indexOf(entry.getId());
+            return index < 0 ? null : index + 1;
+        }
+    }
+    
+    private void checkStations(Schedule schedule, String fromStation, String toStation) {
+        if (fromStation == null && toStation == null) {
+            return;
+        }
+        List<ScheduleStop> stops = schedule.getStops();
+        int fromStop = fromStation == null ? 0 : indexOfStop(stops, fromStation, 0);
+        int toStop = toStation == null ? stops.size() - 1 : indexOfStop(stops, toStation, fromStop + 1);
+        if (fromStop < 0 || toStop < 0 || fromStop >= toStop) {
+            throw new IllegalArgumentException("Schedule " + schedule.getId()
+                    + " does not run from " + fromStation + " to " + toStation);
+        }
+    }
+    
+    private int indexOfStop(List<ScheduleStop> stops, String stationName, int fromIndex) {
+        for (int i = fromIndex; i < stops.size(); i++) {
+            if (stops.get(i).getStationName().equalsIgnoreCase(stationName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private BookingRequestDTO toBookingRequest(WaitlistEntry entry) {
+        BookingRequestDTO bookingRequest = new BookingRequestDTO();
+        bookingRequest.setUserId(entry.getUser().getId());
+        bookingRequest.setScheduleId(entry.getSchedule().getId());
+        bookingRequest.setPassengerName(entry.getPassengerName());
+        bookingRequest.setPassengerEmail(entry.getPassengerEmail());
+        bookingRequest.setPassengerPhone(entry.getPassengerPhone());
+        bookingRequest.setFromStation(entry.getFromStation());
+        bookingRequest.setToStation(entry.getToStation());
+        bookingRequest.setSeatCount(entry.getSeatCount());
+        return bookingRequest;
+    }
+    
+    private WaitlistEntryDTO toDto(WaitlistEntry entry, Integer position) {
+        return WaitlistEntryDTO.builder()
+                .waitlistId(entry.getId())
+                .userId(entry.getUser().getId())
+                .scheduleId(entry.getSchedule().getId())
+                .passengerName(entry.getPassengerName())
+                .fromStation(entry.getFromStation())
+                .toStation(entry.getToStation())
+                .seatCount(entry.getSeatCount())
+                .status(entry.getStatus())
+                .position(position)
+                .pnrNumber(entry.getPnrNumber())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+    
+    private enum Outcome {
+        PROMOTED,
+        NO_SEATS,
+        FAILED
+    }
+}
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.skm_labs.train_booking_system.util;
 
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Random;
 
 /**
  * Utility class for common operations
@@ -12,6 +12,8 @@ public class BookingUtils {
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final PnrGenerator PNR_GENERATOR = new PnrGenerator("PNR", 10, 0, 0, 6,
+            Long.toHexString(new SecureRandom().nextLong()), 2);
     
     private BookingUtils() {
         // Private constructor to prevent instantiation
@@ -20,17 +22,12 @@ public class BookingUtils {
     /**
      * Generate a unique PNR number
      * @return generated PNR number
+     * @deprecated PNRs are only unique within this process and the key changes on every start,
+     * use {@link com.skm_labs.train_booking_system.service.PnrService} instead
      */
+    @Deprecated
     public static String generatePNR() {
-        Random random = new Random();
-        StringBuilder pnr = new StringBuilder("PNR");
-        
-        // Generate 6 digit random number
-        for (int i = 0; i < 6; i++) {
-            pnr.append(random.nextInt(10));
-        }
-        
-        return pnr.toString();
+        return PNR_GENERATOR.next();
     }
     
     /**
@@ -73,6 +70,21 @@ public class BookingUtils {
         return fare * seatCount;
     }
     
+    /**
+     * Fare of a partial journey, proportional to the number of segments it covers
+     * @param fare fare of the whole route
+     * @param fromStop index of the boarding stop
+     * @param toStop index of the alighting stop
+     * @param stopCount number of stops of the route
+     * @return fare per seat, rounded to two decimals
+     */
+    public static double segmentFare(double fare, int fromStop, int toStop, int stopCount) {
+        if (stopCount < 2) {
+            return fare;
+        }
+        return Math.round(fare * (toStop - fromStop) / (stopCount - 1) * 100.0) / 100.0;
+    }
+    
     /**
      * Validate email format
      * @param email email to validate
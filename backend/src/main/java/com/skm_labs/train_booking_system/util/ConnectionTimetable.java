@@ -0,0 +1,281 @@
+package com.skm_labs.train_booking_system.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Timetable for the Connection Scan Algorithm. Every trip is split into elementary
+ * connections between consecutive stops, which are kept in parallel primitive arrays
+ * sorted by departure time. A query scans the connections once per transfer round,
+ * starting at the requested departure time, and stops as soon as no connection can
+ * arrive earlier than the best arrival found so far. Round k only boards trips at
+ * stations reached in round k - 1, so round k yields the earliest arrival with at most
+ * k transfers and the rounds together give the Pareto set of transfers and arrival.
+ * Times are non-negative minutes on any common scale, stations and trips are dense indexes.
+ * Instances are immutable and thread-safe.
+ */
+public class ConnectionTimetable {
+    
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    
+    private final int stationCount;
+    private final int tripCount;
+    private final int[] departureStation;
+    private final int[] arrivalStation;
+    private final int[] departureTime;
+    private final int[] arrivalTime;
+    private final int[] trip;
+    private final int[] stopIndex;
+    
+    private ConnectionTimetable(int stationCount, int tripCount, int[] departureStation, int[] arrivalStation,
+                                int[] departureTime, int[] arrivalTime, int[] trip, int[] stopIndex) {
+        this.stationCount = stationCount;
+        this.tripCount = tripCount;
+        this.departureStation = departureStation;
+        this.arrivalStation = arrivalStation;
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.trip = trip;
+        this.stopIndex = stopIndex;
+    }
+    
+    public static Builder builder(int stationCount) {
+        return new Builder(stationCount);
+    }
+    
+    /**
+     * Find the journeys that are Pareto-optimal in number of transfers and arrival time
+     * @param origin origin station
+     * @param target target station
+     * @param departAfter earliest departure from the origin
+     * @param latestDeparture latest departure of any connection used
+     * @param maxTransfers maximum number of transfers
+     * @param minTransferTime minutes needed to change trains at a station
+     * @param segments decides which trip segments may be travelled
+     * @return journeys ordered by increasing transfers and decreasing arrival time
+     */
+    public List<Journey> scan(int origin, int target, int departAfter, int latestDeparture,
+                              int maxTransfers, int minTransferTime, SegmentFilter segments) {
+        List<Journey> journeys = new ArrayList<>();
+        if (origin == target) {
+            return journeys;
+        }
+        
+        int rounds = maxTransfers + 1;
+        int[][] enteredAt = new int[rounds][];
+        int[][] exitedAt = new int[rounds][];
+        int[] tripEntry = new int[tripCount];
+        int first = firstDepartingAt(departAfter);
+        
+        int[] previous = new int[stationCount];
+        Arrays.fill(previous, UNREACHED);
+        previous[origin] = departAfter;
+        
+        for (int round = 0; round < rounds; round++) {
+            int[] current = previous.clone();
+            int[] entered = round == 0 ? filled(stationCount, -1) : enteredAt[round - 1].clone();
+            int[] exited = round == 0 ? filled(stationCount, -1) : exitedAt[round - 1].clone();
+            Arrays.fill(tripEntry, -1);
+            boolean improved = false;
+            
+            for (int c = first; c < departureTime.length; c++) {
+                int departure = departureTime[c];
+                if (departure > latestDeparture || departure >= current[target]) {
+                    break;
+                }
+                
+                int t = trip[c];
+                if (tripEntry[t] < 0) {
+                    int station = departureStation[c];
+                    int ready = previous[station];
+                    if (ready == UNREACHED || ready + (station == origin ? 0 : minTransferTime) > departure
+                            || !segments.usable(t, stopIndex[c])) {
+                        continue;
+                    }
+                    tripEntry[t] = c;
+                } else if (!segments.usable(t, stopIndex[c])) {
+                    // Leave the trip before a segment that cannot be travelled
+                    tripEntry[t] = -1;
+                    continue;
+                }
+                
+                int station = arrivalStation[c];
+                if (arrivalTime[c] < current[station]) {
+                    current[station] = arrivalTime[c];
+                    entered[station] = tripEntry[t];
+                    exited[station] = c;
+                    improved = true;
+                }
+            }
+            
+            enteredAt[round] = entered;
+            exitedAt[round] = exited;
+            if (current[target] < previous[target]) {
+                journeys.add(journey(origin, target, round, enteredAt, exitedAt));
+            }
+            if (!improved) {
+                break;
+            }
+            previous = current;
+        }
+        return journeys;
+    }
+    
+    public int getConnectionCount() {
+        return departureTime.length;
+    }
+    
+    public int getTripCount() {
+        return tripCount;
+    }
+    
+    private Journey journey(int origin, int target, int round, int[][] enteredAt, int[][] exitedAt) {
+        List<Leg> legs = new ArrayList<>();
+        int station = target;
+        // Each leg was boarded at a station reached in an earlier round
+        for (int r = round; station != origin; r--) {
+            int enter = enteredAt[r][station];
+            int exit = exitedAt[r][station];
+            legs.add(0, new Leg(trip[enter], stopIndex[enter], stopIndex[exit] + 1,
+                    departureStation[enter], arrivalStation[exit], departureTime[enter], arrivalTime[exit]));
+            station = departureStation[enter];
+        }
+        return new Journey(legs);
+    }
+    
+    /**
+     * Index of the first connection departing at or after the given time
+     */
+    private int firstDepartingAt(int time) {
+        int low = 0;
+        int high = departureTime.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departureTime[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    private static int[] filled(int length, int value) {
+        int[] array = new int[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+    
+    /**
+     * Decides whether a trip segment may be travelled, for example because it has seats left
+     */
+    @FunctionalInterface
+    public interface SegmentFilter {
+        
+        /**
+         * @param trip trip index
+         * @param stopIndex index of the stop the segment starts at
+         */
+        boolean usable(int trip, int stopIndex);
+    }
+    
+    /**
+     * A ride on one trip from a boarding stop to an alighting stop
+     */
+    public record Leg(int trip, int fromStop, int toStop, int fromStation, int toStation,
+                      int departureTime, int arrivalTime) {
+    }
+    
+    public record Journey(List<Leg> legs) {
+        
+        public int transfers() {
+            return legs.size() - 1;
+        }
+        
+        public int departureTime() {
+            return legs.get(0).departureTime();
+        }
+        
+        public int arrivalTime() {
+            return legs.get(legs.size() - 1).arrivalTime();
+        }
+    }
+    
+    public static final class Builder {
+        
+        private final int stationCount;
+        private int tripCount;
+        private int size;
+        private int[] departureStation = new int[1024];
+        private int[] arrivalStation = new int[1024];
+        private int[] departureTime = new int[1024];
+        private int[] arrivalTime = new int[1024];
+        private int[] trip = new int[1024];
+        private int[] stopIndex = new int[1024];
+        
+        private Builder(int stationCount) {
+            this.stationCount = stationCount;
+        }
+        
+        /**
+         * Add a trip calling at the given stations in order
+         * @param stations station of every stop
+         * @param arrivals arrival time at every stop, the first is ignored
+         * @param departures departure time from every stop, the last is ignored
+         * @return trip index
+         */
+        public int addTrip(int[] stations, int[] arrivals, int[] departures) {
+            int index = tripCount++;
+            for (int stop = 0; stop < stations.length - 1; stop++) {
+                if (arrivals[stop + 1] < departures[stop]) {
+                    throw new IllegalArgumentException("Trip " + index + " arrives at stop " + (stop + 1)
+                            + " before it leaves stop " + stop);
+                }
+                if (size == departureTime.length) {
+                    grow();
+                }
+                departureStation[size] = stations[stop];
+                arrivalStation[size] = stations[stop + 1];
+                departureTime[size] = departures[stop];
+                arrivalTime[size] = arrivals[stop + 1];
+                trip[size] = index;
+                stopIndex[size] = stop;
+                size++;
+            }
+            return index;
+        }
+        
+        public ConnectionTimetable build() {
+            // Sort by departure time, connections of a trip stay in stop order on ties
+            long[] order = new long[size];
+            for (int c = 0; c < size; c++) {
+                order[c] = ((long) departureTime[c] << 32) | c;
+            }
+            Arrays.sort(order);
+            
+            int[][] sorted = new int[6][size];
+            for (int i = 0; i < size; i++) {
+                int c = (int) order[i];
+                sorted[0][i] = departureStation[c];
+                sorted[1][i] = arrivalStation[c];
+                sorted[2][i] = departureTime[c];
+                sorted[3][i] = arrivalTime[c];
+                sorted[4][i] = trip[c];
+                sorted[5][i] = stopIndex[c];
+            }
+            return new ConnectionTimetable(stationCount, tripCount, sorted[0], sorted[1], sorted[2],
+                    sorted[3], sorted[4], sorted[5]);
+        }
+        
+        private void grow() {
+            int capacity = departureTime.length * 2;
+            departureStation = Arrays.copyOf(departureStation, capacity);
+            arrivalStation = Arrays.copyOf(arrivalStation, capacity);
+            departureTime = Arrays.copyOf(departureTime, capacity);
+            arrivalTime = Arrays.copyOf(arrivalTime, capacity);
+            trip = Arrays.copyOf(trip, capacity);
+            stopIndex = Arrays.copyOf(stopIndex, capacity);
+        }
+    }
+}
\ No newline at end of file
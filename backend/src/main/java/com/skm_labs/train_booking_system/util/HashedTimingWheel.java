@@ -0,0 +1,182 @@
+package com.skm_labs.train_booking_system.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel for large numbers of timeouts with coarse precision.
+ * Time is split into ticks, and each timeout is hashed into one of a fixed number
+ * of buckets by its deadline tick, with a round counter for deadlines further away
+ * than one turn of the wheel. Scheduling and cancelling are O(1), advancing the
+ * wheel only visits the buckets of the ticks that have passed.
+ * Scheduling and cancelling are thread-safe, {@link #advance(long)} is meant to be
+ * driven by a single thread.
+ * @param <T> type of the item carried by each timeout
+ */
+public class HashedTimingWheel<T> {
+    
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final Timeout<T>[] buckets;
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private long tick;
+    
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        // Round up to a power of two so that the bucket index is a mask
+        int buckets = Integer.highestOneBit(wheelSize);
+        if (buckets < wheelSize) {
+            buckets <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = buckets - 1;
+        this.buckets = new Timeout[buckets];
+    }
+    
+    /**
+     * Schedule an item to expire at the given time
+     * @param item item to hand back on expiry
+     * @param deadlineMillis expiry time in epoch milliseconds
+     * @return handle that can cancel the timeout
+     */
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(this, item, deadlineMillis);
+        // Handed to the wheel on the next advance, so callers never contend with the ticking thread
+        pending.add(timeout);
+        size.incrementAndGet();
+        return timeout;
+    }
+    
+    /**
+     * Move the wheel forward to the given time
+     * @param nowMillis current time in epoch milliseconds
+     * @return items whose deadline has passed, in no particular order
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        transferPending();
+        
+        List<T> expired = new ArrayList<>();
+        // A tick is processed once its whole interval lies in the past
+        while (startMillis + (tick + 1) * tickMillis <= nowMillis) {
+            expireBucket((int) (tick & mask), expired);
+            tick++;
+        }
+        return expired;
+    }
+    
+    /**
+     * Number of timeouts that are neither expired nor cancelled
+     */
+    public int size() {
+        return size.get();
+    }
+    
+    private void transferPending() {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Deadlines already in the past go into the current bucket
+            long deadlineTick = Math.max(tick, Math.floorDiv(timeout.deadlineMillis - startMillis, tickMillis));
+            timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+            
+            int index = (int) (deadlineTick & mask);
+            timeout.next = buckets[index];
+            buckets[index] = timeout;
+        }
+    }
+    
+    private void expireBucket(int index, List<T> expired) {
+        Timeout<T> previous = null;
+        Timeout<T> timeout = buckets[index];
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            boolean remove = timeout.cancelled;
+            if (!remove && timeout.remainingRounds <= 0) {
+                if (timeout.expire()) {
+                    expired.add(timeout.item);
+                }
+                remove = true;
+            } else if (!remove) {
+                timeout.remainingRounds--;
+            }
+            
+            if (remove) {
+                if (previous == null) {
+                    buckets[index] = next;
+                } else {
+                    previous.next = next;
+                }
+                timeout.next = null;
+            } else {
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+    
+    /**
+     * Handle of a scheduled item
+     * @param <T> type of the item
+     */
+    public static final class Timeout<T> {
+        
+        private final HashedTimingWheel<T> wheel;
+        private final T item;
+        private final long deadlineMillis;
+        private volatile boolean cancelled;
+        private volatile boolean expired;
+        private long remainingRounds;
+        private Timeout<T> next;
+        
+        private Timeout(HashedTimingWheel<T> wheel, T item, long deadlineMillis) {
+            this.wheel = wheel;
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+        
+        public T getItem() {
+            return item;
+        }
+        
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+        
+        /**
+         * Cancel the timeout, it is unlinked lazily when its bucket is next visited
+         * @return false if the timeout already expired or was cancelled
+         */
+        public boolean cancel() {
+            synchronized (this) {
+                if (cancelled || expired) {
+                    return false;
+                }
+                cancelled = true;
+            }
+            wheel.size.decrementAndGet();
+            return true;
+        }
+        
+        private boolean expire() {
+            synchronized (this) {
+                if (cancelled) {
+                    return false;
+                }
+                expired = true;
+            }
+            wheel.size.decrementAndGet();
+            return true;
+        }
+    }
+}
\ No newline at end of file
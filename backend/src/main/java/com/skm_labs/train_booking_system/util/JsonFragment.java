@@ -0,0 +1,64 @@
+package com.skm_labs.train_booking_system.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * JSON object serialized once with one integer property left open. Writing it copies
+ * the cached UTF-8 bytes before and after that property around the live value, so the
+ * object is neither built nor serialized again. Instances are immutable.
+ */
+public final class JsonFragment {
+    
+    private static final String NULL = "null";
+    
+    private final SerializableString head;
+    private final SerializableString tail;
+    
+    private JsonFragment(String head, String tail) {
+        this.head = new SerializedString(head);
+        this.tail = new SerializedString(tail);
+    }
+    
+    /**
+     * Serialize an object whose open property is null
+     * @param mapper mapper the fragment is written with later
+     * @param value object with the open property set to null
+     * @param property name of the open property
+     * @return the fragment, or null if the mapper does not write the property exactly once
+     */
+    public static JsonFragment of(ObjectMapper mapper, Object value, String property) throws JsonProcessingException {
+        String json = mapper.writeValueAsString(value);
+        String marker = '"' + property + "\":" + NULL;
+        int at = json.indexOf(marker);
+        if (at < 0 || json.indexOf(marker, at + 1) >= 0) {
+            return null;
+        }
+        int split = at + marker.length() - NULL.length();
+        return new JsonFragment(json.substring(0, split), json.substring(split + NULL.length()));
+    }
+    
+    /**
+     * Whether fragments can be spliced into a generator. Only compact JSON output takes
+     * raw bytes, binary encodings and pretty printing serialize the object instead.
+     */
+    public static boolean canWrite(JsonGenerator generator) {
+        return generator instanceof JsonGeneratorImpl && generator.getPrettyPrinter() == null;
+    }
+    
+    /**
+     * Write the object as the next value of the generator
+     * @param value value of the open property
+     */
+    public void write(JsonGenerator generator, int value) throws IOException {
+        generator.writeRawValue(head);
+        generator.writeRaw(Integer.toString(value));
+        generator.writeRaw(tail);
+    }
+}
\ No newline at end of file
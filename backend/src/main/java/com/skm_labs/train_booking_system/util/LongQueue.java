@@ -0,0 +1,127 @@
+package com.skm_labs.train_booking_system.util;
+
+import java.util.Arrays;
+
+/**
+ * FIFO queue of primitive longs in a growable ring buffer, eight bytes per element
+ * with no boxing. Removing from the middle shifts the shorter side of the ring.
+ * Instances are not thread-safe.
+ */
+public class LongQueue {
+    
+    private long[] elements;
+    private int head;
+    private int size;
+    
+    public LongQueue() {
+        this(16);
+    }
+    
+    public LongQueue(int initialCapacity) {
+        elements = new long[Math.max(1, initialCapacity)];
+    }
+    
+    public void add(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) % elements.length] = value;
+        size++;
+    }
+    
+    /**
+     * Element at the given position from the head
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return elements[(head + index) % elements.length];
+    }
+    
+    /**
+     * Remove the head of the queue
+     * @return the removed element
+     */
+    public long poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        long value = elements[head];
+        head = (head + 1) % elements.length;
+        size--;
+        return value;
+    }
+    
+    /**
+     * Position of the first occurrence of a value
+     * @return position from the head, or -1 if absent
+     */
+    public int indexOf(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[(head + i) % elements.length] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Remove the first occurrence of a value
+     * @return false if the value is not in the queue
+     */
+    public boolean remove(long value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        
+        if (index < size / 2) {
+            // Shift the elements in front of it one step towards the tail
+            for (int i = index; i > 0; i--) {
+                elements[(head + i) % elements.length] = elements[(head + i - 1) % elements.length];
+            }
+            head = (head + 1) % elements.length;
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                elements[(head + i) % elements.length] = elements[(head + i + 1) % elements.length];
+            }
+        }
+        size--;
+        return true;
+    }
+    
+    /**
+     * Copy of the first elements of the queue
+     * @param limit maximum number of elements
+     */
+    public long[] peek(int limit) {
+        long[] values = new long[Math.min(limit, size)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = elements[(head + i) % elements.length];
+        }
+        return values;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    private void grow() {
+        long[] grown = new long[elements.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = elements[(head + i) % elements.length];
+        }
+        elements = grown;
+        head = 0;
+    }
+    
+    @Override
+    public String toString() {
+        return Arrays.toString(peek(size));
+    }
+}
\ No newline at end of file
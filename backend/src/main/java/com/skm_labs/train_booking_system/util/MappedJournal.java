@@ -0,0 +1,312 @@
+package com.skm_labs.train_booking_system.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records stored in memory-mapped segment files.
+ * Each record is written as [length][crc32c][sequence][payload], the checksum covers
+ * the sequence and the payload so that torn writes are detected on replay.
+ * Appending only copies into the mapped segment, durability comes from {@link #sync(long)}:
+ * callers waiting for a sync line up behind a single fsync that covers every record
+ * appended so far (group commit). Applied records are tracked by a checkpoint file,
+ * and segments whose records are all applied are deleted.
+ */
+public class MappedJournal implements Closeable {
+    
+    private static final int HEADER_SIZE = 16;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int forcedPosition;
+    private long nextSequence;
+    private volatile long syncedSequence;
+    private volatile long appliedSequence;
+    
+    private MappedJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+    
+    /**
+     * Open the journal in a directory, creating it if needed, and position it after the last valid record
+     * @param directory journal directory
+     * @param segmentSize size of each segment file in bytes
+     * @return open journal
+     */
+    public static MappedJournal open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must exceed the record header");
+        }
+        Files.createDirectories(directory);
+        MappedJournal journal = new MappedJournal(directory, segmentSize);
+        journal.load();
+        return journal;
+    }
+    
+    /**
+     * Append a record, it is not durable until a sync covers its sequence
+     * @param payload record payload
+     * @return sequence number of the record
+     */
+    public long append(byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a segment");
+        }
+        
+        synchronized (appendLock) {
+            // Keep room for the zero length that marks the end of the segment
+            if (buffer.remaining() < recordSize + Integer.BYTES) {
+                rollSegment();
+            }
+            
+            long sequence = nextSequence++;
+            CRC32C crc = new CRC32C();
+            crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+            crc.update(payload);
+            
+            int start = buffer.position();
+            buffer.position(start + Integer.BYTES);
+            buffer.putInt((int) crc.getValue());
+            buffer.putLong(sequence);
+            buffer.put(payload);
+            // The length goes in last, so a record is never visible before it is complete
+            buffer.putInt(start, payload.length);
+            return sequence;
+        }
+    }
+    
+    /**
+     * Block until the record with the given sequence is on disk.
+     * Only one caller forces the segment at a time, and each force covers every
+     * record appended before it started, so concurrent callers share one fsync.
+     * @param sequence sequence number returned by {@link #append(byte[])}
+     */
+    public void sync(long sequence) throws IOException {
+        if (syncedSequence >= sequence) {
+            return;
+        }
+        
+        synchronized (syncLock) {
+            // A previous leader may already have covered this record
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            
+            MappedByteBuffer target;
+            int from;
+            int to;
+            long covered;
+            synchronized (appendLock) {
+                target = buffer;
+                from = forcedPosition;
+                to = buffer.position();
+                covered = nextSequence - 1;
+            }
+            
+            if (to > from) {
+                target.force(from, to - from);
+            }
+            
+            synchronized (appendLock) {
+                if (target == buffer) {
+                    forcedPosition = Math.max(forcedPosition, to);
+                }
+            }
+            syncedSequence = covered;
+        }
+    }
+    
+    /**
+     * Sequence number of the last record known to be on disk
+     */
+    public long getSyncedSequence() {
+        return syncedSequence;
+    }
+    
+    /**
+     * Sequence number of the last record applied downstream
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+    
+    /**
+     * Record that every record up to the given sequence has been applied and
+     * delete the segments that only hold applied records
+     * @param sequence last applied sequence number
+     */
+    public void markApplied(long sequence) throws IOException {
+        if (sequence <= appliedSequence) {
+            return;
+        }
+        
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        Files.write(temporary, ByteBuffer.allocate(Long.BYTES).putLong(0, sequence).array());
+        Files.move(temporary, directory.resolve(CHECKPOINT),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appliedSequence = sequence;
+        
+        synchronized (appendLock) {
+            // A segment can go once the next one starts after the checkpoint, the current segment always stays
+            List<Long> obsolete = new ArrayList<>();
+            Long next = null;
+            for (Long first : segments.descendingKeySet()) {
+                if (next != null && next - 1 <= sequence) {
+                    obsolete.add(first);
+                }
+                next = first;
+            }
+            for (Long first : obsolete) {
+                Files.deleteIfExists(segments.remove(first));
+            }
+        }
+    }
+    
+    /**
+     * Read every valid record after the given sequence, stopping at the first torn or out of order record
+     * @param afterSequence sequence number to start after
+     * @param consumer receives the sequence number and payload of each record
+     */
+    public void replay(long afterSequence, BiConsumer<Long, byte[]> consumer) throws IOException {
+        List<Map.Entry<Long, Path>> files;
+        synchronized (appendLock) {
+            files = new ArrayList<>(segments.entrySet());
+        }
+        
+        for (Map.Entry<Long, Path> segment : files) {
+            long expected = segment.getKey();
+            try (FileChannel file = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                ByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                byte[] payload;
+                while ((payload = readRecord(data, expected)) != null) {
+                    if (expected > afterSequence) {
+                        consumer.accept(expected, payload);
+                    }
+                    expected++;
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (channel != null) {
+                buffer.force();
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+    
+    private void load() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            appliedSequence = ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong();
+        }
+        
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .forEach(file -> segments.put(firstSequence(file), file));
+        }
+        
+        if (segments.isEmpty()) {
+            nextSequence = appliedSequence + 1;
+            openSegment(nextSequence);
+        } else {
+            // Continue after the last valid record of the newest segment
+            Map.Entry<Long, Path> last = segments.lastEntry();
+            channel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            long sequence = last.getKey();
+            while (readRecord(buffer, sequence) != null) {
+                sequence++;
+            }
+            
+            // Wipe whatever a crash left after the last valid record
+            int end = buffer.position();
+            for (int i = end; i < segmentSize; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+            buffer.position(end);
+            forcedPosition = end;
+            nextSequence = sequence;
+        }
+        syncedSequence = nextSequence - 1;
+    }
+    
+    /**
+     * Read the record at the buffer position and move past it
+     * @return payload, or null if there is no valid record with the expected sequence
+     */
+    private static byte[] readRecord(ByteBuffer data, long expectedSequence) {
+        int start = data.position();
+        if (data.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int length = data.getInt(start);
+        if (length <= 0 || length > data.remaining() - HEADER_SIZE) {
+            return null;
+        }
+        
+        int checksum = data.getInt(start + Integer.BYTES);
+        long sequence = data.getLong(start + 2 * Integer.BYTES);
+        byte[] payload = new byte[length];
+        data.get(start + HEADER_SIZE, payload);
+        
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+        crc.update(payload);
+        if (sequence != expectedSequence || (int) crc.getValue() != checksum) {
+            return null;
+        }
+        
+        data.position(start + HEADER_SIZE + length);
+        return payload;
+    }
+    
+    private void rollSegment() throws IOException {
+        buffer.force();
+        channel.close();
+        openSegment(nextSequence);
+    }
+    
+    private void openSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        forcedPosition = 0;
+        segments.put(firstSequence, file);
+    }
+    
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
\ No newline at end of file
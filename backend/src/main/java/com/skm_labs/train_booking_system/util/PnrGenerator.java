@@ -0,0 +1,183 @@
+package com.skm_labs.train_booking_system.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Generator of unique, hard to guess PNR numbers without any database lookup.
+ * Each PNR starts as a node ID, a time in seconds and a per-second sequence packed
+ * into 5 bits per character. The packed value is scrambled with a keyed Feistel
+ * network, which is a permutation of the value space, so distinct inputs can never
+ * produce the same PNR, and then written in Crockford base 32.
+ * When more PNRs are requested in a second than the sequence can hold, the generator
+ * borrows the following seconds, at most borrowSeconds ahead of the clock, after which
+ * callers wait for the clock to catch up. Every instance starts borrowSeconds ahead, past
+ * anything an instance before a restart can have borrowed, so the output stays unique
+ * across restarts as long as the clock does not go back and every node has its own ID.
+ * Until the clock has caught up with that start, bursts get only the per-second capacity.
+ * Instances are thread-safe and lock-free until the borrowing limit is reached.
+ */
+public class PnrGenerator {
+    
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long EPOCH_SECONDS = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+    private static final int TIME_BITS = 30;
+    private static final int MIN_SEQUENCE_BITS = 8;
+    private static final int ROUNDS = 6;
+    private static final long WAIT_NANOS = 1_000_000;
+    
+    private final String prefix;
+    private final int length;
+    private final int groupSize;
+    private final int totalBits;
+    private final int sequenceBits;
+    private final long node;
+    private final long borrowSeconds;
+    private final LongSupplier clock;
+    private final long[] roundKeys = new long[ROUNDS];
+    private final AtomicLong last;
+    
+    /**
+     * @param prefix fixed text in front of every PNR
+     * @param length number of base 32 characters after the prefix, at most 12
+     * @param groupSize characters between dashes, 0 for no dashes
+     * @param nodeId ID of this application instance
+     * @param nodeBits bits reserved for the node ID
+     * @param secret key of the permutation, PNRs can be predicted by anyone who knows it
+     * @param borrowSeconds seconds the generator may run ahead of the clock, at least 1
+     */
+    public PnrGenerator(String prefix, int length, int groupSize, int nodeId, int nodeBits, String secret,
+                        int borrowSeconds) {
+        this(prefix, length, groupSize, nodeId, nodeBits, secret, borrowSeconds,
+                () -> System.currentTimeMillis() / 1000);
+    }
+    
+    /**
+     * @param clock current time in epoch seconds
+     */
+    PnrGenerator(String prefix, int length, int groupSize, int nodeId, int nodeBits, String secret,
+                 int borrowSeconds, LongSupplier clock) {
+        this.totalBits = length * 5;
+        this.sequenceBits = totalBits - nodeBits - TIME_BITS;
+        if (length > 12 || sequenceBits < MIN_SEQUENCE_BITS) {
+            throw new IllegalArgumentException("PNR length " + length + " with " + nodeBits
+                    + " node bits leaves " + sequenceBits + " sequence bits, use between "
+                    + (nodeBits + TIME_BITS + MIN_SEQUENCE_BITS + 4) / 5 + " and 12 characters");
+        }
+        if (nodeId < 0 || nodeId >= 1 << nodeBits) {
+            throw new IllegalArgumentException("Node ID " + nodeId + " does not fit in " + nodeBits + " bits");
+        }
+        if (borrowSeconds < 1) {
+            throw new IllegalArgumentException("PNR borrowing must allow at least 1 second, not " + borrowSeconds);
+        }
+        this.prefix = prefix == null ? "" : prefix;
+        this.length = length;
+        this.groupSize = groupSize;
+        this.node = nodeId;
+        this.borrowSeconds = borrowSeconds;
+        this.clock = clock;
+        // Skip the seconds an instance before a restart may have borrowed
+        this.last = new AtomicLong(((clock.getAsLong() - EPOCH_SECONDS + borrowSeconds) << sequenceBits) - 1);
+        
+        // Derive one key per round from the secret
+        long seed = 0x9E3779B97F4A7C15L;
+        for (byte b : secret.getBytes(StandardCharsets.UTF_8)) {
+            seed = mix(seed ^ b);
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            roundKeys[i] = seed;
+        }
+    }
+    
+    /**
+     * Generate the next PNR
+     * @return PNR number
+     */
+    public String next() {
+        return format(permute(nextValue()));
+    }
+    
+    /**
+     * Number of PNRs each node can issue per second on average
+     */
+    public long getCapacityPerSecond() {
+        return 1L << sequenceBits;
+    }
+    
+    /**
+     * Next packed node, time and sequence value, strictly increasing per instance
+     */
+    long nextValue() {
+        while (true) {
+            long seconds = clock.getAsLong() - EPOCH_SECONDS;
+            long previous = last.get();
+            long stamp = Math.max(seconds << sequenceBits, previous + 1);
+            if (stamp >>> sequenceBits > seconds + borrowSeconds) {
+                // Borrowed as far ahead as allowed, wait for the clock
+                LockSupport.parkNanos(WAIT_NANOS);
+                continue;
+            }
+            if (stamp >>> sequenceBits >= 1L << TIME_BITS) {
+                throw new IllegalStateException("PNR time range exhausted");
+            }
+            if (last.compareAndSet(previous, stamp)) {
+                return (node << (TIME_BITS + sequenceBits)) | stamp;
+            }
+        }
+    }
+    
+    /**
+     * Keyed permutation of the values with totalBits bits. Each round replaces the high
+     * part with a keyed function of the low part and swaps the parts, which can be undone
+     * given the key, so the whole network is a bijection.
+     */
+    long permute(long value) {
+        int highBits = totalBits / 2;
+        int lowBits = totalBits - highBits;
+        long high = value >>> lowBits;
+        long low = value & mask(lowBits);
+        
+        for (int round = 0; round < ROUNDS; round++) {
+            long mixed = (high ^ mix(low ^ roundKeys[round])) & mask(highBits);
+            high = low;
+            low = mixed;
+            int bits = highBits;
+            highBits = lowBits;
+            lowBits = bits;
+        }
+        return (high << lowBits) | low;
+    }
+    
+    private String format(long value) {
+        int dashes = groupSize > 0 ? (length - 1) / groupSize : 0;
+        char[] pnr = new char[prefix.length() + length + dashes];
+        prefix.getChars(0, prefix.length(), pnr, 0);
+        
+        int position = pnr.length;
+        for (int i = 0; i < length; i++) {
+            if (groupSize > 0 && i > 0 && i % groupSize == 0) {
+                pnr[--position] = '-';
+            }
+            pnr[--position] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(pnr);
+    }
+    
+    private static long mask(int bits) {
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+    
+    /**
+     * 64-bit finalizer of SplitMix64
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
\ No newline at end of file
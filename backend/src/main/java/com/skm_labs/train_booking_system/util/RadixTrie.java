@@ -0,0 +1,202 @@
+package com.skm_labs.train_booking_system.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Compressed prefix tree (radix tree) of weighted keys. Chains of single-child nodes
+ * are merged into one edge label, and every node remembers the highest weight in its
+ * subtree, so the top k completions of a prefix are found best-first without visiting
+ * the rest of the subtree. Several keys may map to the same value, completions return
+ * each value once. Instances are not thread-safe.
+ * @param <V> value type
+ */
+public class RadixTrie<V> {
+    
+    private static final Comparator<Candidate<?>> BY_WEIGHT = Comparator
+            .<Candidate<?>>comparingLong(candidate -> -candidate.weight)
+            .thenComparing(candidate -> candidate.node != null)
+            .thenComparing(candidate -> candidate.key == null ? "" : candidate.key);
+    
+    private final Node<V> root = new Node<>("");
+    private int size;
+    
+    /**
+     * Add a key or change its value and weight
+     * @param key key
+     * @param value value returned for the key
+     * @param weight ranking weight, higher first
+     */
+    public void put(String key, V value, long weight) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int position = 0;
+        path.add(node);
+        
+        while (position < key.length()) {
+            Node<V> child = node.children.get(key.charAt(position));
+            if (child == null) {
+                child = new Node<>(key.substring(position));
+                node.children.put(key.charAt(position), child);
+                node = child;
+                path.add(node);
+                position = key.length();
+                break;
+            }
+            
+            int common = commonPrefix(child.label, key, position);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node<V> split = new Node<>(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                split.maxWeight = child.maxWeight;
+                node.children.put(split.label.charAt(0), split);
+                child = split;
+            }
+            node = child;
+            path.add(node);
+            position += common;
+        }
+        
+        if (node.key == null) {
+            size++;
+        }
+        node.key = key;
+        node.value = value;
+        node.weight = weight;
+        updateMaxWeights(path);
+    }
+    
+    /**
+     * Remove a key
+     * @return false if the key was not present
+     */
+    public boolean remove(String key) {
+        List<Node<V>> path = find(key, true);
+        if (path == null || path.get(path.size() - 1).key == null) {
+            return false;
+        }
+        Node<V> node = path.get(path.size() - 1);
+        node.key = null;
+        node.value = null;
+        node.weight = Long.MIN_VALUE;
+        size--;
+        updateMaxWeights(path);
+        return true;
+    }
+    
+    /**
+     * Values of the highest weighted keys starting with a prefix
+     * @param prefix prefix of the keys
+     * @param limit maximum number of values
+     * @return distinct values, highest weight first
+     */
+    public List<V> complete(String prefix, int limit) {
+        List<V> values = new ArrayList<>();
+        List<Node<V>> path = find(prefix, false);
+        if (path == null || limit <= 0) {
+            return values;
+        }
+        
+        Set<V> seen = new HashSet<>();
+        PriorityQueue<Candidate<V>> queue = new PriorityQueue<>(BY_WEIGHT);
+        Node<V> start = path.get(path.size() - 1);
+        queue.add(new Candidate<>(start, null, null, start.maxWeight));
+        while (!queue.isEmpty() && values.size() < limit) {
+            Candidate<V> candidate = queue.poll();
+            if (candidate.node == null) {
+                if (seen.add(candidate.value)) {
+                    values.add(candidate.value);
+                }
+                continue;
+            }
+            Node<V> node = candidate.node;
+            if (node.key != null) {
+                queue.add(new Candidate<>(null, node.key, node.value, node.weight));
+            }
+            for (Node<V> child : node.children.values()) {
+                if (child.maxWeight != Long.MIN_VALUE) {
+                    queue.add(new Candidate<>(child, null, null, child.maxWeight));
+                }
+            }
+        }
+        return values;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Nodes from the root to the node of a key or, for a prefix, to the first node
+     * whose path contains the whole prefix
+     */
+    private List<Node<V>> find(String key, boolean exact) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int position = 0;
+        path.add(node);
+        while (position < key.length()) {
+            Node<V> child = node.children.get(key.charAt(position));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, key, position);
+            if (common < child.label.length() && (exact || position + common < key.length())) {
+                return null;
+            }
+            node = child;
+            path.add(node);
+            position += common;
+        }
+        return path;
+    }
+    
+    private void updateMaxWeights(List<Node<V>> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<V> node = path.get(i);
+            long max = node.weight;
+            for (Node<V> child : node.children.values()) {
+                max = Math.max(max, child.maxWeight);
+            }
+            node.maxWeight = max;
+        }
+    }
+    
+    private static int commonPrefix(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static final class Node<V> {
+        
+        private String label;
+        private final Map<Character, Node<V>> children = new HashMap<>(4);
+        private String key;
+        private V value;
+        private long weight = Long.MIN_VALUE;
+        // Highest weight of any key in this subtree
+        private long maxWeight = Long.MIN_VALUE;
+        
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+    
+    /**
+     * Entry of the best-first search, either a subtree or a single key
+     */
+    private record Candidate<V>(Node<V> node, String key, V value, long weight) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+package com.skm_labs.train_booking_system.util;
+
+/**
+ * Compact seat map of a schedule, one bit per seat (set = occupied).
+ * Seat numbers are 1-based, bit i holds seat i + 1. Multi-stop schedules keep one
+ * layer of words per route segment, a seat is free for a journey if it is free on
+ * every segment the journey covers. All searches work on whole 64-bit words, so
+ * allocation costs O(words x segments) rather than O(seats).
+ * Instances are thread-safe, concurrent allocations on the same map are serialized.
+ */
+public class SeatBitmap {
+    
+    private final long[][] layers;
+    private final int capacity;
+    
+    public SeatBitmap(int capacity) {
+        this(capacity, 1);
+    }
+    
+    public SeatBitmap(int capacity, int segments) {
+        this.capacity = capacity;
+        this.layers = new long[segments][(capacity + 63) >>> 6];
+        
+        // Bits past the last seat are permanently occupied
+        int tail = capacity & 63;
+        if (tail != 0) {
+            for (long[] words : layers) {
+                words[words.length - 1] = -1L << tail;
+            }
+        }
+    }
+    
+    /**
+     * Allocate seats for the whole route
+     * @param seats number of seats to allocate
+     * @return allocated seat numbers, or null if not enough seats are free
+     */
+    public int[] allocate(int seats) {
+        return allocate(0, layers.length, seats);
+    }
+    
+    /**
+     * Allocate seats for the segments [from, to), preferring the first run of adjacent
+     * free seats and falling back to the lowest free seats if no such run exists
+     * @param from first segment
+     * @param to segment after the last one
+     * @param seats number of seats to allocate
+     * @return allocated seat numbers, or null if not enough seats are free
+     */
+    public synchronized int[] allocate(int from, int to, int seats) {
+        checkRange(from, to);
+        if (seats <= 0 || seats > freeSeats(from, to)) {
+            return null;
+        }
+        
+        int start = findRun(from, to, seats);
+        int[] seatNumbers = new int[seats];
+        if (start >= 0) {
+            setRange(from, to, start, seats);
+            for (int i = 0; i < seats; i++) {
+                seatNumbers[i] = start + i + 1;
+            }
+        } else {
+            int found = 0;
+            for (int w = 0; w < wordCount() && found < seats; w++) {
+                long free = ~occupied(w, from, to);
+                while (free != 0 && found < seats) {
+                    int bit = Long.numberOfTrailingZeros(free);
+                    free &= free - 1;
+                    seatNumbers[found++] = (w << 6) + bit + 1;
+                }
+            }
+            mark(from, to, seatNumbers, true);
+        }
+        return seatNumbers;
+    }
+    
+    /**
+     * Mark seats as occupied on the whole route
+     * @param seatNumbers seat numbers to occupy
+     * @return false if any of the seats was already occupied or out of range
+     */
+    public boolean occupy(int[] seatNumbers) {
+        return occupy(0, layers.length, seatNumbers);
+    }
+    
+    /**
+     * Mark seats as occupied on the segments [from, to), used when restoring the map from stored bookings
+     * @param from first segment
+     * @param to segment after the last one
+     * @param seatNumbers seat numbers to occupy
+     * @return false if any of the seats was already occupied or out of range
+     */
+    public synchronized boolean occupy(int from, int to, int[] seatNumbers) {
+        checkRange(from, to);
+        for (int seatNumber : seatNumbers) {
+            if (!isFreeSeat(from, to, seatNumber)) {
+                return false;
+            }
+        }
+        mark(from, to, seatNumbers, true);
+        return true;
+    }
+    
+    /**
+     * Free previously allocated seats on the whole route
+     * @param seatNumbers seat numbers to free
+     */
+    public void release(int[] seatNumbers) {
+        release(0, layers.length, seatNumbers);
+    }
+    
+    /**
+     * Free previously allocated seats on the segments [from, to)
+     * @param from first segment
+     * @param to segment after the last one
+     * @param seatNumbers seat numbers to free
+     */
+    public synchronized void release(int from, int to, int[] seatNumbers) {
+        checkRange(from, to);
+        mark(from, to, seatNumbers, false);
+    }
+    
+    /**
+     * Number of seats that are free on the whole route
+     */
+    public int getFreeSeats() {
+        return getFreeSeats(0, layers.length);
+    }
+    
+    /**
+     * Number of seats that are free on every segment in [from, to)
+     */
+    public synchronized int getFreeSeats(int from, int to) {
+        checkRange(from, to);
+        return freeSeats(from, to);
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public int getSegments() {
+        return layers.length;
+    }
+    
+    public synchronized boolean isFree(int seatNumber) {
+        return isFreeSeat(0, layers.length, seatNumber);
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "SeatBitmap{capacity=" + capacity + ", segments=" + layers.length
+                + ", freeSeats=" + freeSeats(0, layers.length) + '}';
+    }
+    
+    private int wordCount() {
+        return layers[0].length;
+    }
+    
+    private long occupied(int w, int from, int to) {
+        long occupied = 0L;
+        for (int segment = from; segment < to; segment++) {
+            occupied |= layers[segment][w];
+        }
+        return occupied;
+    }
+    
+    private int freeSeats(int from, int to) {
+        int free = 0;
+        for (int w = 0; w < wordCount(); w++) {
+            free += Long.bitCount(~occupied(w, from, to));
+        }
+        return free;
+    }
+    
+    private boolean isFreeSeat(int from, int to, int seatNumber) {
+        if (seatNumber < 1 || seatNumber > capacity) {
+            return false;
+        }
+        int bit = seatNumber - 1;
+        return (occupied(bit >>> 6, from, to) & (1L << bit)) == 0;
+    }
+    
+    private void mark(int from, int to, int[] seatNumbers, boolean occupied) {
+        for (int seatNumber : seatNumbers) {
+            if (seatNumber < 1 || seatNumber > capacity) {
+                continue;
+            }
+            int bit = seatNumber - 1;
+            for (int segment = from; segment < to; segment++) {
+                if (occupied) {
+                    layers[segment][bit >>> 6] |= 1L << bit;
+                } else {
+                    layers[segment][bit >>> 6] &= ~(1L << bit);
+                }
+            }
+        }
+    }
+    
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > layers.length || from >= to) {
+            throw new IllegalArgumentException("Invalid segment range [" + from + ", " + to + ")");
+        }
+    }
+    
+    /**
+     * Find the first run of free bits of the given length
+     * @return index of the first bit of the run, or -1
+     */
+    private int findRun(int from, int to, int length) {
+        int run = 0;
+        int runStart = 0;
+        
+        for (int w = 0; w < wordCount(); w++) {
+            long occupied = occupied(w, from, to);
+            int base = w << 6;
+            
+            if (occupied == 0L) {
+                if (run == 0) {
+                    runStart = base;
+                }
+                run += 64;
+                if (run >= length) {
+                    return runStart;
+                }
+                continue;
+            }
+            
+            // Free bits at the low end extend the run carried over from the previous word
+            if (run == 0) {
+                runStart = base;
+            }
+            if (run + Long.numberOfTrailingZeros(occupied) >= length) {
+                return runStart;
+            }
+            
+            // A run that fits entirely inside this word
+            if (length <= 64) {
+                int position = findRunInWord(~occupied, length);
+                if (position >= 0) {
+                    return base + position;
+                }
+            }
+            
+            // Free bits at the high end start a new run
+            run = Long.numberOfLeadingZeros(occupied);
+            runStart = base + 64 - run;
+        }
+        return -1;
+    }
+    
+    /**
+     * Find the lowest position of a run of set bits within one word
+     * by folding the word onto itself in O(log length) steps
+     */
+    private static int findRunInWord(long free, int length) {
+        long runs = free;
+        int covered = 1;
+        while (covered < length && runs != 0) {
+            int shift = Math.min(covered, length - covered);
+            runs &= runs >>> shift;
+            covered += shift;
+        }
+        return runs == 0 ? -1 : Long.numberOfTrailingZeros(runs);
+    }
+    
+    private void setRange(int from, int to, int start, int length) {
+        int end = start + length;
+        while (start < end) {
+            int w = start >>> 6;
+            int low = start & 63;
+            int high = Math.min(64, low + (end - start));
+            long mask = high == 64 ? -1L << low : ((1L << high) - 1) & (-1L << low);
+            for (int segment = from; segment < to; segment++) {
+                layers[segment][w] |= mask;
+            }
+            start += high - low;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.skm_labs.train_booking_system.util;
+
+/**
+ * Segment tree over the route segments of a schedule, holding the free seats of each segment.
+ * Supports adding a value to a range of segments and querying the minimum or maximum
+ * over a range, both in O(log segments) using lazy propagation.
+ * Segment i runs from stop i to stop i + 1. Ranges are half-open: [from, to).
+ * Not thread-safe, callers must synchronize.
+ */
+public class SegmentTree {
+    
+    private final int size;
+    private final int[] min;
+    private final int[] max;
+    private final int[] lazy;
+    
+    public SegmentTree(int size, int initialValue) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Segment tree needs at least one segment");
+        }
+        this.size = size;
+        this.min = new int[4 * size];
+        this.max = new int[4 * size];
+        this.lazy = new int[4 * size];
+        build(1, 0, size - 1, initialValue);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Add a value to every segment in [from, to)
+     */
+    public void add(int from, int to, int delta) {
+        checkRange(from, to);
+        add(1, 0, size - 1, from, to - 1, delta);
+    }
+    
+    /**
+     * Minimum over the segments in [from, to)
+     */
+    public int min(int from, int to) {
+        checkRange(from, to);
+        return queryMin(1, 0, size - 1, from, to - 1);
+    }
+    
+    /**
+     * Maximum over the segments in [from, to)
+     */
+    public int max(int from, int to) {
+        checkRange(from, to);
+        return queryMax(1, 0, size - 1, from, to - 1);
+    }
+    
+    private void build(int node, int left, int right, int value) {
+        min[node] = value;
+        max[node] = value;
+        if (left == right) {
+            return;
+        }
+        int mid = (left + right) >>> 1;
+        build(2 * node, left, mid, value);
+        build(2 * node + 1, mid + 1, right, value);
+    }
+    
+    private void add(int node, int left, int right, int from, int to, int delta) {
+        if (to < left || right < from) {
+            return;
+        }
+        if (from <= left && right <= to) {
+            apply(node, delta);
+            return;
+        }
+        push(node);
+        int mid = (left + right) >>> 1;
+        add(2 * node, left, mid, from, to, delta);
+        add(2 * node + 1, mid + 1, right, from, to, delta);
+        min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+        max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+    }
+    
+    private int queryMin(int node, int left, int right, int from, int to) {
+        if (to < left || right < from) {
+            return Integer.MAX_VALUE;
+        }
+        if (from <= left && right <= to) {
+            return min[node];
+        }
+        push(node);
+        int mid = (left + right) >>> 1;
+        return Math.min(queryMin(2 * node, left, mid, from, to),
+                queryMin(2 * node + 1, mid + 1, right, from, to));
+    }
+    
+    private int queryMax(int node, int left, int right, int from, int to) {
+        if (to < left || right < from) {
+            return Integer.MIN_VALUE;
+        }
+        if (from <= left && right <= to) {
+            return max[node];
+        }
+        push(node);
+        int mid = (left + right) >>> 1;
+        return Math.max(queryMax(2 * node, left, mid, from, to),
+                queryMax(2 * node + 1, mid + 1, right, from, to));
+    }
+    
+    private void apply(int node, int delta) {
+        min[node] += delta;
+        max[node] += delta;
+        lazy[node] += delta;
+    }
+    
+    private void push(int node) {
+        if (lazy[node] != 0) {
+            apply(2 * node, lazy[node]);
+            apply(2 * node + 1, lazy[node]);
+            lazy[node] = 0;
+        }
+    }
+    
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size || from >= to) {
+            throw new IllegalArgumentException("Invalid segment range [" + from + ", " + to + ")");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.skm_labs.train_booking_system.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of single-threaded shards with bounded mailboxes.
+ * Tasks are routed by key, so every task for the same key runs on the same thread
+ * in submission order while tasks for other keys proceed in parallel on the other shards.
+ * Each task hands its result back through a {@link CompletableFuture}. A task submitted
+ * from the shard that owns its key runs inline, so nested calls cannot deadlock.
+ * Cancelling the future while the task is still queued keeps it from running, once the
+ * task has started it can no longer be cancelled.
+ */
+public class ShardedExecutor {
+    
+    private final ThreadPoolExecutor[] shards;
+    private final ThreadLocal<Integer> currentShard = new ThreadLocal<>();
+    
+    public ShardedExecutor(String name, int shardCount, int mailboxCapacity) {
+        if (shardCount <= 0 || mailboxCapacity <= 0) {
+            throw new IllegalArgumentException("Shard count and mailbox capacity must be positive");
+        }
+        this.shards = new ThreadPoolExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            shards[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(mailboxCapacity),
+                    task -> {
+                        Thread thread = new Thread(() -> {
+                            currentShard.set(shard);
+                            task.run();
+                        }, name + "-" + shard);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+    
+    /**
+     * Run a task on the shard that owns the key
+     * @param key routing key
+     * @param task task to run
+     * @return future completed with the result or the exception of the task, cancel
+     *         returns false once the task has started
+     * @throws RejectedExecutionException if the mailbox of the shard is full or the executor is shut down
+     */
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+        int shard = shardOf(key);
+        Reply<T> reply = new Reply<>();
+        Runnable run = () -> {
+            if (!reply.start()) {
+                // Cancelled while queued
+                return;
+            }
+            try {
+                reply.complete(task.get());
+            } catch (Throwable e) {
+                reply.completeExceptionally(e);
+            }
+        };
+        
+        Integer current = currentShard.get();
+        if (current != null && current == shard) {
+            run.run();
+        } else {
+            shards[shard].execute(run);
+        }
+        return reply;
+    }
+    
+    /**
+     * Shard that owns a key
+     * @param key routing key
+     * @return shard index
+     */
+    public int shardOf(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits, sequential IDs would otherwise only differ in the low bits
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x9E3779B9, shards.length);
+    }
+    
+    /**
+     * Number of tasks waiting in the mailbox of a shard
+     */
+    public int getQueueDepth(int shard) {
+        return shards[shard].getQueue().size();
+    }
+    
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    /**
+     * Future of a task that is either started or cancelled, whichever comes first
+     */
+    private static final class Reply<T> extends CompletableFuture<T> {
+        
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        
+        boolean start() {
+            return claimed.compareAndSet(false, true);
+        }
+        
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return claimed.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+        }
+    }
+    
+    /**
+     * Stop accepting tasks and wait for the queued ones to finish
+     * @param timeoutMillis maximum time to wait per shard
+     * @return true if every shard drained in time
+     */
+    public boolean shutdown(long timeoutMillis) throws InterruptedException {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        boolean drained = true;
+        for (ThreadPoolExecutor shard : shards) {
+            drained &= shard.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return drained;
+    }
+}
\ No newline at end of file
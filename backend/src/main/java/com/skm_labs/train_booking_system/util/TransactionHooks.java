@@ -0,0 +1,72 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility for running callbacks at transaction boundaries
+ */
+public class TransactionHooks {
+    
+    private TransactionHooks() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Run the action if the current transaction rolls back.
+     * Does nothing when no transaction is active.
+     * @param action compensating action
+     */
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+    
+    /**
+     * Run the action just before the current transaction commits.
+     * Runs immediately when no transaction is active.
+     * @param action action to run
+     */
+    public static void beforeCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                action.run();
+            }
+        });
+    }
+    
+    /**
+     * Run the action once the current transaction commits.
+     * Runs immediately when no transaction is active.
+     * @param action action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
\ No newline at end of file
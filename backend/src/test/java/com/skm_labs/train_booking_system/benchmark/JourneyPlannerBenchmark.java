@@ -0,0 +1,80 @@
+package com.skm_labs.train_booking_system.benchmark;
+
+import com.skm_labs.train_booking_system.util.ConnectionTimetable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of journey planning over a synthetic month of timetable: 500 stations and
+ * 400 trips a day of 10 stops each, about 110000 connections. Each query plans from a
+ * random station to another at a random time of the first week with up to two transfers.
+ * Run with the main method from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JourneyPlannerBenchmark {
+    
+    private static final int STATIONS = 500;
+    private static final int DAYS = 31;
+    private static final int TRIPS_PER_DAY = 400;
+    private static final int STOPS = 10;
+    
+    private ConnectionTimetable timetable;
+    private final Random random = new Random(42);
+    
+    @Setup
+    public void setUp() {
+        Random timetableRandom = new Random(7);
+        ConnectionTimetable.Builder builder = ConnectionTimetable.builder(STATIONS);
+        for (int day = 0; day < DAYS; day++) {
+            for (int t = 0; t < TRIPS_PER_DAY; t++) {
+                int[] stations = new int[STOPS];
+                int[] arrivals = new int[STOPS];
+                int[] departures = new int[STOPS];
+                int time = day * 1440 + timetableRandom.nextInt(1440);
+                for (int stop = 0; stop < STOPS; stop++) {
+                    stations[stop] = timetableRandom.nextInt(STATIONS);
+                    arrivals[stop] = time;
+                    time += 2;
+                    departures[stop] = time;
+                    time += 20 + timetableRandom.nextInt(60);
+                }
+                builder.addTrip(stations, arrivals, departures);
+            }
+        }
+        timetable = builder.build();
+    }
+    
+    @Benchmark
+    public List<ConnectionTimetable.Journey> plan() {
+        int origin = random.nextInt(STATIONS);
+        int target = random.nextInt(STATIONS);
+        int departAfter = random.nextInt(7 * 1440);
+        return timetable.scan(origin, target, departAfter, departAfter + 48 * 60, 2, 15, (trip, stop) -> true);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JourneyPlannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
\ No newline at end of file
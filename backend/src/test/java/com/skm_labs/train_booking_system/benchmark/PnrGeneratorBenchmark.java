@@ -0,0 +1,63 @@
+package com.skm_labs.train_booking_system.benchmark;
+
+import com.skm_labs.train_booking_system.util.PnrGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of PNR generation, the keyed generator against the previous random
+ * six digit PNR (without the database lookup that used to follow it).
+ * Run with the main method from the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PnrGeneratorBenchmark {
+    
+    // Borrows far enough ahead that the measurement never waits for the clock
+    private final PnrGenerator generator = new PnrGenerator("PNR", 10, 0, 0, 6, "benchmark", 1_000_000);
+    
+    @Benchmark
+    public String keyedGenerator() {
+        return generator.next();
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public String keyedGeneratorContended() {
+        return generator.next();
+    }
+    
+    @Benchmark
+    public String randomDigits() {
+        Random random = new Random();
+        StringBuilder pnr = new StringBuilder("PNR");
+        for (int i = 0; i < 6; i++) {
+            pnr.append(random.nextInt(10));
+        }
+        return pnr.toString();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PnrGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.skm_labs.train_booking_system.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.skm_labs.train_booking_system.dto.response.ApiResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time of a search response in each negotiable encoding, plain and with
+ * the gzip compression applied to large responses. The main method prints the bytes on
+ * the wire of every encoding before running, a result set of 200 trains is about what a
+ * seven day flexible search of a busy route returns.
+ * Run with the main method from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchPayloadBenchmark {
+    
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+    private static final ObjectMapper CBOR = new CBORMapper().findAndRegisterModules();
+    private static final ObjectMapper SMILE = new SmileMapper().findAndRegisterModules();
+    
+    @Param({"20", "200"})
+    private int trains;
+    
+    private ApiResponseDTO<List<TrainScheduleDTO>> response;
+    
+    @Setup
+    public void setUp() {
+        response = searchResponse(trains);
+    }
+    
+    @Benchmark
+    public byte[] json() throws IOException {
+        return JSON.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return CBOR.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return SMILE.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(JSON.writeValueAsBytes(response));
+    }
+    
+    @Benchmark
+    public byte[] cborGzip() throws IOException {
+        return gzip(CBOR.writeValueAsBytes(response));
+    }
+    
+    @Benchmark
+    public byte[] smileGzip() throws IOException {
+        return gzip(SMILE.writeValueAsBytes(response));
+    }
+    
+    private static ApiResponseDTO<List<TrainScheduleDTO>> searchResponse(int count) {
+        Random random = new Random(42);
+        LocalDate date = LocalDate.of(2030, 1, 15);
+        TrainType[] types = TrainType.values();
+        List<TrainScheduleDTO> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalTime departure = LocalTime.of(random.nextInt(24), random.nextInt(60));
+            result.add(TrainScheduleDTO.builder()
+                    .scheduleId(10000L + i)
+                    .trainId(100L + random.nextInt(400))
+                    .trainNumber(String.valueOf(12000 + random.nextInt(8000)))
+                    .trainName("Intercity Express " + random.nextInt(100))
+                    .trainType(types[random.nextInt(types.length)])
+                    .departureStation("New Delhi")
+                    .arrivalStation("Mumbai Central")
+                    .departureDate(date.plusDays(i % 7).toString())
+                    .departureTime(departure.toString())
+                    .arrivalTime(departure.plusMinutes(300 + random.nextInt(600)).toString())
+                    .fare(Math.round((500 + random.nextDouble() * 2000) * 100) / 100.0)
+                    .availableSeats(random.nextInt(500))
+                    .totalSeats(500)
+                    .build());
+        }
+        return ApiResponseDTO.success(String.format("Found %d available trains", count), result);
+    }
+    
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body);
+        }
+        return bytes.toByteArray();
+    }
+    
+    public static void main(String[] args) throws RunnerException, IOException {
+        for (int count : new int[] {20, 200}) {
+            ApiResponseDTO<List<TrainScheduleDTO>> response = searchResponse(count);
+            byte[] json = JSON.writeValueAsBytes(response);
+            byte[] cbor = CBOR.writeValueAsBytes(response);
+            byte[] smile = SMILE.writeValueAsBytes(response);
+            System.out.printf("%d trains: json %d (gzip %d), cbor %d (gzip %d), smile %d (gzip %d) bytes%n", count,
+                    json.length, gzip(json).length, cbor.length, gzip(cbor).length, smile.length, gzip(smile).length);
+        }
+        
+        new Runner(new OptionsBuilder()
+                .include(SearchPayloadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
\ No newline at end of file
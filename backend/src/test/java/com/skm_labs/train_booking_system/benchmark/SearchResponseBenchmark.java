@@ -0,0 +1,128 @@
+package com.skm_labs.train_booking_system.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skm_labs.train_booking_system.dto.request.SearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.ApiResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.BookingService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.service.impl.ScheduleSearchServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Time and allocation of writing an indexed search result as JSON, spliced from the
+ * cached fragments of the index entries against building a TrainScheduleDTO for every
+ * train and serializing it. The result comes from the real index, seat lookups are left
+ * out by searching once in the setup. Run with the main method from the test classpath,
+ * which adds the GC profiler (see gc.alloc.rate.norm for bytes per response).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchResponseBenchmark {
+    
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    
+    @Param({"10", "100"})
+    private int trains;
+    
+    private List<TrainScheduleDTO> results;
+    // Reused like the servlet output stream, so only the work per response is counted
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(1 << 16);
+    
+    @Setup
+    public void setUp() throws IOException {
+        ScheduleRepository scheduleRepository = mock(ScheduleRepository.class);
+        SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+        when(seatInventoryService.getAvailableSeats(anyLong(), anyInt(), anyInt())).thenReturn(42);
+        List<Schedule> schedules = new ArrayList<>();
+        for (long id = 1; id <= trains; id++) {
+            schedules.add(schedule(id));
+        }
+        when(scheduleRepository.findWithTrainAndStopsFrom(any())).thenReturn(schedules);
+        
+        ScheduleSearchServiceImpl searchService = new ScheduleSearchServiceImpl(scheduleRepository,
+                seatInventoryService, mock(BookingService.class));
+        ReflectionTestUtils.setField(searchService, "enabled", true);
+        ReflectionTestUtils.setField(searchService, "retainDays", 1);
+        searchService.rebuild();
+        results = searchService.searchTrains(new SearchRequestDTO("New Delhi", "Mumbai Central",
+                LocalDate.now().plusDays(1), 1, 0));
+        // Serialize the fragments before measuring, like the first search of a route would
+        mapper.writeValueAsBytes(results);
+    }
+    
+    @Benchmark
+    public int splicedFragments() throws IOException {
+        output.reset();
+        mapper.writeValue(output, ApiResponseDTO.success("Found trains", results));
+        return output.size();
+    }
+    
+    @Benchmark
+    public int builtDtos() throws IOException {
+        output.reset();
+        // Copying the list builds every DTO with its builder, like the search did before
+        mapper.writeValue(output, ApiResponseDTO.success("Found trains", new ArrayList<>(results)));
+        return output.size();
+    }
+    
+    private static Schedule schedule(long id) {
+        Train train = new Train(id, String.valueOf(12000 + id), "Intercity Express " + id, TrainType.SECOND_CLASS,
+                500, 500, null);
+        LocalTime departure = LocalTime.of((int) (id % 24), (int) (id * 7 % 60));
+        Schedule schedule = new Schedule();
+        schedule.setId(id);
+        schedule.setTrain(train);
+        schedule.setDepartureDate(LocalDate.now().plusDays(1));
+        schedule.setFare(1234.5 + id);
+        schedule.setStops(new ArrayList<>(List.of(
+                new ScheduleStop("New Delhi", null, departure),
+                new ScheduleStop("Mumbai Central", departure.plusHours(16), null))));
+        return schedule;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SearchResponseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
\ No newline at end of file
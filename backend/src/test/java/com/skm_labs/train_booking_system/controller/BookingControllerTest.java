@@ -0,0 +1,267 @@
+package com.skm_labs.train_booking_system.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.skm_labs.train_booking_system.dto.auth.SessionUser;
+import com.skm_labs.train_booking_system.dto.projection.BookingVersion;
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+import com.skm_labs.train_booking_system.exception.UserAccessDeniedException;
+import com.skm_labs.train_booking_system.service.AdmissionService;
+import com.skm_labs.train_booking_system.service.BookingCacheService;
+import com.skm_labs.train_booking_system.service.BookingExecutorService;
+import com.skm_labs.train_booking_system.service.BookingService;
+import com.skm_labs.train_booking_system.service.JourneyPlannerService;
+import com.skm_labs.train_booking_system.service.ScheduleSearchService;
+import com.skm_labs.train_booking_system.service.SeatHoldService;
+import com.skm_labs.train_booking_system.service.SessionTokenService;
+import com.skm_labs.train_booking_system.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for the conditional requests, response encodings and session tokens of the Booking Controller
+ */
+@WebMvcTest(BookingController.class)
+class BookingControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private BookingService bookingService;
+    
+    @MockBean
+    private SeatHoldService seatHoldService;
+    
+    @MockBean
+    private BookingExecutorService bookingExecutorService;
+    
+    @MockBean
+    private AdmissionService admissionService;
+    
+    @MockBean
+    private WaitlistService waitlistService;
+    
+    @MockBean
+    private BookingCacheService bookingCacheService;
+    
+    @MockBean
+    private ScheduleSearchService scheduleSearchService;
+    
+    @MockBean
+    private JourneyPlannerService journeyPlannerService;
+    
+    @MockBean
+    private SessionTokenService sessionTokenService;
+    
+    private static final String HOLD = "{\"userId\":99,\"scheduleId\":1,\"passengerName\":\"Jane Smith\","
+            + "\"passengerEmail\":\"jane.smith@email.com\",\"seatCount\":2}";
+    
+    @BeforeEach
+    void setUp() {
+        when(sessionTokenService.verify("token")).thenReturn(new SessionUser(7L, 1L, Long.MAX_VALUE));
+    }
+    
+    @Test
+    void holdSeats_ShouldRequireABearerToken() throws Exception {
+        mockMvc.perform(post("/bookings/hold").contentType(MediaType.APPLICATION_JSON).content(HOLD))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+        
+        verify(seatHoldService, never()).hold(any());
+    }
+    
+    @Test
+    void holdSeats_ShouldHoldForTheUserOfTheTokenWithoutLoadingIt() throws Exception {
+        when(bookingExecutorService.execute(eq(1L), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(seatHoldService.hold(any())).thenReturn(BookingResponseDTO.builder().pnrNumber("PNR1").build());
+        
+        mockMvc.perform(post("/bookings/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(HOLD)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isCreated());
+        
+        // The user ID in the body is ignored in favour of the token
+        ArgumentCaptor<BookingRequestDTO> request = ArgumentCaptor.forClass(BookingRequestDTO.class);
+        verify(seatHoldService).hold(request.capture());
+        assertEquals(7L, request.getValue().getUserId());
+    }
+    
+    @Test
+    void createBooking_ShouldAcceptAJournaledBookingByItsPnr() throws Exception {
+        when(admissionService.admit(any(), any(), any()))
+                .thenReturn(BookingResponseDTO.builder().pnrNumber("PNR1").build());
+        
+        mockMvc.perform(post("/bookings/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(HOLD)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.data.pnrNumber").value("PNR1"));
+        
+        when(admissionService.admit(any(), any(), any()))
+                .thenReturn(BookingResponseDTO.builder().bookingId(1L).pnrNumber("PNR2").build());
+        
+        mockMvc.perform(post("/bookings/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(HOLD)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isCreated());
+    }
+    
+    @Test
+    void cancelBooking_ShouldRejectTheTokenOfAnotherUser() throws Exception {
+        when(bookingExecutorService.executeForBooking(eq(3L), eq(7L), any()))
+                .thenThrow(new UserAccessDeniedException("Booking 3 belongs to another user"));
+        
+        mockMvc.perform(delete("/bookings/3").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/bookings/3"))
+                .andExpect(status().isUnauthorized());
+        
+        verify(bookingService, never()).cancelBooking(any());
+    }
+    
+    @Test
+    void getBookingByPnr_ShouldRejectTheTokenOfAnotherUserBeforeAnsweringNotModified() throws Exception {
+        when(bookingCacheService.getVersion("PNR1")).thenReturn(new BookingVersion(2L, 5L, 8L));
+        
+        mockMvc.perform(get("/bookings/pnr/PNR1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"PNR1-2-5\""))
+                .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void createBookings_ShouldBookEveryEntryForTheUserOfTheToken() throws Exception {
+        when(bookingService.createBookings(any())).thenReturn(List.of());
+        
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookings\":[" + HOLD + "," + HOLD + "]}")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isOk());
+        
+        ArgumentCaptor<List<BookingRequestDTO>> requests = ArgumentCaptor.forClass(List.class);
+        verify(bookingService).createBookings(requests.capture());
+        assertEquals(List.of(7L, 7L), requests.getValue().stream().map(BookingRequestDTO::getUserId).toList());
+    }
+    
+    @Test
+    void getUserBookings_ShouldRejectTheTokenOfAnotherUser() throws Exception {
+        
+        mockMvc.perform(get("/bookings/user/8").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isForbidden());
+        
+        verify(bookingService, never()).getUserBookings(any(), any(), any(), any(), any(), anyInt());
+    }
+    
+    @Test
+    void getBookingByPnr_ShouldAnswerNotModifiedWithoutLoadingTheBooking() throws Exception {
+        when(bookingCacheService.getVersion("PNR1")).thenReturn(new BookingVersion(2L, 5L, 7L));
+        
+        mockMvc.perform(get("/bookings/pnr/PNR1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"PNR1-2-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"PNR1-2-5\""));
+        
+        verify(bookingCacheService, never()).getBookingByPnr("PNR1");
+    }
+    
+    @Test
+    void getBookingByPnr_ShouldSendTheBookingWithItsETagOnceChanged() throws Exception {
+        when(bookingCacheService.getVersion("PNR1")).thenReturn(new BookingVersion(3L, 5L, 7L));
+        when(bookingCacheService.getBookingByPnr("PNR1"))
+                .thenReturn(BookingResponseDTO.builder().pnrNumber("PNR1").userId(7L).build());
+        
+        mockMvc.perform(get("/bookings/pnr/PNR1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"PNR1-2-5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"PNR1-3-5\""));
+    }
+    
+    @Test
+    void searchTrainsByQuery_ShouldAnswerNotModifiedWhileTheRouteIsUnchanged() throws Exception {
+        when(scheduleSearchService.getVersion(any())).thenReturn("1-42");
+        
+        mockMvc.perform(get("/bookings/search")
+                        .param("departureStation", "Delhi")
+                        .param("arrivalStation", "Agra")
+                        .param("departureDate", LocalDate.now().plusDays(1).toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"search-1-42\""))
+                .andExpect(status().isNotModified());
+        verify(scheduleSearchService, never()).searchTrains(any());
+        
+        when(scheduleSearchService.getVersion(any())).thenReturn("1-43");
+        when(scheduleSearchService.searchTrains(any())).thenReturn(List.of());
+        mockMvc.perform(get("/bookings/search")
+                        .param("departureStation", "Delhi")
+                        .param("arrivalStation", "Agra")
+                        .param("departureDate", LocalDate.now().plusDays(1).toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"search-1-42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"search-1-43\""));
+    }
+    
+    @Test
+    void searchTrains_ShouldAnswerInTheAcceptedEncoding() throws Exception {
+        when(scheduleSearchService.searchTrains(any())).thenReturn(List.of(
+                TrainScheduleDTO.builder().scheduleId(7L).trainNumber("12001").departureTime("06:00").build()));
+        String search = "{\"departureStation\":\"Delhi\",\"arrivalStation\":\"Agra\",\"departureDate\":\""
+                + LocalDate.now().plusDays(1) + "\"}";
+        
+        assertSearchResult(search, MediaType.APPLICATION_JSON, new ObjectMapper());
+        assertSearchResult(search, MediaType.APPLICATION_CBOR, new CBORMapper());
+        assertSearchResult(search, MediaType.parseMediaType("application/x-jackson-smile"), new SmileMapper());
+    }
+    
+    private void assertSearchResult(String search, MediaType accept, ObjectMapper reader) throws Exception {
+        byte[] body = mockMvc.perform(post("/bookings/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(search)
+                        .accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(accept))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        JsonNode train = reader.readTree(body).path("data").path(0);
+        assertEquals(7, train.path("scheduleId").asLong());
+        assertEquals("12001", train.path("trainNumber").asText());
+        assertEquals("06:00", train.path("departureTime").asText());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.request.AdmissionRequestDTO;
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.AdmissionTicketDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.enums.AdmissionStatus;
+import com.skm_labs.train_booking_system.exception.AdmissionRequiredException;
+import com.skm_labs.train_booking_system.exception.UserAccessDeniedException;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the booking admission queue
+ */
+class AdmissionServiceImplTest {
+    
+    private static final Long USER_ID = 7L;
+    
+    private SeatInventoryService seatInventoryService;
+    private AdmissionServiceImpl admissionService;
+    
+    @BeforeEach
+    void setUp() {
+        seatInventoryService = mock(SeatInventoryService.class);
+        ScheduleRepository scheduleRepository = mock(ScheduleRepository.class);
+        when(scheduleRepository.findWithTrainAndStopsById(1L)).thenReturn(Optional.of(new Schedule()));
+        when(seatInventoryService.getSegmentCount(1L)).thenReturn(1);
+        when(seatInventoryService.getAvailableSeats(1L, 0, 1)).thenReturn(5);
+        
+        // Schedule 2 runs A - B - C with 2 seats left from A to B and 5 from B to C
+        Schedule multiStop = new Schedule();
+        multiStop.setStops(List.of(
+                new ScheduleStop("A", null, LocalTime.of(8, 0)),
+                new ScheduleStop("B", LocalTime.of(9, 0), LocalTime.of(9, 5)),
+                new ScheduleStop("C", LocalTime.of(10, 0), null)));
+        when(scheduleRepository.findWithTrainAndStopsById(2L)).thenReturn(Optional.of(multiStop));
+        when(seatInventoryService.getSegmentCount(2L)).thenReturn(2);
+        when(seatInventoryService.getAvailableSeats(2L, 0, 1)).thenReturn(2);
+        when(seatInventoryService.getAvailableSeats(2L, 1, 2)).thenReturn(5);
+        
+        admissionService = new AdmissionServiceImpl(seatInventoryService, scheduleRepository);
+        ReflectionTestUtils.setField(admissionService, "enabled", true);
+        ReflectionTestUtils.setField(admissionService, "ratePerSecond", 2.0);
+        ReflectionTestUtils.setField(admissionService, "tickMillis", 100L);
+        ReflectionTestUtils.setField(admissionService, "admittedTtlSeconds", 60L);
+        ReflectionTestUtils.setField(admissionService, "maxWaiting", 100);
+        admissionService.init();
+    }
+    
+    @Test
+    void advance_ShouldAdmitInOrderAtTheConfiguredRate() {
+        AdmissionTicketDTO first = admissionService.issueTicket(request(1L, 1));
+        AdmissionTicketDTO second = admissionService.issueTicket(request(1L, 1));
+        AdmissionTicketDTO third = admissionService.issueTicket(request(1L, 1));
+        assertEquals(3L, admissionService.getTicket(third.getTicketId(), USER_ID).getPosition());
+        
+        // One second of allowance at two tickets per second
+        ReflectionTestUtils.setField(admissionService, "lastAdvance", System.currentTimeMillis() - 1000);
+        assertEquals(2, admissionService.advance());
+        
+        assertEquals(AdmissionStatus.ADMITTED, admissionService.getTicket(first.getTicketId(), USER_ID).getStatus());
+        assertEquals(AdmissionStatus.ADMITTED, admissionService.getTicket(second.getTicketId(), USER_ID).getStatus());
+        AdmissionTicketDTO waiting = admissionService.getTicket(third.getTicketId(), USER_ID);
+        assertEquals(AdmissionStatus.WAITING, waiting.getStatus());
+        assertEquals(1L, waiting.getPosition());
+    }
+    
+    @Test
+    void issueTicket_ShouldRejectOnceAdmittedTicketsCoverTheRemainingSeats() {
+        ReflectionTestUtils.setField(admissionService, "ratePerSecond", 100.0);
+        AdmissionTicketDTO first = admissionService.issueTicket(request(1L, 4));
+        AdmissionTicketDTO second = admissionService.issueTicket(request(1L, 2));
+        
+        ReflectionTestUtils.setField(admissionService, "lastAdvance", System.currentTimeMillis() - 1000);
+        admissionService.advance();
+        
+        assertEquals(AdmissionStatus.ADMITTED, admissionService.getTicket(first.getTicketId(), USER_ID).getStatus());
+        assertEquals(AdmissionStatus.REJECTED, admissionService.getTicket(second.getTicketId(), USER_ID).getStatus());
+        assertEquals(AdmissionStatus.REJECTED, admissionService.issueTicket(request(1L, 2)).getStatus());
+        assertEquals(AdmissionStatus.WAITING, admissionService.issueTicket(request(1L, 1)).getStatus());
+    }
+    
+    @Test
+    void admit_ShouldOnlyRunBookingsWithAnAdmittedTicket() {
+        AdmissionTicketDTO ticket = admissionService.issueTicket(request(1L, 2));
+        BookingRequestDTO bookingRequest = bookingRequest(1L, 2);
+        
+        assertThrows(AdmissionRequiredException.class,
+                () -> admissionService.admit(null, bookingRequest, () -> "booked"));
+        assertThrows(AdmissionRequiredException.class,
+                () -> admissionService.admit(ticket.getTicketId(), bookingRequest, () -> "booked"));
+        
+        ReflectionTestUtils.setField(admissionService, "lastAdvance", System.currentTimeMillis() - 1000);
+        admissionService.advance();
+        
+        assertEquals("booked", admissionService.admit(ticket.getTicketId(), bookingRequest, () -> "booked"));
+        // A ticket is good for one booking only
+        assertThrows(RuntimeException.class,
+                () -> admissionService.admit(ticket.getTicketId(), bookingRequest, () -> "booked"));
+    }
+    
+    @Test
+    void issueTicket_ShouldRejectOnlyStopRangesWhoseSegmentsAreCovered() {
+        ReflectionTestUtils.setField(admissionService, "ratePerSecond", 100.0);
+        AdmissionTicketDTO first = admissionService.issueTicket(request(2L, 2, "A", "B"));
+        
+        ReflectionTestUtils.setField(admissionService, "lastAdvance", System.currentTimeMillis() - 1000);
+        admissionService.advance();
+        
+        assertEquals(AdmissionStatus.ADMITTED, admissionService.getTicket(first.getTicketId(), USER_ID).getStatus());
+        assertEquals(AdmissionStatus.REJECTED, admissionService.issueTicket(request(2L, 1, null, null)).getStatus());
+        assertEquals(AdmissionStatus.REJECTED, admissionService.issueTicket(request(2L, 1, "a", "b")).getStatus());
+        assertEquals(AdmissionStatus.WAITING, admissionService.issueTicket(request(2L, 3, "B", "C")).getStatus());
+        assertThrows(IllegalArgumentException.class, () -> admissionService.issueTicket(request(2L, 1, "C", "A")));
+    }
+    
+    @Test
+    void admit_ShouldOnlyAcceptTicketsOfTheBookingUserForTheirStops() {
+        AdmissionTicketDTO ticket = admissionService.issueTicket(request(2L, 1, "B", "C"));
+        ReflectionTestUtils.setField(admissionService, "lastAdvance", System.currentTimeMillis() - 1000);
+        admissionService.advance();
+        
+        BookingRequestDTO otherUser = bookingRequest(2L, 1);
+        otherUser.setUserId(8L);
+        otherUser.setFromStation("B");
+        assertThrows(UserAccessDeniedException.class, () -> admissionService.getTicket(ticket.getTicketId(), 8L));
+        assertThrows(UserAccessDeniedException.class,
+                () -> admissionService.admit(ticket.getTicketId(), otherUser, () -> "booked"));
+        
+        BookingRequestDTO wholeRoute = bookingRequest(2L, 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> admissionService.admit(ticket.getTicketId(), wholeRoute, () -> "booked"));
+        
+        BookingRequestDTO fromB = bookingRequest(2L, 1);
+        fromB.setFromStation("B");
+        assertEquals("booked", admissionService.admit(ticket.getTicketId(), fromB, () -> "booked"));
+    }
+    
+    private static AdmissionRequestDTO request(Long scheduleId, int seats) {
+        return request(scheduleId, seats, null, null);
+    }
+    
+    private static AdmissionRequestDTO request(Long scheduleId, int seats, String fromStation, String toStation) {
+        return new AdmissionRequestDTO(USER_ID, scheduleId, seats, fromStation, toStation);
+    }
+    
+    private static BookingRequestDTO bookingRequest(Long scheduleId, int seats) {
+        BookingRequestDTO bookingRequest = new BookingRequestDTO();
+        bookingRequest.setUserId(USER_ID);
+        bookingRequest.setScheduleId(scheduleId);
+        bookingRequest.setSeatCount(seats);
+        return bookingRequest;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.projection.BookingVersion;
+import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.CacheStatsDTO;
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import com.skm_labs.train_booking_system.event.BookingChangedEvent;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.service.BookingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the PNR lookup cache
+ */
+class BookingCacheServiceImplTest {
+    
+    private BookingService bookingService;
+    private BookingCacheServiceImpl bookingCacheService;
+    
+    @BeforeEach
+    void setUp() {
+        bookingService = mock(BookingService.class);
+        bookingCacheService = new BookingCacheServiceImpl(bookingService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bookingCacheService, "enabled", true);
+        ReflectionTestUtils.setField(bookingCacheService, "maximumSize", 100L);
+        ReflectionTestUtils.setField(bookingCacheService, "ttlSeconds", 60L);
+        bookingCacheService.init();
+    }
+    
+    @Test
+    void getBookingByPnr_ShouldServeRepeatedLookupsFromTheCache() {
+        when(bookingService.getBookingByPnr("PNR1")).thenReturn(booking(1L, BookingStatus.CONFIRMED));
+        
+        bookingCacheService.getBookingByPnr("PNR1");
+        bookingCacheService.getBookingByPnr("PNR1");
+        bookingCacheService.getBookingByPnr("PNR1");
+        
+        verify(bookingService, times(1)).getBookingByPnr("PNR1");
+        CacheStatsDTO stats = bookingCacheService.getStats();
+        assertEquals(2L, stats.getHitCount());
+        assertEquals(1L, stats.getMissCount());
+        assertEquals(1L, stats.getSize());
+    }
+    
+    @Test
+    void onBookingChanged_ShouldReloadTheChangedBooking() {
+        when(bookingService.getBookingByPnr("PNR1"))
+                .thenReturn(booking(1L, BookingStatus.CONFIRMED))
+                .thenReturn(booking(1L, BookingStatus.CANCELLED));
+        assertEquals(BookingStatus.CONFIRMED, bookingCacheService.getBookingByPnr("PNR1").getBookingStatus());
+        
+        bookingCacheService.onBookingChanged(new BookingChangedEvent(1L, "PNR1"));
+        
+        assertEquals(BookingStatus.CANCELLED, bookingCacheService.getBookingByPnr("PNR1").getBookingStatus());
+        assertEquals(1L, bookingCacheService.getStats().getInvalidationCount());
+    }
+    
+    @Test
+    void onScheduleChanged_ShouldDropTheBookingsOfThatScheduleOnly() {
+        BookingResponseDTO changed = booking(1L, BookingStatus.CONFIRMED);
+        changed.setScheduleId(10L);
+        changed.setVersion(3L);
+        changed.setScheduleVersion(1L);
+        BookingResponseDTO other = booking(2L, BookingStatus.CONFIRMED);
+        other.setScheduleId(20L);
+        when(bookingService.getBookingByPnr("PNR1")).thenReturn(changed);
+        when(bookingService.getBookingByPnr("PNR4")).thenReturn(other);
+        when(bookingService.getBookingVersion("PNR1")).thenReturn(new BookingVersion(1L, 2L, 5L));
+        bookingCacheService.getBookingByPnr("PNR1");
+        bookingCacheService.getBookingByPnr("PNR4");
+        
+        bookingCacheService.onScheduleChanged(new ScheduleChangedEvent(10L));
+        
+        // The version now comes from the database, so a stale ETag no longer matches
+        assertEquals(new BookingVersion(1L, 2L, 5L), bookingCacheService.getVersion("PNR1"));
+        assertEquals(1L, bookingCacheService.getStats().getSize());
+        assertEquals(1L, bookingCacheService.getStats().getInvalidationCount());
+    }
+    
+    @Test
+    void getBookingByPnr_ShouldNotCacheJournaledBookings() {
+        when(bookingService.getBookingByPnr("PNR2")).thenReturn(booking(null, BookingStatus.CONFIRMED));
+        
+        assertEquals("PNR2", bookingCacheService.getBookingByPnr("PNR2").getPnrNumber());
+        bookingCacheService.getBookingByPnr("PNR2");
+        
+        verify(bookingService, times(2)).getBookingByPnr("PNR2");
+        assertEquals(0L, bookingCacheService.getStats().getSize());
+    }
+    
+    @Test
+    void getVersion_ShouldPreferTheCachedResponseWithoutCountingALookup() {
+        BookingResponseDTO cached = booking(1L, BookingStatus.CONFIRMED);
+        cached.setVersion(3L);
+        cached.setScheduleVersion(7L);
+        cached.setUserId(5L);
+        when(bookingService.getBookingByPnr("PNR1")).thenReturn(cached);
+        when(bookingService.getBookingVersion("PNR3")).thenReturn(new BookingVersion(1L, 2L, 5L));
+        bookingCacheService.getBookingByPnr("PNR1");
+        
+        assertEquals(new BookingVersion(3L, 7L, 5L), bookingCacheService.getVersion("PNR1"));
+        assertEquals(new BookingVersion(1L, 2L, 5L), bookingCacheService.getVersion("PNR3"));
+        verify(bookingService, never()).getBookingVersion("PNR1");
+        assertEquals(0L, bookingCacheService.getStats().getHitCount());
+    }
+    
+    private BookingResponseDTO booking(Long bookingId, BookingStatus status) {
+        return BookingResponseDTO.builder()
+                .bookingId(bookingId)
+                .pnrNumber(bookingId == null ? "PNR2" : "PNR1")
+                .bookingStatus(status)
+                .build();
+    }
+}
\ No newline at end of file
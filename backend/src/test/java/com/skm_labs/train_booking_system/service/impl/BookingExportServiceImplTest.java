@@ -0,0 +1,155 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skm_labs.train_booking_system.entity.Booking;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.User;
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.repository.BookingExportRepository;
+import com.skm_labs.train_booking_system.service.BookingExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the streaming booking export against an in-memory database
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookingExportServiceImplTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 10);
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private BookingExportServiceImpl bookingExportService;
+    
+    @BeforeEach
+    void setUp() {
+        BookingExportRepository bookingExportRepository = new BookingExportRepository(jdbcTemplate);
+        ReflectionTestUtils.setField(bookingExportRepository, "fetchSize", 2);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        bookingExportService = new BookingExportServiceImpl(bookingExportRepository, objectMapper);
+        
+        User user = new User();
+        user.setEmail("finance@email.com");
+        user.setPassword("secret");
+        user.setFirstName("Finance");
+        user.setLastName("User");
+        entityManager.persist(user);
+        Schedule schedule = schedule();
+        
+        booking(user, schedule, "Before", DAY.minusDays(1).atTime(23, 59), null, null);
+        booking(user, schedule, "Smith, \"Jo\"", DAY.atTime(8, 0), 1, 2);
+        booking(user, schedule, "Plain", DAY.atTime(9, 0), null, null);
+        booking(user, schedule, "Later", DAY.plusDays(1).atTime(10, 0), null, null);
+        booking(user, schedule, "After", DAY.plusDays(2).atStartOfDay(), null, null);
+    }
+    
+    @Test
+    void export_ShouldWriteOneJsonObjectPerLineInBookingOrder() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        long rows = bookingExportService.export(DAY, DAY.plusDays(1), BookingExportService.Format.NDJSON, output);
+        
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, rows);
+        assertEquals(4, lines.length);
+        assertEquals("", lines[3]);
+        
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals("Smith, \"Jo\"", first.get("passengerName").asText());
+        assertEquals("Agra", first.get("departureStation").asText());
+        assertEquals("Jhansi", first.get("arrivalStation").asText());
+        assertEquals("1,2", first.get("seatNumbers").asText());
+        assertEquals("2030-01-10T08:00:00", first.get("bookingDate").asText());
+        assertEquals("Delhi", new ObjectMapper().readTree(lines[1]).get("departureStation").asText());
+        assertEquals("Later", new ObjectMapper().readTree(lines[2]).get("passengerName").asText());
+    }
+    
+    @Test
+    void export_ShouldQuoteCsvFieldsThatNeedIt() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        long rows = bookingExportService.export(DAY, DAY, BookingExportService.Format.CSV, output);
+        
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertEquals(16, lines[0].split(",").length);
+        assertEquals(",T1,2030-02-01,Agra,Jhansi,\"Smith, \"\"Jo\"\"\",finance@email.com,,2,\"1,2\",200.0,CONFIRMED,2030-01-10T08:00",
+                lines[1].substring(lines[1].indexOf(",T1,")));
+    }
+    
+    private Schedule schedule() {
+        Train train = new Train(null, "T1", "Train T1", TrainType.SECOND_CLASS, 100, 100, null);
+        entityManager.persist(train);
+        
+        Schedule schedule = new Schedule();
+        schedule.setTrain(train);
+        schedule.setDepartureStation("Delhi");
+        schedule.setArrivalStation("Jhansi");
+        schedule.setDepartureDate(LocalDate.of(2030, 2, 1));
+        schedule.setDepartureTime(LocalTime.of(6, 0));
+        schedule.setArrivalTime(LocalTime.of(10, 30));
+        schedule.setFare(100.0);
+        schedule.setAvailableSeats(100);
+        schedule.setStops(new ArrayList<>(List.of(
+                new ScheduleStop("Delhi", null, LocalTime.of(6, 0)),
+                new ScheduleStop("Agra", LocalTime.of(7, 55), LocalTime.of(8, 0)),
+                new ScheduleStop("Jhansi", LocalTime.of(10, 30), null))));
+        entityManager.persist(schedule);
+        return schedule;
+    }
+    
+    private void booking(User user, Schedule schedule, String passengerName, LocalDateTime bookingDate,
+                         Integer fromStop, Integer toStop) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setSchedule(schedule);
+        booking.setPassengerName(passengerName);
+        booking.setPassengerEmail(user.getEmail());
+        booking.setSeatCount(2);
+        booking.setSeatNumbers(new ArrayList<>(List.of(1, 2)));
+        booking.setFromStopIndex(fromStop);
+        booking.setToStopIndex(toStop);
+        booking.setTotalAmount(200.0);
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+        booking.setPnrNumber("PNR" + passengerName.hashCode());
+        entityManager.persist(booking);
+        entityManager.flush();
+        
+        // The booking date is set on insert, move it to the time under test
+        entityManager.createNativeQuery("UPDATE bookings SET booking_date = ?1 WHERE id = ?2")
+                .setParameter(1, bookingDate)
+                .setParameter(2, booking.getId())
+                .executeUpdate();
+    }
+}
\ No newline at end of file
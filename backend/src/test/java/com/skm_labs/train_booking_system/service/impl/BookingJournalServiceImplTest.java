@@ -0,0 +1,188 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skm_labs.train_booking_system.entity.Booking;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.User;
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import com.skm_labs.train_booking_system.repository.BookingBatchRepository;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.EmailService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.service.SeatMapService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for applying and replaying the booking journal when some bookings cannot be written
+ */
+class BookingJournalServiceImplTest {
+    
+    @TempDir
+    private Path directory;
+    
+    private BookingBatchRepository bookingBatchRepository;
+    private SeatInventoryService seatInventoryService;
+    private SeatMapService seatMapService;
+    private EmailService emailService;
+    private SimpleMeterRegistry meterRegistry;
+    private BookingJournalServiceImpl journalService;
+    private final List<String> written = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+    private boolean databaseDown;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        bookingBatchRepository = mock(BookingBatchRepository.class);
+        doAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            if (bookings.stream().anyMatch(booking -> rejected.contains(booking.getPnrNumber()))) {
+                throw new DataIntegrityViolationException("Cannot add or update a child row");
+            }
+            bookings.forEach(booking -> written.add(booking.getPnrNumber()));
+            return null;
+        }).when(bookingBatchRepository).insertAll(anyList());
+        
+        seatInventoryService = mock(SeatInventoryService.class);
+        seatMapService = mock(SeatMapService.class);
+        emailService = mock(EmailService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        
+        journalService = newJournalService();
+        journalService.replay();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        journalService.shutdown();
+    }
+    
+    @Test
+    void apply_ShouldDeadLetterAConstraintViolationAndApplyTheRest() throws IOException {
+        rejected.add("PNR2");
+        journalService.append(booking("PNR1"));
+        journalService.append(booking("PNR2"));
+        journalService.append(booking("PNR3"));
+        
+        assertEquals(3, journalService.apply());
+        
+        assertEquals(List.of("PNR1", "PNR3"), written);
+        assertTrue(journalService.findPending("PNR2").isEmpty());
+        String deadLetters = Files.readString(directory.resolve("dead-letter.ndjson"));
+        assertTrue(deadLetters.contains("\"pnrNumber\":\"PNR2\""), deadLetters);
+        
+        // Later bookings are no longer held back
+        journalService.append(booking("PNR4"));
+        assertEquals(1, journalService.apply());
+        assertEquals(List.of("PNR1", "PNR3", "PNR4"), written);
+    }
+    
+    @Test
+    void apply_ShouldReleaseTheSeatsOfADeadLetterAndRaiseTheAlert() {
+        rejected.add("PNR1");
+        Booking booking = booking("PNR1");
+        booking.setSeatCount(2);
+        booking.setSeatNumbers(List.of(4, 5));
+        booking.setPassengerEmail("passenger@email.com");
+        booking.setPassengerName("Passenger");
+        journalService.append(booking);
+        
+        assertEquals(1, journalService.apply());
+        
+        verify(seatInventoryService).release(1L, 2);
+        verify(seatMapService).release(1L, List.of(4, 5));
+        verify(emailService).sendCancellationEmail("passenger@email.com", "Passenger", "PNR1");
+        assertEquals(1.0, meterRegistry.counter("booking.journal.dead_letters").count());
+    }
+    
+    @Test
+    void replay_ShouldFailStartupWhileReplayedBookingsCannotBeWritten() throws IOException {
+        databaseDown = true;
+        journalService.append(booking("PNR1"));
+        journalService.shutdown();
+        
+        BookingJournalServiceImpl restarted = newJournalService();
+        assertThrows(IllegalStateException.class, restarted::replay);
+        restarted.shutdown();
+        
+        // Once the database is back the booking is written before the inventory is rebuilt
+        databaseDown = false;
+        journalService = newJournalService();
+        journalService.replay();
+        assertEquals(List.of("PNR1"), written);
+        verifyNoInteractions(seatInventoryService);
+    }
+    
+    @Test
+    void apply_ShouldKeepEverythingPendingWhileTheDatabaseIsDown() {
+        databaseDown = true;
+        journalService.append(booking("PNR1"));
+        journalService.append(booking("PNR2"));
+        
+        for (int run = 0; run < 5; run++) {
+            assertEquals(0, journalService.apply());
+        }
+        assertFalse(journalService.findPending("PNR1").isEmpty());
+        assertFalse(Files.exists(directory.resolve("dead-letter.ndjson")));
+        
+        databaseDown = false;
+        assertEquals(2, journalService.apply());
+        assertEquals(List.of("PNR1", "PNR2"), written);
+    }
+    
+    private BookingJournalServiceImpl newJournalService() {
+        BookingJournalServiceImpl service = new BookingJournalServiceImpl(bookingBatchRepository,
+                mock(BookingRepository.class), mock(UserRepository.class), mock(ScheduleRepository.class),
+                seatInventoryService, seatMapService, emailService, new ObjectMapper().findAndRegisterModules(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "directory", directory.toString());
+        ReflectionTestUtils.setField(service, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(service, "applyBatchSize", 100);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        return service;
+    }
+    
+    private static Booking booking(String pnrNumber) {
+        User user = new User();
+        user.setId(1L);
+        Schedule schedule = new Schedule();
+        schedule.setId(1L);
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setSchedule(schedule);
+        booking.setPnrNumber(pnrNumber);
+        booking.setSeatCount(1);
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+        return booking;
+    }
+}
\ No newline at end of file
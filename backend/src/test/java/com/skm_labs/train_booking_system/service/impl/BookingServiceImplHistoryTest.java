@@ -0,0 +1,248 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.request.BookingRequestDTO;
+import com.skm_labs.train_booking_system.dto.request.BookingUpdateDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingHistoryPageDTO;
+import com.skm_labs.train_booking_system.dto.response.BookingResponseDTO;
+import com.skm_labs.train_booking_system.entity.Booking;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.User;
+import com.skm_labs.train_booking_system.entity.enums.BookingStatus;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.exception.UserNotFoundException;
+import com.skm_labs.train_booking_system.repository.BookingBatchRepository;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.BookingJournalService;
+import com.skm_labs.train_booking_system.service.EmailService;
+import com.skm_labs.train_booking_system.service.PnrService;
+import com.skm_labs.train_booking_system.service.ScheduleService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.service.SeatMapService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for the keyset paginated booking history, and for the user check of new
+ * bookings and the status check of updates, against an in-memory database
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookingServiceImplHistoryTest {
+    
+    private static final LocalDateTime BOOKED = LocalDateTime.of(2030, 1, 10, 12, 0);
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private BookingServiceImpl bookingService;
+    private Statistics statistics;
+    private User traveller;
+    private User newcomer;
+    private List<Long> newestFirst;
+    
+    @BeforeEach
+    void setUp() {
+        bookingService = new BookingServiceImpl(bookingRepository, scheduleRepository, userRepository,
+                mock(BookingBatchRepository.class), mock(ScheduleService.class),
+                mock(SeatInventoryService.class), mock(BookingJournalService.class), mock(SeatMapService.class),
+                mock(EmailService.class), mock(PnrService.class), mock(ApplicationEventPublisher.class));
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        
+        traveller = user("traveller@email.com");
+        newcomer = user("newcomer@email.com");
+        Schedule schedule = schedule();
+        
+        // Two bookings share a booking time, the ID decides their order
+        Booking first = booking(traveller, schedule, BookingStatus.CONFIRMED, BOOKED.minusDays(3), null, null);
+        Booking second = booking(traveller, schedule, BookingStatus.CANCELLED, BOOKED.minusDays(2), null, null);
+        Booking third = booking(traveller, schedule, BookingStatus.CONFIRMED, BOOKED.minusDays(1), null, null);
+        Booking fourth = booking(traveller, schedule, BookingStatus.CONFIRMED, BOOKED.minusDays(1), 1, 2);
+        Booking fifth = booking(traveller, schedule, BookingStatus.PENDING, BOOKED, null, null);
+        newestFirst = List.of(fifth.getId(), fourth.getId(), third.getId(), second.getId(), first.getId());
+        entityManager.clear();
+    }
+    
+    @Test
+    void getUserBookings_ShouldWalkAllPagesWithOneStatementEach() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            BookingHistoryPageDTO page = bookingService.getUserBookings(traveller.getId(), null, null, null, cursor, 2);
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            page.getBookings().forEach(booking -> seen.add(booking.getBookingId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        
+        assertEquals(newestFirst, seen);
+        assertEquals(3, pages);
+    }
+    
+    @Test
+    void getUserBookings_ShouldResolveTheBookedStops() {
+        List<BookingResponseDTO> bookings = bookingService.getUserBookings(traveller.getId(), null, null, null, null, 2)
+                .getBookings();
+        
+        BookingResponseDTO wholeRoute = bookings.get(0);
+        assertEquals("Delhi", wholeRoute.getDepartureStation());
+        assertEquals("Jhansi", wholeRoute.getArrivalStation());
+        assertEquals("06:00", wholeRoute.getDepartureTime());
+        assertEquals(List.of(1, 2), wholeRoute.getSeatNumbers());
+        
+        BookingResponseDTO partial = bookings.get(1);
+        assertEquals("Agra", partial.getDepartureStation());
+        assertEquals("Jhansi", partial.getArrivalStation());
+        assertEquals("08:00", partial.getDepartureTime());
+        assertEquals("10:30", partial.getArrivalTime());
+        assertEquals("T1", partial.getTrainNumber());
+    }
+    
+    @Test
+    void getUserBookings_ShouldFilterByStatusAndBookingDate() {
+        BookingHistoryPageDTO confirmed = bookingService.getUserBookings(traveller.getId(), BookingStatus.CONFIRMED,
+                null, null, null, 10);
+        assertEquals(List.of(newestFirst.get(1), newestFirst.get(2), newestFirst.get(4)), ids(confirmed));
+        assertNull(confirmed.getNextCursor());
+        
+        LocalDate day = BOOKED.minusDays(2).toLocalDate();
+        BookingHistoryPageDTO range = bookingService.getUserBookings(traveller.getId(), null, day, day.plusDays(1),
+                null, 10);
+        assertEquals(newestFirst.subList(1, 4), ids(range));
+    }
+    
+    @Test
+    void createBooking_ShouldRejectTheTokenOfADeletedUserBeforeReservingSeats() {
+        BookingRequestDTO bookingRequest = new BookingRequestDTO();
+        bookingRequest.setUserId(newcomer.getId() + 1000);
+        bookingRequest.setScheduleId(1L);
+        bookingRequest.setSeatCount(1);
+        
+        assertThrows(UserNotFoundException.class, () -> bookingService.createBooking(bookingRequest));
+    }
+    
+    @Test
+    void updateBooking_ShouldNotConfirmOrCancelAHold() {
+        Long holdId = newestFirst.get(0);
+        
+        for (BookingStatus status : List.of(BookingStatus.CONFIRMED, BookingStatus.CANCELLED, BookingStatus.EXPIRED)) {
+            BookingUpdateDTO updateRequest = new BookingUpdateDTO();
+            updateRequest.setBookingStatus(status);
+            assertThrows(IllegalArgumentException.class, () -> bookingService.updateBooking(holdId, updateRequest));
+        }
+        
+        BookingUpdateDTO unchanged = new BookingUpdateDTO();
+        unchanged.setPassengerName("Renamed Passenger");
+        unchanged.setBookingStatus(BookingStatus.PENDING);
+        assertEquals(BookingStatus.PENDING, bookingService.updateBooking(holdId, unchanged).getBookingStatus());
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(BookingStatus.PENDING, bookingRepository.findById(holdId).orElseThrow().getBookingStatus());
+    }
+    
+    @Test
+    void getUserBookings_ShouldRejectUnknownUsersAndCursors() {
+        assertTrue(bookingService.getUserBookings(newcomer.getId(), null, null, null, null, 10).getBookings().isEmpty());
+        assertThrows(UserNotFoundException.class,
+                () -> bookingService.getUserBookings(-1L, null, null, null, null, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.getUserBookings(traveller.getId(), null, null, null, "not-a-cursor", 10));
+    }
+    
+    private static List<Long> ids(BookingHistoryPageDTO page) {
+        return page.getBookings().stream().map(BookingResponseDTO::getBookingId).toList();
+    }
+    
+    private User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setPhoneNumber("0123456789");
+        entityManager.persist(user);
+        return user;
+    }
+    
+    private Schedule schedule() {
+        Train train = new Train(null, "T1", "Train T1", TrainType.SECOND_CLASS, 100, 100, null);
+        entityManager.persist(train);
+        
+        Schedule schedule = new Schedule();
+        schedule.setTrain(train);
+        schedule.setDepartureStation("Delhi");
+        schedule.setArrivalStation("Jhansi");
+        schedule.setDepartureDate(LocalDate.of(2030, 2, 1));
+        schedule.setDepartureTime(LocalTime.of(6, 0));
+        schedule.setArrivalTime(LocalTime.of(10, 30));
+        schedule.setFare(100.0);
+        schedule.setAvailableSeats(100);
+        schedule.setStops(new ArrayList<>(List.of(
+                new ScheduleStop("Delhi", null, LocalTime.of(6, 0)),
+                new ScheduleStop("Agra", LocalTime.of(7, 55), LocalTime.of(8, 0)),
+                new ScheduleStop("Jhansi", LocalTime.of(10, 30), null))));
+        entityManager.persist(schedule);
+        return schedule;
+    }
+    
+    private Booking booking(User user, Schedule schedule, BookingStatus status, LocalDateTime bookingDate,
+                            Integer fromStop, Integer toStop) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setSchedule(schedule);
+        booking.setPassengerName("Passenger");
+        booking.setPassengerEmail(user.getEmail());
+        booking.setSeatCount(2);
+        booking.setSeatNumbers(new ArrayList<>(List.of(1, 2)));
+        booking.setFromStopIndex(fromStop);
+        booking.setToStopIndex(toStop);
+        booking.setTotalAmount(200.0);
+        booking.setBookingStatus(status);
+        booking.setPnrNumber("PNR" + bookingDate.getDayOfMonth() + System.nanoTime());
+        entityManager.persist(booking);
+        entityManager.flush();
+        
+        // The booking date is set on insert, move it to the time under test
+        entityManager.createNativeQuery("UPDATE bookings SET booking_date = ?1 WHERE id = ?2")
+                .setParameter(1, bookingDate)
+                .setParameter(2, booking.getId())
+                .executeUpdate();
+        return booking;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.request.SearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.repository.BookingBatchRepository;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.BookingJournalService;
+import com.skm_labs.train_booking_system.service.EmailService;
+import com.skm_labs.train_booking_system.service.PnrService;
+import com.skm_labs.train_booking_system.service.ScheduleService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.service.SeatMapService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests that the database search runs a fixed number of statements against an in-memory database
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookingServiceImplSearchTest {
+    
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 15);
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    private BookingServiceImpl bookingService;
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        // A real inventory, so that loading cold counters is counted as well
+        SeatInventoryService seatInventoryService = new SeatInventoryServiceImpl(scheduleRepository,
+                bookingRepository, new SimpleMeterRegistry());
+        bookingService = new BookingServiceImpl(mock(BookingRepository.class), scheduleRepository,
+                mock(UserRepository.class), mock(BookingBatchRepository.class), mock(ScheduleService.class),
+                seatInventoryService, mock(BookingJournalService.class),
+                mock(SeatMapService.class), mock(EmailService.class), mock(PnrService.class),
+                mock(ApplicationEventPublisher.class));
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void searchTrains_ShouldRunAFixedNumberOfStatementsRegardlessOfMatches() {
+        for (int count : new int[] {1, 5, 20}) {
+            // The match query, then the seat snapshots and segment loads of the new schedules
+            List<TrainScheduleDTO> results = searchCounting(count);
+            assertEquals(count, results.size());
+            assertEquals(3, statistics.getPrepareStatementCount(), "statements for " + count + " cold matches");
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals(0, statistics.getCollectionLoadCount());
+            
+            // Counters stay loaded, so searching again only runs the match query
+            statistics.clear();
+            assertEquals(count, search().size());
+            assertEquals(1, statistics.getPrepareStatementCount(), "statements for " + count + " warm matches");
+        }
+    }
+    
+    @Test
+    void searchTrains_ShouldProjectTheBoardingAndAlightingStops() {
+        TrainScheduleDTO result = searchCounting(1).get(0);
+        
+        assertEquals("Agra", result.getDepartureStation());
+        assertEquals("Jhansi", result.getArrivalStation());
+        assertEquals("2030-01-15", result.getDepartureDate());
+        assertEquals("08:00", result.getDepartureTime());
+        assertEquals("10:30", result.getArrivalTime());
+        assertEquals(50.0, result.getFare());
+        assertEquals(TrainType.SECOND_CLASS, result.getTrainType());
+        assertEquals(100, result.getTotalSeats());
+        assertEquals(100, result.getAvailableSeats());
+    }
+    
+    /**
+     * Store schedules until the route has the given number, then search it with an empty
+     * persistence context so that nothing is served from the first level cache
+     */
+    private List<TrainScheduleDTO> searchCounting(int count) {
+        List<Schedule> existing = scheduleRepository.findAll();
+        for (int i = existing.size(); i < count; i++) {
+            Train train = new Train(null, "T" + i, "Train " + i, TrainType.SECOND_CLASS, 100, 100, null);
+            entityManager.persist(train);
+            
+            Schedule schedule = new Schedule();
+            schedule.setTrain(train);
+            schedule.setDepartureStation("Delhi");
+            schedule.setArrivalStation("Jhansi");
+            schedule.setDepartureDate(DATE);
+            schedule.setDepartureTime(LocalTime.of(6, 0));
+            schedule.setArrivalTime(LocalTime.of(10, 30));
+            schedule.setFare(100.0);
+            schedule.setAvailableSeats(100);
+            schedule.setStops(new ArrayList<>(List.of(
+                    new ScheduleStop("Delhi", null, LocalTime.of(6, 0)),
+                    new ScheduleStop("Agra", LocalTime.of(7, 55), LocalTime.of(8, 0)),
+                    new ScheduleStop("Jhansi", LocalTime.of(10, 30), null))));
+            entityManager.persist(schedule);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        
+        return search();
+    }
+    
+    private List<TrainScheduleDTO> search() {
+        return bookingService.searchTrains(new SearchRequestDTO("Agra", "Jhansi", DATE, 1, 0));
+    }
+}
\ No newline at end of file
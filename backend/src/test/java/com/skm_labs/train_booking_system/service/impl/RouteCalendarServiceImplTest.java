@@ -0,0 +1,144 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.response.RouteCalendarDTO;
+import com.skm_labs.train_booking_system.dto.response.RouteCalendarDayDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.event.SeatAvailabilityChangedEvent;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the route availability calendar against an in-memory database
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class RouteCalendarServiceImplTest {
+    
+    private static final YearMonth MONTH = YearMonth.of(2030, 1);
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    private SeatInventoryService seatInventoryService;
+    private RouteCalendarServiceImpl routeCalendarService;
+    private Schedule cheap;
+    private Schedule expensive;
+    
+    @BeforeEach
+    void setUp() {
+        seatInventoryService = mock(SeatInventoryService.class);
+        routeCalendarService = new RouteCalendarServiceImpl(scheduleRepository, seatInventoryService,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(routeCalendarService, "maximumSize", 100L);
+        ReflectionTestUtils.setField(routeCalendarService, "ttlSeconds", 600L);
+        routeCalendarService.init();
+        
+        expensive = schedule("T1", MONTH.atDay(15), 100.0, 100);
+        cheap = schedule("T2", MONTH.atDay(15), 80.0, 50);
+        schedule("T3", MONTH.atDay(20), 90.0, 30);
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    @Test
+    void getCalendar_ShouldAggregateEveryDayOfTheMonth() {
+        RouteCalendarDTO calendar = routeCalendarService.getCalendar("Agra", "Jhansi", MONTH);
+        
+        assertEquals("2030-01", calendar.getMonth());
+        assertEquals(31, calendar.getDays().size());
+        assertEquals(new RouteCalendarDayDTO(MONTH.atDay(15), 2, 40.0, 150), calendar.getDays().get(14));
+        assertEquals(new RouteCalendarDayDTO(MONTH.atDay(20), 1, 45.0, 30), calendar.getDays().get(19));
+        assertEquals(0, calendar.getDays().get(0).getDepartures());
+        assertNull(calendar.getDays().get(0).getLowestFare());
+    }
+    
+    @Test
+    void onSeatAvailabilityChanged_ShouldUpdateOnlyTheAffectedDay() {
+        routeCalendarService.getCalendar("Agra", "Jhansi", MONTH);
+        routeCalendarService.getCalendar("Delhi", "Agra", MONTH);
+        
+        // A change over the whole run is applied without reading the schedules
+        routeCalendarService.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(expensive.getId(), null, null, -5, 95));
+        assertEquals(145, day(routeCalendarService.getCalendar("Agra", "Jhansi", MONTH), 15).getAvailableSeats());
+        assertEquals(145, day(routeCalendarService.getCalendar("Delhi", "Agra", MONTH), 15).getAvailableSeats());
+        
+        // A partial change re-counts the day from the seat inventory on the routes it overlaps
+        when(seatInventoryService.getAvailableSeats(expensive.getId(), 1, 2)).thenReturn(95);
+        when(seatInventoryService.getAvailableSeats(cheap.getId(), 1, 2)).thenReturn(40);
+        routeCalendarService.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(cheap.getId(), 1, 2, -10, 40));
+        RouteCalendarDTO calendar = routeCalendarService.getCalendar("Agra", "Jhansi", MONTH);
+        assertEquals(135, day(calendar, 15).getAvailableSeats());
+        assertEquals(30, day(calendar, 20).getAvailableSeats());
+        assertEquals(145, day(routeCalendarService.getCalendar("Delhi", "Agra", MONTH), 15).getAvailableSeats());
+    }
+    
+    @Test
+    void onScheduleChanged_ShouldReloadTheCalendarsOfTheSchedule() {
+        routeCalendarService.getCalendar("Agra", "Jhansi", MONTH);
+        schedule("T4", MONTH.atDay(15), 20.0, 10);
+        Schedule added = scheduleRepository.findAll().get(3);
+        when(seatInventoryService.getAvailableSeats(added.getId(), 1, 2)).thenReturn(10);
+        
+        routeCalendarService.onScheduleChanged(new ScheduleChangedEvent(added.getId()));
+        
+        assertEquals(new RouteCalendarDayDTO(MONTH.atDay(15), 3, 10.0, 160),
+                day(routeCalendarService.getCalendar("Agra", "Jhansi", MONTH), 15));
+    }
+    
+    private static RouteCalendarDayDTO day(RouteCalendarDTO calendar, int dayOfMonth) {
+        return calendar.getDays().get(dayOfMonth - 1);
+    }
+    
+    private Schedule schedule(String trainNumber, LocalDate date, double fare, int availableSeats) {
+        Train train = new Train(null, trainNumber, "Train " + trainNumber, TrainType.SECOND_CLASS, 100, 100, null);
+        entityManager.persist(train);
+        
+        Schedule schedule = new Schedule();
+        schedule.setTrain(train);
+        schedule.setDepartureStation("Delhi");
+        schedule.setArrivalStation("Jhansi");
+        schedule.setDepartureDate(date);
+        schedule.setDepartureTime(LocalTime.of(6, 0));
+        schedule.setArrivalTime(LocalTime.of(10, 30));
+        schedule.setFare(fare);
+        schedule.setAvailableSeats(availableSeats);
+        schedule.setStops(new ArrayList<>(List.of(
+                new ScheduleStop("Delhi", null, LocalTime.of(6, 0)),
+                new ScheduleStop("Agra", LocalTime.of(7, 55), LocalTime.of(8, 0)),
+                new ScheduleStop("Jhansi", LocalTime.of(10, 30), null))));
+        entityManager.persist(schedule);
+        // The inventory, not the stored column, is what the calendar shows
+        when(seatInventoryService.getAvailableSeats(eq(schedule.getId()), anyInt(), anyInt())).thenReturn(availableSeats);
+        return schedule;
+    }
+}
\ No newline at end of file
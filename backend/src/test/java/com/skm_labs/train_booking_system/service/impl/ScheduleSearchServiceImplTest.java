@@ -0,0 +1,216 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.skm_labs.train_booking_system.dto.request.SearchRequestDTO;
+import com.skm_labs.train_booking_system.dto.response.DailySearchResultDTO;
+import com.skm_labs.train_booking_system.dto.response.TrainScheduleDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.event.SeatAvailabilityChangedEvent;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.service.BookingService;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the in-memory train search index
+ */
+class ScheduleSearchServiceImplTest {
+    
+    private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+    
+    private ScheduleRepository scheduleRepository;
+    private SeatInventoryService seatInventoryService;
+    private BookingService bookingService;
+    private ScheduleSearchServiceImpl scheduleSearchService;
+    
+    @BeforeEach
+    void setUp() {
+        scheduleRepository = mock(ScheduleRepository.class);
+        seatInventoryService = mock(SeatInventoryService.class);
+        bookingService = mock(BookingService.class);
+        when(seatInventoryService.getAvailableSeats(anyLong(), anyInt(), anyInt())).thenReturn(10);
+        
+        scheduleSearchService = new ScheduleSearchServiceImpl(scheduleRepository, seatInventoryService, bookingService);
+        ReflectionTestUtils.setField(scheduleSearchService, "enabled", true);
+        ReflectionTestUtils.setField(scheduleSearchService, "retainDays", 1);
+    }
+    
+    @Test
+    void searchTrains_ShouldMatchEveryOrderedPairOfStopsSortedByDeparture() {
+        Schedule late = schedule(1L, "10:00", "Delhi", "Agra", "Jhansi");
+        Schedule early = schedule(2L, "06:00", "Delhi", "Agra");
+        when(scheduleRepository.findWithTrainAndStopsFrom(any())).thenReturn(List.of(late, early));
+        scheduleSearchService.rebuild();
+        
+        List<TrainScheduleDTO> results = scheduleSearchService.searchTrains(search("delhi", "AGRA", 1));
+        assertEquals(List.of(2L, 1L), results.stream().map(TrainScheduleDTO::getScheduleId).toList());
+        
+        TrainScheduleDTO partial = scheduleSearchService.searchTrains(search("Agra", "Jhansi", 1)).get(0);
+        assertEquals("Agra", partial.getDepartureStation());
+        assertEquals("11:00", partial.getDepartureTime());
+        assertEquals(50.0, partial.getFare());
+        assertEquals(10, partial.getAvailableSeats());
+        
+        assertTrue(scheduleSearchService.searchTrains(search("Jhansi", "Delhi", 1)).isEmpty());
+        verify(bookingService, never()).searchTrains(any());
+    }
+    
+    @Test
+    void searchTrains_ShouldFilterOnLiveSeats() {
+        when(scheduleRepository.findWithTrainAndStopsFrom(any()))
+                .thenReturn(List.of(schedule(1L, "10:00", "Delhi", "Agra", "Jhansi")));
+        when(seatInventoryService.getAvailableSeats(1L, 0, 2)).thenReturn(1);
+        scheduleSearchService.rebuild();
+        
+        assertEquals(1, scheduleSearchService.searchTrains(search("Delhi", "Agra", 2)).size());
+        assertTrue(scheduleSearchService.searchTrains(search("Delhi", "Jhansi", 2)).isEmpty());
+    }
+    
+    @Test
+    void searchTrains_ShouldSpliceTheCachedJsonWithTheLiveSeats() throws Exception {
+        ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+        when(scheduleRepository.findWithTrainAndStopsFrom(any()))
+                .thenReturn(List.of(schedule(1L, "10:00", "Delhi", "Agra", "Jhansi")));
+        scheduleSearchService.rebuild();
+        
+        List<TrainScheduleDTO> results = scheduleSearchService.searchTrains(search("Delhi", "Agra", 1));
+        assertEquals(json.writeValueAsString(new ArrayList<>(results)), json.writeValueAsString(results));
+        
+        // The second response comes from the cached fragment
+        when(seatInventoryService.getAvailableSeats(1L, 0, 1)).thenReturn(7);
+        results = scheduleSearchService.searchTrains(search("Delhi", "Agra", 1));
+        assertTrue(json.writeValueAsString(results).contains("\"availableSeats\":7,"));
+        assertEquals(json.writeValueAsString(new ArrayList<>(results)), json.writeValueAsString(results));
+        
+        // An updated schedule is serialized again
+        Schedule updated = schedule(1L, "10:00", "Delhi", "Agra", "Jhansi");
+        updated.setFare(300.0);
+        when(scheduleRepository.findWithTrainAndStopsById(1L)).thenReturn(Optional.of(updated));
+        scheduleSearchService.onScheduleChanged(new ScheduleChangedEvent(1L));
+        results = scheduleSearchService.searchTrains(search("Delhi", "Agra", 1));
+        assertTrue(json.writeValueAsString(results).contains("\"fare\":150.0,"));
+        
+        // Binary encodings serialize the DTOs
+        CBORMapper cbor = new CBORMapper();
+        assertEquals(results, List.of(cbor.readValue(cbor.writeValueAsBytes(results), TrainScheduleDTO[].class)));
+    }
+    
+    @Test
+    void onScheduleChanged_ShouldMoveAnUpdatedScheduleToItsNewRoute() {
+        when(scheduleRepository.findWithTrainAndStopsFrom(any()))
+                .thenReturn(List.of(schedule(1L, "10:00", "Delhi", "Agra")));
+        scheduleSearchService.rebuild();
+        
+        when(scheduleRepository.findWithTrainAndStopsById(1L))
+                .thenReturn(Optional.of(schedule(1L, "10:00", "Delhi", "Jaipur")));
+        scheduleSearchService.onScheduleChanged(new ScheduleChangedEvent(1L));
+        
+        assertTrue(scheduleSearchService.searchTrains(search("Delhi", "Agra", 1)).isEmpty());
+        assertEquals(1, scheduleSearchService.searchTrains(search("Delhi", "Jaipur", 1)).size());
+    }
+    
+    @Test
+    void searchTrainsFlexible_ShouldGroupTheWindowByDay() {
+        Schedule cheap = schedule(1L, "10:00", "Delhi", "Agra");
+        cheap.setFare(40.0);
+        Schedule nextDay = schedule(2L, "10:00", "Delhi", "Agra");
+        nextDay.setDepartureDate(TOMORROW.plusDays(1));
+        when(scheduleRepository.findWithTrainAndStopsFrom(any()))
+                .thenReturn(List.of(cheap, schedule(3L, "12:00", "Delhi", "Agra"), nextDay));
+        scheduleSearchService.rebuild();
+        
+        List<DailySearchResultDTO> days = scheduleSearchService.searchTrainsFlexible(
+                new SearchRequestDTO("Delhi", "Agra", TOMORROW, 1, 1));
+        
+        assertEquals(List.of(TOMORROW.minusDays(1), TOMORROW, TOMORROW.plusDays(1)),
+                days.stream().map(DailySearchResultDTO::getDate).toList());
+        assertEquals(0, days.get(0).getTrainCount());
+        assertEquals(2, days.get(1).getTrainCount());
+        assertEquals(40.0, days.get(1).getCheapestFare());
+        assertEquals(20, days.get(1).getAvailableSeats());
+        assertEquals(1, days.get(2).getTrainCount());
+        verify(bookingService, never()).searchTrainsFlexible(any());
+    }
+    
+    @Test
+    void getVersion_ShouldChangeOnlyWithTheRoutesOfTheSearch() {
+        when(scheduleRepository.findWithTrainAndStopsFrom(any())).thenReturn(List.of(
+                schedule(1L, "10:00", "Delhi", "Agra", "Jhansi"), schedule(2L, "10:00", "Delhi", "Jaipur")));
+        scheduleSearchService.rebuild();
+        String agra = scheduleSearchService.getVersion(search("Delhi", "Agra", 1));
+        String jaipur = scheduleSearchService.getVersion(search("Delhi", "Jaipur", 1));
+        
+        // Seats of the first schedule change, a rolled back change counts as well
+        scheduleSearchService.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(1L, 1, 2, -1, 9));
+        assertNotEquals(agra, scheduleSearchService.getVersion(search("Delhi", "Agra", 1)));
+        assertEquals(jaipur, scheduleSearchService.getVersion(search("Delhi", "Jaipur", 1)));
+        
+        // The flexible window sees a change on any of its days
+        String window = scheduleSearchService.getVersion(new SearchRequestDTO("Delhi", "Jaipur", TOMORROW.plusDays(1), 1, 1));
+        Schedule moved = schedule(3L, "10:00", "Delhi", "Jaipur");
+        moved.setDepartureDate(TOMORROW.plusDays(2));
+        when(scheduleRepository.findWithTrainAndStopsById(3L)).thenReturn(Optional.of(moved));
+        scheduleSearchService.index(3L);
+        assertNotEquals(window, scheduleSearchService.getVersion(new SearchRequestDTO("Delhi", "Jaipur", TOMORROW.plusDays(1), 1, 1)));
+        assertEquals(jaipur, scheduleSearchService.getVersion(search("Delhi", "Jaipur", 1)));
+        
+        // Searches answered by the database have no version
+        assertNull(scheduleSearchService.getVersion(new SearchRequestDTO("Delhi", "Agra", LocalDate.now().minusDays(5), 1, 0)));
+    }
+    
+    private SearchRequestDTO search(String from, String to, int seats) {
+        return new SearchRequestDTO(from, to, TOMORROW, seats, 0);
+    }
+    
+    /**
+     * Schedule calling at the given stations one hour apart, with a fare of 50 per segment
+     */
+    private Schedule schedule(Long id, String departure, String... stations) {
+        Train train = new Train();
+        train.setId(id);
+        train.setTrainNumber("T" + id);
+        train.setTrainName("Train " + id);
+        train.setTrainType(TrainType.SECOND_CLASS);
+        train.setTotalSeats(10);
+        
+        LocalTime time = LocalTime.parse(departure);
+        List<ScheduleStop> stops = new ArrayList<>();
+        for (int i = 0; i < stations.length; i++) {
+            stops.add(new ScheduleStop(stations[i], i > 0 ? time.plusHours(i) : null,
+                    i < stations.length - 1 ? time.plusHours(i) : null));
+        }
+        
+        Schedule schedule = new Schedule();
+        schedule.setId(id);
+        schedule.setTrain(train);
+        schedule.setDepartureDate(TOMORROW);
+        schedule.setFare(50.0 * (stations.length - 1));
+        schedule.setStops(stops);
+        return schedule;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skm_labs.train_booking_system.dto.response.PageResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.ScheduleResponseDTO;
+import com.skm_labs.train_booking_system.dto.response.ScheduleSummaryDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.entity.Train;
+import com.skm_labs.train_booking_system.entity.enums.TrainType;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import com.skm_labs.train_booking_system.repository.TrainRepository;
+import com.skm_labs.train_booking_system.service.SeatInventoryService;
+import com.skm_labs.train_booking_system.service.SeatMapService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the admin schedule operations against an in-memory database. Every response
+ * is serialized after the persistence context is cleared, so a response that still
+ * references an unloaded association fails just like it would with open-in-view off.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ScheduleServiceImplTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 15);
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private TrainRepository trainRepository;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SeatInventoryService seatInventoryService;
+    private ApplicationEventPublisher eventPublisher;
+    private ScheduleServiceImpl scheduleService;
+    private Statistics statistics;
+    private Schedule morning;
+    private Schedule evening;
+    
+    @BeforeEach
+    void setUp() {
+        seatInventoryService = mock(SeatInventoryService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        scheduleService = new ScheduleServiceImpl(scheduleRepository, trainRepository, seatInventoryService,
+                mock(SeatMapService.class), eventPublisher);
+        when(seatInventoryService.getAvailableSeats(anyLong())).thenReturn(100);
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        
+        morning = schedule("T1", DAY, LocalTime.of(6, 0), 120.0);
+        evening = schedule("T2", DAY, LocalTime.of(18, 0), 90.0);
+        schedule("T3", DAY.plusDays(1), LocalTime.of(6, 0), 100.0);
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    @Test
+    void getSchedules_ShouldSelectOnePageOfSummariesWithoutLoadingEntities() {
+        statistics.clear();
+        
+        PageResponseDTO<ScheduleSummaryDTO> page = afterTransaction(() ->
+                scheduleService.getSchedules(null, null, null, null, null, 0, 2, null, Sort.Direction.ASC));
+        
+        assertEquals(List.of(morning.getId(), evening.getId()), scheduleIds(page));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        assertEquals("T1", page.getContent().get(0).getTrainNumber());
+        assertEquals(3, page.getContent().get(0).getStopCount());
+        // The page and the count, no schedule, train, stop or booking is loaded
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+    
+    @Test
+    void getSchedules_ShouldFilterAndSort() {
+        PageResponseDTO<ScheduleSummaryDTO> page = scheduleService.getSchedules(DAY, DAY, "Delhi", null, null,
+                0, 20, "fare", Sort.Direction.ASC);
+        
+        assertEquals(List.of(evening.getId(), morning.getId()), scheduleIds(page));
+        
+        page = scheduleService.getSchedules(null, null, null, null, "T2", 0, 20, null, Sort.Direction.ASC);
+        assertEquals(List.of(evening.getId()), scheduleIds(page));
+    }
+    
+    @Test
+    void getSchedules_ShouldRejectUnknownSortField() {
+        assertThrows(IllegalArgumentException.class, () ->
+                scheduleService.getSchedules(null, null, null, null, null, 0, 20, "bookings", Sort.Direction.ASC));
+    }
+    
+    @Test
+    void getSchedule_ShouldLoadTrainAndStopsWithOneStatement() {
+        statistics.clear();
+        
+        ScheduleResponseDTO schedule = afterTransaction(() -> scheduleService.getSchedule(morning.getId()));
+        
+        assertEquals("T1", schedule.getTrainNumber());
+        assertEquals(3, schedule.getStops().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void updateSchedule_ShouldReplaceTheTimetableAndPublishTheChange() {
+        Schedule update = new Schedule();
+        update.setFare(150.0);
+        update.setStops(new ArrayList<>(List.of(
+                new ScheduleStop("Delhi", null, LocalTime.of(7, 0)),
+                new ScheduleStop("Mathura", LocalTime.of(8, 25), LocalTime.of(8, 30)),
+                new ScheduleStop("Jhansi", LocalTime.of(11, 30), null))));
+        
+        ScheduleResponseDTO updated = afterTransaction(() -> scheduleService.updateSchedule(morning.getId(), update));
+        
+        assertEquals(LocalTime.of(7, 0), updated.getDepartureTime());
+        assertEquals("Mathura", updated.getStops().get(1).getStationName());
+        verify(eventPublisher).publishEvent(new ScheduleChangedEvent(morning.getId()));
+        Schedule stored = scheduleRepository.findWithTrainAndStopsById(morning.getId()).orElseThrow();
+        assertEquals(150.0, stored.getFare());
+        assertEquals(DAY, stored.getDepartureDate());
+        assertEquals(LocalTime.of(11, 30), stored.getArrivalTime());
+    }
+    
+    @Test
+    void updateSchedule_ShouldRejectChangingTheStopsOfABookedSchedule() {
+        when(seatInventoryService.getAvailableSeats(morning.getId())).thenReturn(95);
+        Schedule update = new Schedule();
+        update.setDepartureStation("Delhi");
+        update.setArrivalStation("Jhansi");
+        update.setDepartureTime(LocalTime.of(6, 0));
+        update.setArrivalTime(LocalTime.of(10, 30));
+        
+        assertThrows(IllegalArgumentException.class, () -> scheduleService.updateSchedule(morning.getId(), update));
+    }
+    
+    @Test
+    void updateSchedule_ShouldRejectRenamingAStationOfABookedSchedule() {
+        when(seatInventoryService.getAvailableSeats(morning.getId())).thenReturn(95);
+        Schedule update = new Schedule();
+        update.setStops(new ArrayList<>(List.of(
+                new ScheduleStop("Delhi", null, LocalTime.of(6, 0)),
+                new ScheduleStop("Mathura", LocalTime.of(7, 55), LocalTime.of(8, 0)),
+                new ScheduleStop("Jhansi", LocalTime.of(10, 30), null))));
+        
+        assertThrows(IllegalArgumentException.class, () -> scheduleService.updateSchedule(morning.getId(), update));
+    }
+    
+    @Test
+    void updateSchedule_ShouldRetimeTheSameStationsOfABookedSchedule() {
+        when(seatInventoryService.getAvailableSeats(morning.getId())).thenReturn(95);
+        Schedule update = new Schedule();
+        update.setStops(new ArrayList<>(List.of(
+                new ScheduleStop("Delhi", null, LocalTime.of(6, 15)),
+                new ScheduleStop("Agra", LocalTime.of(8, 10), LocalTime.of(8, 15)),
+                new ScheduleStop("Jhansi", LocalTime.of(10, 45), null))));
+        
+        ScheduleResponseDTO updated = afterTransaction(() -> scheduleService.updateSchedule(morning.getId(), update));
+        
+        assertEquals(LocalTime.of(6, 15), updated.getDepartureTime());
+    }
+    
+    @Test
+    void updateSchedule_ShouldRejectChangingTheTrain() {
+        Schedule update = new Schedule();
+        update.setTrain(evening.getTrain());
+        
+        assertThrows(IllegalArgumentException.class, () -> scheduleService.updateSchedule(morning.getId(), update));
+    }
+    
+    @Test
+    void getScheduleVersion_ShouldChangeWithTheTimetableAndTheSeats() {
+        String initial = scheduleService.getScheduleVersion(morning.getId());
+        when(seatInventoryService.getAvailableSeats(morning.getId())).thenReturn(99);
+        String booked = scheduleService.getScheduleVersion(morning.getId());
+        assertNotEquals(initial, booked);
+        
+        Schedule update = new Schedule();
+        update.setFare(130.0);
+        update.setStops(new ArrayList<>(morning.getStops()));
+        scheduleService.updateSchedule(morning.getId(), update);
+        entityManager.flush();
+        
+        assertNotEquals(booked, scheduleService.getScheduleVersion(morning.getId()));
+        assertNull(scheduleService.getScheduleVersion(-1L));
+    }
+    
+    @Test
+    void serializingAnEntityAfterTheTransaction_ShouldFail() {
+        // Guards the check above: an entity with a lazy train cannot be written once detached
+        Schedule schedule = scheduleRepository.findById(morning.getId()).orElseThrow();
+        entityManager.clear();
+        
+        assertThrows(JsonMappingException.class, () -> objectMapper.writeValueAsString(schedule));
+    }
+    
+    /**
+     * Run a service call, end its persistence context and serialize the result like the
+     * controller would. Fails if serializing loads anything.
+     */
+    private <T> T afterTransaction(Supplier<T> call) {
+        T result = call.get();
+        entityManager.flush();
+        entityManager.clear();
+        
+        long statements = statistics.getPrepareStatementCount();
+        try {
+            objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            throw new AssertionError("Response references state that is not loaded", e);
+        }
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        return result;
+    }
+    
+    private static List<Long> scheduleIds(PageResponseDTO<ScheduleSummaryDTO> page) {
+        return page.getContent().stream().map(ScheduleSummaryDTO::getScheduleId).toList();
+    }
+    
+    private Schedule schedule(String trainNumber, LocalDate date, LocalTime departure, double fare) {
+        Train train = new Train(null, trainNumber, "Train " + trainNumber, TrainType.SECOND_CLASS, 100, 100, null);
+        entityManager.persist(train);
+        
+        Schedule schedule = new Schedule();
+        schedule.setTrain(train);
+        schedule.setDepartureStation("Delhi");
+        schedule.setArrivalStation("Jhansi");
+        schedule.setDepartureDate(date);
+        schedule.setDepartureTime(departure);
+        schedule.setArrivalTime(departure.plusHours(4).plusMinutes(30));
+        schedule.setFare(fare);
+        schedule.setAvailableSeats(100);
+        schedule.setStops(new ArrayList<>(List.of(
+                new ScheduleStop("Delhi", null, departure),
+                new ScheduleStop("Agra", departure.plusMinutes(115), departure.plusMinutes(120)),
+                new ScheduleStop("Jhansi", departure.plusHours(4).plusMinutes(30), null))));
+        entityManager.persist(schedule);
+        return schedule;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.projection.ScheduleSeatSnapshot;
+import com.skm_labs.train_booking_system.dto.projection.SegmentLoad;
+import com.skm_labs.train_booking_system.exception.SeatNotAvailableException;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the in-memory seat inventory
+ */
+class SeatInventoryServiceImplTest {
+    
+    private ScheduleRepository scheduleRepository;
+    private BookingRepository bookingRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private SeatInventoryServiceImpl seatInventoryService;
+    
+    @BeforeEach
+    void setUp() {
+        scheduleRepository = mock(ScheduleRepository.class);
+        when(scheduleRepository.findSeatSnapshot(1L))
+                .thenReturn(Optional.of(new ScheduleSeatSnapshot(1L, 100, 100, 0L, 2)));
+        when(scheduleRepository.decrementAvailableSeats(anyLong(), anyInt())).thenReturn(1);
+        when(scheduleRepository.incrementAvailableSeats(anyLong(), anyInt())).thenReturn(1);
+        bookingRepository = mock(BookingRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        seatInventoryService = new SeatInventoryServiceImpl(scheduleRepository, bookingRepository, meterRegistry);
+        ReflectionTestUtils.setField(seatInventoryService, "contendedSchedules", 50);
+    }
+    
+    @Test
+    void reserve_ShouldNeverOversellUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                start.await();
+                try {
+                    seatInventoryService.reserve(1L, 1);
+                    succeeded.incrementAndGet();
+                } catch (SeatNotAvailableException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        
+        assertEquals(100, succeeded.get());
+        assertEquals(900, rejected.get());
+        assertEquals(0, seatInventoryService.getAvailableSeats(1L));
+    }
+    
+    @Test
+    void release_ShouldNotExceedTotalSeats() {
+        seatInventoryService.reserve(1L, 2);
+        
+        assertEquals(100, seatInventoryService.release(1L, 2));
+        assertThrows(IllegalArgumentException.class, () -> seatInventoryService.release(1L, 1));
+    }
+    
+    @Test
+    void flush_ShouldPersistNetChangeWithGuardedUpdate() {
+        seatInventoryService.reserve(1L, 3);
+        seatInventoryService.reserve(1L, 2);
+        seatInventoryService.release(1L, 1);
+        
+        assertEquals(1, seatInventoryService.flush());
+        verify(scheduleRepository).decrementAvailableSeats(1L, 4);
+        assertEquals(0, seatInventoryService.flush());
+        assertEquals(1.0, meterRegistry.counter("seat.update.attempts",
+                "operation", "reserve").count());
+    }
+    
+    @Test
+    void flush_ShouldResyncCounterWhenGuardedUpdateIsRejected() {
+        when(scheduleRepository.decrementAvailableSeats(1L, 5)).thenReturn(0);
+        seatInventoryService.reserve(1L, 5);
+        
+        assertEquals(0, seatInventoryService.flush());
+        assertEquals(1.0, meterRegistry.counter("seat.update.rejections",
+                "operation", "reserve").count());
+        assertEquals(1.0, meterRegistry.counter("seat.update.contention", "schedule", "1").count());
+        assertEquals(100, seatInventoryService.getAvailableSeats(1L));
+    }
+    
+    @Test
+    void flush_ShouldKeepInFlightReservationsAcrossResync() {
+        when(scheduleRepository.decrementAvailableSeats(1L, 5)).thenReturn(0);
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> hooks;
+        try {
+            seatInventoryService.reserve(1L, 5);
+            hooks = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        // The bookings do not show the uncommitted reservation, the resynced counter still must
+        assertEquals(0, seatInventoryService.flush());
+        assertEquals(95, seatInventoryService.getAvailableSeats(1L));
+        
+        // Rolling back gives the seats back to the live counter exactly once
+        hooks.forEach(hook -> hook.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(100, seatInventoryService.getAvailableSeats(1L));
+    }
+    
+    @Test
+    void resync_ShouldNeverOversellWhileReservationsRace() throws Exception {
+        // Committed bookings are what a resync reads back, every guarded update is rejected
+        AtomicInteger booked = new AtomicInteger();
+        when(scheduleRepository.findSeatSnapshot(anyLong())).thenAnswer(invocation ->
+                Optional.of(new ScheduleSeatSnapshot(invocation.getArgument(0), 20, 20, (long) booked.get(), 2)));
+        when(scheduleRepository.decrementAvailableSeats(anyLong(), anyInt())).thenReturn(0);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        
+        try {
+            for (long scheduleId = 1; scheduleId <= 50; scheduleId++) {
+                booked.set(0);
+                assertEquals(20, seatInventoryService.getAvailableSeats(scheduleId));
+                assertTrue(raceReservationsAgainstResync(executor, scheduleId, booked) <= 20);
+                
+                // Once nothing is in flight a resync settles on the committed bookings
+                seatInventoryService.flush();
+                assertEquals(20 - booked.get(), seatInventoryService.getAvailableSeats(scheduleId));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void flush_ShouldCountContentionOfTheFirstContendedSchedulesOnTheirOwn() {
+        ReflectionTestUtils.setField(seatInventoryService, "contendedSchedules", 1);
+        when(scheduleRepository.findSeatSnapshot(2L))
+                .thenReturn(Optional.of(new ScheduleSeatSnapshot(2L, 50, 50, 0L, 2)));
+        when(scheduleRepository.decrementAvailableSeats(anyLong(), anyInt())).thenReturn(0);
+        
+        seatInventoryService.reserve(1L, 1);
+        seatInventoryService.reserve(2L, 1);
+        seatInventoryService.flush();
+        seatInventoryService.reserve(1L, 1);
+        seatInventoryService.reserve(2L, 1);
+        seatInventoryService.flush();
+        
+        // Whichever schedule contended first keeps its own series, the other one shares the rest
+        assertEquals(2.0, meterRegistry.counter("seat.update.contention", "schedule", "1").count()
+                + meterRegistry.counter("seat.update.contention", "schedule", "2").count());
+        assertEquals(2.0, meterRegistry.counter("seat.update.contention", "schedule", "other").count());
+    }
+    
+    @Test
+    void counter_ShouldBeRebuiltFromLiveBookings() {
+        when(scheduleRepository.findSeatSnapshot(2L))
+                .thenReturn(Optional.of(new ScheduleSeatSnapshot(2L, 50, 50, 8L, 2)));
+        
+        assertEquals(42, seatInventoryService.getAvailableSeats(2L));
+        assertEquals(1, seatInventoryService.flush());
+        verify(scheduleRepository).decrementAvailableSeats(2L, 8);
+    }
+    
+    @Test
+    void reserve_ShouldOnlyConsumeSeatsOnCoveredSegments() {
+        // Four stops, one booking from stop 0 to 2 and two legacy whole-route seats
+        when(scheduleRepository.findSeatSnapshot(3L))
+                .thenReturn(Optional.of(new ScheduleSeatSnapshot(3L, 10, 10, 7L, 4)));
+        when(bookingRepository.findSegmentLoads(3L))
+                .thenReturn(List.of(new SegmentLoad(3L, 0, 2, 5L)));
+        
+        assertEquals(3, seatInventoryService.getSegmentCount(3L));
+        assertEquals(3, seatInventoryService.getAvailableSeats(3L));
+        assertEquals(8, seatInventoryService.getAvailableSeats(3L, 2, 3));
+        
+        // The last segment can be sold again without touching the first two
+        assertEquals(0, seatInventoryService.reserve(3L, 2, 3, 8));
+        assertEquals(0, seatInventoryService.getAvailableSeats(3L));
+        assertEquals(3, seatInventoryService.getAvailableSeats(3L, 0, 2));
+        assertThrows(SeatNotAvailableException.class, () -> seatInventoryService.reserve(3L, 1, 3, 1));
+        
+        // Freeing the first segments leaves the sold-out last segment as the whole-route limit
+        seatInventoryService.release(3L, 0, 2, 5);
+        assertEquals(0, seatInventoryService.getAvailableSeats(3L));
+        assertEquals(8, seatInventoryService.getAvailableSeats(3L, 0, 2));
+    }
+    
+    /**
+     * Reserve one seat at a time on four threads, committing each one, while a fifth thread keeps resyncing
+     * @return number of successful reservations
+     */
+    private int raceReservationsAgainstResync(ExecutorService executor, Long scheduleId, AtomicInteger booked)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger reservers = new AtomicInteger(4);
+        List<Future<?>> tasks = new ArrayList<>();
+        
+        for (int i = 0; i < 4; i++) {
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 10; j++) {
+                    TransactionSynchronizationManager.initSynchronization();
+                    try {
+                        seatInventoryService.reserve(scheduleId, 1);
+                        succeeded.incrementAndGet();
+                        booked.incrementAndGet();
+                        TransactionSynchronizationManager.getSynchronizations()
+                                .forEach(TransactionSynchronization::afterCommit);
+                    } catch (SeatNotAvailableException e) {
+                        // Sold out
+                    } finally {
+                        TransactionSynchronizationManager.clearSynchronization();
+                    }
+                }
+                reservers.decrementAndGet();
+                return null;
+            }));
+        }
+        tasks.add(executor.submit(() -> {
+            start.await();
+            while (reservers.get() > 0) {
+                seatInventoryService.flush();
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> task : tasks) {
+            task.get(10, TimeUnit.SECONDS);
+        }
+        return succeeded.get();
+    }
+}
\ No newline at end of file
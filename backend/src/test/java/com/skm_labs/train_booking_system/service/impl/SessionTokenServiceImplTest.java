@@ -0,0 +1,91 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.auth.SessionUser;
+import com.skm_labs.train_booking_system.dto.response.SessionTokenDTO;
+import com.skm_labs.train_booking_system.exception.InvalidTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the session token service
+ */
+class SessionTokenServiceImplTest {
+    
+    private SessionTokenServiceImpl sessionTokenService;
+    
+    @BeforeEach
+    void setUp() {
+        sessionTokenService = service("a-session-token-secret-of-32-bytes");
+    }
+    
+    @Test
+    void verify_ShouldReturnTheUserOfAnIssuedToken() {
+        SessionTokenDTO first = sessionTokenService.issue(42L);
+        SessionTokenDTO second = sessionTokenService.issue(42L);
+        
+        assertEquals("Bearer", first.getTokenType());
+        SessionUser sessionUser = sessionTokenService.verify(first.getToken());
+        assertEquals(42L, sessionUser.userId());
+        assertNotEquals(sessionUser.tokenId(), sessionTokenService.verify(second.getToken()).tokenId());
+    }
+    
+    @Test
+    void verify_ShouldRejectTamperedAndForeignTokens() {
+        String token = sessionTokenService.issue(42L).getToken();
+        // Flip a bit of the user ID in the payload
+        char[] tampered = token.toCharArray();
+        tampered[5] = tampered[5] == 'A' ? 'B' : 'A';
+        
+        assertThrows(InvalidTokenException.class, () -> sessionTokenService.verify(new String(tampered)));
+        assertThrows(InvalidTokenException.class, () -> service("another-session-token-secret-of-32-bytes").verify(token));
+        assertThrows(InvalidTokenException.class, () -> service("").verify(token));
+        assertThrows(InvalidTokenException.class, () -> sessionTokenService.verify("not-a-token"));
+        assertThrows(InvalidTokenException.class, () -> sessionTokenService.verify("a!b.c"));
+    }
+    
+    @Test
+    void verify_ShouldRejectExpiredTokens() {
+        ReflectionTestUtils.setField(sessionTokenService, "ttlMinutes", 0L);
+        String token = sessionTokenService.issue(42L).getToken();
+        
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> sessionTokenService.verify(token));
+        assertTrue(e.getMessage().contains("expired"), e.getMessage());
+    }
+    
+    @Test
+    void revoke_ShouldRejectTheTokenUntilItExpires() {
+        String token = sessionTokenService.issue(42L).getToken();
+        String other = sessionTokenService.issue(42L).getToken();
+        sessionTokenService.revoke(sessionTokenService.verify(token));
+        
+        assertThrows(InvalidTokenException.class, () -> sessionTokenService.verify(token));
+        assertEquals(42L, sessionTokenService.verify(other).userId());
+        
+        // Still valid for hours, so the revocation is kept
+        sessionTokenService.pruneRevocations();
+        assertEquals(1, sessionTokenService.getRevocationCount());
+        
+        sessionTokenService.revoke(new SessionUser(7L, 1L, 0L));
+        sessionTokenService.pruneRevocations();
+        assertEquals(1, sessionTokenService.getRevocationCount());
+    }
+    
+    @Test
+    void start_ShouldRefuseShortSecrets() {
+        assertThrows(IllegalStateException.class, () -> service("change-me"));
+    }
+    
+    private static SessionTokenServiceImpl service(String secret) {
+        SessionTokenServiceImpl service = new SessionTokenServiceImpl();
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "ttlMinutes", 720L);
+        service.start();
+        return service;
+    }
+}
\ No newline at end of file
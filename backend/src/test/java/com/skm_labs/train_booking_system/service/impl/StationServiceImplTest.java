@@ -0,0 +1,73 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.dto.projection.ScheduleStation;
+import com.skm_labs.train_booking_system.dto.response.StationSuggestionDTO;
+import com.skm_labs.train_booking_system.entity.Schedule;
+import com.skm_labs.train_booking_system.entity.ScheduleStop;
+import com.skm_labs.train_booking_system.event.ScheduleChangedEvent;
+import com.skm_labs.train_booking_system.repository.ScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the station catalogue
+ */
+class StationServiceImplTest {
+    
+    private ScheduleRepository scheduleRepository;
+    private StationServiceImpl stationService;
+    
+    @BeforeEach
+    void setUp() {
+        scheduleRepository = mock(ScheduleRepository.class);
+        when(scheduleRepository.findScheduleStations()).thenReturn(List.of(
+                new ScheduleStation(1L, "New Delhi"), new ScheduleStation(1L, "Mumbai"),
+                new ScheduleStation(2L, "New Delhi"), new ScheduleStation(2L, "Agra"),
+                new ScheduleStation(3L, "Delhi"), new ScheduleStation(3L, "Agra Cantt")));
+        
+        stationService = new StationServiceImpl(scheduleRepository);
+        stationService.rebuild();
+    }
+    
+    @Test
+    void suggest_ShouldMatchAnyWordRankedBySchedules() {
+        List<StationSuggestionDTO> suggestions = stationService.suggest(" DEL", 10);
+        
+        assertEquals(List.of(new StationSuggestionDTO("New Delhi", 2), new StationSuggestionDTO("Delhi", 1)), suggestions);
+        assertEquals(List.of("Agra"), stationService.suggest("agra", 1).stream()
+                .map(StationSuggestionDTO::getStationName).toList());
+        assertTrue(stationService.suggest("", 10).isEmpty());
+        assertTrue(stationService.suggest("pune", 10).isEmpty());
+    }
+    
+    @Test
+    void onScheduleChanged_ShouldReweightOnlyTheChangedStations() {
+        Schedule schedule = new Schedule();
+        schedule.setId(3L);
+        schedule.setStops(List.of(new ScheduleStop("Delhi", null, LocalTime.of(6, 0)),
+                new ScheduleStop("Delhi Cantt", LocalTime.of(6, 30), LocalTime.of(6, 35)),
+                new ScheduleStop("Mumbai", LocalTime.of(20, 0), null)));
+        when(scheduleRepository.findWithTrainAndStopsById(3L)).thenReturn(Optional.of(schedule));
+        
+        stationService.onScheduleChanged(new ScheduleChangedEvent(3L));
+        
+        assertEquals(List.of(new StationSuggestionDTO("Mumbai", 2)), stationService.suggest("mum", 10));
+        assertEquals(List.of("Agra"), stationService.suggest("agra", 10).stream()
+                .map(StationSuggestionDTO::getStationName).toList());
+        assertEquals(3, stationService.suggest("delhi", 10).size());
+        
+        when(scheduleRepository.findWithTrainAndStopsById(3L)).thenReturn(Optional.empty());
+        stationService.onScheduleChanged(new ScheduleChangedEvent(3L));
+        
+        assertEquals(List.of(new StationSuggestionDTO("New Delhi", 2)), stationService.suggest("d", 10));
+    }
+}
\ No newline at end of file
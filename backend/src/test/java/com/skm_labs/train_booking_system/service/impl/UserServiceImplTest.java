@@ -0,0 +1,57 @@
+package com.skm_labs.train_booking_system.service.impl;
+
+import com.skm_labs.train_booking_system.entity.User;
+import com.skm_labs.train_booking_system.repository.BookingRepository;
+import com.skm_labs.train_booking_system.repository.UserRepository;
+import com.skm_labs.train_booking_system.service.PasswordService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for user authentication
+ */
+class UserServiceImplTest {
+    
+    private UserRepository userRepository;
+    private PasswordService passwordService;
+    private UserServiceImpl userService;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        passwordService = mock(PasswordService.class);
+        when(passwordService.getDummyHash()).thenReturn("dummy");
+        userService = new UserServiceImpl(userRepository, mock(BookingRepository.class), passwordService);
+    }
+    
+    @Test
+    void authenticateUser_ShouldCheckADummyHashAndFailAlikeForUnknownEmails() {
+        User user = new User();
+        user.setPassword("stored");
+        when(userRepository.findByEmail("known@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
+        when(passwordService.matches("wrong", "stored")).thenReturn(CompletableFuture.completedFuture(false));
+        when(passwordService.matches("wrong", "dummy")).thenReturn(CompletableFuture.completedFuture(false));
+        
+        ExecutionException wrongPassword = assertThrows(ExecutionException.class,
+                () -> userService.authenticateUser("known@example.com", "wrong").get());
+        ExecutionException unknownEmail = assertThrows(ExecutionException.class,
+                () -> userService.authenticateUser("unknown@example.com", "wrong").get());
+        
+        verify(passwordService).matches("wrong", "dummy");
+        assertTrue(unknownEmail.getCause() instanceof IllegalArgumentException);
+        assertEquals(wrongPassword.getCause().getClass(), unknownEmail.getCause().getClass());
+        assertEquals(wrongPassword.getCause().getMessage(), unknownEmail.getCause().getMessage());
+    }
+}
\ No newline at end of file
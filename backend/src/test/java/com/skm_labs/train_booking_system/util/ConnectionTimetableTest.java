@@ -0,0 +1,68 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the connection scan timetable
+ */
+class ConnectionTimetableTest {
+    
+    private static final int A = 0;
+    private static final int B = 1;
+    private static final int C = 2;
+    
+    /**
+     * A slow direct trip from A to C and a faster pair of trips changing at B
+     */
+    private ConnectionTimetable timetable() {
+        ConnectionTimetable.Builder builder = ConnectionTimetable.builder(3);
+        builder.addTrip(new int[] {A, B, C}, new int[] {0, 600, 840}, new int[] {480, 610, 0});
+        builder.addTrip(new int[] {A, B}, new int[] {0, 540}, new int[] {480, 0});
+        builder.addTrip(new int[] {B, C}, new int[] {0, 600}, new int[] {560, 0});
+        return builder.build();
+    }
+    
+    @Test
+    void scan_ShouldReturnTheDirectAndTheFasterTransferJourney() {
+        List<ConnectionTimetable.Journey> journeys = timetable().scan(A, C, 0, 2880, 2, 15, (trip, stop) -> true);
+        
+        assertEquals(2, journeys.size());
+        ConnectionTimetable.Journey direct = journeys.get(0);
+        assertEquals(0, direct.transfers());
+        assertEquals(840, direct.arrivalTime());
+        assertEquals(new ConnectionTimetable.Leg(0, 0, 2, A, C, 480, 840), direct.legs().get(0));
+        
+        ConnectionTimetable.Journey transfer = journeys.get(1);
+        assertEquals(1, transfer.transfers());
+        assertEquals(480, transfer.departureTime());
+        assertEquals(600, transfer.arrivalTime());
+        assertEquals(List.of(1, 2), transfer.legs().stream().map(ConnectionTimetable.Leg::trip).toList());
+    }
+    
+    @Test
+    void scan_ShouldRespectTheMinimumTransferTimeAndDepartureTime() {
+        // Twenty minutes at B are not enough for a thirty minute change
+        List<ConnectionTimetable.Journey> journeys = timetable().scan(A, C, 0, 2880, 2, 30, (trip, stop) -> true);
+        assertEquals(1, journeys.size());
+        assertEquals(0, journeys.get(0).transfers());
+        
+        assertEquals(0, timetable().scan(A, C, 481, 2880, 2, 15, (trip, stop) -> true).size());
+    }
+    
+    @Test
+    void scan_ShouldSkipSegmentsWithoutSeats() {
+        // The direct trip is full between B and C, the connecting trip has seats
+        List<ConnectionTimetable.Journey> journeys = timetable().scan(A, C, 0, 2880, 2, 15,
+                (trip, stop) -> !(trip == 0 && stop == 1));
+        
+        assertEquals(1, journeys.size());
+        assertEquals(1, journeys.get(0).transfers());
+        
+        // With the connecting trip full as well, only the direct trip to B is left
+        assertEquals(0, timetable().scan(A, C, 0, 2880, 2, 15, (trip, stop) -> trip == 0 && stop == 0).size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the hashed timing wheel
+ */
+class HashedTimingWheelTest {
+    
+    @Test
+    void advance_ShouldExpireItemsOnlyAfterTheirDeadline() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 420);
+        
+        assertTrue(wheel.advance(250).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(300));
+        assertTrue(wheel.advance(400).isEmpty());
+        assertEquals(List.of("b"), wheel.advance(500));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void advance_ShouldCountRoundsForDeadlinesBeyondOneTurn() {
+        // Eight buckets of 100 ms cover 800 ms per turn
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule("near", 150);
+        wheel.schedule("far", 2150);
+        
+        assertEquals(List.of("near"), wheel.advance(200));
+        assertTrue(wheel.advance(2100).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(2200));
+    }
+    
+    @Test
+    void cancel_ShouldPreventExpiry() {
+        HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(10, 4, 0);
+        HashedTimingWheel.Timeout<Integer> timeout = wheel.schedule(1, 25);
+        wheel.schedule(2, 25);
+        wheel.advance(10);
+        
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(List.of(2), wheel.advance(100));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void schedule_ShouldExpireOverdueItemsOnNextTick() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.advance(1000);
+        wheel.schedule("late", 500);
+        
+        assertEquals(List.of("late"), wheel.advance(1100));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the primitive long queue
+ */
+class LongQueueTest {
+    
+    @Test
+    void add_ShouldKeepFifoOrderAcrossWrapAndGrowth() {
+        LongQueue queue = new LongQueue(4);
+        queue.add(1);
+        queue.add(2);
+        queue.add(3);
+        assertEquals(1, queue.poll());
+        assertEquals(2, queue.poll());
+        // Wraps around the end of the buffer, then grows
+        for (long i = 4; i <= 10; i++) {
+            queue.add(i);
+        }
+        
+        assertArrayEquals(new long[]{3, 4, 5, 6, 7, 8, 9, 10}, queue.peek(100));
+        assertEquals(5, queue.indexOf(8));
+    }
+    
+    @Test
+    void remove_ShouldCloseTheGapOnEitherSide() {
+        LongQueue queue = new LongQueue(4);
+        queue.add(0);
+        queue.poll();
+        for (long i = 1; i <= 6; i++) {
+            queue.add(i);
+        }
+        
+        assertTrue(queue.remove(2));
+        assertTrue(queue.remove(5));
+        assertFalse(queue.remove(42));
+        
+        assertArrayEquals(new long[]{1, 3, 4, 6}, queue.peek(10));
+        assertEquals(1, queue.poll());
+        assertEquals(3, queue.size());
+    }
+}
@@ -0,0 +1,52 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the password hasher
+ */
+class PasswordHasherTest {
+    
+    private final PasswordHasher hasher = new PasswordHasher(1000);
+    
+    @Test
+    void hash_ShouldMatchOnlyTheSamePassword() {
+        String stored = hasher.hash("password123");
+        
+        assertTrue(stored.startsWith("pbkdf2-sha256$1000$"), stored);
+        assertTrue(hasher.matches("password123", stored));
+        assertFalse(hasher.matches("password124", stored));
+        assertFalse(hasher.matches(null, stored));
+    }
+    
+    @Test
+    void hash_ShouldSaltEveryHash() {
+        assertNotEquals(hasher.hash("password123"), hasher.hash("password123"));
+    }
+    
+    @Test
+    void matches_ShouldAcceptPlainTextStoredBeforeHashing() {
+        assertTrue(hasher.matches("password123", "password123"));
+        assertFalse(hasher.matches("password12", "password123"));
+        assertTrue(hasher.needsRehash("password123"));
+    }
+    
+    @Test
+    void needsRehash_ShouldFlagHashesWithFewerIterations() {
+        String weaker = new PasswordHasher(500).hash("password123");
+        
+        assertTrue(hasher.matches("password123", weaker));
+        assertTrue(hasher.needsRehash(weaker));
+        assertFalse(hasher.needsRehash(hasher.hash("password123")));
+    }
+    
+    @Test
+    void constructor_ShouldRejectNonPositiveIterations() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the PNR generator
+ */
+class PnrGeneratorTest {
+    
+    @Test
+    void next_ShouldNotRepeatBeyondThePerSecondSequence() {
+        // 8 characters leave 8 sequence bits, so this borrows many seconds ahead once
+        // the clock has passed the seconds skipped on start
+        AtomicLong clock = new AtomicLong(2_000_000_000L);
+        PnrGenerator generator = new PnrGenerator("", 8, 0, 3, 2, "secret", 1000, clock::get);
+        clock.addAndGet(1000);
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            assertTrue(seen.add(generator.next()));
+        }
+    }
+    
+    @Test
+    void next_ShouldFollowTheConfiguredFormat() {
+        PnrGenerator generator = new PnrGenerator("PNR", 10, 5, 0, 6, "secret", 2);
+        String pnr = generator.next();
+        
+        assertEquals(14, pnr.length());
+        assertTrue(pnr.matches("PNR[0-9A-HJKMNP-TV-Z]{5}-[0-9A-HJKMNP-TV-Z]{5}"), pnr);
+    }
+    
+    @Test
+    void permute_ShouldDependOnTheSecret() {
+        PnrGenerator first = new PnrGenerator("", 10, 0, 0, 6, "one", 2);
+        PnrGenerator second = new PnrGenerator("", 10, 0, 0, 6, "two", 2);
+        
+        long value = first.nextValue();
+        assertNotEquals(first.permute(value), second.permute(value));
+        // Consecutive inputs land far apart
+        assertTrue(Math.abs(first.permute(value) - first.permute(value + 1)) > 1 << 20);
+    }
+    
+    @Test
+    void constructor_ShouldRejectLengthsWithoutRoomForASequence() {
+        assertThrows(IllegalArgumentException.class, () -> new PnrGenerator("", 7, 0, 0, 6, "secret", 2));
+        assertThrows(IllegalArgumentException.class, () -> new PnrGenerator("", 10, 0, 64, 6, "secret", 2));
+        assertThrows(IllegalArgumentException.class, () -> new PnrGenerator("", 10, 0, 0, 6, "secret", 0));
+    }
+    
+    @Test
+    void nextValue_ShouldBorrowBoundedAndStartPastWhatARestartedInstanceBorrowed() throws Exception {
+        AtomicLong clock = new AtomicLong(2_000_000_000L);
+        PnrGenerator before = new PnrGenerator("", 8, 0, 3, 2, "secret", 2, clock::get);
+        long borrowed = 0;
+        for (int i = 0; i < 256; i++) {
+            borrowed = before.nextValue();
+        }
+        
+        // The burst used up the second two ahead of the clock, borrowing further waits for the clock
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> waiting = executor.submit(before::nextValue);
+            assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+            clock.incrementAndGet();
+            borrowed = waiting.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        // A restart in a later second starts past everything borrowed before it
+        clock.incrementAndGet();
+        PnrGenerator restarted = new PnrGenerator("", 8, 0, 3, 2, "secret", 2, clock::get);
+        assertTrue(restarted.nextValue() > borrowed);
+    }
+}
\ No newline at end of file
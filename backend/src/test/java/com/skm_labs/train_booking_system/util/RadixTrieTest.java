@@ -0,0 +1,74 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the weighted radix trie
+ */
+class RadixTrieTest {
+    
+    private RadixTrie<String> trie() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.put("mumbai", "Mumbai", 40);
+        trie.put("mumbai central", "Mumbai Central", 25);
+        trie.put("mysore", "Mysore", 10);
+        trie.put("madurai", "Madurai", 15);
+        trie.put("mangalore", "Mangalore", 5);
+        return trie;
+    }
+    
+    @Test
+    void complete_ShouldReturnHighestWeightsFirst() {
+        assertEquals(List.of("Mumbai", "Mumbai Central", "Madurai"), trie().complete("m", 3));
+    }
+    
+    @Test
+    void complete_ShouldMatchPrefixEndingInsideAnEdge() {
+        RadixTrie<String> trie = trie();
+        
+        assertEquals(List.of("Mumbai", "Mumbai Central"), trie.complete("mum", 10));
+        assertEquals(List.of("Mumbai Central"), trie.complete("mumbai c", 10));
+        assertEquals(List.of("Madurai", "Mangalore"), trie.complete("ma", 10));
+        assertTrue(trie.complete("mx", 10).isEmpty());
+    }
+    
+    @Test
+    void complete_ShouldReturnEachValueOnce() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.put("new delhi", "New Delhi", 30);
+        trie.put("delhi\u0000new delhi", "New Delhi", 30);
+        trie.put("delhi", "Delhi", 20);
+        
+        assertEquals(List.of("New Delhi", "Delhi"), trie.complete("del", 10));
+        assertEquals(3, trie.size());
+    }
+    
+    @Test
+    void put_ShouldReRankAnExistingKey() {
+        RadixTrie<String> trie = trie();
+        
+        trie.put("mangalore", "Mangalore", 50);
+        
+        assertEquals(3, trie.complete("m", 10).indexOf("Madurai"));
+        assertEquals("Mangalore", trie.complete("m", 1).get(0));
+        assertEquals(5, trie.size());
+    }
+    
+    @Test
+    void remove_ShouldDropTheKeyButKeepItsDescendants() {
+        RadixTrie<String> trie = trie();
+        
+        assertTrue(trie.remove("mumbai"));
+        assertFalse(trie.remove("mumbai"));
+        assertFalse(trie.remove("mum"));
+        
+        assertEquals(List.of("Mumbai Central"), trie.complete("mum", 10));
+        assertEquals(4, trie.size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the seat bitmap
+ */
+class SeatBitmapTest {
+    
+    @Test
+    void allocate_ShouldSeatGroupTogether() {
+        SeatBitmap seatMap = new SeatBitmap(10);
+        assertTrue(seatMap.occupy(new int[]{2, 5}));
+        
+        // Seats 3-4 are too short for a group of three, 6-8 is the first fit
+        assertArrayEquals(new int[]{6, 7, 8}, seatMap.allocate(3));
+        assertArrayEquals(new int[]{3, 4}, seatMap.allocate(2));
+        assertEquals(3, seatMap.getFreeSeats());
+    }
+    
+    @Test
+    void allocate_ShouldFindRunsAcrossWordBoundaries() {
+        SeatBitmap seatMap = new SeatBitmap(200);
+        int[] blocked = new int[60];
+        for (int i = 0; i < 60; i++) {
+            blocked[i] = i + 1;
+        }
+        seatMap.occupy(blocked);
+        seatMap.occupy(new int[]{70});
+        
+        // Seats 61-69 are only nine long, the first run of ten starts at 71 and crosses into the second word
+        int[] seats = seatMap.allocate(10);
+        assertEquals(71, seats[0]);
+        assertEquals(80, seats[9]);
+        
+        // Long runs spanning several words
+        int[] longRun = seatMap.allocate(100);
+        assertEquals(81, longRun[0]);
+        assertEquals(180, longRun[99]);
+    }
+    
+    @Test
+    void allocate_ShouldFallBackToScatteredSeats() {
+        SeatBitmap seatMap = new SeatBitmap(6);
+        seatMap.occupy(new int[]{2, 4, 6});
+        
+        assertArrayEquals(new int[]{1, 3, 5}, seatMap.allocate(3));
+        assertNull(seatMap.allocate(1));
+    }
+    
+    @Test
+    void release_ShouldFreeSeatsForReuse() {
+        SeatBitmap seatMap = new SeatBitmap(65);
+        int[] seats = seatMap.allocate(65);
+        assertEquals(0, seatMap.getFreeSeats());
+        
+        seatMap.release(new int[]{64, 65});
+        assertTrue(seatMap.isFree(65));
+        assertFalse(seatMap.isFree(63));
+        assertArrayEquals(new int[]{64, 65}, seatMap.allocate(2));
+        assertEquals(65, seats.length);
+    }
+    
+    @Test
+    void allocate_ShouldReuseSeatsOnDisjointSegments() {
+        SeatBitmap seatMap = new SeatBitmap(4, 3);
+        assertArrayEquals(new int[]{1, 2, 3, 4}, seatMap.allocate(0, 1, 4));
+        
+        // The same seats are free again after the first segment
+        assertArrayEquals(new int[]{1, 2}, seatMap.allocate(1, 3, 2));
+        assertEquals(0, seatMap.getFreeSeats());
+        assertEquals(2, seatMap.getFreeSeats(1, 3));
+        assertArrayEquals(new int[]{3, 4}, seatMap.allocate(2, 3, 2));
+        assertNull(seatMap.allocate(1, 2, 3));
+    }
+}
\ No newline at end of file
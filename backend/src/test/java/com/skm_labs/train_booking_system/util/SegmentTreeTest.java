@@ -0,0 +1,67 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the segment tree
+ */
+class SegmentTreeTest {
+    
+    @Test
+    void add_ShouldOnlyAffectSegmentsInRange() {
+        SegmentTree tree = new SegmentTree(5, 10);
+        tree.add(1, 3, -4);
+        tree.add(2, 5, -3);
+        
+        assertEquals(10, tree.min(0, 1));
+        assertEquals(6, tree.min(1, 2));
+        assertEquals(3, tree.min(2, 3));
+        assertEquals(7, tree.min(3, 5));
+        assertEquals(3, tree.min(0, 5));
+        assertEquals(10, tree.max(0, 5));
+        assertEquals(7, tree.max(2, 5));
+    }
+    
+    @Test
+    void add_ShouldMatchBruteForce() {
+        int size = 13;
+        SegmentTree tree = new SegmentTree(size, 50);
+        int[] values = new int[size];
+        Arrays.fill(values, 50);
+        Random random = new Random(42);
+        
+        for (int round = 0; round < 500; round++) {
+            int from = random.nextInt(size);
+            int to = from + 1 + random.nextInt(size - from);
+            int delta = random.nextInt(11) - 5;
+            tree.add(from, to, delta);
+            for (int i = from; i < to; i++) {
+                values[i] += delta;
+            }
+            
+            int queryFrom = random.nextInt(size);
+            int queryTo = queryFrom + 1 + random.nextInt(size - queryFrom);
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int i = queryFrom; i < queryTo; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            assertEquals(min, tree.min(queryFrom, queryTo));
+            assertEquals(max, tree.max(queryFrom, queryTo));
+        }
+    }
+    
+    @Test
+    void min_ShouldRejectInvalidRanges() {
+        SegmentTree tree = new SegmentTree(3, 1);
+        assertThrows(IllegalArgumentException.class, () -> tree.min(2, 2));
+        assertThrows(IllegalArgumentException.class, () -> tree.min(0, 4));
+    }
+}
\ No newline at end of file
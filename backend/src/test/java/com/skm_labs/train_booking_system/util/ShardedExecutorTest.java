@@ -0,0 +1,127 @@
+package com.skm_labs.train_booking_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the sharded executor
+ */
+class ShardedExecutorTest {
+    
+    @Test
+    void submit_ShouldRunTasksForTheSameKeyInOrderOnOneThread() throws Exception {
+        ShardedExecutor executor = new ShardedExecutor("test", 4, 1000);
+        List<Integer> order = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        
+        List<CompletableFuture<Integer>> replies = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            replies.add(executor.submit(42L, () -> {
+                // Only ever touched by the shard thread, no locking needed
+                order.add(value);
+                threads.add(Thread.currentThread().getName());
+                return value;
+            }));
+        }
+        
+        for (int i = 0; i < replies.size(); i++) {
+            assertEquals(i, replies.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(500, order.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, order.get(i));
+        }
+        assertEquals(1, threads.stream().distinct().count());
+        assertTrue(executor.shutdown(1000));
+    }
+    
+    @Test
+    void submit_ShouldRejectWhenTheMailboxIsFull() throws Exception {
+        ShardedExecutor executor = new ShardedExecutor("test", 1, 2);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        
+        executor.submit(1L, () -> {
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        started.await();
+        executor.submit(1L, () -> null);
+        executor.submit(1L, () -> null);
+        
+        assertEquals(2, executor.getQueueDepth(0));
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(1L, () -> null));
+        
+        blocked.countDown();
+        assertTrue(executor.shutdown(1000));
+    }
+    
+    @Test
+    void submit_ShouldRunNestedTasksForTheOwnShardInline() throws Exception {
+        ShardedExecutor executor = new ShardedExecutor("test", 2, 1);
+        
+        CompletableFuture<Integer> reply = executor.submit(7L,
+                () -> executor.submit(7L, () -> 1).join() + 1);
+        
+        assertEquals(2, reply.get(5, TimeUnit.SECONDS));
+        assertTrue(executor.shutdown(1000));
+    }
+    
+    @Test
+    void submit_ShouldCompleteExceptionallyWhenTheTaskFails() {
+        ShardedExecutor executor = new ShardedExecutor("test", 2, 10);
+        
+        CompletableFuture<Object> reply = executor.submit(3L, () -> {
+            throw new IllegalArgumentException("boom");
+        });
+        
+        Exception e = assertThrows(Exception.class, () -> reply.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+    
+    @Test
+    void cancel_ShouldWithdrawOnlyTasksThatHaveNotStarted() throws Exception {
+        ShardedExecutor executor = new ShardedExecutor("test", 1, 10);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        
+        CompletableFuture<Integer> running = executor.submit(1L, () -> {
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return runs.incrementAndGet();
+        });
+        CompletableFuture<Integer> queued = executor.submit(1L, runs::incrementAndGet);
+        started.await();
+        
+        assertTrue(queued.cancel(false));
+        assertFalse(running.cancel(false));
+        blocked.countDown();
+        
+        assertEquals(1, running.get(5, TimeUnit.SECONDS));
+        assertTrue(executor.shutdown(1000));
+        assertEquals(1, runs.get());
+    }
+}
\ No newline at end of file